@@ -0,0 +1,119 @@
+package com.yby6.mcp.server.tencent.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 基准测试语料
+ * <p>
+ * 语料文件位于 src/test/resources/corpus，更大的文档由语料按顺序重复拼接到目标大小，
+ * 每段之间插入编号段落，避免所有块内容完全相同。
+ * <p>
+ * 基准统一通过{@link #document(Kind, Size)}按内容类型和大小取文档，拼接结果是确定的，
+ * 不同提交之间的数据可以直接对比。
+ *
+ * @author yangbuyiya
+ * Create By 2025/05/25
+ */
+public final class BenchmarkCorpus {
+
+    /**
+     * 文档内容类型
+     */
+    public enum Kind {
+        /**
+         * 代码块为主
+         */
+        CODE("code-heavy.md"),
+        /**
+         * 图片为主
+         */
+        IMAGE("image-heavy.md"),
+        /**
+         * 链接为主
+         */
+        LINK("link-heavy.md");
+
+        private final String file;
+
+        Kind(String file) {
+            this.file = file;
+        }
+    }
+
+    /**
+     * 文档大小
+     */
+    public enum Size {
+        /**
+         * 单个语料文件，约1KB
+         */
+        SMALL(0),
+        /**
+         * 约32KB，常见长文
+         */
+        MEDIUM(32 * 1024),
+        /**
+         * 约1MB
+         */
+        HUGE(1024 * 1024);
+
+        private final int targetChars;
+
+        Size(int targetChars) {
+            this.targetChars = targetChars;
+        }
+    }
+
+    private BenchmarkCorpus() {
+    }
+
+    /**
+     * 按内容类型和大小获取文档
+     *
+     * @param kind 内容类型
+     * @param size 文档大小
+     * @return Markdown文档
+     */
+    public static String document(Kind kind, Size size) {
+        return size == Size.SMALL ? read(kind.file) : repeat(size.targetChars, kind.file);
+    }
+
+    /**
+     * 读取单个语料文件
+     *
+     * @param name 语料文件名
+     * @return 文件内容
+     */
+    public static String read(String name) {
+        try (InputStream in = BenchmarkCorpus.class.getResourceAsStream("/corpus/" + name)) {
+            if (in == null) {
+                throw new IllegalArgumentException("语料不存在: " + name);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 将若干语料重复拼接到指定大小
+     *
+     * @param targetChars 目标字符数
+     * @param names       参与拼接的语料文件名
+     * @return 拼接后的文档
+     */
+    public static String repeat(int targetChars, String... names) {
+        String[] parts = new String[names.length];
+        for (int i = 0; i < names.length; i++) {
+            parts[i] = read(names[i]);
+        }
+        StringBuilder sb = new StringBuilder(targetChars + 4096);
+        for (int i = 0; sb.length() < targetChars; i++) {
+            sb.append(parts[i % parts.length]).append("\n\n第 ").append(i).append(" 部分\n\n");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,107 @@
+package com.yby6.mcp.server.tencent.mcpService.tools.server;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yby6.mcp.server.tencent.api.StreamingArticleRequestBody;
+import com.yby6.mcp.server.tencent.api.dto.AddArticleRequest;
+import com.yby6.mcp.server.tencent.benchmark.BenchmarkCorpus;
+import com.yby6.mcp.server.tencent.mcpService.funcModel.ArticleFunctionRequest;
+import com.yby6.mcp.server.tencent.mcpService.utils.ConvertOptions;
+import com.yby6.mcp.server.tencent.mcpService.utils.MarkdownConvertCache;
+import okio.BufferedSink;
+import okio.Okio;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 发布请求构建基准
+ * <p>
+ * 测量发文时网络请求之前的全部本地开销：
+ * 由{@link TencentArticleToolService}构建{@link AddArticleRequest}（含Markdown转换），
+ * 以及Retrofit的JacksonConverterFactory对最终请求体的序列化。
+ * streaming=true时正文不预先转换，buildAndSerialize与实际发送一致，改为写出{@link StreamingArticleRequestBody}。
+ * <p>
+ * cached=false时每次调用前清空转换结果缓存，测量首次发布；cached=true测量相同正文重复发布。
+ * serializeBody只序列化预先转换好的请求体，不受cached与streaming影响。
+ * <p>
+ * 运行：mvn -Pjmh test-compile exec:exec -Djmh.args="PublishPipelineBenchmark -prof gc"
+ *
+ * @author yangbuyiya
+ * Create By 2025/05/25
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PublishPipelineBenchmark {
+
+    @Param({"CODE", "IMAGE", "LINK"})
+    public BenchmarkCorpus.Kind kind;
+
+    @Param({"SMALL", "MEDIUM", "HUGE"})
+    public BenchmarkCorpus.Size size;
+
+    @Param({"false", "true"})
+    public boolean cached;
+
+    @Param({"false", "true"})
+    public boolean streaming;
+
+    /**
+     * 与RetrofitConfig中JacksonConverterFactory.create()使用的配置一致
+     */
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ConvertOptions options = new ConvertOptions();
+
+    private ArticleFunctionRequest request;
+    private AddArticleRequest body;
+
+    @Setup
+    public void setup() {
+        options.setStreamingThreshold(streaming ? 0 : Integer.MAX_VALUE);
+        request = new ArticleFunctionRequest();
+        request.setTitle("基准测试");
+        request.setMarkdowncontent(BenchmarkCorpus.document(kind, size));
+        request.setUserSummary("基准测试摘要");
+        body = TencentArticleToolService.getAddArticleRequest(request, options).renderContent(options);
+    }
+
+    @Setup(Level.Invocation)
+    public void resetCache() {
+        if (!cached) {
+            MarkdownConvertCache.clear();
+        }
+    }
+
+    @Benchmark
+    public AddArticleRequest buildRequest() {
+        return TencentArticleToolService.getAddArticleRequest(request, options);
+    }
+
+    @Benchmark
+    public byte[] serializeBody() throws IOException {
+        return objectMapper.writeValueAsBytes(body);
+    }
+
+    @Benchmark
+    public void buildAndSerialize() throws IOException {
+        AddArticleRequest built = TencentArticleToolService.getAddArticleRequest(request, options);
+        if (built.getContent() == null) {
+            write(new StreamingArticleRequestBody(built, objectMapper, options));
+        } else {
+            objectMapper.writeValueAsBytes(built);
+        }
+    }
+
+    /**
+     * 写入丢弃所有数据的sink，模拟写入网络连接
+     */
+    private static void write(StreamingArticleRequestBody requestBody) throws IOException {
+        try (BufferedSink sink = Okio.buffer(Okio.blackhole())) {
+            requestBody.writeTo(sink);
+        }
+    }
+}
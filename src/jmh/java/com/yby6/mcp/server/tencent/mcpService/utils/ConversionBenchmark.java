@@ -0,0 +1,60 @@
+package com.yby6.mcp.server.tencent.mcpService.utils;
+
+import com.yby6.mcp.server.tencent.benchmark.BenchmarkCorpus;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Markdown转换基准
+ * <p>
+ * 覆盖转换前的预处理（formatMarkdown）和完整转换两步，按内容类型与文档大小组合参数。
+ * 预处理同时测量原有正则链作为对照。
+ * <p>
+ * 运行：mvn -Pjmh test-compile exec:exec -Djmh.args="ConversionBenchmark -prof gc"
+ *
+ * @author yangbuyiya
+ * Create By 2025/05/25
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConversionBenchmark {
+
+    @Param({"CODE", "IMAGE", "LINK"})
+    public BenchmarkCorpus.Kind kind;
+
+    @Param({"SMALL", "MEDIUM", "HUGE"})
+    public BenchmarkCorpus.Size size;
+
+    @Param({"STREAMING", "TREE"})
+    public MarkdownToProseMirrorConverter.ConvertMode mode;
+
+    private String markdown;
+    private ConvertOptions options;
+
+    @Setup
+    public void setup() {
+        markdown = BenchmarkCorpus.document(kind, size);
+        options = new ConvertOptions();
+        options.setMode(mode);
+    }
+
+    @Benchmark
+    public String convert() {
+        return MarkdownToProseMirrorConverter.convert(markdown, options);
+    }
+
+    @Benchmark
+    public String formatMarkdown() {
+        return MarkdownNormalizer.normalize(markdown);
+    }
+
+    @Benchmark
+    public String formatMarkdownByRegex() {
+        return MarkdownNormalizer.normalizeByRegex(markdown);
+    }
+}
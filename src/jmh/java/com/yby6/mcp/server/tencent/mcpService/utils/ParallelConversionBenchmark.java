@@ -0,0 +1,54 @@
+package com.yby6.mcp.server.tencent.mcpService.utils;
+
+import com.yby6.mcp.server.tencent.benchmark.BenchmarkCorpus;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 并行转换基准
+ * <p>
+ * 对比不同文档大小下顺序转换与ForkJoin并行转换的耗时，用于确定
+ * tencent.api.converter.parallel-threshold 的取值。
+ * <p>
+ * 运行：mvn -Pjmh test-compile exec:exec -Djmh.args="ParallelConversion -prof gc"
+ *
+ * @author yangbuyiya
+ * Create By 2025/05/25
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParallelConversionBenchmark {
+
+    /**
+     * 文档大小（KB字符）
+     */
+    @Param({"16", "64", "128", "256", "512", "1024"})
+    public int sizeKb;
+
+    /**
+     * 是否并行
+     */
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    private String markdown;
+    private ConvertOptions options;
+
+    @Setup
+    public void setup() {
+        markdown = BenchmarkCorpus.repeat(sizeKb * 1024, "code-heavy.md", "article-basic.md", "link-heavy.md");
+        options = new ConvertOptions();
+        options.setParallel(parallel);
+        options.setParallelThreshold(0);
+    }
+
+    @Benchmark
+    public String convert() {
+        return MarkdownToProseMirrorConverter.convert(markdown, options);
+    }
+}
@@ -0,0 +1,55 @@
+package com.yby6.mcp.server.tencent.mcpService.utils;
+
+import com.yby6.mcp.server.tencent.benchmark.BenchmarkCorpus;
+import org.commonmark.node.Node;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Markdown解析引擎基准
+ * <p>
+ * 只测量解析阶段（flexmark包含AST适配），输入为预处理后的语料，用于在commonmark与flexmark之间取舍。
+ * 配合-prof gc比较每次解析的分配量。
+ * <p>
+ * 运行：mvn -Pjmh test-compile exec:exec -Djmh.args="ParserBenchmark -prof gc"
+ *
+ * @author yangbuyiya
+ * Create By 2025/05/25
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParserBenchmark {
+
+    @Param({"COMMONMARK", "FLEXMARK"})
+    public ParserEngine engine;
+
+    @Param({"CODE", "IMAGE", "LINK"})
+    public BenchmarkCorpus.Kind kind;
+
+    @Param({"SMALL", "MEDIUM", "HUGE"})
+    public BenchmarkCorpus.Size size;
+
+    private String markdown;
+
+    @Setup
+    public void setup() {
+        markdown = MarkdownNormalizer.normalize(BenchmarkCorpus.document(kind, size));
+    }
+
+    @Benchmark
+    public Node parse() {
+        return engine.parse(markdown);
+    }
+
+    @Benchmark
+    public Node parseReader() throws IOException {
+        return engine.parse(new StringReader(markdown));
+    }
+}
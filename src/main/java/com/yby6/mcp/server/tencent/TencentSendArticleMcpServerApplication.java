@@ -30,18 +30,41 @@ public class TencentSendArticleMcpServerApplication implements CommandLineRunner
      * 应用程序启动时的初始化操作
      * <p>
      * 该方法在应用启动时执行，主要用于：
-     * 1. 检查腾讯云Cookie配置
-     * 2. 验证认证信息的有效性
+     * 1. 检查腾讯云Cookie配置，日志中只输出脱敏后的Cookie
+     * 2. 验证认证信息的有效性（登录状态由SessionHealthChecker在后台检查）
      *
      * @param args 命令行参数
      * @throws Exception 如果初始化过程中发生错误
      */
     @Override
     public void run(String... args) throws Exception {
-        log.info("检查是否成功配置 cookie ... {}", tencentApiProperties.getCookie());
+        if (!tencentApiProperties.getAccounts().isEmpty()) {
+            for (TencentApiProperties.Account account : tencentApiProperties.getAccounts()) {
+                log.info("检查是否成功配置 cookie ... 账号 {}: {}", account.getName(),
+                        account.getCookieFile() != null ? "文件 " + account.getCookieFile() : mask(account.getCookie()));
+            }
+            return;
+        }
         String cookie = tencentApiProperties.getCookie();
+        log.info("检查是否成功配置 cookie ... {}", mask(cookie));
         if (cookie == null || cookie.isEmpty()) {
             log.error("没有配置 cookie 请检查配置文件");
         }
     }
+
+    /**
+     * 隐藏Cookie内容，只保留首尾各4个字符与长度，避免凭据写入日志
+     *
+     * @param cookie Cookie
+     * @return 脱敏后的文本
+     */
+    static String mask(String cookie) {
+        if (cookie == null || cookie.isEmpty()) {
+            return "<未配置>";
+        }
+        if (cookie.length() <= 8) {
+            return "****（" + cookie.length() + " 个字符）";
+        }
+        return cookie.substring(0, 4) + "****" + cookie.substring(cookie.length() - 4) + "（" + cookie.length() + " 个字符）";
+    }
 }
@@ -0,0 +1,416 @@
+package com.yby6.mcp.server.tencent.api;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * 多账号池
+ * <p>
+ * 管理多个腾讯云开发者社区账号，每次发布通过{@link #acquire()}选择一个账号：
+ * <ul>
+ *     <li>LEAST_IN_FLIGHT：按权重折算后进行中请求最少的账号，相同时轮流选择</li>
+ *     <li>ROUND_ROBIN：平滑加权轮询</li>
+ * </ul>
+ * 认证失败或会话检查（{@link SessionHealthChecker}）失效的账号在冷却期内不参与选择，冷却结束后重新尝试；
+ * 没有可用账号时立即失败。
+ * <p>
+ * Cookie可以在运行时通过{@link #rotate(String, String)}原子替换，配置了Cookie文件的账号在文件修改后自动重新加载，
+ * 替换后账号立即恢复可用。
+ * <p>
+ * 指标（Micrometer，按account标签区分）：
+ * <ul>
+ *     <li>tencent.api.account.requests{outcome}：成功（success）、认证失败（auth_failure）与其他失败（failure）的请求数</li>
+ *     <li>tencent.api.account.in_flight：进行中的请求数</li>
+ *     <li>tencent.api.account.healthy：账号是否可用（1/0）</li>
+ * </ul>
+ *
+ * @author yby6
+ * @since 2025/05/25
+ */
+@Slf4j
+public class AccountPool {
+
+    /**
+     * Cookie文件的检查间隔
+     */
+    private static final long COOKIE_FILE_CHECK_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    /**
+     * 账号选择策略
+     */
+    public enum Selection {
+        /**
+         * 按权重折算后进行中请求最少
+         */
+        LEAST_IN_FLIGHT,
+        /**
+         * 平滑加权轮询
+         */
+        ROUND_ROBIN
+    }
+
+    /**
+     * 请求结果
+     */
+    public enum Outcome {
+        SUCCESS,
+        AUTH_FAILURE,
+        FAILURE
+    }
+
+    /**
+     * 账号配置
+     *
+     * @param name       账号名称，用于日志、指标与限流
+     * @param cookie     认证Cookie
+     * @param cookieFile Cookie文件，配置后以文件内容为准，可以为null
+     * @param weight     权重
+     */
+    public record AccountSpec(String name, String cookie, Path cookieFile, int weight) {
+    }
+
+    private final Map<String, Account> accounts = new LinkedHashMap<>();
+    private final List<Account> ordered;
+    private final Selection selection;
+    private final long unhealthyCooldownNanos;
+    private final LongSupplier clock;
+    private final AtomicInteger cursor = new AtomicInteger();
+
+    /**
+     * 创建账号池
+     *
+     * @param specs             账号配置，至少一个
+     * @param selection         账号选择策略
+     * @param unhealthyCooldown 认证失败后账号不参与选择的时间
+     * @param meterRegistry     指标注册表
+     */
+    public AccountPool(List<AccountSpec> specs, Selection selection, Duration unhealthyCooldown,
+                       MeterRegistry meterRegistry) {
+        this(specs, selection, unhealthyCooldown, meterRegistry, System::nanoTime);
+    }
+
+    AccountPool(List<AccountSpec> specs, Selection selection, Duration unhealthyCooldown,
+                MeterRegistry meterRegistry, LongSupplier clock) {
+        if (specs.isEmpty()) {
+            throw new IllegalArgumentException("至少需要配置一个账号");
+        }
+        this.selection = selection;
+        this.unhealthyCooldownNanos = unhealthyCooldown.toNanos();
+        this.clock = clock;
+        for (AccountSpec spec : specs) {
+            if (accounts.containsKey(spec.name())) {
+                throw new IllegalArgumentException("账号名称重复: " + spec.name());
+            }
+            accounts.put(spec.name(), new Account(spec, meterRegistry));
+        }
+        this.ordered = List.copyOf(accounts.values());
+    }
+
+    /**
+     * 选择一个可用账号
+     * <p>
+     * 返回的租约必须通过{@link Lease#release(Outcome)}释放。
+     *
+     * @return 账号租约
+     * @throws IllegalStateException 所有账号都处于认证失败的冷却期
+     */
+    public Lease acquire() {
+        long now = clock.getAsLong();
+        Account account = selection == Selection.ROUND_ROBIN ? roundRobin(now) : leastInFlight(now);
+        if (account == null) {
+            throw new IllegalStateException("没有可用的账号，所有账号的Cookie均已失效");
+        }
+        account.inFlight.incrementAndGet();
+        return new Lease(account, account.cookie(now));
+    }
+
+    /**
+     * 第一个可用账号的Cookie，用于不区分账号的请求（如图片上传）
+     *
+     * @return Cookie，没有可用账号时返回第一个账号的Cookie
+     */
+    public String primaryCookie() {
+        return cookie(primaryName());
+    }
+
+    /**
+     * 第一个可用账号的名称
+     *
+     * @return 账号名称，没有可用账号时返回第一个账号
+     */
+    public String primaryName() {
+        long now = clock.getAsLong();
+        for (Account account : ordered) {
+            if (account.isHealthy(now)) {
+                return account.name;
+            }
+        }
+        return ordered.get(0).name;
+    }
+
+    /**
+     * 原子替换账号的Cookie，替换后账号恢复可用
+     *
+     * @param name   账号名称
+     * @param cookie 新的Cookie
+     * @throws IllegalArgumentException 账号不存在
+     */
+    public void rotate(String name, String cookie) {
+        Account account = accounts.get(name);
+        if (account == null) {
+            throw new IllegalArgumentException("账号不存在: " + name);
+        }
+        account.update(cookie);
+    }
+
+    /**
+     * 账号当前的Cookie
+     *
+     * @param name 账号名称
+     * @return Cookie
+     * @throws IllegalArgumentException 账号不存在
+     */
+    public String cookie(String name) {
+        Account account = accounts.get(name);
+        if (account == null) {
+            throw new IllegalArgumentException("账号不存在: " + name);
+        }
+        return account.cookie(clock.getAsLong());
+    }
+
+    /**
+     * 记录会话检查结果
+     * <p>
+     * 会话有效时账号立即恢复可用；失效时账号在invalidFor内不参与选择，期间没有新的检查结果则自动恢复，
+     * 避免过期的检查结果一直阻止发布。检查期间Cookie已被替换时忽略该结果。
+     *
+     * @param name       账号名称
+     * @param cookie     检查时使用的Cookie
+     * @param valid      会话是否有效
+     * @param invalidFor 失效结果的有效期
+     */
+    public void recordSession(String name, String cookie, boolean valid, Duration invalidFor) {
+        Account account = accounts.get(name);
+        if (account == null || !Objects.equals(cookie, account.cookie.get())) {
+            return;
+        }
+        if (valid) {
+            account.unhealthyUntil = 0;
+        } else {
+            account.unhealthyUntil = clock.getAsLong() + invalidFor.toNanos();
+        }
+    }
+
+    /**
+     * 账号名称，按配置顺序
+     */
+    public List<String> names() {
+        return List.copyOf(accounts.keySet());
+    }
+
+    /**
+     * 账号当前是否可用
+     *
+     * @param name 账号名称
+     * @return 账号存在且不在冷却期内时返回true
+     */
+    public boolean isHealthy(String name) {
+        Account account = accounts.get(name);
+        return account != null && account.isHealthy(clock.getAsLong());
+    }
+
+    private Account leastInFlight(long now) {
+        Account best = null;
+        double bestLoad = Double.MAX_VALUE;
+        int start = Math.floorMod(cursor.getAndIncrement(), ordered.size());
+        for (int i = 0; i < ordered.size(); i++) {
+            Account account = ordered.get((start + i) % ordered.size());
+            if (!account.isHealthy(now)) {
+                continue;
+            }
+            double load = (double) account.inFlight.get() / account.weight;
+            if (load < bestLoad) {
+                best = account;
+                bestLoad = load;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 平滑加权轮询：每轮各账号加上自身权重，选中当前值最大的账号并减去总权重
+     */
+    private synchronized Account roundRobin(long now) {
+        Account best = null;
+        int total = 0;
+        for (Account account : ordered) {
+            if (!account.isHealthy(now)) {
+                continue;
+            }
+            account.currentWeight += account.weight;
+            total += account.weight;
+            if (best == null || account.currentWeight > best.currentWeight) {
+                best = account;
+            }
+        }
+        if (best != null) {
+            best.currentWeight -= total;
+        }
+        return best;
+    }
+
+    /**
+     * 账号租约
+     */
+    public final class Lease {
+
+        private final Account account;
+        private final String cookie;
+        private boolean released;
+
+        private Lease(Account account, String cookie) {
+            this.account = account;
+            this.cookie = cookie;
+        }
+
+        /**
+         * 账号名称
+         */
+        public String name() {
+            return account.name;
+        }
+
+        /**
+         * 选择账号时的Cookie
+         */
+        public String cookie() {
+            return cookie;
+        }
+
+        /**
+         * 释放租约并记录请求结果，重复调用无效
+         *
+         * @param outcome 请求结果，认证失败时账号进入冷却期
+         */
+        public synchronized void release(Outcome outcome) {
+            if (released) {
+                return;
+            }
+            released = true;
+            account.inFlight.decrementAndGet();
+            switch (outcome) {
+                case SUCCESS:
+                    account.successes.increment();
+                    break;
+                case AUTH_FAILURE:
+                    account.authFailures.increment();
+                    // Cookie已被替换时不再标记失效
+                    if (cookie == null || cookie.equals(account.cookie.get())) {
+                        account.unhealthyUntil = clock.getAsLong() + unhealthyCooldownNanos;
+                        log.warn("账号 {} 认证失败，{} 秒内不再使用", account.name,
+                                TimeUnit.NANOSECONDS.toSeconds(unhealthyCooldownNanos));
+                    }
+                    break;
+                default:
+                    account.failures.increment();
+                    break;
+            }
+        }
+    }
+
+    /**
+     * 单个账号的状态
+     */
+    private final class Account {
+
+        private final String name;
+        private final int weight;
+        private final Path cookieFile;
+        private final AtomicReference<String> cookie;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private volatile long unhealthyUntil;
+        private volatile long cookieFileCheckedAt;
+        private volatile long cookieFileModified;
+        private int currentWeight;
+
+        private final Counter successes;
+        private final Counter authFailures;
+        private final Counter failures;
+
+        private Account(AccountSpec spec, MeterRegistry meterRegistry) {
+            this.name = spec.name();
+            this.weight = Math.max(1, spec.weight());
+            this.cookieFile = spec.cookieFile();
+            this.cookie = new AtomicReference<>(spec.cookie());
+            this.successes = requests(meterRegistry, "success");
+            this.authFailures = requests(meterRegistry, "auth_failure");
+            this.failures = requests(meterRegistry, "failure");
+            Gauge.builder("tencent.api.account.in_flight", inFlight, AtomicInteger::get)
+                    .tag("account", name).description("账号进行中的请求数").register(meterRegistry);
+            Gauge.builder("tencent.api.account.healthy", this, account -> account.isHealthy(clock.getAsLong()) ? 1 : 0)
+                    .tag("account", name).description("账号是否可用").register(meterRegistry);
+            if (cookieFile != null) {
+                reloadCookieFile(clock.getAsLong());
+            }
+        }
+
+        private Counter requests(MeterRegistry meterRegistry, String outcome) {
+            return Counter.builder("tencent.api.account.requests").tag("account", name).tag("outcome", outcome)
+                    .description("账号的请求数").register(meterRegistry);
+        }
+
+        private boolean isHealthy(long now) {
+            long until = unhealthyUntil;
+            return until == 0 || now - until >= 0;
+        }
+
+        private void update(String value) {
+            cookie.set(value);
+            unhealthyUntil = 0;
+            log.info("账号 {} 的Cookie已更新", name);
+        }
+
+        private String cookie(long now) {
+            if (cookieFile != null && now - cookieFileCheckedAt >= COOKIE_FILE_CHECK_NANOS) {
+                reloadCookieFile(now);
+            }
+            return cookie.get();
+        }
+
+        /**
+         * 文件修改时间变化时重新读取Cookie
+         */
+        private synchronized void reloadCookieFile(long now) {
+            cookieFileCheckedAt = now;
+            try {
+                long modified = Files.getLastModifiedTime(cookieFile).toMillis();
+                if (modified == cookieFileModified) {
+                    return;
+                }
+                String value = Files.readString(cookieFile, StandardCharsets.UTF_8).trim();
+                cookieFileModified = modified;
+                if (!value.isEmpty() && !value.equals(cookie.get())) {
+                    update(value);
+                }
+            } catch (IOException e) {
+                log.warn("读取账号 {} 的Cookie文件失败: {}", name, cookieFile, e);
+            }
+        }
+    }
+}
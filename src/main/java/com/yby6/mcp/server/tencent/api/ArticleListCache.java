@@ -0,0 +1,276 @@
+package com.yby6.mcp.server.tencent.api;
+
+import com.yby6.mcp.server.tencent.api.dto.ArticleListResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import retrofit2.Response;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.LongSupplier;
+
+/**
+ * 文章列表缓存
+ * <p>
+ * 按账号与页码缓存{@link ITencentService#getArticleList}的结果，频繁查询文章列表时大部分请求不访问网络：
+ * <ul>
+ *     <li>缓存未超过refreshAfter时直接返回</li>
+ *     <li>超过refreshAfter但未超过ttl时返回缓存，同时在后台以ETag发送条件请求，内容未变化时服务端只返回304</li>
+ *     <li>超过ttl或调用{@link #invalidate()}后等待条件请求完成再返回，请求失败时返回已缓存的内容</li>
+ * </ul>
+ * 需要多页时并发请求各页，按页码顺序合并。同一页的并发请求合并为一次。
+ * <p>
+ * 指标（Micrometer）：
+ * <ul>
+ *     <li>tencent.api.article_list.cache{result}：命中（hit）、命中并后台刷新（refresh）、未命中（miss）、
+ *     重新验证失败后返回过期内容（stale）的页数</li>
+ *     <li>tencent.api.article_list.fetch{result}：返回新内容（ok）、内容未变化（not_modified）、失败（error）的请求数</li>
+ * </ul>
+ *
+ * @author yby6
+ * @since 2025/05/25
+ */
+@Slf4j
+public class ArticleListCache {
+
+    private final ITencentService tencentService;
+    private final String url;
+    private final AccountPool accountPool;
+    private final int pageSize;
+    private final long ttlNanos;
+    private final long refreshAfterNanos;
+    private final MeterRegistry meterRegistry;
+    private final LongSupplier clock;
+    private final Map<Key, Entry> entries;
+
+    /**
+     * 创建文章列表缓存
+     *
+     * @param tencentService 腾讯云接口
+     * @param url            列表接口地址
+     * @param accountPool    账号池，查询第一个可用账号的文章
+     * @param pageSize       每页数量
+     * @param ttl            缓存有效期
+     * @param refreshAhead   到期前多久开始后台刷新
+     * @param maxEntries     最多缓存的页数
+     * @param meterRegistry  指标注册表
+     */
+    public ArticleListCache(ITencentService tencentService, String url, AccountPool accountPool, int pageSize,
+                            Duration ttl, Duration refreshAhead, int maxEntries, MeterRegistry meterRegistry) {
+        this(tencentService, url, accountPool, pageSize, ttl, refreshAhead, maxEntries, meterRegistry, System::nanoTime);
+    }
+
+    ArticleListCache(ITencentService tencentService, String url, AccountPool accountPool, int pageSize,
+                     Duration ttl, Duration refreshAhead, int maxEntries, MeterRegistry meterRegistry,
+                     LongSupplier clock) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("每页数量必须大于0: " + pageSize);
+        }
+        this.tencentService = tencentService;
+        this.url = url;
+        this.accountPool = accountPool;
+        this.pageSize = pageSize;
+        this.ttlNanos = ttl.toNanos();
+        this.refreshAfterNanos = Math.max(0, ttl.minus(refreshAhead).toNanos());
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * 获取最新的文章
+     *
+     * @param listSize 文章数量
+     * @return 按页码顺序合并的文章，不超过listSize篇；任一页请求失败且没有可用缓存时异常完成
+     */
+    public CompletableFuture<List<ArticleListResponse.Article>> list(int listSize) {
+        String account = accountPool.primaryName();
+        int pages = (listSize + pageSize - 1) / pageSize;
+        // 已知文章总数时不请求超出总数的页
+        Integer total = knownTotal(account);
+        if (total != null) {
+            pages = Math.max(1, Math.min(pages, (total + pageSize - 1) / pageSize));
+        }
+        List<CompletableFuture<Page>> futures = new ArrayList<>(pages);
+        for (int number = 1; number <= pages; number++) {
+            futures.add(page(new Key(account, number)));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).thenApply(ignored -> {
+            List<ArticleListResponse.Article> articles = new ArrayList<>();
+            for (CompletableFuture<Page> future : futures) {
+                Page page = future.join();
+                articles.addAll(page.articles());
+                // 不满一页说明已经是最后一页
+                if (articles.size() >= listSize || page.articles().size() < pageSize) {
+                    break;
+                }
+            }
+            return articles.size() > listSize ? List.copyOf(articles.subList(0, listSize)) : List.copyOf(articles);
+        });
+    }
+
+    /**
+     * 使所有缓存失效
+     * <p>
+     * 发布新文章后调用，下一次查询以条件请求确认列表是否变化，缓存的内容与ETag保留。
+     */
+    public void invalidate() {
+        synchronized (entries) {
+            for (Entry entry : entries.values()) {
+                synchronized (entry) {
+                    entry.stale = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * 当前缓存的页数
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private Integer knownTotal(String account) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(new Key(account, 1));
+        }
+        if (entry == null) {
+            return null;
+        }
+        synchronized (entry) {
+            return entry.page != null && isFresh(entry, clock.getAsLong()) ? entry.page.total() : null;
+        }
+    }
+
+    private CompletableFuture<Page> page(Key key) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.computeIfAbsent(key, ignored -> new Entry());
+        }
+        long now = clock.getAsLong();
+        synchronized (entry) {
+            if (entry.page != null && isFresh(entry, now)) {
+                if (now - entry.fetchedAt >= refreshAfterNanos && entry.inFlight == null) {
+                    count("tencent.api.article_list.cache", "refresh");
+                    fetch(key, entry);
+                } else {
+                    count("tencent.api.article_list.cache", "hit");
+                }
+                return CompletableFuture.completedFuture(entry.page);
+            }
+            count("tencent.api.article_list.cache", "miss");
+            CompletableFuture<Page> future = entry.inFlight != null ? entry.inFlight : fetch(key, entry);
+            Page cached = entry.page;
+            if (cached == null) {
+                return future;
+            }
+            // 与DNS缓存相同，上游暂时不可用时继续使用过期的内容
+            return future.exceptionally(e -> {
+                count("tencent.api.article_list.cache", "stale");
+                return cached;
+            });
+        }
+    }
+
+    private boolean isFresh(Entry entry, long now) {
+        return !entry.stale && now - entry.fetchedAt < ttlNanos;
+    }
+
+    /**
+     * 请求一页，已缓存时携带ETag发送条件请求；调用方须持有entry的锁
+     */
+    private CompletableFuture<Page> fetch(Key key, Entry entry) {
+        CompletableFuture<Page> future;
+        try {
+            future = tencentService
+                    .getArticleList(url, accountPool.cookie(key.account()), entry.page != null ? entry.etag : null,
+                            key.number(), pageSize)
+                    .thenApply(response -> update(key, entry, response));
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        entry.inFlight = future;
+        CompletableFuture<Page> inFlight = future;
+        future.whenComplete((page, e) -> {
+            synchronized (entry) {
+                if (entry.inFlight == inFlight) {
+                    entry.inFlight = null;
+                }
+            }
+            if (e != null) {
+                count("tencent.api.article_list.fetch", "error");
+                log.warn("获取文章列表失败: 账号 {} 第 {} 页, {}", key.account(), key.number(), e.getMessage());
+            }
+        });
+        return future;
+    }
+
+    private Page update(Key key, Entry entry, Response<ArticleListResponse> response) {
+        long now = clock.getAsLong();
+        if (response.code() == 304) {
+            synchronized (entry) {
+                if (entry.page != null) {
+                    entry.fetchedAt = now;
+                    entry.stale = false;
+                    count("tencent.api.article_list.fetch", "not_modified");
+                    return entry.page;
+                }
+            }
+        }
+        ArticleListResponse body = response.body();
+        if (!response.isSuccessful() || body == null) {
+            throw new IllegalStateException("获取文章列表失败: HTTP " + response.code());
+        }
+        List<ArticleListResponse.Article> articles = body.getList() == null ? List.of() : List.copyOf(body.getList());
+        Page page = new Page(articles, body.getTotal());
+        synchronized (entry) {
+            entry.page = page;
+            entry.etag = response.headers().get("ETag");
+            entry.fetchedAt = now;
+            entry.stale = false;
+        }
+        count("tencent.api.article_list.fetch", "ok");
+        log.debug("文章列表已更新: 账号 {} 第 {} 页, {} 篇", key.account(), key.number(), articles.size());
+        return page;
+    }
+
+    private void count(String name, String result) {
+        meterRegistry.counter(name, "result", result).increment();
+    }
+
+    private record Key(String account, int number) {
+    }
+
+    /**
+     * 一页文章
+     *
+     * @param articles 当前页的文章
+     * @param total    文章总数，接口未返回时为null
+     */
+    private record Page(List<ArticleListResponse.Article> articles, Integer total) {
+    }
+
+    /**
+     * 一页的缓存状态
+     */
+    private static final class Entry {
+        private Page page;
+        private String etag;
+        private long fetchedAt;
+        private boolean stale;
+        private CompletableFuture<Page> inFlight;
+    }
+}
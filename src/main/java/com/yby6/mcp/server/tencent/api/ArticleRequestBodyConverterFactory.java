@@ -0,0 +1,55 @@
+package com.yby6.mcp.server.tencent.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yby6.mcp.server.tencent.api.dto.AddArticleRequest;
+import com.yby6.mcp.server.tencent.mcpService.utils.ConvertOptions;
+import okhttp3.RequestBody;
+import retrofit2.Converter;
+import retrofit2.Retrofit;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+/**
+ * 发布文章请求体转换器工厂
+ * <p>
+ * 需注册在JacksonConverterFactory之前。content尚未转换的{@link AddArticleRequest}
+ * 使用{@link StreamingArticleRequestBody}在发送时流式写出，其余请求交给后续的转换器正常序列化。
+ * 请求体在Retrofit构建请求时创建，此时运行在调用Retrofit的线程上（可能是限流器的调度线程），
+ * 因此正文应先由{@link AddArticleRequest#prepareContent(ConvertOptions)}预先处理。
+ *
+ * @author yby6
+ * @since 2025/05/25
+ */
+public class ArticleRequestBodyConverterFactory extends Converter.Factory {
+
+    private final ObjectMapper objectMapper;
+    private final ConvertOptions options;
+
+    /**
+     * 创建转换器工厂
+     *
+     * @param objectMapper 与后续Jackson转换器相同的映射器
+     * @param options      转换选项
+     */
+    public ArticleRequestBodyConverterFactory(ObjectMapper objectMapper, ConvertOptions options) {
+        this.objectMapper = objectMapper;
+        this.options = options;
+    }
+
+    @Override
+    public Converter<?, RequestBody> requestBodyConverter(Type type, Annotation[] parameterAnnotations,
+                                                          Annotation[] methodAnnotations, Retrofit retrofit) {
+        if (type != AddArticleRequest.class) {
+            return null;
+        }
+        Converter<AddArticleRequest, RequestBody> delegate =
+                retrofit.nextRequestBodyConverter(this, type, parameterAnnotations, methodAnnotations);
+        return (Converter<AddArticleRequest, RequestBody>) request -> {
+            if (request.getContent() == null && request.getPlain() != null) {
+                return new StreamingArticleRequestBody(request, objectMapper, options);
+            }
+            return delegate.convert(request);
+        };
+    }
+}
@@ -0,0 +1,96 @@
+package com.yby6.mcp.server.tencent.api;
+
+import okhttp3.Dns;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * 进程内DNS缓存
+ * <p>
+ * 按主机名缓存解析结果，TTL内的请求不再调用系统解析。
+ * 过期后重新解析，解析失败时继续使用过期的结果，避免DNS短暂故障导致发布失败。
+ * 使用按访问顺序淘汰的有界LRU，解析在锁外执行。线程安全。
+ *
+ * @author yby6
+ * @since 2025/05/25
+ */
+public class CachingDns implements Dns {
+
+    private final Dns delegate;
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final LongSupplier clock;
+
+    /**
+     * 主机名 -> 解析结果
+     */
+    private final Map<String, Entry> entries;
+
+    /**
+     * 创建DNS缓存
+     *
+     * @param delegate   实际解析
+     * @param ttl        缓存有效期
+     * @param maxEntries 最大缓存主机数
+     */
+    public CachingDns(Dns delegate, Duration ttl, int maxEntries) {
+        this(delegate, ttl, maxEntries, System::nanoTime);
+    }
+
+    CachingDns(Dns delegate, Duration ttl, int maxEntries, LongSupplier clock) {
+        this.delegate = delegate;
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > CachingDns.this.maxEntries;
+            }
+        };
+    }
+
+    @Override
+    public List<InetAddress> lookup(String hostname) throws UnknownHostException {
+        Entry cached;
+        synchronized (entries) {
+            cached = entries.get(hostname);
+        }
+        long now = clock.getAsLong();
+        if (cached != null && now - cached.resolvedAt < ttlNanos) {
+            return cached.addresses;
+        }
+
+        List<InetAddress> addresses;
+        try {
+            addresses = List.copyOf(delegate.lookup(hostname));
+        } catch (UnknownHostException e) {
+            if (cached != null) {
+                return cached.addresses;
+            }
+            throw e;
+        }
+        synchronized (entries) {
+            entries.put(hostname, new Entry(addresses, now));
+        }
+        return addresses;
+    }
+
+    /**
+     * 当前缓存的主机数
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private record Entry(List<InetAddress> addresses, long resolvedAt) {
+    }
+}
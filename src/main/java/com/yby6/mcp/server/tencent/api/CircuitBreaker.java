@@ -0,0 +1,125 @@
+package com.yby6.mcp.server.tencent.api;
+
+import java.time.Duration;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * 熔断器
+ * <p>
+ * 连续失败达到阈值后进入OPEN状态，熔断期内的请求直接拒绝；熔断期结束后进入HALF_OPEN状态，
+ * 只放行一个探测请求，成功则恢复CLOSED，失败则重新OPEN。
+ * 判断只涉及一次加锁与少量字段读写，上游不可用时请求在微秒级失败，不再等待连接超时。线程安全。
+ *
+ * @author yby6
+ * @since 2025/05/25
+ */
+public class CircuitBreaker {
+
+    /**
+     * 熔断器状态
+     */
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final LongSupplier clock;
+    private final BiConsumer<State, State> listener;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    /**
+     * 创建熔断器
+     *
+     * @param failureThreshold 触发熔断的连续失败次数
+     * @param openDuration     熔断持续时间
+     * @param listener         状态变化回调（原状态，新状态），在锁内调用，不应执行耗时操作
+     */
+    public CircuitBreaker(int failureThreshold, Duration openDuration, BiConsumer<State, State> listener) {
+        this(failureThreshold, openDuration, listener, System::nanoTime);
+    }
+
+    CircuitBreaker(int failureThreshold, Duration openDuration, BiConsumer<State, State> listener, LongSupplier clock) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openNanos = openDuration.toNanos();
+        this.listener = listener;
+        this.clock = clock;
+    }
+
+    /**
+     * 申请执行一次请求
+     *
+     * @return 允许执行时返回true，此后必须调用{@link #onSuccess()}、{@link #onFailure()}或{@link #onIgnored()}之一
+     */
+    public synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (clock.getAsLong() - openedAt < openNanos) {
+                    return false;
+                }
+                transition(State.HALF_OPEN);
+                trialInFlight = true;
+                return true;
+            case HALF_OPEN:
+                if (trialInFlight) {
+                    return false;
+                }
+                trialInFlight = true;
+                return true;
+            default:
+                throw new IllegalStateException("未知状态: " + state);
+        }
+    }
+
+    /**
+     * 记录一次成功
+     */
+    public synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        trialInFlight = false;
+        if (state != State.CLOSED) {
+            transition(State.CLOSED);
+        }
+    }
+
+    /**
+     * 记录一次失败
+     */
+    public synchronized void onFailure() {
+        trialInFlight = false;
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            openedAt = clock.getAsLong();
+            transition(State.OPEN);
+        }
+    }
+
+    /**
+     * 请求结束但结果不计入统计（如客户端错误、调用被取消）
+     */
+    public synchronized void onIgnored() {
+        trialInFlight = false;
+    }
+
+    /**
+     * 当前状态
+     */
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void transition(State to) {
+        State from = state;
+        state = to;
+        if (listener != null) {
+            listener.accept(from, to);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.yby6.mcp.server.tencent.api;
+
+import java.io.IOException;
+
+/**
+ * 熔断期间请求被拒绝
+ * <p>
+ * 继承IOException，与网络错误一样经由Retrofit的Call/CompletableFuture传递给调用方。
+ *
+ * @author yby6
+ * @since 2025/05/25
+ */
+public class CircuitBreakerOpenException extends IOException {
+
+    public CircuitBreakerOpenException(String host) {
+        super("腾讯云接口熔断中，请求已拒绝: " + host);
+    }
+}
@@ -2,17 +2,30 @@ package com.yby6.mcp.server.tencent.api;
 
 import com.yby6.mcp.server.tencent.api.dto.AddArticleRequest;
 import com.yby6.mcp.server.tencent.api.dto.AddArticleResponse;
+import com.yby6.mcp.server.tencent.api.dto.ArticleListResponse;
+import com.yby6.mcp.server.tencent.api.dto.UploadImageResponse;
+import okhttp3.MultipartBody;
+import okhttp3.ResponseBody;
 import retrofit2.Call;
+import retrofit2.Response;
 import retrofit2.http.Body;
+import retrofit2.http.GET;
 import retrofit2.http.Header;
 import retrofit2.http.Headers;
+import retrofit2.http.Multipart;
 import retrofit2.http.POST;
+import retrofit2.http.Part;
+import retrofit2.http.Query;
+import retrofit2.http.Streaming;
+import retrofit2.http.Url;
+
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 腾讯云开发者社区服务接口
  * <p>
  * 该接口定义了与腾讯云开发者社区API交互的方法。
- * 使用Retrofit框架实现HTTP请求，支持文章的发布等操作。
+ * 使用Retrofit框架实现HTTP请求，支持文章的发布、图片上传等操作。
  * 所有请求都需要包含必要的认证信息和请求头。
  *
  * @author yby6
@@ -58,4 +71,109 @@ public interface ITencentService {
             @Header("Cookie") String cookie,
             @Body AddArticleRequest request
     );
+
+    /**
+     * 异步发布文章到腾讯云开发者社区
+     * <p>
+     * 请求与{@link #addArticle}相同，通过OkHttp的异步调用发送，调用方线程不等待响应。
+     * 非2xx响应同样正常完成，由调用方根据{@link Response#isSuccessful()}判断。
+     *
+     * @param cookie  用户认证Cookie，用于身份验证
+     * @param request 文章发布请求，包含文章内容、标题等信息
+     * @return 收到响应后完成的Future，网络错误时异常完成
+     */
+    @POST("https://cloud.tencent.com/developer/api/article/addArticle")
+    @Headers({
+            "accept: application/json, text/plain, */*",
+            "accept-language: zh-CN,zh;q=0.9,en-US;q=0.8,en;q=0.7",
+            "content-type: application/json",
+            "origin: https://cloud.tencent.com",
+            "priority: u=1, i",
+            "referer: https://cloud.tencent.com/developer/article/write-new",
+            "sec-ch-ua: \"Google Chrome\";v=\"135\", \"Not-A.Brand\";v=\"8\", \"Chromium\";v=\"135\"",
+            "sec-ch-ua-mobile: ?0",
+            "sec-ch-ua-platform: \"Windows\"",
+            "sec-fetch-dest: empty",
+            "sec-fetch-mode: cors",
+            "sec-fetch-site: same-origin",
+            "sec-gpc: 1",
+            "user-agent: Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/135.0.0.0 Safari/537.36"
+    })
+    CompletableFuture<Response<AddArticleResponse>> addArticleAsync(
+            @Header("Cookie") String cookie,
+            @Body AddArticleRequest request
+    );
+
+    /**
+     * 上传图片到腾讯云开发者社区
+     * <p>
+     * 以multipart/form-data上传单张图片，用于转存正文中引用的外部图片。
+     * 上传地址来自配置tencent.api.image-rehost.upload-url，便于切换接口或指向本地测试服务。
+     *
+     * @param url    上传接口地址
+     * @param cookie 用户认证Cookie，用于身份验证
+     * @param file   图片文件，表单字段名为file
+     * @return 包含图片地址的响应对象
+     */
+    @Multipart
+    @POST
+    @Headers({
+            "accept: application/json, text/plain, */*",
+            "origin: https://cloud.tencent.com",
+            "referer: https://cloud.tencent.com/developer/article/write-new",
+            "user-agent: Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/135.0.0.0 Safari/537.36"
+    })
+    Call<UploadImageResponse> uploadImage(
+            @Url String url,
+            @Header("Cookie") String cookie,
+            @Part MultipartBody.Part file
+    );
+
+    /**
+     * 检查登录状态
+     * <p>
+     * 以GET请求访问登录后才能访问的地址，未登录时返回401/403或重定向到登录页。
+     * 检查地址来自配置tencent.api.session-check.url，响应体不读取，以流式响应返回避免缓冲整个页面。
+     *
+     * @param url    检查地址
+     * @param cookie 用户认证Cookie，用于身份验证
+     * @return 原始响应
+     */
+    @GET
+    @Streaming
+    @Headers({
+            "accept: text/html,application/json,*/*",
+            "user-agent: Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/135.0.0.0 Safari/537.36"
+    })
+    Call<ResponseBody> checkSession(
+            @Url String url,
+            @Header("Cookie") String cookie
+    );
+
+    /**
+     * 分页获取当前账号的文章列表
+     * <p>
+     * 接口地址来自配置tencent.api.article-list.url。携带上一次响应的ETag时，内容未变化的页返回304且没有响应体，
+     * 由调用方继续使用缓存的结果；非2xx响应同样正常完成，由调用方根据状态码判断。
+     *
+     * @param url         列表接口地址
+     * @param cookie      用户认证Cookie，用于身份验证
+     * @param ifNoneMatch 上一次响应的ETag，为null时不发送条件请求
+     * @param pageNumber  页码，从1开始
+     * @param pageSize    每页数量
+     * @return 收到响应后完成的Future，网络错误时异常完成
+     */
+    @GET
+    @Headers({
+            "accept: application/json, text/plain, */*",
+            "referer: https://cloud.tencent.com/developer/creator/article",
+            "user-agent: Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/135.0.0.0 Safari/537.36"
+    })
+    CompletableFuture<Response<ArticleListResponse>> getArticleList(
+            @Url String url,
+            @Header("Cookie") String cookie,
+            @Header("If-None-Match") String ifNoneMatch,
+            @Query("pageNumber") int pageNumber,
+            @Query("pageSize") int pageSize
+    );
 }
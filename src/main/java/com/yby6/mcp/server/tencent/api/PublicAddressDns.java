@@ -0,0 +1,59 @@
+package com.yby6.mcp.server.tencent.api;
+
+import okhttp3.Dns;
+
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 只解析到公网地址的DNS
+ * <p>
+ * 用于请求文章中任意外部URL的客户端（图片尺寸探测、图片转存），避免通过文章内容访问本机或内网服务（SSRF）。
+ * 丢弃回环、任意本地、链路本地（含169.254.169.254等云厂商元数据地址）、私有网段、IPv6唯一本地与组播地址，
+ * 全部被丢弃时以{@link UnknownHostException}失败。IP字面量同样经过解析，重定向到新主机时重新检查。
+ *
+ * @author yby6
+ * @since 2025/05/25
+ */
+public class PublicAddressDns implements Dns {
+
+    private final Dns delegate;
+
+    /**
+     * 创建DNS
+     *
+     * @param delegate 实际解析
+     */
+    public PublicAddressDns(Dns delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public List<InetAddress> lookup(String hostname) throws UnknownHostException {
+        List<InetAddress> addresses = new ArrayList<>();
+        for (InetAddress address : delegate.lookup(hostname)) {
+            if (isPublic(address)) {
+                addresses.add(address);
+            }
+        }
+        if (addresses.isEmpty()) {
+            throw new UnknownHostException("不允许访问内网地址: " + hostname);
+        }
+        return addresses;
+    }
+
+    /**
+     * 是否为公网地址
+     */
+    static boolean isPublic(InetAddress address) {
+        if (address.isLoopbackAddress() || address.isAnyLocalAddress() || address.isLinkLocalAddress()
+                || address.isSiteLocalAddress() || address.isMulticastAddress()) {
+            return false;
+        }
+        // IPv6唯一本地地址 fc00::/7
+        return !(address instanceof Inet6Address) || (address.getAddress()[0] & 0xfe) != 0xfc;
+    }
+}
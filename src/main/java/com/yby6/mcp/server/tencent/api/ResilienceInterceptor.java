@@ -0,0 +1,216 @@
+package com.yby6.mcp.server.tencent.api;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 腾讯云接口重试与熔断拦截器
+ * <p>
+ * 只重试可以安全重发的失败，重试间隔按指数退避并加入随机抖动（full jitter），避免大量客户端同时重试：
+ * <ul>
+ *     <li>幂等请求（GET、HEAD等）：网络错误以及408、429、500、502、503、504响应</li>
+ *     <li>非幂等请求（发布文章等POST）：只重试请求确定未被处理的情况，
+ *     即连接失败、域名解析失败，以及503响应；读超时、连接重置等无法确定服务端是否已处理，不重试。
+ *     429直接返回调用方，由{@link TokenBucketRateLimiter#throttle}暂停该账号的发布</li>
+ * </ul>
+ * 重试在拦截器内完成，退避期间阻塞当前线程：同步调用阻塞调用方线程，异步调用占用OkHttp Dispatcher的线程，
+ * 最长为max-backoff（Retry-After超过max-backoff时不重试），因此max-backoff应保持在秒级。
+ * <p>
+ * 每次尝试前都经过{@link CircuitBreaker}，熔断期间直接抛出{@link CircuitBreakerOpenException}。
+ * 网络错误与5xx响应计为失败，其余响应计为成功（4xx说明上游可用），429与运行时异常不计入统计。
+ * <p>
+ * 指标（Micrometer）：
+ * <ul>
+ *     <li>tencent.api.calls{outcome}：每次尝试的结果，success/client_error/server_error/io_error/rejected</li>
+ *     <li>tencent.api.retries{reason}：重试次数，reason为状态码或异常类型</li>
+ *     <li>tencent.api.circuit.state：熔断器状态，0=CLOSED，1=OPEN，2=HALF_OPEN</li>
+ *     <li>tencent.api.circuit.transitions{from,to}：熔断器状态变化次数</li>
+ * </ul>
+ *
+ * @author yby6
+ * @since 2025/05/25
+ */
+@Slf4j
+public class ResilienceInterceptor implements Interceptor {
+
+    private static final Set<String> IDEMPOTENT_METHODS = Set.of("GET", "HEAD", "PUT", "DELETE", "OPTIONS");
+
+    private static final Set<Integer> IDEMPOTENT_RETRY_STATUS = Set.of(408, 429, 500, 502, 503, 504);
+
+    private static final Set<Integer> UNPROCESSED_RETRY_STATUS = Set.of(503);
+
+    private final int maxAttempts;
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+    private final double multiplier;
+    private final CircuitBreaker circuitBreaker;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * 创建拦截器
+     *
+     * @param maxAttempts      最大尝试次数（含首次请求）
+     * @param initialBackoff   首次重试的退避上限
+     * @param maxBackoff       单次退避的最大时长
+     * @param multiplier       退避倍数
+     * @param failureThreshold 触发熔断的连续失败次数
+     * @param openDuration     熔断持续时间
+     * @param meterRegistry    指标注册表
+     */
+    public ResilienceInterceptor(int maxAttempts, Duration initialBackoff, Duration maxBackoff, double multiplier,
+                                 int failureThreshold, Duration openDuration, MeterRegistry meterRegistry) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffNanos = initialBackoff.toNanos();
+        this.maxBackoffNanos = maxBackoff.toNanos();
+        this.multiplier = multiplier;
+        this.meterRegistry = meterRegistry;
+        this.circuitBreaker = new CircuitBreaker(failureThreshold, openDuration, this::onTransition);
+        Gauge.builder("tencent.api.circuit.state", circuitBreaker, breaker -> breaker.getState().ordinal())
+                .description("熔断器状态，0=CLOSED，1=OPEN，2=HALF_OPEN")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        boolean idempotent = IDEMPOTENT_METHODS.contains(request.method());
+        for (int attempt = 1; ; attempt++) {
+            if (!circuitBreaker.tryAcquire()) {
+                count("rejected");
+                throw new CircuitBreakerOpenException(request.url().host());
+            }
+
+            Response response;
+            try {
+                response = chain.proceed(request);
+            } catch (IOException e) {
+                if (chain.call().isCanceled() || e instanceof InterruptedIOException && !isTimeout(e)) {
+                    circuitBreaker.onIgnored();
+                    throw e;
+                }
+                circuitBreaker.onFailure();
+                count("io_error");
+                if (attempt >= maxAttempts || !(idempotent || isUnprocessed(e))) {
+                    throw e;
+                }
+                retry(request, attempt, e.getClass().getSimpleName(), 0, e);
+                continue;
+            } catch (RuntimeException | Error e) {
+                // 释放半开状态的试探名额，否则熔断器无法再放行请求
+                circuitBreaker.onIgnored();
+                throw e;
+            }
+
+            int code = response.code();
+            if (code >= 500) {
+                circuitBreaker.onFailure();
+                count("server_error");
+            } else if (code == 429) {
+                circuitBreaker.onIgnored();
+                count("client_error");
+            } else {
+                circuitBreaker.onSuccess();
+                count(code >= 400 ? "client_error" : "success");
+            }
+
+            boolean retryable = idempotent ? IDEMPOTENT_RETRY_STATUS.contains(code) : UNPROCESSED_RETRY_STATUS.contains(code);
+            if (!retryable || attempt >= maxAttempts) {
+                return response;
+            }
+            long retryAfterNanos = retryAfterNanos(response);
+            if (retryAfterNanos > maxBackoffNanos) {
+                return response;
+            }
+            response.close();
+            retry(request, attempt, String.valueOf(code), retryAfterNanos, null);
+        }
+    }
+
+    /**
+     * 记录重试并在当前线程上等待退避时间
+     */
+    private void retry(Request request, int attempt, String reason, long minDelayNanos, IOException cause)
+            throws InterruptedIOException {
+        long delay = Math.max(minDelayNanos, backoffNanos(attempt));
+        meterRegistry.counter("tencent.api.retries", "reason", reason).increment();
+        log.warn("腾讯云接口请求失败，{}ms后第{}次重试: {} {} ({})", Duration.ofNanos(delay).toMillis(), attempt,
+                request.method(), request.url().encodedPath(), reason, cause);
+        try {
+            Thread.sleep(delay / 1_000_000, (int) (delay % 1_000_000));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            InterruptedIOException interrupted = new InterruptedIOException("重试等待被中断");
+            interrupted.initCause(e);
+            throw interrupted;
+        }
+    }
+
+    /**
+     * 第attempt次失败后的退避时间：[0, min(maxBackoff, initialBackoff * multiplier^(attempt-1))) 内的随机值
+     */
+    long backoffNanos(int attempt) {
+        double ceiling = Math.min(maxBackoffNanos, initialBackoffNanos * Math.pow(multiplier, attempt - 1));
+        return (long) (ThreadLocalRandom.current().nextDouble() * ceiling);
+    }
+
+    /**
+     * 熔断器
+     */
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * 请求确定未到达服务端的网络错误
+     */
+    private static boolean isUnprocessed(IOException e) {
+        return e instanceof ConnectException || e instanceof UnknownHostException
+                || e instanceof NoRouteToHostException;
+    }
+
+    private static boolean isTimeout(IOException e) {
+        return e instanceof SocketTimeoutException;
+    }
+
+    /**
+     * 解析以秒为单位的Retry-After响应头，没有或无法解析时返回0
+     */
+    private static long retryAfterNanos(Response response) {
+        String value = response.header("Retry-After");
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return Duration.ofSeconds(Long.parseLong(value.trim())).toNanos();
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private void count(String outcome) {
+        meterRegistry.counter("tencent.api.calls", "outcome", outcome).increment();
+    }
+
+    private void onTransition(CircuitBreaker.State from, CircuitBreaker.State to) {
+        meterRegistry.counter("tencent.api.circuit.transitions", "from", from.name(), "to", to.name()).increment();
+        if (to == CircuitBreaker.State.OPEN) {
+            log.warn("腾讯云接口熔断: {} -> {}", from, to);
+        } else {
+            log.info("腾讯云接口熔断器状态变化: {} -> {}", from, to);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.yby6.mcp.server.tencent.api;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.ResponseBody;
+import retrofit2.Response;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 登录会话健康检查
+ * <p>
+ * 后台定时以每个账号的Cookie访问一个登录后才能访问的地址，结果记录到{@link AccountPool}：
+ * <ul>
+ *     <li>VALID：2xx且未被重定向到登录页，账号立即恢复可用</li>
+ *     <li>INVALID：401/403或被重定向到登录页，账号在staleAfter内不参与选择，发布请求不再等待网络往返即失败</li>
+ *     <li>UNKNOWN：网络错误或其他状态码，不改变账号状态，检查地址配置错误时不会阻止发布</li>
+ * </ul>
+ * 检查结果超过staleAfter未更新时自动失效，避免检查线程异常后账号一直不可用。
+ * <p>
+ * 指标：tencent.api.session.checks{account, result}。
+ *
+ * @author yby6
+ * @since 2025/05/25
+ */
+@Slf4j
+public class SessionHealthChecker implements AutoCloseable {
+
+    /**
+     * 检查结果
+     */
+    public enum State {
+        VALID,
+        INVALID,
+        UNKNOWN
+    }
+
+    /**
+     * 单个账号最近一次的检查结果
+     *
+     * @param state     检查结果
+     * @param checkedAt 检查时间（毫秒时间戳）
+     * @param detail    说明
+     */
+    public record Status(State state, long checkedAt, String detail) {
+    }
+
+    private final ITencentService tencentService;
+    private final String url;
+    private final AccountPool accountPool;
+    private final Duration staleAfter;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Status> statuses = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * 创建会话检查器，不自动开始检查
+     *
+     * @param tencentService 腾讯云API服务，应基于不带{@link ResilienceInterceptor}的客户端创建，
+     *                       避免检查请求被重试或计入发布请求的熔断器
+     * @param url            检查地址
+     * @param accountPool    账号池
+     * @param staleAfter     失效结果的有效期
+     * @param meterRegistry  指标注册表
+     */
+    public SessionHealthChecker(ITencentService tencentService, String url, AccountPool accountPool,
+                                Duration staleAfter, MeterRegistry meterRegistry) {
+        this.tencentService = tencentService;
+        this.url = url;
+        this.accountPool = accountPool;
+        this.staleAfter = staleAfter;
+        this.meterRegistry = meterRegistry;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "session-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 立即检查一次，之后按固定间隔检查
+     *
+     * @param interval 检查间隔
+     */
+    public void start(Duration interval) {
+        scheduler.scheduleWithFixedDelay(this::checkAll, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 检查所有账号
+     */
+    public void checkAll() {
+        for (String name : accountPool.names()) {
+            try {
+                check(name);
+            } catch (RuntimeException e) {
+                log.warn("账号 {} 会话检查失败", name, e);
+            }
+        }
+    }
+
+    /**
+     * 检查单个账号
+     *
+     * @param name 账号名称
+     * @return 检查结果
+     */
+    public Status check(String name) {
+        String cookie = accountPool.cookie(name);
+        Status status = probe(cookie);
+        statuses.put(name, status);
+        meterRegistry.counter("tencent.api.session.checks", "account", name,
+                "result", status.state().name().toLowerCase()).increment();
+        switch (status.state()) {
+            case VALID:
+                accountPool.recordSession(name, cookie, true, staleAfter);
+                break;
+            case INVALID:
+                log.warn("账号 {} 的登录会话已失效: {}，请更新Cookie", name, status.detail());
+                accountPool.recordSession(name, cookie, false, staleAfter);
+                break;
+            default:
+                log.debug("账号 {} 会话检查结果未知: {}", name, status.detail());
+                break;
+        }
+        return status;
+    }
+
+    /**
+     * 账号最近一次的检查结果
+     *
+     * @param name 账号名称
+     * @return 检查结果，尚未检查时返回null
+     */
+    public Status status(String name) {
+        return statuses.get(name);
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private Status probe(String cookie) {
+        long now = System.currentTimeMillis();
+        if (cookie == null || cookie.isBlank()) {
+            return new Status(State.INVALID, now, "未配置Cookie");
+        }
+        Response<ResponseBody> response;
+        try {
+            response = tencentService.checkSession(url, cookie).execute();
+        } catch (IllegalArgumentException e) {
+            // OkHttp拒绝包含非法字符的请求头，这样的Cookie不可能通过认证
+            return new Status(State.INVALID, now, "Cookie格式无效");
+        } catch (IOException e) {
+            return new Status(State.UNKNOWN, now, e.toString());
+        }
+        try (ResponseBody ignored = response.isSuccessful() ? response.body() : response.errorBody()) {
+            int code = response.code();
+            String finalUrl = response.raw().request().url().toString();
+            if (code == 401 || code == 403) {
+                return new Status(State.INVALID, now, "HTTP " + code);
+            }
+            if (finalUrl.contains("login")) {
+                return new Status(State.INVALID, now, "重定向到登录页 " + finalUrl);
+            }
+            if (response.isSuccessful()) {
+                return new Status(State.VALID, now, "HTTP " + code);
+            }
+            return new Status(State.UNKNOWN, now, "HTTP " + code);
+        }
+    }
+}
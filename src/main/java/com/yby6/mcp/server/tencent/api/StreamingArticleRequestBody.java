@@ -0,0 +1,173 @@
+package com.yby6.mcp.server.tencent.api;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.yby6.mcp.server.tencent.api.dto.AddArticleRequest;
+import com.yby6.mcp.server.tencent.mcpService.utils.ConvertOptions;
+import com.yby6.mcp.server.tencent.mcpService.utils.MarkdownToProseMirrorConverter;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * 流式发布文章请求体
+ * <p>
+ * 请求体中的content字段是以字符串形式嵌入的ProseMirror JSON。常规序列化需要先生成完整的JSON字符串，
+ * 再在序列化请求时整体转义一次。解析与图片转存、尺寸探测由{@link AddArticleRequest#prepareContent(ConvertOptions)}
+ * 在发布方线程预先完成，写入OkHttp时只遍历AST，输出的JSON经转义后直接写入连接，内存中不保留完整的content。
+ * 未预先处理的请求在创建请求体时处理，此时运行在调用Retrofit的线程上。
+ * <p>
+ * 其余字段按Jackson对{@link AddArticleRequest}的默认序列化顺序写出，
+ * 输出与先转换再序列化的请求体逐字节一致（节点ID除外）。
+ * 连接失败重试时OkHttp会再次调用{@link #writeTo(BufferedSink)}，此时只重新写出，不会再次访问图片。
+ *
+ * @author yby6
+ * @since 2025/05/25
+ */
+public class StreamingArticleRequestBody extends RequestBody {
+
+    private static final MediaType MEDIA_TYPE = MediaType.get("application/json; charset=UTF-8");
+
+    private static final String CONTENT_FIELD = "content";
+
+    private final AddArticleRequest request;
+    private final ObjectMapper objectMapper;
+    private final MarkdownToProseMirrorConverter.PreparedDocument document;
+
+    /**
+     * 创建请求体，请求未预先处理时在当前线程完成Markdown解析与图片处理
+     *
+     * @param request      尚未转换content的发布请求
+     * @param objectMapper 序列化其余字段使用的映射器，与Retrofit的Jackson转换器保持一致
+     * @param options      转换选项
+     */
+    public StreamingArticleRequestBody(AddArticleRequest request, ObjectMapper objectMapper, ConvertOptions options) {
+        this.request = request;
+        this.objectMapper = objectMapper;
+        MarkdownToProseMirrorConverter.PreparedDocument prepared = request.preparedContent();
+        this.document = prepared != null ? prepared
+                : MarkdownToProseMirrorConverter.prepare(new StringReader(request.markdownForConversion()), options);
+    }
+
+    @Override
+    public MediaType contentType() {
+        return MEDIA_TYPE;
+    }
+
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException {
+        // content之外的字段都很小，先转为树以保留默认的字段顺序
+        ObjectNode fields = objectMapper.valueToTree(request);
+        try (JsonGenerator gen = objectMapper.getFactory().createGenerator(sink.outputStream(), JsonEncoding.UTF8)) {
+            gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            gen.writeStartObject();
+            Iterator<Map.Entry<String, JsonNode>> it = fields.fields();
+            while (it.hasNext()) {
+                Map.Entry<String, JsonNode> field = it.next();
+                gen.writeFieldName(field.getKey());
+                if (CONTENT_FIELD.equals(field.getKey())) {
+                    writeContent(gen);
+                } else {
+                    gen.writeTree(field.getValue());
+                }
+            }
+            gen.writeEndObject();
+        }
+    }
+
+    /**
+     * 以JSON字符串的形式写出转换结果
+     */
+    private void writeContent(JsonGenerator gen) throws IOException {
+        gen.writeRawValue("\"");
+        document.writeTo(new JsonStringWriter(gen));
+        gen.writeRaw('"');
+    }
+
+    /**
+     * JSON字符串转义写出器
+     * <p>
+     * 将写入的字符按Jackson UTF-8生成器的默认规则转义为JSON字符串内容，以原始内容写入外层生成器：
+     * 引号、反斜杠与控制字符转义，代理对以两个\\uXXXX写出，其余字符原样写出。
+     */
+    private static final class JsonStringWriter extends Writer {
+
+        private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+        private final JsonGenerator gen;
+        private final char[] escape = {'\\', 'u', '0', '0', '0', '0'};
+
+        JsonStringWriter(JsonGenerator gen) {
+            this.gen = gen;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            int end = off + len;
+            int start = off;
+            for (int i = off; i < end; i++) {
+                char c = cbuf[i];
+                if (c >= 0x20 && c != '"' && c != '\\' && !Character.isSurrogate(c)) {
+                    continue;
+                }
+                if (i > start) {
+                    gen.writeRaw(cbuf, start, i - start);
+                }
+                writeEscape(c);
+                start = i + 1;
+            }
+            if (end > start) {
+                gen.writeRaw(cbuf, start, end - start);
+            }
+        }
+
+        private void writeEscape(char c) throws IOException {
+            switch (c) {
+                case '"':
+                    gen.writeRaw("\\\"");
+                    break;
+                case '\\':
+                    gen.writeRaw("\\\\");
+                    break;
+                case '\b':
+                    gen.writeRaw("\\b");
+                    break;
+                case '\t':
+                    gen.writeRaw("\\t");
+                    break;
+                case '\n':
+                    gen.writeRaw("\\n");
+                    break;
+                case '\f':
+                    gen.writeRaw("\\f");
+                    break;
+                case '\r':
+                    gen.writeRaw("\\r");
+                    break;
+                default:
+                    escape[2] = HEX[c >> 12];
+                    escape[3] = HEX[(c >> 8) & 0xF];
+                    escape[4] = HEX[(c >> 4) & 0xF];
+                    escape[5] = HEX[c & 0xF];
+                    gen.writeRaw(escape, 0, escape.length);
+            }
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
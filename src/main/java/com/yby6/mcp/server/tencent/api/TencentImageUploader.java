@@ -0,0 +1,53 @@
+package com.yby6.mcp.server.tencent.api;
+
+import com.yby6.mcp.server.tencent.api.dto.UploadImageResponse;
+import com.yby6.mcp.server.tencent.mcpService.utils.ImageUploader;
+import okhttp3.MediaType;
+import okhttp3.MultipartBody;
+import okhttp3.RequestBody;
+import retrofit2.Response;
+
+import java.io.IOException;
+import java.util.function.Supplier;
+
+/**
+ * 通过{@link ITencentService#uploadImage}上传图片
+ *
+ * @author yby6
+ * @since 2025/05/25
+ */
+public class TencentImageUploader implements ImageUploader {
+
+    private final Supplier<ITencentService> tencentService;
+    private final String uploadUrl;
+    private final Supplier<String> cookie;
+
+    /**
+     * 创建图片上传
+     *
+     * @param tencentService 腾讯云API服务，在首次上传时获取
+     * @param uploadUrl      上传接口地址
+     * @param cookie         用户认证Cookie，每次上传时获取
+     */
+    public TencentImageUploader(Supplier<ITencentService> tencentService, String uploadUrl, Supplier<String> cookie) {
+        this.tencentService = tencentService;
+        this.uploadUrl = uploadUrl;
+        this.cookie = cookie;
+    }
+
+    @Override
+    public String upload(String fileName, String contentType, byte[] content) throws IOException {
+        RequestBody body = RequestBody.create(MediaType.parse(contentType), content);
+        MultipartBody.Part file = MultipartBody.Part.createFormData("file", fileName, body);
+
+        Response<UploadImageResponse> response = tencentService.get().uploadImage(uploadUrl, cookie.get(), file).execute();
+        UploadImageResponse result = response.body();
+        if (!response.isSuccessful() || result == null) {
+            throw new IOException("上传图片失败，HTTP " + response.code());
+        }
+        if ((result.getStatus() != null && result.getStatus() != 0) || result.getUrl() == null || result.getUrl().isEmpty()) {
+            throw new IOException("上传图片失败，status=" + result.getStatus());
+        }
+        return result.getUrl();
+    }
+}
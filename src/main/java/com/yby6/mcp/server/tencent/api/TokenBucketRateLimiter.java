@@ -0,0 +1,285 @@
+package com.yby6.mcp.server.tencent.api;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 按账号限流的令牌桶
+ * <p>
+ * 每个账号一个令牌桶，按每分钟请求数匀速补充令牌，最多积累burst个，可以通过{@link #setLimit}为单个账号单独设置。
+ * 令牌不足时请求进入该账号的FIFO队列等待，而不是直接拒绝；令牌补充后按入队顺序放行，
+ * 队列已满时立即拒绝，等待超时后以{@link TimeoutException}失败。
+ * 上游返回429时调用{@link #throttle}清空该账号的令牌并暂停放行。
+ * <p>
+ * 等待不占用线程：{@link #acquire(String)}返回的Future在放行时由调度线程完成，
+ * 同步调用方可以直接get()等待。调用方取消Future时从队列中移除，不消耗令牌。
+ * <p>
+ * 指标（Micrometer）：
+ * <ul>
+ *     <li>tencent.api.ratelimit.queue.depth：所有账号排队中的请求数</li>
+ *     <li>tencent.api.ratelimit.wait：从申请到放行的等待时间</li>
+ *     <li>tencent.api.ratelimit.rejected{reason}：队列已满（queue_full）或等待超时（timeout）的请求数</li>
+ * </ul>
+ *
+ * @author yby6
+ * @since 2025/05/25
+ */
+public class TokenBucketRateLimiter implements AutoCloseable {
+
+    private final double tokensPerNano;
+    private final int burst;
+    private final int maxQueue;
+    private final long queueTimeoutNanos;
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final Map<String, Limit> limits = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Timer waitTimer;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * 创建限流器
+     *
+     * @param requestsPerMinute 每个账号每分钟允许的请求数
+     * @param burst             令牌桶容量，空闲后允许连续发出的请求数
+     * @param maxQueue          每个账号的最大排队数
+     * @param queueTimeout      排队等待的超时时间
+     * @param meterRegistry     指标注册表
+     */
+    public TokenBucketRateLimiter(double requestsPerMinute, int burst, int maxQueue, Duration queueTimeout,
+                                  MeterRegistry meterRegistry) {
+        if (requestsPerMinute <= 0) {
+            throw new IllegalArgumentException("requestsPerMinute 必须大于0");
+        }
+        this.tokensPerNano = requestsPerMinute / TimeUnit.MINUTES.toNanos(1);
+        this.burst = Math.max(1, burst);
+        this.maxQueue = Math.max(0, maxQueue);
+        this.queueTimeoutNanos = queueTimeout.toNanos();
+        this.meterRegistry = meterRegistry;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "rate-limiter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("tencent.api.ratelimit.queue.depth", queued, AtomicInteger::get)
+                .description("限流排队中的请求数")
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("tencent.api.ratelimit.wait")
+                .description("限流等待时间")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 申请一个请求许可
+     *
+     * @param account 账号标识（如Cookie），每个账号独立限流
+     * @return 放行时完成的Future；队列已满时以{@link RejectedExecutionException}失败，等待超时时以{@link TimeoutException}失败
+     */
+    public CompletableFuture<Void> acquire(String account) {
+        Bucket bucket = buckets.computeIfAbsent(account == null ? "" : account, key -> {
+            Limit limit = limits.getOrDefault(key, new Limit(tokensPerNano, burst));
+            return new Bucket(limit.rate(), limit.capacity());
+        });
+        long now = System.nanoTime();
+        Waiter waiter;
+        synchronized (bucket) {
+            bucket.refill(now);
+            if (bucket.queue.isEmpty() && bucket.tokens >= 1) {
+                bucket.tokens -= 1;
+                waitTimer.record(0, TimeUnit.NANOSECONDS);
+                return CompletableFuture.completedFuture(null);
+            }
+            if (bucket.queue.size() >= maxQueue) {
+                meterRegistry.counter("tencent.api.ratelimit.rejected", "reason", "queue_full").increment();
+                return CompletableFuture.failedFuture(new RejectedExecutionException("发布请求排队已满，请稍后重试"));
+            }
+            waiter = new Waiter(now);
+            bucket.queue.add(waiter);
+            queued.incrementAndGet();
+            waiter.timeout = scheduler.schedule(() -> expire(bucket, waiter), queueTimeoutNanos, TimeUnit.NANOSECONDS);
+            bucket.scheduleDrain();
+        }
+        waiter.future.whenComplete((ignored, e) -> {
+            if (waiter.future.isCancelled() && remove(bucket, waiter)) {
+                waiter.timeout.cancel(false);
+            }
+        });
+        return waiter.future;
+    }
+
+    /**
+     * 为单个账号设置速率，覆盖构造时的默认值
+     *
+     * @param account           账号标识
+     * @param requestsPerMinute 每分钟允许的请求数
+     * @param burst             令牌桶容量
+     */
+    public void setLimit(String account, double requestsPerMinute, int burst) {
+        if (requestsPerMinute <= 0) {
+            throw new IllegalArgumentException("requestsPerMinute 必须大于0");
+        }
+        Limit limit = new Limit(requestsPerMinute / TimeUnit.MINUTES.toNanos(1), Math.max(1, burst));
+        limits.put(account, limit);
+        Bucket bucket = buckets.get(account);
+        if (bucket != null) {
+            synchronized (bucket) {
+                bucket.refill(System.nanoTime());
+                bucket.rate = limit.rate();
+                bucket.capacity = limit.capacity();
+                bucket.tokens = Math.min(bucket.tokens, bucket.capacity);
+            }
+        }
+    }
+
+    /**
+     * 上游限流（429）时暂停账号的放行
+     * <p>
+     * 清空积累的令牌，并在pause内不补充令牌；之后按原速率继续放行排队中的请求。
+     *
+     * @param account 账号标识
+     * @param pause   暂停时长（如Retry-After），为0时只清空积累的令牌
+     */
+    public void throttle(String account, Duration pause) {
+        Bucket bucket = buckets.get(account == null ? "" : account);
+        if (bucket == null) {
+            return;
+        }
+        synchronized (bucket) {
+            bucket.refill(System.nanoTime());
+            bucket.tokens = Math.min(bucket.tokens, 0) - Math.max(0, pause.toNanos()) * bucket.rate;
+            if (bucket.drainScheduled != null && bucket.drainScheduled.cancel(false)) {
+                bucket.drainScheduled = null;
+            }
+            if (!bucket.queue.isEmpty()) {
+                bucket.scheduleDrain();
+            }
+        }
+    }
+
+    /**
+     * 当前排队中的请求数
+     */
+    public int getQueued() {
+        return queued.get();
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * 放行队首的请求，令牌不足时安排下一次放行
+     */
+    private void drain(Bucket bucket) {
+        List<Waiter> granted = new ArrayList<>();
+        long now = System.nanoTime();
+        synchronized (bucket) {
+            bucket.drainScheduled = null;
+            bucket.refill(now);
+            Iterator<Waiter> it = bucket.queue.iterator();
+            while (it.hasNext() && bucket.tokens >= 1) {
+                Waiter waiter = it.next();
+                it.remove();
+                queued.decrementAndGet();
+                waiter.timeout.cancel(false);
+                bucket.tokens -= 1;
+                granted.add(waiter);
+            }
+            if (!bucket.queue.isEmpty()) {
+                bucket.scheduleDrain();
+            }
+        }
+        for (Waiter waiter : granted) {
+            waitTimer.record(now - waiter.enqueuedAt, TimeUnit.NANOSECONDS);
+            waiter.future.complete(null);
+        }
+    }
+
+    private void expire(Bucket bucket, Waiter waiter) {
+        if (!remove(bucket, waiter)) {
+            return;
+        }
+        meterRegistry.counter("tencent.api.ratelimit.rejected", "reason", "timeout").increment();
+        waiter.future.completeExceptionally(new TimeoutException("发布请求排队超时"));
+    }
+
+    /**
+     * 从队列中移除等待者
+     *
+     * @return 等待者仍在队列中时返回true
+     */
+    private boolean remove(Bucket bucket, Waiter waiter) {
+        synchronized (bucket) {
+            if (!bucket.queue.remove(waiter)) {
+                return false;
+            }
+            queued.decrementAndGet();
+            return true;
+        }
+    }
+
+    /**
+     * 单个账号的令牌桶，所有字段在桶的锁内访问
+     */
+    private final class Bucket {
+
+        private double rate;
+        private int capacity;
+        private double tokens;
+        private long lastRefill = System.nanoTime();
+        private final ArrayDeque<Waiter> queue = new ArrayDeque<>();
+        private ScheduledFuture<?> drainScheduled;
+
+        private Bucket(double rate, int capacity) {
+            this.rate = rate;
+            this.capacity = capacity;
+            this.tokens = capacity;
+        }
+
+        private void refill(long now) {
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * rate);
+            lastRefill = now;
+        }
+
+        private void scheduleDrain() {
+            if (drainScheduled != null) {
+                return;
+            }
+            long delay = tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) / rate);
+            drainScheduled = scheduler.schedule(() -> drain(this), delay, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private record Limit(double rate, int capacity) {
+    }
+
+    private static final class Waiter {
+
+        private final long enqueuedAt;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+        private ScheduledFuture<?> timeout;
+
+        private Waiter(long enqueuedAt) {
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+}
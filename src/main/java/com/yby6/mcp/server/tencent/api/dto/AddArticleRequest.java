@@ -1,8 +1,16 @@
 package com.yby6.mcp.server.tencent.api.dto;
 
+import com.alibaba.fastjson.annotation.JSONField;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.yby6.mcp.server.tencent.mcpService.utils.ConvertOptions;
+import com.yby6.mcp.server.tencent.mcpService.utils.MarkdownConvertCache;
 import com.yby6.mcp.server.tencent.mcpService.utils.MarkdownToProseMirrorConverter;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
 
+import java.io.StringReader;
 import java.util.List;
 import java.util.Map;
 
@@ -15,7 +23,7 @@ import java.util.Map;
  * <p>
  * 主要功能：
  * 1. 封装文章发布所需的所有参数
- * 2. 支持Markdown到ProseMirror格式的自动转换
+ * 2. 支持Markdown到ProseMirror格式的显式转换（按内容摘要缓存）
  * 3. 提供文章分类、标签、专栏等管理功能
  *
  * @author yby6
@@ -39,10 +47,38 @@ public class AddArticleRequest {
     /**
      * 文章纯文本内容
      * 用于SEO和摘要展示
-     * 当content为空时，会自动将plain转换为ProseMirror格式
+     * 调用{@link #renderContent()}后转换为ProseMirror格式写入content；
+     * 未转换的请求在发送时由{@link com.yby6.mcp.server.tencent.api.StreamingArticleRequestBody}流式转换
      */
     private String plain;
 
+    /**
+     * content对应的Markdown摘要
+     * 用于判断content是否与当前plain一致，不参与请求序列化
+     */
+    @JsonIgnore
+    @JSONField(serialize = false)
+    private String contentHash;
+
+    /**
+     * 超长正文预先完成解析与图片处理的结果，发送时由流式请求体写出
+     * 与preparedHash一起由{@link #prepareContent(ConvertOptions)}设置，不参与请求序列化
+     */
+    @JsonIgnore
+    @JSONField(serialize = false)
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private transient MarkdownToProseMirrorConverter.PreparedDocument preparedContent;
+
+    /**
+     * preparedContent对应的Markdown摘要
+     */
+    @JsonIgnore
+    @JSONField(serialize = false)
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private transient String preparedHash;
+
     /**
      * 文章来源类型
      * 1: 原创
@@ -130,16 +166,73 @@ public class AddArticleRequest {
     private Long draftId;
 
     /**
-     * 获取ProseMirror格式的内容
+     * 将plain转换为ProseMirror格式并写入content
+     * <p>
+     * 转换结果以plain的摘要为键：plain未变化时直接返回，不会重复转换；
+     * 相同正文在不同请求之间通过{@link MarkdownConvertCache}复用。
+     * 序列化请求体和打印日志时只读取content字段，不再触发转换。
+     *
+     * @return 当前请求对象
+     */
+    public AddArticleRequest renderContent() {
+        return renderContent(new ConvertOptions());
+    }
+
+    /**
+     * 按指定转换选项将plain转换为ProseMirror格式并写入content
+     *
+     * @param options 转换选项
+     * @return 当前请求对象
+     * @see #renderContent()
+     */
+    public AddArticleRequest renderContent(ConvertOptions options) {
+        String hash = MarkdownConvertCache.hash(plain);
+        if (content != null && hash.equals(contentHash)) {
+            return this;
+        }
+        this.content = MarkdownConvertCache.convert(hash, markdownForConversion(), options);
+        this.contentHash = hash;
+        return this;
+    }
+
+    /**
+     * 预先完成plain的解析、图片转存与尺寸探测，不生成content
+     * <p>
+     * 用于超过流式阈值的正文：在调用方线程完成网络操作，发送请求时
+     * {@link com.yby6.mcp.server.tencent.api.StreamingArticleRequestBody}只需遍历AST写出，
+     * 不会占用限流或OkHttp的线程。
+     *
+     * @param options 转换选项
+     * @return 当前请求对象
+     */
+    public AddArticleRequest prepareContent(ConvertOptions options) {
+        String hash = MarkdownConvertCache.hash(plain);
+        if (preparedContent != null && hash.equals(preparedHash)) {
+            return this;
+        }
+        this.preparedContent = MarkdownToProseMirrorConverter.prepare(new StringReader(markdownForConversion()), options);
+        this.preparedHash = hash;
+        return this;
+    }
+
+    /**
+     * 获取预先处理的正文
+     *
+     * @return 与当前plain一致的预处理结果，未预处理或plain已变化时返回null
+     */
+    public MarkdownToProseMirrorConverter.PreparedDocument preparedContent() {
+        return preparedContent != null && MarkdownConvertCache.hash(plain).equals(preparedHash) ? preparedContent : null;
+    }
+
+    /**
+     * 获取实际参与转换的Markdown文本
      * <p>
-     * 该方法用于获取文章内容的ProseMirror格式。
-     * 如果content为空，则自动将plain转换为ProseMirror格式。
-     * 确保文章内容始终以正确的格式提供给编辑器。
+     * 编辑器不支持vue代码块，转换前统一替换为javascript。
      *
-     * @return ProseMirror格式的内容
+     * @return 待转换的Markdown文本，plain为null时返回null
      */
-    public String getContent() {
-        return MarkdownToProseMirrorConverter.convert(plain.replaceAll("```vue", "```javascript"));
+    public String markdownForConversion() {
+        return plain == null ? null : plain.replace("```vue", "```javascript");
     }
 
 }
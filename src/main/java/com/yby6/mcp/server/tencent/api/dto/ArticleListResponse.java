@@ -0,0 +1,59 @@
+package com.yby6.mcp.server.tencent.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 腾讯云开发者社区文章列表响应DTO
+ * <p>
+ * 该DTO类用于封装分页查询当前账号文章列表的返回结果，包含文章总数与当前页的文章。
+ * 使用Lombok的@Data注解自动生成getter、setter等方法。
+ *
+ * @author yby6
+ * @version 1.0.0
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ArticleListResponse {
+    /**
+     * 文章总数
+     * 用于计算需要请求的页数
+     */
+    private Integer total;
+
+    /**
+     * 当前页的文章
+     * 按发布时间倒序排列
+     */
+    private List<Article> list;
+
+    /**
+     * 文章摘要信息
+     */
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Article {
+        /**
+         * 文章ID
+         */
+        private Long articleId;
+
+        /**
+         * 文章标题
+         */
+        private String title;
+
+        /**
+         * 文章状态
+         * 具体的状态码需要参考腾讯云开发者社区的API文档
+         */
+        private Integer status;
+
+        /**
+         * 发布时间（秒级时间戳）
+         */
+        private Long createTime;
+    }
+}
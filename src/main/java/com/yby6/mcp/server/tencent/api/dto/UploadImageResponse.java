@@ -0,0 +1,31 @@
+package com.yby6.mcp.server.tencent.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+/**
+ * 腾讯云开发者社区图片上传响应DTO
+ * <p>
+ * 该DTO类用于封装上传图片后的返回结果，包含上传状态与图片地址。
+ * 使用Lombok的@Data注解自动生成getter、setter等方法。
+ *
+ * @author yby6
+ * @version 1.0.0
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class UploadImageResponse {
+    /**
+     * 上传状态
+     * 0: 成功
+     * 非0: 失败
+     */
+    private Integer status;
+
+    /**
+     * 图片地址
+     * 上传成功后返回的可公开访问的图片URL
+     * 在上传失败时可能为null
+     */
+    private String url;
+}
@@ -0,0 +1,99 @@
+package com.yby6.mcp.server.tencent.mcpService.config;
+
+import com.yby6.mcp.server.tencent.api.AccountPool;
+import com.yby6.mcp.server.tencent.api.ITencentService;
+import com.yby6.mcp.server.tencent.api.SessionHealthChecker;
+import com.yby6.mcp.server.tencent.mcpService.config.properties.TencentApiProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import okhttp3.OkHttpClient;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+import retrofit2.Retrofit;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 账号池配置类
+ * <p>
+ * 配置了tencent.api.accounts时按列表创建账号池，否则使用tencent.api.cookie作为名为default的单个账号。
+ * 默认在后台检查各账号的登录状态，见{@link SessionHealthChecker}。
+ *
+ * @author yby6
+ * @version 1.0.0
+ */
+@Configuration
+public class AccountConfig {
+
+    /**
+     * 未配置账号列表时的账号名称
+     */
+    public static final String DEFAULT_ACCOUNT = "default";
+
+    /**
+     * 发布账号池
+     *
+     * @param tencentApiProperties 腾讯云API配置属性
+     * @param meterRegistry        指标注册表
+     * @return 账号池
+     */
+    @Bean
+    public AccountPool accountPool(TencentApiProperties tencentApiProperties, MeterRegistry meterRegistry) {
+        List<AccountPool.AccountSpec> specs = new ArrayList<>();
+        for (TencentApiProperties.Account account : tencentApiProperties.getAccounts()) {
+            if (!StringUtils.hasText(account.getName())) {
+                throw new IllegalStateException("tencent.api.accounts 中的账号必须配置 name");
+            }
+            if (!StringUtils.hasText(account.getCookie()) && !StringUtils.hasText(account.getCookieFile())) {
+                throw new IllegalStateException("账号 " + account.getName() + " 必须配置 cookie 或 cookie-file");
+            }
+            Path cookieFile = StringUtils.hasText(account.getCookieFile()) ? Path.of(account.getCookieFile()) : null;
+            specs.add(new AccountPool.AccountSpec(account.getName(), account.getCookie(), cookieFile,
+                    account.getWeight()));
+        }
+        if (specs.isEmpty()) {
+            specs.add(new AccountPool.AccountSpec(DEFAULT_ACCOUNT, tencentApiProperties.getCookie(), null, 1));
+        }
+        TencentApiProperties.Pool pool = tencentApiProperties.getPool();
+        return new AccountPool(specs, pool.getSelection(), pool.getUnhealthyCooldown(), meterRegistry);
+    }
+
+    /**
+     * 登录会话健康检查
+     * <p>
+     * 未配置tencent.api.session-check.enabled时默认启用，启动后立即检查一次。
+     * <p>
+     * 检查请求直接使用共享的OkHttpClient，不经过{@link com.yby6.mcp.server.tencent.api.ResilienceInterceptor}：
+     * 检查失败不重试，也不计入发布请求共用的熔断器，检查地址配置错误或不可达时不会影响发布。
+     *
+     * @param tencentApiProperties 腾讯云API配置属性
+     * @param okHttpClient         共享的HTTP客户端
+     * @param accountPool          账号池
+     * @param meterRegistry        指标注册表
+     * @return 会话检查器
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "tencent.api.session-check", name = "enabled", havingValue = "true",
+            matchIfMissing = true)
+    public SessionHealthChecker sessionHealthChecker(TencentApiProperties tencentApiProperties,
+                                                     OkHttpClient okHttpClient, AccountPool accountPool,
+                                                     MeterRegistry meterRegistry) {
+        TencentApiProperties.SessionCheck sessionCheck = tencentApiProperties.getSessionCheck();
+        if (!StringUtils.hasText(sessionCheck.getUrl())) {
+            throw new IllegalStateException("启用会话检查时必须配置 tencent.api.session-check.url");
+        }
+        ITencentService probeService = new Retrofit.Builder()
+                .baseUrl(RetrofitConfig.BASE_URL)
+                .client(okHttpClient)
+                .build()
+                .create(ITencentService.class);
+        SessionHealthChecker checker = new SessionHealthChecker(probeService, sessionCheck.getUrl(), accountPool,
+                sessionCheck.getStaleAfter(), meterRegistry);
+        checker.start(sessionCheck.getInterval());
+        return checker;
+    }
+
+}
@@ -0,0 +1,42 @@
+package com.yby6.mcp.server.tencent.mcpService.config;
+
+import com.yby6.mcp.server.tencent.api.AccountPool;
+import com.yby6.mcp.server.tencent.api.ArticleListCache;
+import com.yby6.mcp.server.tencent.api.ITencentService;
+import com.yby6.mcp.server.tencent.mcpService.config.properties.TencentApiProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 文章列表配置类
+ * <p>
+ * 未配置tencent.api.article-list.enabled时默认启用。
+ *
+ * @author yby6
+ * @version 1.0.0
+ */
+@Configuration
+public class ArticleListConfig {
+
+    /**
+     * 文章列表缓存
+     *
+     * @param tencentService       腾讯云接口
+     * @param accountPool          账号池
+     * @param tencentApiProperties 腾讯云API配置属性
+     * @param meterRegistry        指标注册表
+     * @return 文章列表缓存
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "tencent.api.article-list", name = "enabled", havingValue = "true",
+            matchIfMissing = true)
+    public ArticleListCache articleListCache(ITencentService tencentService, AccountPool accountPool,
+                                             TencentApiProperties tencentApiProperties, MeterRegistry meterRegistry) {
+        TencentApiProperties.ArticleList articleList = tencentApiProperties.getArticleList();
+        return new ArticleListCache(tencentService, articleList.getUrl(), accountPool, articleList.getPageSize(),
+                articleList.getTtl(), articleList.getRefreshAhead(), articleList.getMaxEntries(), meterRegistry);
+    }
+
+}
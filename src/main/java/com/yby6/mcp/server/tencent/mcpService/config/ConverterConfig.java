@@ -0,0 +1,145 @@
+package com.yby6.mcp.server.tencent.mcpService.config;
+
+import com.yby6.mcp.server.tencent.api.AccountPool;
+import com.yby6.mcp.server.tencent.api.ITencentService;
+import com.yby6.mcp.server.tencent.api.PublicAddressDns;
+import com.yby6.mcp.server.tencent.api.TencentImageUploader;
+import com.yby6.mcp.server.tencent.mcpService.config.properties.TencentApiProperties;
+import com.yby6.mcp.server.tencent.mcpService.utils.ConvertOptions;
+import com.yby6.mcp.server.tencent.mcpService.utils.ImageHashIndex;
+import com.yby6.mcp.server.tencent.mcpService.utils.ImageRehoster;
+import com.yby6.mcp.server.tencent.mcpService.utils.ImageSizeCache;
+import com.yby6.mcp.server.tencent.mcpService.utils.ImageSizeProber;
+import com.yby6.mcp.server.tencent.mcpService.utils.ProseMirrorFragmentCache;
+import okhttp3.OkHttpClient;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+import java.nio.file.Path;
+
+/**
+ * Markdown转换配置类
+ * <p>
+ * 根据tencent.api.converter.*配置创建发布文章时使用的转换选项。
+ *
+ * @author yby6
+ * @version 1.0.0
+ */
+@Configuration
+public class ConverterConfig {
+
+    /**
+     * 增量转换的片段缓存
+     *
+     * @param tencentApiProperties 腾讯云API配置属性
+     * @return 片段缓存
+     */
+    @Bean
+    public ProseMirrorFragmentCache proseMirrorFragmentCache(TencentApiProperties tencentApiProperties) {
+        return new ProseMirrorFragmentCache(tencentApiProperties.getConverter().getFragmentCacheMaxChars());
+    }
+
+    /**
+     * 图片尺寸缓存，由尺寸探测与图片转存共用
+     *
+     * @param tencentApiProperties 腾讯云API配置属性
+     * @return 图片尺寸缓存
+     */
+    @Bean
+    public ImageSizeCache imageSizeCache(TencentApiProperties tencentApiProperties) {
+        TencentApiProperties.ImageProbe probe = tencentApiProperties.getConverter().getImageProbe();
+        Path cacheFile = StringUtils.hasText(probe.getCacheFile()) ? Path.of(probe.getCacheFile()) : null;
+        return new ImageSizeCache(probe.getCacheMaxEntries(), cacheFile);
+    }
+
+    /**
+     * 图片尺寸探测器
+     * <p>
+     * 配置tencent.api.converter.image-probe.enabled=true时启用，只访问公网地址。
+     *
+     * @param tencentApiProperties 腾讯云API配置属性
+     * @param imageSizeCache       图片尺寸缓存
+     * @param okHttpClient         共享的HTTP客户端
+     * @return 图片尺寸探测器
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "tencent.api.converter.image-probe", name = "enabled", havingValue = "true")
+    public ImageSizeProber imageSizeProber(TencentApiProperties tencentApiProperties, ImageSizeCache imageSizeCache,
+                                           OkHttpClient okHttpClient) {
+        TencentApiProperties.ImageProbe probe = tencentApiProperties.getConverter().getImageProbe();
+        return ImageSizeProber.create(externalClient(okHttpClient), probe.getConcurrency(), probe.getTimeout(), probe.getDeadline(),
+                probe.getMaxHeaderBytes(), imageSizeCache);
+    }
+
+    /**
+     * 图片转存器
+     * <p>
+     * 配置tencent.api.image-rehost.enabled=true时启用，下载图片时只访问公网地址。
+     * 腾讯云API服务在首次上传时才获取，避免与依赖转换选项的{@link ITencentService}形成循环依赖。
+     *
+     * @param tencentApiProperties 腾讯云API配置属性
+     * @param imageSizeCache       图片尺寸缓存
+     * @param tencentService       腾讯云API服务
+     * @param okHttpClient         共享的HTTP客户端
+     * @param accountPool          账号池，图片使用第一个可用账号上传
+     * @return 图片转存器
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "tencent.api.image-rehost", name = "enabled", havingValue = "true")
+    public ImageRehoster imageRehoster(TencentApiProperties tencentApiProperties, ImageSizeCache imageSizeCache,
+                                       ObjectProvider<ITencentService> tencentService, OkHttpClient okHttpClient,
+                                       ObjectProvider<AccountPool> accountPool) {
+        TencentApiProperties.ImageRehost rehost = tencentApiProperties.getImageRehost();
+        if (!StringUtils.hasText(rehost.getUploadUrl())) {
+            throw new IllegalStateException("启用图片转存时必须配置 tencent.api.image-rehost.upload-url");
+        }
+        TencentImageUploader uploader = new TencentImageUploader(tencentService::getObject, rehost.getUploadUrl(),
+                () -> accountPool.getObject().primaryCookie());
+        Path indexFile = StringUtils.hasText(rehost.getIndexFile()) ? Path.of(rehost.getIndexFile()) : null;
+        ImageHashIndex index = new ImageHashIndex(indexFile, rehost.getSourceCacheMaxEntries(), rehost.getSourceCacheTtl());
+        return ImageRehoster.create(externalClient(okHttpClient), uploader, index, imageSizeCache,
+                rehost.getConcurrency(), rehost.getTimeout(), rehost.getMaxImageBytes(), rehost.getDeadline());
+    }
+
+    /**
+     * 发布文章时使用的转换选项
+     * <p>
+     * 该对象在请求之间共享，创建后不应再修改。
+     *
+     * @param tencentApiProperties     腾讯云API配置属性
+     * @param proseMirrorFragmentCache 片段缓存
+     * @param imageSizeProber          图片尺寸探测器，未启用时不存在
+     * @param imageRehoster            图片转存器，未启用时不存在
+     * @return 转换选项
+     */
+    @Bean
+    public ConvertOptions convertOptions(TencentApiProperties tencentApiProperties,
+                                         ProseMirrorFragmentCache proseMirrorFragmentCache,
+                                         ObjectProvider<ImageSizeProber> imageSizeProber,
+                                         ObjectProvider<ImageRehoster> imageRehoster) {
+        TencentApiProperties.Converter converter = tencentApiProperties.getConverter();
+        ConvertOptions options = new ConvertOptions();
+        options.setIdStrategy(converter.getIdStrategy());
+        options.setParserEngine(converter.getParserEngine());
+        options.setIncremental(converter.isIncremental());
+        options.setFragmentCache(proseMirrorFragmentCache);
+        options.setParallel(converter.isParallel());
+        options.setParallelThreshold(converter.getParallelThreshold());
+        options.setStreamingThreshold(converter.getStreamingThreshold());
+        options.setImageProber(imageSizeProber.getIfAvailable());
+        options.setImageRehoster(imageRehoster.getIfAvailable());
+        return options;
+    }
+
+    /**
+     * 访问文章中外部URL的HTTP客户端，拒绝解析到本机与内网的地址
+     */
+    private static OkHttpClient externalClient(OkHttpClient okHttpClient) {
+        return okHttpClient.newBuilder()
+                .dns(new PublicAddressDns(okHttpClient.dns()))
+                .build();
+    }
+}
@@ -0,0 +1,43 @@
+package com.yby6.mcp.server.tencent.mcpService.config;
+
+import com.yby6.mcp.server.tencent.mcpService.utils.VirtualThreads;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * 执行模式配置类
+ * <p>
+ * 配置tencent.api.execution.virtual-threads=true时创建虚拟线程执行器，
+ * 由{@link ToolConfiguration}用于执行异步工具调用，由{@link HttpClientConfig}用作OkHttp的Dispatcher线程池。
+ * 阻塞在网络I/O上的虚拟线程不占用平台线程，高并发发布时线程开销可以忽略。
+ * <p>
+ * 同步MCP服务器的工具调用运行在传输层线程上，可同时配置spring.threads.virtual.enabled=true。
+ *
+ * @author yby6
+ * @version 1.0.0
+ */
+@Configuration
+public class ExecutionConfig {
+
+    /**
+     * 虚拟线程执行器Bean名称
+     */
+    public static final String VIRTUAL_THREAD_EXECUTOR = "virtualThreadExecutor";
+
+    /**
+     * 虚拟线程执行器
+     * <p>
+     * 运行时低于Java 21时启动失败，避免配置开启却静默退回平台线程。
+     *
+     * @return 每个任务一个虚拟线程的执行器
+     */
+    @Bean(name = VIRTUAL_THREAD_EXECUTOR, destroyMethod = "shutdown")
+    @ConditionalOnProperty(prefix = "tencent.api.execution", name = "virtual-threads", havingValue = "true")
+    public ExecutorService virtualThreadExecutor() {
+        return VirtualThreads.newThreadPerTaskExecutor("tencent-vt-");
+    }
+
+}
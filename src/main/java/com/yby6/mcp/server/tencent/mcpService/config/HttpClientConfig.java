@@ -0,0 +1,69 @@
+package com.yby6.mcp.server.tencent.mcpService.config;
+
+import com.yby6.mcp.server.tencent.api.CachingDns;
+import com.yby6.mcp.server.tencent.mcpService.config.properties.TencentApiProperties;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.Dns;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP客户端配置类
+ * <p>
+ * 根据tencent.api.http.*配置创建全局共享的OkHttpClient。
+ * 所有Retrofit服务以及图片探测、转存都基于该实例（按需通过newBuilder()调整超时），
+ * 共用同一个连接池、Dispatcher与DNS缓存，多次发布之间复用TLS连接。
+ *
+ * @author yby6
+ * @version 1.0.0
+ */
+@Configuration
+public class HttpClientConfig {
+
+    /**
+     * 共享的OkHttpClient
+     * <p>
+     * 启用虚拟线程时，Dispatcher在虚拟线程上执行异步请求，见{@link ExecutionConfig}。
+     *
+     * @param tencentApiProperties  腾讯云API配置属性
+     * @param virtualThreadExecutor 虚拟线程执行器，未启用时为空
+     * @return OkHttpClient
+     */
+    @Bean
+    public OkHttpClient okHttpClient(TencentApiProperties tencentApiProperties,
+                                     @Qualifier(ExecutionConfig.VIRTUAL_THREAD_EXECUTOR)
+                                     ObjectProvider<ExecutorService> virtualThreadExecutor) {
+        TencentApiProperties.Http http = tencentApiProperties.getHttp();
+
+        ExecutorService executor = virtualThreadExecutor.getIfAvailable();
+        Dispatcher dispatcher = executor != null ? new Dispatcher(executor) : new Dispatcher();
+        dispatcher.setMaxRequests(http.getMaxRequests());
+        dispatcher.setMaxRequestsPerHost(http.getMaxRequestsPerHost());
+
+        OkHttpClient.Builder builder = new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .connectionPool(new ConnectionPool(http.getMaxIdleConnections(),
+                        http.getKeepAlive().toMillis(), TimeUnit.MILLISECONDS))
+                .protocols(http.isHttp2()
+                        ? List.of(Protocol.HTTP_2, Protocol.HTTP_1_1)
+                        : List.of(Protocol.HTTP_1_1))
+                .connectTimeout(http.getConnectTimeout())
+                .readTimeout(http.getReadTimeout())
+                .writeTimeout(http.getWriteTimeout())
+                .callTimeout(http.getCallTimeout());
+        if (!http.getDnsCacheTtl().isZero()) {
+            builder.dns(new CachingDns(Dns.SYSTEM, http.getDnsCacheTtl(), http.getDnsCacheMaxEntries()));
+        }
+        return builder.build();
+    }
+
+}
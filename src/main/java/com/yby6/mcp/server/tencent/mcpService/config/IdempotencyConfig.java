@@ -0,0 +1,42 @@
+package com.yby6.mcp.server.tencent.mcpService.config;
+
+import com.yby6.mcp.server.tencent.mcpService.config.properties.TencentApiProperties;
+import com.yby6.mcp.server.tencent.mcpService.idempotency.IdempotencyStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * 幂等发布配置类
+ * <p>
+ * 未配置tencent.api.idempotency.enabled时默认启用。
+ *
+ * @author yby6
+ * @version 1.0.0
+ */
+@Configuration
+public class IdempotencyConfig {
+
+    /**
+     * 发布幂等存储
+     *
+     * @param tencentApiProperties 腾讯云API配置属性
+     * @param meterRegistry        指标注册表
+     * @return 幂等存储，启动时加载记录文件
+     * @throws IOException 记录文件不可读写
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "tencent.api.idempotency", name = "enabled", havingValue = "true",
+            matchIfMissing = true)
+    public IdempotencyStore idempotencyStore(TencentApiProperties tencentApiProperties,
+                                             MeterRegistry meterRegistry) throws IOException {
+        TencentApiProperties.Idempotency idempotency = tencentApiProperties.getIdempotency();
+        return new IdempotencyStore(Path.of(idempotency.getFile()), idempotency.getMaxEntries(),
+                idempotency.getTtl(), meterRegistry);
+    }
+
+}
@@ -0,0 +1,32 @@
+package com.yby6.mcp.server.tencent.mcpService.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 指标配置类
+ * <p>
+ * 未引入Actuator等提供MeterRegistry的依赖时，注册一个内存中的SimpleMeterRegistry，
+ * 重试与熔断等指标始终可以记录和读取。
+ *
+ * @author yby6
+ * @version 1.0.0
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * 默认指标注册表
+     *
+     * @return 内存指标注册表
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public MeterRegistry meterRegistry() {
+        return new SimpleMeterRegistry();
+    }
+
+}
@@ -0,0 +1,44 @@
+package com.yby6.mcp.server.tencent.mcpService.config;
+
+import com.yby6.mcp.server.tencent.mcpService.config.properties.TencentApiProperties;
+import com.yby6.mcp.server.tencent.mcpService.outbox.PublishOutbox;
+import com.yby6.mcp.server.tencent.mcpService.tools.server.ToolServiceMarker;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * 发件箱配置类
+ * <p>
+ * 未配置tencent.api.outbox.enabled时默认启用，后台通过{@link ToolServiceMarker#saveArticle}发布文章，
+ * 因此与同步发布共用重试、熔断与按账号限流。
+ *
+ * @author yby6
+ * @version 1.0.0
+ */
+@Configuration
+public class OutboxConfig {
+
+    /**
+     * 持久化发布发件箱
+     *
+     * @param tencentApiProperties      腾讯云API配置属性
+     * @param tencentArticleToolService 文章发布服务
+     * @return 发件箱，启动时重放日志并继续发布未完成的文章
+     * @throws IOException 日志目录不可读写
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "tencent.api.outbox", name = "enabled", havingValue = "true",
+            matchIfMissing = true)
+    public PublishOutbox publishOutbox(TencentApiProperties tencentApiProperties,
+                                       ToolServiceMarker tencentArticleToolService) throws IOException {
+        TencentApiProperties.Outbox outbox = tencentApiProperties.getOutbox();
+        return new PublishOutbox(Path.of(outbox.getDirectory()), outbox.getSegmentMaxBytes(), outbox.isFsync(),
+                outbox.getWorkers(), outbox.getMaxAttempts(), outbox.getRetryBackoff(), outbox.getMaxResults(),
+                tencentArticleToolService::saveArticle);
+    }
+
+}
@@ -1,14 +1,21 @@
 package com.yby6.mcp.server.tencent.mcpService.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yby6.mcp.server.tencent.api.ArticleRequestBodyConverterFactory;
 import com.yby6.mcp.server.tencent.api.ITencentService;
+import com.yby6.mcp.server.tencent.api.ResilienceInterceptor;
+import com.yby6.mcp.server.tencent.api.TokenBucketRateLimiter;
+import com.yby6.mcp.server.tencent.mcpService.config.properties.TencentApiProperties;
+import com.yby6.mcp.server.tencent.mcpService.utils.ConvertOptions;
+import io.micrometer.core.instrument.MeterRegistry;
 import okhttp3.OkHttpClient;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import retrofit2.Retrofit;
 import retrofit2.converter.jackson.JacksonConverterFactory;
 
-import java.util.concurrent.TimeUnit;
-
 /**
  * Retrofit配置类
  * <p>
@@ -26,31 +33,84 @@ public class RetrofitConfig {
     /**
      * 腾讯云API基础URL
      */
-    private static final String BASE_URL = "https://cloud.tencent.com/";
+    static final String BASE_URL = "https://cloud.tencent.com/";
+
+    /**
+     * 腾讯云接口的重试与熔断拦截器
+     * <p>
+     * 未配置tencent.api.resilience.enabled时默认启用。
+     *
+     * @param tencentApiProperties 腾讯云API配置属性
+     * @param meterRegistry        指标注册表
+     * @return 重试与熔断拦截器
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "tencent.api.resilience", name = "enabled", havingValue = "true",
+            matchIfMissing = true)
+    public ResilienceInterceptor resilienceInterceptor(TencentApiProperties tencentApiProperties,
+                                                       MeterRegistry meterRegistry) {
+        TencentApiProperties.Resilience resilience = tencentApiProperties.getResilience();
+        return new ResilienceInterceptor(resilience.getMaxAttempts(), resilience.getInitialBackoff(),
+                resilience.getMaxBackoff(), resilience.getMultiplier(), resilience.getFailureThreshold(),
+                resilience.getOpenDuration(), meterRegistry);
+    }
+
+    /**
+     * 按账号的发布限流器
+     * <p>
+     * 未配置tencent.api.rate-limit.enabled时默认启用，按账号名称限流，账号可以单独配置速率。
+     *
+     * @param tencentApiProperties 腾讯云API配置属性
+     * @param meterRegistry        指标注册表
+     * @return 发布限流器
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "tencent.api.rate-limit", name = "enabled", havingValue = "true",
+            matchIfMissing = true)
+    public TokenBucketRateLimiter tokenBucketRateLimiter(TencentApiProperties tencentApiProperties,
+                                                         MeterRegistry meterRegistry) {
+        TencentApiProperties.RateLimit rateLimit = tencentApiProperties.getRateLimit();
+        TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter(rateLimit.getRequestsPerMinute(),
+                rateLimit.getBurst(), rateLimit.getMaxQueue(), rateLimit.getQueueTimeout(), meterRegistry);
+        // 单独配置了速率的账号
+        for (TencentApiProperties.Account account : tencentApiProperties.getAccounts()) {
+            if (account.getRequestsPerMinute() != null || account.getBurst() != null) {
+                rateLimiter.setLimit(account.getName(),
+                        account.getRequestsPerMinute() != null ? account.getRequestsPerMinute() : rateLimit.getRequestsPerMinute(),
+                        account.getBurst() != null ? account.getBurst() : rateLimit.getBurst());
+            }
+        }
+        return rateLimiter;
+    }
 
     /**
      * 配置并创建腾讯API服务实例
      * <p>
-     * 该方法创建了一个配置了超时设置的OkHttpClient，并使用Retrofit构建API服务接口。
-     * 主要配置包括：
-     * - 连接超时：30秒
-     * - 读取超时：30秒
-     * - 写入超时：30秒
+     * 使用{@link HttpClientConfig}创建的共享OkHttpClient，连接池、超时等由tencent.api.http.*配置，
+     * 启用时在其上加入{@link ResilienceInterceptor}（共用连接池与Dispatcher）。
+     * <p>
+     * 未预先转换正文的发布请求由{@link ArticleRequestBodyConverterFactory}流式写出请求体。
      *
+     * @param convertOptions        Markdown转换选项
+     * @param okHttpClient          共享的HTTP客户端
+     * @param resilienceInterceptor 重试与熔断拦截器，未启用时为空
      * @return 配置好的腾讯API服务接口实例
      */
     @Bean
-    public ITencentService tencentService() {
-        OkHttpClient client = new OkHttpClient.Builder()
-                .connectTimeout(30, TimeUnit.SECONDS)
-                .readTimeout(30, TimeUnit.SECONDS)
-                .writeTimeout(30, TimeUnit.SECONDS)
-                .build();
+    public ITencentService tencentService(ConvertOptions convertOptions, OkHttpClient okHttpClient,
+                                          ObjectProvider<ResilienceInterceptor> resilienceInterceptor) {
+        OkHttpClient client = okHttpClient;
+        ResilienceInterceptor interceptor = resilienceInterceptor.getIfAvailable();
+        if (interceptor != null) {
+            client = okHttpClient.newBuilder().addInterceptor(interceptor).build();
+        }
 
+        ObjectMapper objectMapper = new ObjectMapper();
         Retrofit retrofit = new Retrofit.Builder()
                 .baseUrl(BASE_URL)
                 .client(client)
-                .addConverterFactory(JacksonConverterFactory.create())
+                .addConverterFactory(new ArticleRequestBodyConverterFactory(objectMapper, convertOptions))
+                .addConverterFactory(JacksonConverterFactory.create(objectMapper))
                 .build();
 
         return retrofit.create(ITencentService.class);
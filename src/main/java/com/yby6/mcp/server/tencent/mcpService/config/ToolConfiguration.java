@@ -1,28 +1,87 @@
 package com.yby6.mcp.server.tencent.mcpService.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yby6.mcp.server.tencent.mcpService.config.properties.TencentApiProperties;
+import com.yby6.mcp.server.tencent.mcpService.tools.Deadline;
 import com.yby6.mcp.server.tencent.mcpService.tools.McpToolServer;
+import com.yby6.mcp.server.tencent.mcpService.tools.ProgressReporter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.modelcontextprotocol.server.McpAsyncServerExchange;
+import io.modelcontextprotocol.server.McpServerFeatures;
+import io.modelcontextprotocol.spec.McpSchema;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.ai.tool.ToolCallbackProvider;
+import org.springframework.ai.tool.annotation.Tool;
+import org.springframework.ai.tool.definition.ToolDefinition;
+import org.springframework.ai.tool.execution.DefaultToolCallResultConverter;
 import org.springframework.ai.tool.method.MethodToolCallbackProvider;
+import org.springframework.ai.tool.support.ToolDefinitions;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeoutException;
 
 /**
  * 工具类配置
  * 用于批量注册和管理所有工具类
+ * <p>
+ * 同步MCP服务器（spring.ai.mcp.server.type=sync，默认）通过ToolCallbackProvider注册@Tool方法；
+ * 异步MCP服务器（type=async）为每个@Tool方法注册异步工具，调用同名的xxxAsync方法，
+ * 返回的CompletableFuture直接转换为Mono，等待HTTP响应期间不占用线程。
+ * 工具方法在调用前可能执行Markdown转换、图片探测与转存、发件箱落盘等阻塞操作，因此始终在传输层线程之外调用：
+ * 启用虚拟线程时在虚拟线程上执行，未启用时在{@link Schedulers#boundedElastic()}上执行。
+ * <p>
+ * 异步方法可以在参数末尾额外声明{@link ProgressReporter}，进度以MCP日志通知（notifications/message）发送给客户端。
+ * 当前MCP SDK不向工具暴露请求的progressToken，无法发送notifications/progress。
+ * <p>
+ * 每次调用按tencent.api.execution.tool-timeout创建{@link Deadline}，注入声明了该类型参数的异步方法，
+ * 由方法自行在各阶段检查并取消请求；未声明的方法由Mono超时兜底。客户端取消或断开导致工具调用被取消时，
+ * 取消会传递到异步方法返回的CompletableFuture，进而取消进行中的HTTP请求。
+ * 当前MCP SDK不处理notifications/cancelled，也不向工具暴露请求的_meta，截止时间只能来自配置。
  *
  * @author yangbuyiya
  * Create By 2025/05/13
  */
+@Slf4j
 @Configuration
 public class ToolConfiguration {
 
+    /**
+     * 异步工具方法名后缀
+     */
+    private static final String ASYNC_SUFFIX = "Async";
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static final DefaultToolCallResultConverter resultConverter = new DefaultToolCallResultConverter();
+
     /**
      * 工具回调提供程序
      *
-     * @param tencentArticleToolService 腾讯文章工具服务
+     * @param mcpToolServer MCP工具服务
      * @return {@code ToolCallbackProvider }
      */
     @Bean
+    @ConditionalOnProperty(prefix = "spring.ai.mcp.server", name = "type", havingValue = "SYNC", matchIfMissing = true)
     public ToolCallbackProvider toolCallbackProvider(McpToolServer mcpToolServer) {
         MethodToolCallbackProvider.Builder builder = MethodToolCallbackProvider
                 .builder()
@@ -30,4 +89,152 @@ public class ToolConfiguration {
         return builder.build();
     }
 
-} 
\ No newline at end of file
+    /**
+     * 异步工具
+     * <p>
+     * 工具名称、描述与参数Schema取自@Tool方法，与同步模式下注册的工具一致。
+     *
+     * @param mcpToolServer         MCP工具服务
+     * @param tencentApiProperties  腾讯云API配置，提供工具调用的截止时间
+     * @param meterRegistry         指标注册表，记录取消次数
+     * @param virtualThreadExecutor 虚拟线程执行器，未启用时使用boundedElastic
+     * @return 异步工具列表
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "spring.ai.mcp.server", name = "type", havingValue = "ASYNC")
+    public List<McpServerFeatures.AsyncToolSpecification> asyncToolSpecifications(
+            McpToolServer mcpToolServer,
+            TencentApiProperties tencentApiProperties,
+            MeterRegistry meterRegistry,
+            @Qualifier(ExecutionConfig.VIRTUAL_THREAD_EXECUTOR) ObjectProvider<ExecutorService> virtualThreadExecutor) {
+        Duration toolTimeout = tencentApiProperties.getExecution().getToolTimeout();
+        ExecutorService executor = virtualThreadExecutor.getIfAvailable();
+        Scheduler scheduler = executor != null
+                ? Schedulers.fromExecutorService(executor, "mcp-tool")
+                : Schedulers.boundedElastic();
+        Class<?> type = AopUtils.getTargetClass(mcpToolServer);
+        List<McpServerFeatures.AsyncToolSpecification> specifications = new ArrayList<>();
+        for (Method method : type.getMethods()) {
+            if (!method.isAnnotationPresent(Tool.class)) {
+                continue;
+            }
+            Method asyncMethod = findAsyncMethod(type, method);
+            if (!CompletableFuture.class.isAssignableFrom(asyncMethod.getReturnType())) {
+                throw new IllegalStateException("异步工具必须返回CompletableFuture: " + asyncMethod);
+            }
+
+            ToolDefinition definition = ToolDefinitions.from(method);
+            McpSchema.Tool tool = new McpSchema.Tool(definition.name(), definition.description(), definition.inputSchema());
+            specifications.add(new McpServerFeatures.AsyncToolSpecification(tool,
+                    (exchange, arguments) -> call(mcpToolServer, asyncMethod, arguments, progress(exchange, tool.name()),
+                            toolTimeout, meterRegistry, scheduler)));
+        }
+        return specifications;
+    }
+
+    /**
+     * 查找@Tool方法对应的异步方法：参数相同，末尾可以多出{@link ProgressReporter}与{@link Deadline}参数
+     */
+    private static Method findAsyncMethod(Class<?> type, Method method) {
+        String name = method.getName() + ASYNC_SUFFIX;
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        for (Method candidate : type.getMethods()) {
+            Class<?>[] candidateTypes = candidate.getParameterTypes();
+            if (!candidate.getName().equals(name) || candidateTypes.length < parameterTypes.length
+                    || !Arrays.equals(parameterTypes, Arrays.copyOf(candidateTypes, parameterTypes.length))) {
+                continue;
+            }
+            boolean injectable = true;
+            for (int i = parameterTypes.length; i < candidateTypes.length; i++) {
+                injectable &= candidateTypes[i] == ProgressReporter.class || candidateTypes[i] == Deadline.class;
+            }
+            if (injectable) {
+                return candidate;
+            }
+        }
+        throw new IllegalStateException("工具缺少异步实现: " + name);
+    }
+
+    /**
+     * 以MCP日志通知报告工具进度
+     *
+     * @param exchange 当前会话，为null时不报告
+     * @param toolName 工具名称，作为日志通知的logger
+     */
+    private static ProgressReporter progress(McpAsyncServerExchange exchange, String toolName) {
+        if (exchange == null) {
+            return ProgressReporter.NONE;
+        }
+        return (completed, total, message) -> exchange
+                .loggingNotification(new McpSchema.LoggingMessageNotification(McpSchema.LoggingLevel.INFO, toolName,
+                        "[" + completed + "/" + total + "] " + message))
+                .subscribe(null, e -> log.debug("发送进度通知失败: {}", toolName, e));
+    }
+
+    /**
+     * 调用异步工具方法并转换结果
+     * <p>
+     * 参数按方法参数名从请求中取出并转换为参数类型，结果序列化方式与同步工具相同；
+     * 调用失败时返回isError=true的结果。工具方法在scheduler的线程上调用，不阻塞订阅所在的传输层线程。
+     * <p>
+     * 订阅被取消时（客户端取消或断开）计入tencent.api.cancellations{reason=client}，
+     * Mono.fromFuture随之取消工具方法返回的Future。
+     */
+    private static Mono<McpSchema.CallToolResult> call(Object target, Method method, Map<String, Object> arguments,
+                                                       ProgressReporter progress, Duration toolTimeout,
+                                                       MeterRegistry meterRegistry, Scheduler scheduler) {
+        Type resultType = method.getGenericReturnType() instanceof ParameterizedType parameterized
+                ? parameterized.getActualTypeArguments()[0]
+                : Object.class;
+        boolean acceptsDeadline = Arrays.asList(method.getParameterTypes()).contains(Deadline.class);
+        Mono<?> invocation = Mono.defer(() -> {
+            Deadline deadline = Deadline.after(toolTimeout);
+            Parameter[] parameters = method.getParameters();
+            Object[] values = new Object[parameters.length];
+            for (int i = 0; i < parameters.length; i++) {
+                if (parameters[i].getType() == ProgressReporter.class) {
+                    values[i] = progress;
+                    continue;
+                }
+                if (parameters[i].getType() == Deadline.class) {
+                    values[i] = deadline;
+                    continue;
+                }
+                Object raw = arguments != null ? arguments.get(parameters[i].getName()) : null;
+                values[i] = objectMapper.convertValue(raw,
+                        objectMapper.getTypeFactory().constructType(parameters[i].getParameterizedType()));
+            }
+            try {
+                return Mono.fromFuture((CompletableFuture<?>) method.invoke(target, values));
+            } catch (InvocationTargetException e) {
+                return Mono.error(e.getCause());
+            } catch (IllegalAccessException e) {
+                return Mono.error(e);
+            }
+        }).subscribeOn(scheduler);
+        // 不接收截止时间的工具方法由Mono超时兜底，超时后取消订阅即取消Future
+        if (!acceptsDeadline && toolTimeout != null
+                && !toolTimeout.isZero() && !toolTimeout.isNegative()) {
+            invocation = invocation.timeout(toolTimeout);
+        }
+        return invocation
+                .map(result -> new McpSchema.CallToolResult(
+                        List.of(new McpSchema.TextContent(resultConverter.convert(result, resultType))), false))
+                .doOnCancel(() -> {
+                    log.info("工具调用已取消: {}", method.getName());
+                    meterRegistry.counter(Deadline.CANCELLATIONS, "reason", "client").increment();
+                })
+                .onErrorResume(TimeoutException.class, e -> {
+                    log.warn("工具调用超时: {}", method.getName());
+                    meterRegistry.counter(Deadline.CANCELLATIONS, "reason", "deadline").increment();
+                    return Mono.just(new McpSchema.CallToolResult(
+                            List.of(new McpSchema.TextContent("工具调用超时，已取消")), true));
+                })
+                .onErrorResume(e -> {
+                    log.error("工具调用失败: {}", method.getName(), e);
+                    return Mono.just(new McpSchema.CallToolResult(
+                            List.of(new McpSchema.TextContent(String.valueOf(e.getMessage()))), true));
+                });
+    }
+
+}
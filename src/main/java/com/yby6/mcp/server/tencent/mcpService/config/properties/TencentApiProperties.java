@@ -1,9 +1,21 @@
 package com.yby6.mcp.server.tencent.mcpService.config.properties;
 
+import com.yby6.mcp.server.tencent.api.AccountPool;
+import com.yby6.mcp.server.tencent.mcpService.utils.ConvertOptions;
+import com.yby6.mcp.server.tencent.mcpService.utils.ImageHashIndex;
+import com.yby6.mcp.server.tencent.mcpService.utils.ImageRehoster;
+import com.yby6.mcp.server.tencent.mcpService.utils.ImageSizeProber;
+import com.yby6.mcp.server.tencent.mcpService.utils.NodeIdStrategy;
+import com.yby6.mcp.server.tencent.mcpService.utils.ParserEngine;
+import com.yby6.mcp.server.tencent.mcpService.utils.ProseMirrorFragmentCache;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * 腾讯云API配置属性类
  * <p>
@@ -12,9 +24,19 @@ import org.springframework.stereotype.Component;
  * 配置前缀为"tencent.api"。
  * <p>
  * 主要功能：
- * 1. 管理API认证信息（Cookie）
+ * 1. 管理API认证信息（Cookie、多账号池与会话检查）
  * 2. 管理文章分类信息
- * 3. 提供配置属性的访问方法
+ * 3. 管理Markdown转换配置
+ * 4. 管理图片转存配置
+ * 5. 管理执行模式配置
+ * 6. 管理HTTP客户端配置
+ * 7. 管理重试与熔断配置
+ * 8. 管理发布限流配置
+ * 9. 管理批量发布配置
+ * 10. 管理发件箱配置
+ * 11. 管理幂等发布配置
+ * 12. 管理文章列表配置
+ * 13. 提供配置属性的访问方法
  *
  * @author yby6
  * @version 1.0.0
@@ -33,4 +55,613 @@ public class TencentApiProperties {
      */
     private String cookie;
 
+    /**
+     * 发布账号列表
+     * <p>
+     * 在配置文件中通过tencent.api.accounts[n].*属性设置，未配置时使用cookie作为名为default的单个账号。
+     */
+    private List<Account> accounts = new ArrayList<>();
+
+    /**
+     * 账号池配置
+     * <p>
+     * 在配置文件中通过tencent.api.pool.*属性设置。
+     */
+    private Pool pool = new Pool();
+
+    /**
+     * 会话检查配置
+     * <p>
+     * 在配置文件中通过tencent.api.session-check.*属性设置。
+     */
+    private SessionCheck sessionCheck = new SessionCheck();
+
+    /**
+     * Markdown转换配置
+     * <p>
+     * 在配置文件中通过tencent.api.converter.*属性设置。
+     */
+    private Converter converter = new Converter();
+
+    /**
+     * 图片转存配置
+     * <p>
+     * 在配置文件中通过tencent.api.image-rehost.*属性设置。
+     */
+    private ImageRehost imageRehost = new ImageRehost();
+
+    /**
+     * 执行模式配置
+     * <p>
+     * 在配置文件中通过tencent.api.execution.*属性设置。
+     */
+    private Execution execution = new Execution();
+
+    /**
+     * HTTP客户端配置
+     * <p>
+     * 在配置文件中通过tencent.api.http.*属性设置。
+     */
+    private Http http = new Http();
+
+    /**
+     * 重试与熔断配置
+     * <p>
+     * 在配置文件中通过tencent.api.resilience.*属性设置。
+     */
+    private Resilience resilience = new Resilience();
+
+    /**
+     * 发布限流配置
+     * <p>
+     * 在配置文件中通过tencent.api.rate-limit.*属性设置。
+     */
+    private RateLimit rateLimit = new RateLimit();
+
+    /**
+     * 批量发布配置
+     * <p>
+     * 在配置文件中通过tencent.api.batch.*属性设置。
+     */
+    private Batch batch = new Batch();
+
+    /**
+     * 发件箱配置
+     * <p>
+     * 在配置文件中通过tencent.api.outbox.*属性设置。
+     */
+    private Outbox outbox = new Outbox();
+
+    /**
+     * 幂等发布配置
+     * <p>
+     * 在配置文件中通过tencent.api.idempotency.*属性设置。
+     */
+    private Idempotency idempotency = new Idempotency();
+
+    /**
+     * 文章列表配置
+     * <p>
+     * 在配置文件中通过tencent.api.article-list.*属性设置。
+     */
+    private ArticleList articleList = new ArticleList();
+
+    /**
+     * 发布账号
+     */
+    @Data
+    public static class Account {
+
+        /**
+         * 账号名称，用于日志、指标与限流
+         */
+        private String name;
+
+        /**
+         * 认证Cookie
+         */
+        private String cookie;
+
+        /**
+         * Cookie文件，配置后以文件内容为准，文件修改后无需重启即可生效
+         */
+        private String cookieFile;
+
+        /**
+         * 权重，权重越大分配到的发布越多
+         */
+        private int weight = 1;
+
+        /**
+         * 该账号每分钟允许的发布数，未配置时使用rate-limit.requests-per-minute
+         */
+        private Double requestsPerMinute;
+
+        /**
+         * 该账号的令牌桶容量，未配置时使用rate-limit.burst
+         */
+        private Integer burst;
+    }
+
+    /**
+     * 账号池配置
+     */
+    @Data
+    public static class Pool {
+
+        /**
+         * 账号选择策略：LEAST_IN_FLIGHT 进行中请求最少，ROUND_ROBIN 加权轮询
+         */
+        private AccountPool.Selection selection = AccountPool.Selection.LEAST_IN_FLIGHT;
+
+        /**
+         * 认证失败后账号不参与选择的时间
+         */
+        private Duration unhealthyCooldown = Duration.ofMinutes(10);
+    }
+
+    /**
+     * 会话检查配置
+     */
+    @Data
+    public static class SessionCheck {
+
+        /**
+         * 是否在后台定时检查各账号的登录状态
+         */
+        private boolean enabled = true;
+
+        /**
+         * 检查地址，需为登录后才能访问的页面或接口，未登录时返回401/403或重定向到登录页
+         */
+        private String url = "https://cloud.tencent.com/developer/article/write-new";
+
+        /**
+         * 检查间隔
+         */
+        private Duration interval = Duration.ofMinutes(5);
+
+        /**
+         * 失效结果的有效期，超过后未重新确认则账号恢复可用
+         */
+        private Duration staleAfter = Duration.ofMinutes(15);
+    }
+
+    /**
+     * Markdown转换配置
+     */
+    @Data
+    public static class Converter {
+
+        /**
+         * 节点ID生成策略
+         * fast: 线程本地随机数（默认）
+         * random: UUID.randomUUID()
+         * deterministic: 由块内容推导，相同文档输出一致
+         */
+        private NodeIdStrategy idStrategy = NodeIdStrategy.FAST;
+
+        /**
+         * Markdown解析引擎
+         * commonmark: commonmark-java（默认）
+         * flexmark: flexmark-java，支持GFM表格与任务列表
+         * 取值参考 ParserBenchmark 在目标机器上的结果
+         */
+        private ParserEngine parserEngine = ParserEngine.COMMONMARK;
+
+        /**
+         * 是否启用按顶层块的增量转换
+         * 修改后重新发布的文章只重新转换改动过的块
+         */
+        private boolean incremental = true;
+
+        /**
+         * 增量转换片段缓存的总字符数上限
+         */
+        private long fragmentCacheMaxChars = ProseMirrorFragmentCache.DEFAULT_MAX_CHARS;
+
+        /**
+         * 是否对超大文档启用ForkJoin并行转换
+         */
+        private boolean parallel = false;
+
+        /**
+         * 并行转换阈值（格式化后的Markdown字符数），低于该值始终顺序转换
+         * 取值参考 ParallelConversionBenchmark 在目标机器上的结果
+         */
+        private int parallelThreshold = ConvertOptions.DEFAULT_PARALLEL_THRESHOLD;
+
+        /**
+         * 流式请求体阈值（原始Markdown字符数），达到该值的正文在发送请求时直接转换写入请求体
+         */
+        private int streamingThreshold = ConvertOptions.DEFAULT_STREAMING_THRESHOLD;
+
+        /**
+         * 图片尺寸探测配置
+         * <p>
+         * 在配置文件中通过tencent.api.converter.image-probe.*属性设置。
+         */
+        private ImageProbe imageProbe = new ImageProbe();
+    }
+
+    /**
+     * 图片尺寸探测配置
+     */
+    @Data
+    public static class ImageProbe {
+
+        /**
+         * 是否探测图片实际尺寸，开启后会请求文章中的外部图片地址（只访问公网地址）；关闭时图片按默认宽度与宽高比输出
+         */
+        private boolean enabled = false;
+
+        /**
+         * 最大并发探测数
+         */
+        private int concurrency = 8;
+
+        /**
+         * 单张图片的超时时间
+         */
+        private Duration timeout = Duration.ofSeconds(2);
+
+        /**
+         * 一篇文章全部图片的探测截止时间，到期未完成的图片使用默认尺寸
+         */
+        private Duration deadline = Duration.ofSeconds(3);
+
+        /**
+         * 每张图片最多读取的字节数
+         */
+        private int maxHeaderBytes = ImageSizeProber.DEFAULT_MAX_HEADER_BYTES;
+
+        /**
+         * 内存中缓存的最大图片数
+         */
+        private int cacheMaxEntries = 4096;
+
+        /**
+         * 尺寸缓存文件路径，为空时只缓存在内存中
+         */
+        private String cacheFile;
+    }
+
+    /**
+     * 图片转存配置
+     */
+    @Data
+    public static class ImageRehost {
+
+        /**
+         * 是否在发布前将正文引用的外部图片转存到腾讯云开发者社区
+         */
+        private boolean enabled = false;
+
+        /**
+         * 图片上传接口地址
+         */
+        private String uploadUrl;
+
+        /**
+         * 最大并发转存数
+         */
+        private int concurrency = 4;
+
+        /**
+         * 单张图片的下载超时时间
+         */
+        private Duration timeout = Duration.ofSeconds(30);
+
+        /**
+         * 整批图片转存（下载与上传）的最长等待时间，超时的图片保留原地址
+         */
+        private Duration deadline = Duration.ofSeconds(60);
+
+        /**
+         * 单张图片的大小上限（字节）
+         */
+        private int maxImageBytes = ImageRehoster.DEFAULT_MAX_IMAGE_BYTES;
+
+        /**
+         * 内容摘要索引文件路径，为空时只保存在内存中
+         */
+        private String indexFile;
+
+        /**
+         * 内存中最多记录的原图地址数，记录内的地址不再重复下载
+         */
+        private int sourceCacheMaxEntries = ImageHashIndex.DEFAULT_MAX_SOURCES;
+
+        /**
+         * 原图地址记录的有效期，过期后重新下载，以便发现同一地址下更换过的图片
+         */
+        private Duration sourceCacheTtl = ImageHashIndex.DEFAULT_SOURCE_TTL;
+    }
+
+    /**
+     * 执行模式配置
+     */
+    @Data
+    public static class Execution {
+
+        /**
+         * 是否在虚拟线程上执行异步工具调用与出站HTTP请求，需要 Java 21 及以上运行时
+         */
+        private boolean virtualThreads = false;
+
+        /**
+         * 单次工具调用的截止时间，正文转换、限流排队与HTTP请求共用，0表示不限制
+         */
+        private Duration toolTimeout = Duration.ofSeconds(120);
+    }
+
+    /**
+     * HTTP客户端配置
+     */
+    @Data
+    public static class Http {
+
+        /**
+         * 连接超时时间
+         */
+        private Duration connectTimeout = Duration.ofSeconds(30);
+
+        /**
+         * 读取超时时间
+         */
+        private Duration readTimeout = Duration.ofSeconds(30);
+
+        /**
+         * 写入超时时间
+         */
+        private Duration writeTimeout = Duration.ofSeconds(30);
+
+        /**
+         * 单次调用（含DNS、连接、请求与响应）的总超时时间，0表示不限制
+         */
+        private Duration callTimeout = Duration.ZERO;
+
+        /**
+         * 连接池保留的最大空闲连接数
+         */
+        private int maxIdleConnections = 5;
+
+        /**
+         * 空闲连接的保活时间
+         */
+        private Duration keepAlive = Duration.ofMinutes(5);
+
+        /**
+         * 最大并发异步请求数
+         */
+        private int maxRequests = 64;
+
+        /**
+         * 单个主机的最大并发异步请求数
+         */
+        private int maxRequestsPerHost = 5;
+
+        /**
+         * 是否优先使用HTTP/2（通过ALPN协商，不支持时回退HTTP/1.1）
+         */
+        private boolean http2 = true;
+
+        /**
+         * DNS缓存有效期，0表示不缓存
+         */
+        private Duration dnsCacheTtl = Duration.ofMinutes(5);
+
+        /**
+         * DNS缓存的最大主机数
+         */
+        private int dnsCacheMaxEntries = 256;
+    }
+
+    /**
+     * 重试与熔断配置
+     */
+    @Data
+    public static class Resilience {
+
+        /**
+         * 是否启用重试与熔断
+         */
+        private boolean enabled = true;
+
+        /**
+         * 最大尝试次数（含首次请求）
+         */
+        private int maxAttempts = 3;
+
+        /**
+         * 首次重试的退避上限，实际等待时间在0到该值之间随机
+         */
+        private Duration initialBackoff = Duration.ofMillis(200);
+
+        /**
+         * 单次退避的最大时长，退避期间阻塞发出请求的线程
+         */
+        private Duration maxBackoff = Duration.ofSeconds(5);
+
+        /**
+         * 退避倍数
+         */
+        private double multiplier = 2.0;
+
+        /**
+         * 触发熔断的连续失败次数
+         */
+        private int failureThreshold = 5;
+
+        /**
+         * 熔断持续时间，到期后放行一个探测请求
+         */
+        private Duration openDuration = Duration.ofSeconds(30);
+    }
+
+    /**
+     * 发布限流配置
+     */
+    @Data
+    public static class RateLimit {
+
+        /**
+         * 是否按账号限制发布速率
+         */
+        private boolean enabled = true;
+
+        /**
+         * 每个账号每分钟允许的发布数
+         */
+        private double requestsPerMinute = 10;
+
+        /**
+         * 令牌桶容量，空闲后允许连续发布的篇数
+         */
+        private int burst = 5;
+
+        /**
+         * 每个账号的最大排队数，超出时直接拒绝
+         */
+        private int maxQueue = 50;
+
+        /**
+         * 排队等待的超时时间
+         */
+        private Duration queueTimeout = Duration.ofSeconds(60);
+    }
+
+    /**
+     * 批量发布配置
+     */
+    @Data
+    public static class Batch {
+
+        /**
+         * 同时转换与发布的最大篇数，实际发布速率仍受限流约束
+         */
+        private int concurrency = 4;
+
+        /**
+         * 单次批量发布的最大篇数
+         */
+        private int maxSize = 200;
+    }
+
+    /**
+     * 发件箱配置
+     */
+    @Data
+    public static class Outbox {
+
+        /**
+         * 是否启用发件箱（submitArticle/getPublishStatus工具）
+         */
+        private boolean enabled = true;
+
+        /**
+         * 日志目录，相对路径基于工作目录
+         */
+        private String directory = "data/outbox";
+
+        /**
+         * 后台发布线程数
+         */
+        private int workers = 2;
+
+        /**
+         * 单篇文章的最大发布次数
+         */
+        private int maxAttempts = 5;
+
+        /**
+         * 首次重试的等待时间，之后按2的幂递增，最多16倍
+         */
+        private Duration retryBackoff = Duration.ofSeconds(30);
+
+        /**
+         * 单个日志分段的大小上限（字节）
+         */
+        private long segmentMaxBytes = 4L * 1024 * 1024;
+
+        /**
+         * 每次写入后是否强制刷盘
+         */
+        private boolean fsync = true;
+
+        /**
+         * 内存中保留的已结束工单数
+         */
+        private int maxResults = 1000;
+    }
+
+    /**
+     * 幂等发布配置
+     */
+    @Data
+    public static class Idempotency {
+
+        /**
+         * 是否启用幂等发布，相同标题、摘要与正文的文章只发布一次
+         */
+        private boolean enabled = true;
+
+        /**
+         * 记录文件，相对路径基于工作目录
+         */
+        private String file = "data/idempotency.log";
+
+        /**
+         * 最大记录数，超出后淘汰最久未使用的记录
+         */
+        private int maxEntries = 10000;
+
+        /**
+         * 记录有效期，超过后相同内容可以再次发布
+         */
+        private Duration ttl = Duration.ofHours(24);
+    }
+
+    /**
+     * 文章列表配置
+     */
+    @Data
+    public static class ArticleList {
+
+        /**
+         * 是否启用文章列表查询
+         */
+        private boolean enabled = true;
+
+        /**
+         * 列表接口地址，以pageNumber、pageSize分页
+         */
+        private String url = "https://cloud.tencent.com/developer/api/creator/articleList";
+
+        /**
+         * 每页数量，超过一页的查询并发请求各页
+         */
+        private int pageSize = 20;
+
+        /**
+         * 单次查询的最大文章数，超出时按上限返回
+         */
+        private int maxListSize = 200;
+
+        /**
+         * 缓存有效期，超过后等待条件请求完成再返回
+         */
+        private Duration ttl = Duration.ofMinutes(5);
+
+        /**
+         * 到期前多久开始后台刷新，期间查询直接返回缓存
+         */
+        private Duration refreshAhead = Duration.ofMinutes(1);
+
+        /**
+         * 最多缓存的页数，超出后淘汰最久未使用的页
+         */
+        private int maxEntries = 200;
+    }
+
 }
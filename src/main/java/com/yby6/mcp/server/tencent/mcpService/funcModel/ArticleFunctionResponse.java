@@ -62,6 +62,15 @@ public class ArticleFunctionResponse {
     @JsonPropertyDescription("url")
     private String url;
     
+    /**
+     * 失败原因
+     * <p>
+     * 发布前即可确定失败时返回，例如所有账号的登录会话均已失效。
+     */
+    @JsonProperty(value = "message")
+    @JsonPropertyDescription("message")
+    private String message;
+
     /**
      * 工具版权信息
      */
@@ -0,0 +1,55 @@
+package com.yby6.mcp.server.tencent.mcpService.funcModel;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+import lombok.Data;
+
+/**
+ * 发布工单响应模型
+ * <p>
+ * 文章提交到本地发件箱后立即返回工单号，后台发布完成后可以按工单号查询结果。
+ *
+ * @author yangbuyiya
+ * @version 1.0.0
+ * @since 2025/05/25
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PublishTicketResponse {
+
+    /**
+     * 工单号，用于查询发布状态
+     */
+    @JsonProperty(required = true, value = "ticketId")
+    @JsonPropertyDescription("ticketId")
+    private String ticketId;
+
+    /**
+     * 发布状态：PENDING 排队中，PUBLISHING 发布中，PUBLISHED 已发布，FAILED 发布失败，UNKNOWN 工单不存在
+     */
+    @JsonProperty(required = true, value = "state")
+    @JsonPropertyDescription("state")
+    private String state;
+
+    /**
+     * 已尝试发布的次数
+     */
+    @JsonProperty(value = "attempts")
+    @JsonPropertyDescription("attempts")
+    private Integer attempts;
+
+    /**
+     * 发布结果，状态为PUBLISHED或FAILED时返回
+     */
+    @JsonProperty(value = "result")
+    @JsonPropertyDescription("result")
+    private ArticleFunctionResponse result;
+
+    /**
+     * 说明信息
+     */
+    @JsonProperty(value = "message")
+    @JsonPropertyDescription("message")
+    private String message;
+}
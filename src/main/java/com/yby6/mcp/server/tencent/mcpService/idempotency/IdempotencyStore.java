@@ -0,0 +1,415 @@
+package com.yby6.mcp.server.tencent.mcpService.idempotency;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yby6.mcp.server.tencent.mcpService.funcModel.ArticleFunctionRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * 发布幂等存储
+ * <p>
+ * 以文章标题、摘要与Markdown正文的摘要为键，记录已发布成功的文章ID与链接。
+ * LLM客户端超时重试或重复调用时，相同内容直接返回已发布的文章，不再调用腾讯云接口。
+ * <ul>
+ *     <li>内存索引为按访问顺序淘汰的有界LRU，超过有效期的记录视为不存在</li>
+ *     <li>每条记录追加写入本地文件并刷盘，启动时加载；文件行数超过容量两倍时重写压缩</li>
+ *     <li>{@link #singleFlight}使相同键的并发请求合并为一次执行，其余调用方共享同一结果，全部取消时才取消执行</li>
+ * </ul>
+ * 只记录成功的发布，失败的请求可以直接重试。线程安全。
+ *
+ * @author yby6
+ * @since 2025/05/25
+ */
+@Slf4j
+public class IdempotencyStore implements AutoCloseable {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    private final Path file;
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+
+    /**
+     * 键 -> 已发布的文章，以下字段均在this锁内访问
+     */
+    private final Map<String, Published> entries;
+    private FileChannel channel;
+    private int fileLines;
+
+    /**
+     * 键 -> 执行中的请求
+     */
+    private final Map<String, Flight<?>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter storeHits;
+    private final Counter inFlightHits;
+    private final Counter misses;
+
+    /**
+     * 打开幂等存储，加载文件中未过期的记录
+     *
+     * @param file          记录文件，不存在时创建
+     * @param maxEntries    最大记录数
+     * @param ttl           记录有效期，超过后相同内容可以再次发布
+     * @param meterRegistry 指标注册表
+     * @throws IOException 读写记录文件失败
+     */
+    public IdempotencyStore(Path file, int maxEntries, Duration ttl, MeterRegistry meterRegistry) throws IOException {
+        this(file, maxEntries, ttl, meterRegistry, System::currentTimeMillis);
+    }
+
+    IdempotencyStore(Path file, int maxEntries, Duration ttl, MeterRegistry meterRegistry, LongSupplier clock)
+            throws IOException {
+        this.file = file;
+        this.maxEntries = Math.max(1, maxEntries);
+        this.ttlMillis = ttl.toMillis();
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Published> eldest) {
+                return size() > IdempotencyStore.this.maxEntries;
+            }
+        };
+        this.storeHits = Counter.builder("tencent.api.idempotency.hits").tag("source", "store")
+                .description("命中已发布记录的重复请求数").register(meterRegistry);
+        this.inFlightHits = Counter.builder("tencent.api.idempotency.hits").tag("source", "in-flight")
+                .description("合并到执行中请求的重复请求数").register(meterRegistry);
+        this.misses = Counter.builder("tencent.api.idempotency.misses")
+                .description("未命中的发布请求数").register(meterRegistry);
+
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        synchronized (this) {
+            load();
+            try {
+                compact();
+            } catch (IOException e) {
+                if (channel == null) {
+                    throw e;
+                }
+                // 继续追加写入未压缩的原文件
+                log.warn("压缩幂等记录文件失败: {}", file, e);
+            }
+        }
+    }
+
+    /**
+     * 计算发布请求的幂等键
+     * <p>
+     * 各字段按长度前缀拼接后计算SHA-256，字段边界不同的请求不会得到相同的键。
+     *
+     * @param request 文章发布请求
+     * @return 十六进制的幂等键
+     */
+    public static String key(ArticleFunctionRequest request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String field : new String[]{request.getTitle(), request.getUserSummary(), request.getMarkdowncontent()}) {
+                if (field == null) {
+                    digest.update((byte) 0);
+                    continue;
+                }
+                byte[] bytes = field.getBytes(StandardCharsets.UTF_8);
+                digest.update((byte) 1);
+                digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(bytes.length).array());
+                digest.update(bytes);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+    }
+
+    /**
+     * 查询已发布的文章
+     *
+     * @param key 幂等键
+     * @return 已发布的文章，不存在或已过期时返回null
+     */
+    public synchronized Published find(String key) {
+        Published published = entries.get(key);
+        if (published == null) {
+            return null;
+        }
+        if (isExpired(published)) {
+            entries.remove(key);
+            return null;
+        }
+        storeHits.increment();
+        return published;
+    }
+
+    /**
+     * 记录发布成功的文章
+     *
+     * @param key       幂等键
+     * @param articleId 文章ID
+     * @param url       文章链接
+     */
+    public synchronized void record(String key, long articleId, String url) {
+        Published published = new Published(key, articleId, url, clock.getAsLong());
+        entries.put(key, published);
+        try {
+            append(published);
+            channel.force(false);
+            if (fileLines > maxEntries * 2) {
+                compact();
+            }
+        } catch (IOException e) {
+            // 内存索引仍然有效，只是重启后不再能识别该文章
+            log.warn("写入幂等记录失败: {}", key, e);
+        }
+    }
+
+    /**
+     * 合并相同键的并发请求
+     * <p>
+     * 没有相同键的请求在执行时调用action，否则加入执行中的请求。每个调用方得到各自的Future，
+     * 取消只影响自己；所有调用方都取消后取消action返回的Future。
+     *
+     * @param key    幂等键
+     * @param action 实际执行的请求
+     * @return 请求结果
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> singleFlight(String key, Supplier<CompletableFuture<T>> action) {
+        while (true) {
+            Flight<T> flight = new Flight<>(key);
+            Flight<?> existing = inFlight.putIfAbsent(key, flight);
+            if (existing != null) {
+                CompletableFuture<T> view = ((Flight<T>) existing).join();
+                if (view != null) {
+                    inFlightHits.increment();
+                    return view;
+                }
+                // 执行中的请求刚被所有调用方放弃，重新发起
+                continue;
+            }
+            misses.increment();
+            CompletableFuture<T> view = flight.join();
+            CompletableFuture<T> result;
+            try {
+                result = action.get();
+            } catch (RuntimeException e) {
+                result = CompletableFuture.failedFuture(e);
+            }
+            flight.start(result);
+            return view;
+        }
+    }
+
+    /**
+     * 当前记录数
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    private boolean isExpired(Published published) {
+        return clock.getAsLong() - published.time >= ttlMillis;
+    }
+
+    private void load() throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            for (String line; (line = reader.readLine()) != null; ) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    Published published = objectMapper.readValue(line, Published.class);
+                    if (published.key != null && !isExpired(published)) {
+                        entries.put(published.key, published);
+                    }
+                } catch (IOException e) {
+                    // 进程退出时未写完的最后一行
+                    log.warn("跳过无法解析的幂等记录");
+                }
+            }
+        }
+    }
+
+    /**
+     * 只保留内存中未过期的记录重写文件
+     * <p>
+     * 先写入临时文件，替换成功后才切换到新文件；写入或替换失败时继续追加写入原文件。
+     */
+    private void compact() throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        int lines = 0;
+        try {
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                for (Published published : entries.values()) {
+                    if (!isExpired(published)) {
+                        append(out, published);
+                        lines++;
+                    }
+                }
+                out.force(false);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            if (channel == null) {
+                channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.APPEND);
+            }
+            throw e;
+        }
+        // 原文件已被替换，旧通道写入的内容不再可见
+        FileChannel replaced = channel;
+        channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        fileLines = lines;
+        if (replaced != null) {
+            replaced.close();
+        }
+    }
+
+    private void append(Published published) throws IOException {
+        append(channel, published);
+        fileLines++;
+    }
+
+    private static void append(FileChannel target, Published published) throws IOException {
+        byte[] line = (objectMapper.writeValueAsString(published) + "\n").getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.wrap(line);
+        while (buffer.hasRemaining()) {
+            target.write(buffer);
+        }
+    }
+
+    /**
+     * 一次执行中的请求及其调用方
+     */
+    private final class Flight<T> {
+
+        private final String key;
+        private final List<CompletableFuture<T>> views = new ArrayList<>();
+        private CompletableFuture<T> result;
+        private boolean abandoned;
+
+        private Flight(String key) {
+            this.key = key;
+        }
+
+        /**
+         * 加入请求
+         *
+         * @return 调用方的Future，请求已被放弃时返回null
+         */
+        private synchronized CompletableFuture<T> join() {
+            if (abandoned) {
+                return null;
+            }
+            CompletableFuture<T> view = new CompletableFuture<>();
+            views.add(view);
+            view.whenComplete((value, e) -> {
+                if (view.isCancelled()) {
+                    leave(view);
+                }
+            });
+            return view;
+        }
+
+        private void start(CompletableFuture<T> result) {
+            synchronized (this) {
+                this.result = result;
+                if (abandoned) {
+                    result.cancel(true);
+                    return;
+                }
+            }
+            result.whenComplete((value, e) -> {
+                List<CompletableFuture<T>> waiting;
+                synchronized (this) {
+                    inFlight.remove(key, this);
+                    waiting = new ArrayList<>(views);
+                }
+                for (CompletableFuture<T> view : waiting) {
+                    if (e != null) {
+                        view.completeExceptionally(e);
+                    } else {
+                        view.complete(value);
+                    }
+                }
+            });
+        }
+
+        private void leave(CompletableFuture<T> view) {
+            CompletableFuture<T> cancel;
+            synchronized (this) {
+                views.remove(view);
+                if (!views.isEmpty() || abandoned) {
+                    return;
+                }
+                abandoned = true;
+                inFlight.remove(key, this);
+                cancel = result;
+            }
+            if (cancel != null) {
+                cancel.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * 已发布的文章
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static final class Published {
+        public String key;
+        public long articleId;
+        public String url;
+        public long time;
+
+        public Published() {
+        }
+
+        private Published(String key, long articleId, String url, long time) {
+            this.key = key;
+            this.articleId = articleId;
+            this.url = url;
+            this.time = time;
+        }
+    }
+}
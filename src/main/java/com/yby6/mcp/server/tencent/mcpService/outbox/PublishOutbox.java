@@ -0,0 +1,532 @@
+package com.yby6.mcp.server.tencent.mcpService.outbox;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yby6.mcp.server.tencent.mcpService.funcModel.ArticleFunctionRequest;
+import com.yby6.mcp.server.tencent.mcpService.funcModel.ArticleFunctionResponse;
+import com.yby6.mcp.server.tencent.mcpService.funcModel.PublishTicketResponse;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * 持久化发布发件箱
+ * <p>
+ * 提交的文章先追加写入本地日志再返回工单号，由后台工作线程调用发布函数完成发布，
+ * 进程退出或腾讯云不可用时文章不会丢失。
+ * <p>
+ * 日志由目录下按序号命名的分段文件组成（segment-0000000001.log），每行一条JSON记录：
+ * <ul>
+ *     <li>ENQUEUE：工单号与发布请求，写入后按配置fsync</li>
+ *     <li>ATTEMPT：工单号，每次开始发布前写入，重启后恢复已尝试次数</li>
+ *     <li>ACK：工单号与最终状态（PUBLISHED/FAILED）及发布结果</li>
+ * </ul>
+ * 记录写入或fsync失败时截断回写入前的位置，不留下半行记录；截断也失败时切换到新分段。
+ * 当前分段超过大小上限后切换到新分段。最旧的分段中的工单全部结束后按顺序删除（压缩），
+ * 只删除最旧的连续分段：ACK总是写在ENQUEUE所在分段或之后的分段中，
+ * 较新的分段可能保存着较旧分段中工单的ACK，不能先于这些分段删除。
+ * 启动时按顺序重放全部分段，没有ACK的工单重新进入发布队列。
+ * <p>
+ * 发布是至少一次语义：发布成功但ACK写入前进程退出时，重启后会再次发布该文章。
+ * 失败的发布按指数退避重试，达到最大尝试次数后记为FAILED。
+ *
+ * @author yby6
+ * @since 2025/05/25
+ */
+@Slf4j
+public class PublishOutbox implements AutoCloseable {
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String OP_ENQUEUE = "ENQUEUE";
+    private static final String OP_ACK = "ACK";
+    private static final String OP_ATTEMPT = "ATTEMPT";
+
+    /**
+     * 重试退避的最大倍数
+     */
+    private static final int MAX_BACKOFF_MULTIPLIER = 16;
+
+    private static final ObjectMapper objectMapper = new ObjectMapper()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    private final Path directory;
+    private final long segmentMaxBytes;
+    private final boolean fsync;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+    private final int maxResults;
+    private final Function<ArticleFunctionRequest, ArticleFunctionResponse> publisher;
+    private final ScheduledExecutorService workers;
+
+    /**
+     * 工单号 -> 工单，按提交顺序排列，以下字段均在this锁内访问
+     */
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+    /**
+     * 分段序号 -> 该分段中尚未结束的工单
+     */
+    private final Map<Long, Set<String>> liveBySegment = new HashMap<>();
+
+    /**
+     * 磁盘上存在的分段序号
+     */
+    private final TreeSet<Long> segments = new TreeSet<>();
+
+    private int terminalCount;
+    private long activeSegment;
+    private FileChannel channel;
+
+    /**
+     * 打开发件箱，重放已有日志并开始发布未完成的工单
+     *
+     * @param directory       日志目录，不存在时创建
+     * @param segmentMaxBytes 单个分段的大小上限
+     * @param fsync           每次写入后是否强制刷盘
+     * @param workers         发布工作线程数
+     * @param maxAttempts     单个工单的最大发布次数
+     * @param retryBackoff    首次重试的等待时间，之后按2的幂递增
+     * @param maxResults      内存中保留的已结束工单数
+     * @param publisher       发布函数，返回结果包含articleId时视为成功
+     * @throws IOException 读写日志失败
+     */
+    public PublishOutbox(Path directory, long segmentMaxBytes, boolean fsync, int workers, int maxAttempts,
+                         Duration retryBackoff, int maxResults,
+                         Function<ArticleFunctionRequest, ArticleFunctionResponse> publisher) throws IOException {
+        this.directory = directory;
+        this.segmentMaxBytes = segmentMaxBytes;
+        this.fsync = fsync;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryBackoff = retryBackoff;
+        this.maxResults = maxResults;
+        this.publisher = publisher;
+        AtomicInteger counter = new AtomicInteger();
+        this.workers = Executors.newScheduledThreadPool(Math.max(1, workers), task -> {
+            Thread thread = new Thread(task, "publish-outbox-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Files.createDirectories(directory);
+        List<String> pending;
+        synchronized (this) {
+            long lastSegment = replay();
+            activeSegment = lastSegment + 1;
+            channel = openSegment(activeSegment);
+            compact();
+            pending = new ArrayList<>();
+            for (Entry entry : entries.values()) {
+                if (entry.state == PublishState.PENDING) {
+                    pending.add(entry.ticket);
+                }
+            }
+        }
+        if (!pending.isEmpty()) {
+            log.info("发件箱重放完成，{} 篇文章待发布", pending.size());
+        }
+        for (String ticket : pending) {
+            schedule(ticket, 0);
+        }
+    }
+
+    /**
+     * 提交文章，写入日志后立即返回
+     *
+     * @param request 文章发布请求
+     * @return 工单号
+     */
+    public String submit(ArticleFunctionRequest request) {
+        String ticket = UUID.randomUUID().toString();
+        synchronized (this) {
+            Record record = new Record();
+            record.op = OP_ENQUEUE;
+            record.ticket = ticket;
+            record.time = System.currentTimeMillis();
+            record.request = request;
+            try {
+                append(record);
+            } catch (IOException e) {
+                throw new RuntimeException("写入发件箱失败", e);
+            }
+            entries.put(ticket, new Entry(ticket, activeSegment, request));
+            liveBySegment.computeIfAbsent(activeSegment, key -> new HashSet<>()).add(ticket);
+            rollIfFull();
+        }
+        schedule(ticket, 0);
+        return ticket;
+    }
+
+    /**
+     * 查询工单状态
+     *
+     * @param ticket 工单号
+     * @return 工单状态，工单不存在时状态为UNKNOWN
+     */
+    public synchronized PublishTicketResponse status(String ticket) {
+        PublishTicketResponse response = new PublishTicketResponse();
+        response.setTicketId(ticket);
+        Entry entry = ticket == null ? null : entries.get(ticket);
+        if (entry == null) {
+            response.setState(PublishState.UNKNOWN.name());
+            response.setMessage("工单不存在或结果已过期");
+            return response;
+        }
+        response.setState(entry.state.name());
+        response.setAttempts(entry.attempts);
+        response.setResult(entry.response);
+        response.setMessage(entry.message);
+        return response;
+    }
+
+    /**
+     * 尚未结束的工单数
+     */
+    public synchronized int pendingCount() {
+        return entries.size() - terminalCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        workers.shutdownNow();
+        synchronized (this) {
+            channel.close();
+        }
+    }
+
+    private void schedule(String ticket, long delayMillis) {
+        try {
+            workers.schedule(() -> process(ticket), delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            log.debug("发件箱已关闭，工单在下次启动时发布: {}", ticket);
+        }
+    }
+
+    /**
+     * 发布一个工单
+     */
+    private void process(String ticket) {
+        ArticleFunctionRequest request;
+        int attempt;
+        synchronized (this) {
+            Entry entry = entries.get(ticket);
+            if (entry == null || entry.state != PublishState.PENDING) {
+                return;
+            }
+            entry.state = PublishState.PUBLISHING;
+            attempt = ++entry.attempts;
+            request = entry.request;
+            Record record = new Record();
+            record.op = OP_ATTEMPT;
+            record.ticket = ticket;
+            record.time = System.currentTimeMillis();
+            try {
+                append(record);
+            } catch (IOException e) {
+                // 尝试次数未落盘，重启后该次尝试不计入最大尝试次数
+                log.warn("写入发件箱尝试记录失败: {}", ticket, e);
+            }
+            rollIfFull();
+        }
+
+        ArticleFunctionResponse response = null;
+        String message = null;
+        try {
+            response = publisher.apply(request);
+        } catch (RuntimeException e) {
+            log.error("发件箱发布失败: {}", ticket, e);
+            message = e.getMessage();
+        }
+
+        if (response != null && response.getArticleId() != null) {
+            complete(ticket, PublishState.PUBLISHED, response, null);
+        } else if (attempt >= maxAttempts) {
+            complete(ticket, PublishState.FAILED, response, message != null ? message : "已重试 " + attempt + " 次，发布失败");
+        } else {
+            long delay = retryBackoff.toMillis() * Math.min(1L << (attempt - 1), MAX_BACKOFF_MULTIPLIER);
+            synchronized (this) {
+                Entry entry = entries.get(ticket);
+                entry.state = PublishState.PENDING;
+                entry.message = message != null ? message : "第 " + attempt + " 次发布失败，" + delay + "ms 后重试";
+            }
+            schedule(ticket, delay);
+        }
+    }
+
+    /**
+     * 记录工单的最终状态
+     */
+    private synchronized void complete(String ticket, PublishState state, ArticleFunctionResponse response,
+                                       String message) {
+        Entry entry = entries.get(ticket);
+        Record record = new Record();
+        record.op = OP_ACK;
+        record.ticket = ticket;
+        record.time = System.currentTimeMillis();
+        record.state = state.name();
+        record.response = response;
+        record.message = message;
+        try {
+            append(record);
+        } catch (IOException e) {
+            // ACK未落盘，重启后会重新发布
+            log.error("写入发件箱ACK失败: {}", ticket, e);
+        }
+        markTerminal(entry, state, response, message);
+        rollIfFull();
+    }
+
+    private void markTerminal(Entry entry, PublishState state, ArticleFunctionResponse response, String message) {
+        entry.state = state;
+        entry.response = response;
+        entry.message = message;
+        entry.request = null;
+        terminalCount++;
+        Set<String> live = liveBySegment.get(entry.segment);
+        if (live != null) {
+            live.remove(entry.ticket);
+            if (live.isEmpty()) {
+                liveBySegment.remove(entry.segment);
+            }
+        }
+        compact();
+
+        // 只保留最近的已结束工单
+        Iterator<Entry> it = entries.values().iterator();
+        while (terminalCount > maxResults && it.hasNext()) {
+            Entry eldest = it.next();
+            if (eldest.state.isTerminal()) {
+                it.remove();
+                terminalCount--;
+            }
+        }
+    }
+
+    /**
+     * 追加一条记录，失败时不在日志中留下该记录
+     */
+    private void append(Record record) throws IOException {
+        byte[] line = (objectMapper.writeValueAsString(record) + "\n").getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.wrap(line);
+        long start = channel.position();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (fsync) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            discardFrom(start, e);
+            throw e;
+        }
+    }
+
+    /**
+     * 截断写入失败的记录；截断失败时放弃当前分段，后续记录写入新分段
+     */
+    private void discardFrom(long start, IOException cause) {
+        try {
+            channel.truncate(start);
+            return;
+        } catch (IOException e) {
+            cause.addSuppressed(e);
+        }
+        log.warn("截断发件箱分段失败，切换到新分段: {}", activeSegment);
+        try {
+            channel.close();
+        } catch (IOException e) {
+            cause.addSuppressed(e);
+        }
+        try {
+            activeSegment++;
+            channel = openSegment(activeSegment);
+        } catch (IOException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    /**
+     * 当前分段超过上限时切换到新分段，并压缩已结束的最旧分段
+     */
+    private void rollIfFull() {
+        try {
+            if (channel.size() < segmentMaxBytes) {
+                return;
+            }
+            channel.close();
+            activeSegment++;
+            channel = openSegment(activeSegment);
+            compact();
+        } catch (IOException e) {
+            throw new RuntimeException("切换发件箱分段失败", e);
+        }
+    }
+
+    /**
+     * 删除最旧的、已没有未结束工单的连续分段，遇到仍有未结束工单的分段或当前分段时停止
+     * <p>
+     * 重放期间activeSegment为0，不删除任何分段。
+     */
+    private void compact() {
+        while (!segments.isEmpty() && segments.first() < activeSegment) {
+            long oldest = segments.first();
+            Set<String> live = liveBySegment.get(oldest);
+            if (live != null && !live.isEmpty()) {
+                return;
+            }
+            liveBySegment.remove(oldest);
+            segments.pollFirst();
+            deleteSegment(oldest);
+        }
+    }
+
+    /**
+     * 按顺序重放全部分段
+     *
+     * @return 最大的分段序号，没有分段时为0
+     */
+    private long replay() throws IOException {
+        TreeMap<Long, Path> files = new TreeMap<>();
+        try (Stream<Path> list = Files.list(directory)) {
+            list.forEach(file -> {
+                long segment = segmentNumber(file);
+                if (segment > 0) {
+                    files.put(segment, file);
+                }
+            });
+        }
+        segments.addAll(files.keySet());
+        for (Map.Entry<Long, Path> segment : files.entrySet()) {
+            try (BufferedReader reader = Files.newBufferedReader(segment.getValue(), StandardCharsets.UTF_8)) {
+                for (String line; (line = reader.readLine()) != null; ) {
+                    if (!line.isBlank()) {
+                        replay(segment.getKey(), line);
+                    }
+                }
+            }
+        }
+        return files.isEmpty() ? 0 : files.lastKey();
+    }
+
+    private void replay(long segment, String line) {
+        Record record;
+        try {
+            record = objectMapper.readValue(line, Record.class);
+        } catch (IOException e) {
+            // 进程退出时未写完的最后一行
+            log.warn("跳过无法解析的发件箱记录: segment {}", segment);
+            return;
+        }
+        if (OP_ENQUEUE.equals(record.op)) {
+            entries.put(record.ticket, new Entry(record.ticket, segment, record.request));
+            liveBySegment.computeIfAbsent(segment, key -> new HashSet<>()).add(record.ticket);
+        } else if (OP_ACK.equals(record.op)) {
+            Entry entry = entries.get(record.ticket);
+            if (entry == null) {
+                // ENQUEUE所在的分段已被压缩，只恢复结果
+                entry = new Entry(record.ticket, -1, null);
+                entries.put(record.ticket, entry);
+            } else if (entry.state.isTerminal()) {
+                return;
+            }
+            markTerminal(entry, PublishState.valueOf(record.state), record.response, record.message);
+        } else if (OP_ATTEMPT.equals(record.op)) {
+            Entry entry = entries.get(record.ticket);
+            if (entry != null && !entry.state.isTerminal()) {
+                entry.attempts++;
+            }
+        }
+    }
+
+    private FileChannel openSegment(long segment) throws IOException {
+        segments.add(segment);
+        return FileChannel.open(segmentPath(segment), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    private void deleteSegment(long segment) {
+        try {
+            Files.deleteIfExists(segmentPath(segment));
+        } catch (IOException e) {
+            log.warn("删除发件箱分段失败: {}", segment, e);
+        }
+    }
+
+    private Path segmentPath(long segment) {
+        return directory.resolve(String.format("%s%010d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+    }
+
+    private static long segmentNumber(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.startsWith(SEGMENT_PREFIX) || !name.endsWith(SEGMENT_SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * 内存中的工单
+     */
+    private static final class Entry {
+
+        private final String ticket;
+        private final long segment;
+        private ArticleFunctionRequest request;
+        private PublishState state = PublishState.PENDING;
+        private int attempts;
+        private ArticleFunctionResponse response;
+        private String message;
+
+        private Entry(String ticket, long segment, ArticleFunctionRequest request) {
+            this.ticket = ticket;
+            this.segment = segment;
+            this.request = request;
+        }
+    }
+
+    /**
+     * 日志记录
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    static final class Record {
+        public String op;
+        public String ticket;
+        public Long time;
+        public ArticleFunctionRequest request;
+        public String state;
+        public ArticleFunctionResponse response;
+        public String message;
+    }
+}
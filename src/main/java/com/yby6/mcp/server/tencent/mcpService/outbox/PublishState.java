@@ -0,0 +1,42 @@
+package com.yby6.mcp.server.tencent.mcpService.outbox;
+
+/**
+ * 发件箱中文章的发布状态
+ *
+ * @author yby6
+ * @since 2025/05/25
+ */
+public enum PublishState {
+
+    /**
+     * 已写入发件箱，等待发布
+     */
+    PENDING,
+
+    /**
+     * 正在发布
+     */
+    PUBLISHING,
+
+    /**
+     * 发布成功
+     */
+    PUBLISHED,
+
+    /**
+     * 多次重试后仍失败
+     */
+    FAILED,
+
+    /**
+     * 工单不存在或结果已过期
+     */
+    UNKNOWN;
+
+    /**
+     * 是否为终态
+     */
+    public boolean isTerminal() {
+        return this == PUBLISHED || this == FAILED;
+    }
+}
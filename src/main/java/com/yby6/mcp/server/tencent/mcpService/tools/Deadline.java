@@ -0,0 +1,130 @@
+package com.yby6.mcp.server.tencent.mcpService.tools;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 工具调用的截止时间
+ * <p>
+ * 每次工具调用开始时由{@code ToolConfiguration}按tencent.api.execution.tool-timeout创建，
+ * 异步工具方法可以在参数列表末尾声明该类型的参数，与{@link ProgressReporter}一样不出现在参数Schema中。
+ * 正文转换、限流排队与HTTP请求共用同一个截止时间。
+ * <p>
+ * 被取消的工具调用计入指标{@value #CANCELLATIONS}，reason为client（客户端取消或断开）或deadline（到期）。
+ * <p>
+ * 到期回调由共享的单线程调度器计时，结果提前完成时立即取消并移出队列，不会让已完成的请求在到期前一直被引用。
+ *
+ * @author yby6
+ * @since 2025/05/25
+ */
+public final class Deadline {
+
+    /**
+     * 工具调用取消次数指标
+     */
+    public static final String CANCELLATIONS = "tencent.api.cancellations";
+
+    /**
+     * 没有截止时间
+     */
+    public static final Deadline NONE = new Deadline(0, true);
+
+    /**
+     * 到期回调的调度器，取消的任务立即移出队列
+     */
+    private static final ScheduledThreadPoolExecutor TIMER = new ScheduledThreadPoolExecutor(1, task -> {
+        Thread thread = new Thread(task, "deadline-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        TIMER.setRemoveOnCancelPolicy(true);
+    }
+
+    private final long deadlineNanos;
+    private final boolean none;
+
+    private Deadline(long deadlineNanos, boolean none) {
+        this.deadlineNanos = deadlineNanos;
+        this.none = none;
+    }
+
+    /**
+     * 从现在起经过timeout后到期
+     *
+     * @param timeout 超时时间，为null或不大于0时没有截止时间
+     * @return 截止时间
+     */
+    public static Deadline after(Duration timeout) {
+        if (timeout == null || timeout.isZero() || timeout.isNegative()) {
+            return NONE;
+        }
+        return new Deadline(System.nanoTime() + timeout.toNanos(), false);
+    }
+
+    /**
+     * 是否没有截止时间
+     */
+    public boolean isNone() {
+        return none;
+    }
+
+    /**
+     * 是否已到期
+     */
+    public boolean isExpired() {
+        return !none && remainingNanos() <= 0;
+    }
+
+    /**
+     * 剩余时间（纳秒），没有截止时间时为Long.MAX_VALUE，已到期时不大于0
+     */
+    public long remainingNanos() {
+        return none ? Long.MAX_VALUE : deadlineNanos - System.nanoTime();
+    }
+
+    /**
+     * 已到期时抛出异常
+     *
+     * @param stage 当前阶段，用于错误信息
+     * @throws DeadlineExceededException 已到期
+     */
+    public void check(String stage) {
+        if (isExpired()) {
+            throw new DeadlineExceededException(stage);
+        }
+    }
+
+    /**
+     * 到期时执行action，until在到期前完成时不执行
+     * <p>
+     * until完成时取消计时，action及其引用的对象随之释放；action在公共线程池中执行，不占用计时线程。
+     *
+     * @param until  结果Future
+     * @param action 到期时执行的操作
+     */
+    public void onExpiry(CompletableFuture<?> until, Runnable action) {
+        if (none || until.isDone()) {
+            return;
+        }
+        long remaining = Math.max(0, remainingNanos());
+        ScheduledFuture<?> timer = TIMER.schedule(() -> ForkJoinPool.commonPool().execute(() -> {
+            if (!until.isDone()) {
+                action.run();
+            }
+        }), remaining, TimeUnit.NANOSECONDS);
+        until.whenComplete((result, e) -> timer.cancel(false));
+    }
+
+    /**
+     * 等待到期的回调数
+     */
+    static int pendingExpiries() {
+        return TIMER.getQueue().size();
+    }
+}
@@ -0,0 +1,14 @@
+package com.yby6.mcp.server.tencent.mcpService.tools;
+
+/**
+ * 工具调用超过截止时间
+ *
+ * @author yby6
+ * @since 2025/05/25
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    public DeadlineExceededException(String stage) {
+        super("工具调用超时，已在" + stage + "阶段取消");
+    }
+}
@@ -2,13 +2,20 @@ package com.yby6.mcp.server.tencent.mcpService.tools;
 
 import com.yby6.mcp.server.tencent.mcpService.funcModel.ArticleFunctionRequest;
 import com.yby6.mcp.server.tencent.mcpService.funcModel.ArticleFunctionResponse;
+import com.yby6.mcp.server.tencent.mcpService.funcModel.PublishTicketResponse;
+import com.yby6.mcp.server.tencent.mcpService.outbox.PublishOutbox;
+import com.yby6.mcp.server.tencent.mcpService.outbox.PublishState;
 import com.yby6.mcp.server.tencent.mcpService.tools.server.ToolServiceMarker;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.ai.tool.annotation.Tool;
 import org.springframework.ai.tool.annotation.ToolParam;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * MCP 服务 - 工具服务
  *
@@ -22,15 +29,76 @@ public class McpToolServer {
 
     private final ToolServiceMarker tencentArticleToolService;
 
+    private final ObjectProvider<PublishOutbox> publishOutbox;
 
     @Tool(description = "发布文章到腾讯云开发者社区，参数为文章标题、文章内容、文章摘要，返回值为文章链接")
     public ArticleFunctionResponse saveArticle(ArticleFunctionRequest request) {
         return tencentArticleToolService.saveArticle(request);
     }
 
-    @Tool(description = "获取腾讯云开发者社区文章列表, 参数为列表数量, 返回值为最新的文章列表")
+    @Tool(description = "批量发布文章到腾讯云开发者社区，参数为文章列表（每篇包含标题、内容、摘要），返回值为与输入顺序一致的发布结果列表，单篇失败不影响其他文章")
+    public List<ArticleFunctionResponse> saveArticles(@ToolParam(description = "文章列表") List<ArticleFunctionRequest> requests) {
+        return tencentArticleToolService.saveArticles(requests);
+    }
+
+    @Tool(description = "提交文章到本地发件箱后立即返回工单号，由后台发布到腾讯云开发者社区，失败自动重试，服务重启后继续发布；参数为文章标题、文章内容、文章摘要，使用getPublishStatus查询发布结果")
+    public PublishTicketResponse submitArticle(ArticleFunctionRequest request) {
+        PublishOutbox outbox = publishOutbox.getIfAvailable();
+        if (outbox == null) {
+            return outboxDisabled(null);
+        }
+        return outbox.status(outbox.submit(request));
+    }
+
+    @Tool(description = "查询submitArticle提交的文章的发布状态，参数为工单号，发布成功后返回值包含文章链接")
+    public PublishTicketResponse getPublishStatus(@ToolParam(description = "工单号") String ticketId) {
+        PublishOutbox outbox = publishOutbox.getIfAvailable();
+        if (outbox == null) {
+            return outboxDisabled(ticketId);
+        }
+        return outbox.status(ticketId);
+    }
+
+    @Tool(description = "获取腾讯云开发者社区当前账号的文章列表, 参数为列表数量, 返回值为按发布时间倒序的最新文章列表（文章ID、标题、状态、发布时间）, 结果短时间缓存, 可频繁调用以避免重复选题")
     public String getArticleList(@ToolParam(description = "列表数量") int listSize) {
         return tencentArticleToolService.getArticleList(listSize);
     }
 
+    /*
+     * 异步MCP服务器使用的工具实现，与同名@Tool方法参数一致，工具定义取自@Tool方法
+     * 末尾的ProgressReporter与Deadline参数由ToolConfiguration注入
+     * ToolConfiguration在传输层线程之外调用这些方法，发件箱落盘等同步操作可以直接包装为已完成的Future
+     * 见 ToolConfiguration#asyncToolSpecifications
+     */
+
+    public CompletableFuture<ArticleFunctionResponse> saveArticleAsync(ArticleFunctionRequest request, Deadline deadline) {
+        return tencentArticleToolService.saveArticleAsync(request, deadline);
+    }
+
+    public CompletableFuture<List<ArticleFunctionResponse>> saveArticlesAsync(List<ArticleFunctionRequest> requests,
+                                                                              ProgressReporter progress,
+                                                                              Deadline deadline) {
+        return tencentArticleToolService.saveArticlesAsync(requests, progress, deadline);
+    }
+
+    public CompletableFuture<PublishTicketResponse> submitArticleAsync(ArticleFunctionRequest request) {
+        return CompletableFuture.completedFuture(submitArticle(request));
+    }
+
+    public CompletableFuture<PublishTicketResponse> getPublishStatusAsync(String ticketId) {
+        return CompletableFuture.completedFuture(getPublishStatus(ticketId));
+    }
+
+    public CompletableFuture<String> getArticleListAsync(int listSize) {
+        return tencentArticleToolService.getArticleListAsync(listSize);
+    }
+
+    private static PublishTicketResponse outboxDisabled(String ticketId) {
+        PublishTicketResponse response = new PublishTicketResponse();
+        response.setTicketId(ticketId);
+        response.setState(PublishState.UNKNOWN.name());
+        response.setMessage("发件箱未启用，请配置tencent.api.outbox.enabled=true或使用saveArticle直接发布");
+        return response;
+    }
+
 }
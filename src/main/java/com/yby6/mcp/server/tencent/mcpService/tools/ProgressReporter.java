@@ -0,0 +1,29 @@
+package com.yby6.mcp.server.tencent.mcpService.tools;
+
+/**
+ * 工具执行进度回调
+ * <p>
+ * 异步工具方法可以在参数列表末尾声明该类型的参数，由{@code ToolConfiguration}根据MCP会话注入，
+ * 不出现在工具的参数Schema中。
+ *
+ * @author yby6
+ * @since 2025/05/25
+ */
+@FunctionalInterface
+public interface ProgressReporter {
+
+    /**
+     * 不报告进度
+     */
+    ProgressReporter NONE = (completed, total, message) -> {
+    };
+
+    /**
+     * 报告进度
+     *
+     * @param completed 已完成数
+     * @param total     总数
+     * @param message   进度说明
+     */
+    void report(int completed, int total, String message);
+}
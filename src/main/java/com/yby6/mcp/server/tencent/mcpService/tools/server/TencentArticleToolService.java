@@ -1,20 +1,42 @@
 package com.yby6.mcp.server.tencent.mcpService.tools.server;
 
 import com.alibaba.fastjson.JSON;
+import com.yby6.mcp.server.tencent.api.AccountPool;
+import com.yby6.mcp.server.tencent.api.ArticleListCache;
 import com.yby6.mcp.server.tencent.api.ITencentService;
+import com.yby6.mcp.server.tencent.api.TokenBucketRateLimiter;
 import com.yby6.mcp.server.tencent.api.dto.AddArticleRequest;
 import com.yby6.mcp.server.tencent.api.dto.AddArticleResponse;
 import com.yby6.mcp.server.tencent.mcpService.config.properties.TencentApiProperties;
 import com.yby6.mcp.server.tencent.mcpService.funcModel.ArticleFunctionRequest;
 import com.yby6.mcp.server.tencent.mcpService.funcModel.ArticleFunctionResponse;
+import com.yby6.mcp.server.tencent.mcpService.idempotency.IdempotencyStore;
+import com.yby6.mcp.server.tencent.mcpService.tools.Deadline;
+import com.yby6.mcp.server.tencent.mcpService.tools.DeadlineExceededException;
+import com.yby6.mcp.server.tencent.mcpService.tools.ProgressReporter;
+import com.yby6.mcp.server.tencent.mcpService.utils.ConvertOptions;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.jetbrains.annotations.NotNull;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 import retrofit2.Call;
 import retrofit2.Response;
 
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 
 /**
  * 腾讯云开发者社区文章服务
@@ -32,10 +54,26 @@ public class TencentArticleToolService implements ToolServiceMarker {
 
     private final ITencentService tencentService;
     private final TencentApiProperties tencentApiProperties;
+    private final ConvertOptions convertOptions;
+    private final AccountPool accountPool;
+    private final TokenBucketRateLimiter rateLimiter;
+    private final IdempotencyStore idempotencyStore;
+    private final ArticleListCache articleListCache;
+    private final MeterRegistry meterRegistry;
 
-    public TencentArticleToolService(ITencentService tencentService, TencentApiProperties tencentApiProperties) {
+    public TencentArticleToolService(ITencentService tencentService, TencentApiProperties tencentApiProperties,
+                                     ConvertOptions convertOptions, AccountPool accountPool,
+                                     @Nullable TokenBucketRateLimiter rateLimiter,
+                                     @Nullable IdempotencyStore idempotencyStore,
+                                     @Nullable ArticleListCache articleListCache, MeterRegistry meterRegistry) {
         this.tencentService = tencentService;
         this.tencentApiProperties = tencentApiProperties;
+        this.convertOptions = convertOptions;
+        this.accountPool = accountPool;
+        this.rateLimiter = rateLimiter;
+        this.idempotencyStore = idempotencyStore;
+        this.articleListCache = articleListCache;
+        this.meterRegistry = meterRegistry;
     }
 
     /**
@@ -47,52 +85,428 @@ public class TencentArticleToolService implements ToolServiceMarker {
      * 2. 记录请求参数日志
      * 3. 通过端口适配器调用实际的文章发布服务
      * 4. 处理异常情况并返回响应
+     * <p>
+     * 发布账号由{@link AccountPool}选择，相同内容已发布过时直接返回已发布的文章，见{@link #deduplicate}。
+     * 正文转换、限流排队与HTTP请求共用tencent.api.execution.tool-timeout的截止时间，
+     * 到期后取消HTTP请求，失败原因写入返回对象。
      *
      * @param request 文章发布请求，包含文章标题、内容等信息
      * @return 文章发布响应，包含发布结果信息
      */
     @Override
     public ArticleFunctionResponse saveArticle(ArticleFunctionRequest request) {
+        Deadline deadline = toolDeadline();
+        return deduplicate(request, () -> CompletableFuture.completedFuture(publish(request, deadline))).join();
+    }
+
+    private ArticleFunctionResponse publish(ArticleFunctionRequest request, Deadline deadline) {
 
         // 构建返回对象
+        ArticleFunctionResponse articleFunctionResponse = failedResponse();
+
+
+        AccountPool.Lease lease = null;
+        try {
+            log.info("腾讯云开发者社区发帖参数：{}", JSON.toJSONString(request));
+            log.info("接收到的参数: {}", request.toString());
+
+            deadline.check("正文转换");
+            final AddArticleRequest addArticleRequest = getAddArticleRequest(request, convertOptions);
+            deadline.check("正文转换");
+
+            // 选择账号并按账号限流，超出速率时排队等待
+            lease = acquireAccount(articleFunctionResponse);
+            if (lease == null) {
+                return articleFunctionResponse;
+            }
+            awaitPermit(lease.name(), deadline);
+
+            // 执行API调用，剩余时间小于OkHttp的调用超时时以剩余时间为准
+            Call<AddArticleResponse> call = tencentService.addArticle(lease.cookie(), addArticleRequest);
+            long remaining = deadline.remainingNanos();
+            long callTimeout = call.timeout().timeoutNanos();
+            if (!deadline.isNone() && (callTimeout == 0 || remaining < callTimeout)) {
+                call.timeout().timeout(Math.max(1, remaining), TimeUnit.NANOSECONDS);
+            }
+            Response<AddArticleResponse> response = call.execute();
+            release(lease, response);
+
+            return handleResponse(addArticleRequest, response, articleFunctionResponse);
+        } catch (DeadlineExceededException e) {
+            return deadlineExceeded(articleFunctionResponse, e);
+        } catch (InterruptedIOException e) {
+            if (deadline.isExpired()) {
+                return deadlineExceeded(articleFunctionResponse, new DeadlineExceededException("HTTP请求"));
+            }
+            log.error("腾讯云开发者社区发帖失败 ", e);
+        } catch (Exception e) {
+            log.error("腾讯云开发者社区发帖失败 ", e);
+        } finally {
+            if (lease != null) {
+                lease.release(AccountPool.Outcome.FAILURE);
+            }
+        }
+        return articleFunctionResponse;
+    }
+
+    /**
+     * 异步发布文章到腾讯云开发者社区
+     * <p>
+     * 请求构建与{@link #saveArticle}相同，HTTP请求通过{@link ITencentService#addArticleAsync}异步发送，
+     * 调用方线程在请求发出后立即返回，响应由OkHttp的回调线程处理。限流排队期间同样不占用线程。
+     * 截止时间取tencent.api.execution.tool-timeout，见{@link #saveArticleAsync(ArticleFunctionRequest, Deadline)}。
+     *
+     * @param request 文章发布请求，包含文章标题、内容等信息
+     * @return 文章发布响应的Future，发布失败时以status=-1正常完成
+     */
+    @Override
+    public CompletableFuture<ArticleFunctionResponse> saveArticleAsync(ArticleFunctionRequest request) {
+        return saveArticleAsync(request, toolDeadline());
+    }
+
+    /**
+     * 在截止时间内异步发布文章
+     * <p>
+     * 取消返回的Future时取消正在进行的限流排队或HTTP请求；截止时间到达时同样取消，
+     * Future以status=-1及超时原因完成。相同内容的并发请求合并为一次发布，以先到请求的截止时间为准。
+     *
+     * @param request  文章发布请求，包含文章标题、内容等信息
+     * @param deadline 截止时间
+     * @return 文章发布响应的Future，发布失败时以status=-1正常完成
+     */
+    @Override
+    public CompletableFuture<ArticleFunctionResponse> saveArticleAsync(ArticleFunctionRequest request, Deadline deadline) {
+        return deduplicate(request, () -> publishAsync(request, deadline));
+    }
+
+    private CompletableFuture<ArticleFunctionResponse> publishAsync(ArticleFunctionRequest request, Deadline deadline) {
+        ArticleFunctionResponse articleFunctionResponse = failedResponse();
+
+        final AddArticleRequest addArticleRequest;
+        try {
+            log.info("腾讯云开发者社区发帖参数：{}", JSON.toJSONString(request));
+            deadline.check("正文转换");
+            addArticleRequest = getAddArticleRequest(request, convertOptions);
+            deadline.check("正文转换");
+        } catch (DeadlineExceededException e) {
+            return CompletableFuture.completedFuture(deadlineExceeded(articleFunctionResponse, e));
+        } catch (Exception e) {
+            log.error("腾讯云开发者社区发帖失败 ", e);
+            return CompletableFuture.completedFuture(articleFunctionResponse);
+        }
+        final AccountPool.Lease lease = acquireAccount(articleFunctionResponse);
+        if (lease == null) {
+            return CompletableFuture.completedFuture(articleFunctionResponse);
+        }
+
+        // 当前阶段（限流排队或HTTP请求）的Future，取消结果或到期时一并取消；取消Retrofit的Future会取消OkHttp请求
+        CompletableFuture<ArticleFunctionResponse> result = new CompletableFuture<>();
+        CompletableFuture<Void> permit = acquirePermit(lease.name());
+        AtomicReference<CompletableFuture<?>> stage = new AtomicReference<>(permit);
+        permit.thenCompose(ignored -> {
+                    CompletableFuture<Response<AddArticleResponse>> call =
+                            tencentService.addArticleAsync(lease.cookie(), addArticleRequest);
+                    stage.set(call);
+                    if (result.isDone()) {
+                        call.cancel(true);
+                    }
+                    return call;
+                })
+                .whenComplete((response, e) -> {
+                    if (e == null) {
+                        release(lease, response);
+                        result.complete(handleResponse(addArticleRequest, response, articleFunctionResponse));
+                        return;
+                    }
+                    lease.release(AccountPool.Outcome.FAILURE);
+                    if (!result.isDone()) {
+                        log.error("腾讯云开发者社区发帖失败 ", e);
+                        result.complete(articleFunctionResponse);
+                    }
+                });
+        result.whenComplete((response, e) -> {
+            if (result.isCancelled()) {
+                stage.get().cancel(true);
+            }
+        });
+        deadline.onExpiry(result, () -> {
+            DeadlineExceededException e = new DeadlineExceededException(stage.get() == permit ? "限流排队" : "HTTP请求");
+            if (result.complete(deadlineExceeded(failedResponse(), e))) {
+                stage.get().cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 异步批量发布文章
+     * <p>
+     * 最多同时处理tencent.api.batch.concurrency篇：每篇先在公共线程池中转换正文，再经限流发布，
+     * 一篇完成后开始下一篇。单篇失败以status=-1记录在对应位置，不影响其他文章。
+     * 所有文章共用tencent.api.execution.tool-timeout的截止时间。
+     *
+     * @param requests 文章发布请求列表
+     * @param progress 进度回调，每完成一篇调用一次
+     * @return 与请求顺序一致的发布结果列表
+     */
+    @Override
+    public CompletableFuture<List<ArticleFunctionResponse>> saveArticlesAsync(List<ArticleFunctionRequest> requests,
+                                                                              ProgressReporter progress) {
+        return saveArticlesAsync(requests, progress, toolDeadline());
+    }
+
+    /**
+     * 在截止时间内异步批量发布文章
+     * <p>
+     * 截止时间到达后未开始的文章直接以超时失败记录；取消返回的Future时取消所有进行中的发布。
+     *
+     * @param requests 文章发布请求列表
+     * @param progress 进度回调，每完成一篇调用一次
+     * @param deadline 整批文章共用的截止时间
+     * @return 与请求顺序一致的发布结果列表
+     */
+    @Override
+    public CompletableFuture<List<ArticleFunctionResponse>> saveArticlesAsync(List<ArticleFunctionRequest> requests,
+                                                                              ProgressReporter progress,
+                                                                              Deadline deadline) {
+        TencentApiProperties.Batch batch = tencentApiProperties.getBatch();
+        if (requests == null || requests.isEmpty()) {
+            return CompletableFuture.completedFuture(List.of());
+        }
+        if (requests.size() > batch.getMaxSize()) {
+            return CompletableFuture.failedFuture(
+                    new IllegalArgumentException("单次最多发布 " + batch.getMaxSize() + " 篇文章，当前 " + requests.size() + " 篇"));
+        }
+        log.info("腾讯云开发者社区批量发帖，共 {} 篇", requests.size());
+
+        BatchPublish publish = new BatchPublish(requests, progress, deadline);
+        for (int i = 0; i < Math.min(Math.max(1, batch.getConcurrency()), requests.size()); i++) {
+            publish.next();
+        }
+        return publish.done;
+    }
+
+    /**
+     * 幂等发布
+     * <p>
+     * 标题、摘要与正文都相同的文章在有效期内已发布成功时，直接返回已发布的文章ID与链接；
+     * 相同内容的并发请求合并为一次发布，所有调用方得到同一结果，全部取消时才取消发布。未启用幂等存储时直接发布。
+     *
+     * @param request 文章发布请求
+     * @param publish 实际的发布操作
+     * @return 文章发布响应的Future
+     */
+    private CompletableFuture<ArticleFunctionResponse> deduplicate(ArticleFunctionRequest request,
+                                                                   Supplier<CompletableFuture<ArticleFunctionResponse>> publish) {
+        if (idempotencyStore == null || request == null) {
+            return publish.get();
+        }
+        String key = IdempotencyStore.key(request);
+        ArticleFunctionResponse published = publishedResponse(key);
+        if (published != null) {
+            return CompletableFuture.completedFuture(published);
+        }
+        return idempotencyStore.singleFlight(key, () -> {
+            // 上一次相同请求可能刚刚完成
+            ArticleFunctionResponse recent = publishedResponse(key);
+            if (recent != null) {
+                return CompletableFuture.completedFuture(recent);
+            }
+            CompletableFuture<ArticleFunctionResponse> publishing = publish.get();
+            CompletableFuture<ArticleFunctionResponse> recorded = publishing.thenApply(response -> {
+                if (response != null && isSuccess(response)) {
+                    idempotencyStore.record(key, response.getArticleId(), response.getUrl());
+                }
+                return response;
+            });
+            // 所有调用方都取消时取消发布
+            recorded.whenComplete((response, e) -> {
+                if (recorded.isCancelled()) {
+                    publishing.cancel(true);
+                }
+            });
+            return recorded;
+        });
+    }
+
+    /**
+     * 构建已发布文章的返回对象
+     *
+     * @param key 幂等键
+     * @return 文章发布响应，未发布过时返回null
+     */
+    private ArticleFunctionResponse publishedResponse(String key) {
+        IdempotencyStore.Published published = idempotencyStore.find(key);
+        if (published == null) {
+            return null;
+        }
+        log.info("相同内容的文章已发布，直接返回: {}", published.url);
+        ArticleFunctionResponse articleFunctionResponse = failedResponse();
+        articleFunctionResponse.setStatus(0);
+        articleFunctionResponse.setArticleId(published.articleId);
+        articleFunctionResponse.setUrl(published.url);
+        return articleFunctionResponse;
+    }
+
+    /**
+     * 创建发布失败状态的返回对象，发布成功后再填充结果
+     */
+    private ArticleFunctionResponse failedResponse() {
         ArticleFunctionResponse articleFunctionResponse = new ArticleFunctionResponse();
         articleFunctionResponse.setStatus(-1);
         articleFunctionResponse.setArticleId(null);
         articleFunctionResponse.setUrl(null);
         articleFunctionResponse.setCopyright(getCopyright());
+        return articleFunctionResponse;
+    }
 
+    /**
+     * 按tencent.api.execution.tool-timeout创建截止时间
+     */
+    private Deadline toolDeadline() {
+        return Deadline.after(tencentApiProperties.getExecution().getToolTimeout());
+    }
 
+    /**
+     * 记录超时取消，失败原因写入返回对象
+     *
+     * @param articleFunctionResponse 预先填充失败状态的返回对象
+     * @param e                       超时异常
+     * @return 填充超时原因的返回对象
+     */
+    private ArticleFunctionResponse deadlineExceeded(ArticleFunctionResponse articleFunctionResponse,
+                                                     DeadlineExceededException e) {
+        log.warn("腾讯云开发者社区发帖失败: {}", e.getMessage());
+        meterRegistry.counter(Deadline.CANCELLATIONS, "reason", "deadline").increment();
+        articleFunctionResponse.setMessage(e.getMessage());
+        return articleFunctionResponse;
+    }
+
+    private static boolean isSuccess(ArticleFunctionResponse response) {
+        return response.getArticleId() != null && Integer.valueOf(0).equals(response.getStatus());
+    }
+
+    /**
+     * 选择发布账号
+     * <p>
+     * 所有账号的登录会话均已失效时不发送请求，失败原因写入返回对象。
+     *
+     * @param articleFunctionResponse 预先填充失败状态的返回对象
+     * @return 账号租约，没有可用账号时返回null
+     */
+    private AccountPool.Lease acquireAccount(ArticleFunctionResponse articleFunctionResponse) {
         try {
-            log.info("腾讯云开发者社区发帖参数：{}", JSON.toJSONString(request));
-            log.info("接收到的参数: {}", request.toString());
+            return accountPool.acquire();
+        } catch (IllegalStateException e) {
+            log.warn("腾讯云开发者社区发帖失败: {}", e.getMessage());
+            articleFunctionResponse.setMessage(e.getMessage() + "，请更新Cookie后重试");
+            return null;
+        }
+    }
 
-            final AddArticleRequest addArticleRequest = getAddArticleRequest(request);
+    /**
+     * 申请发布许可
+     *
+     * @param account 账号名称
+     * @return 放行时完成的Future，未启用限流时立即完成
+     */
+    private CompletableFuture<Void> acquirePermit(String account) {
+        return rateLimiter == null ? CompletableFuture.completedFuture(null) : rateLimiter.acquire(account);
+    }
 
-            // 执行API调用
-            Call<AddArticleResponse> call = tencentService.addArticle(tencentApiProperties.getCookie(), addArticleRequest);
-            Response<AddArticleResponse> response = call.execute();
+    /**
+     * 在截止时间内等待发布许可
+     *
+     * @param account  账号名称
+     * @param deadline 截止时间
+     * @throws DeadlineExceededException 到期前未放行，排队的许可已取消
+     */
+    private void awaitPermit(String account, Deadline deadline) throws Exception {
+        CompletableFuture<Void> permit = acquirePermit(account);
+        try {
+            if (deadline.isNone()) {
+                permit.get();
+            } else {
+                permit.get(Math.max(0, deadline.remainingNanos()), TimeUnit.NANOSECONDS);
+            }
+        } catch (TimeoutException e) {
+            permit.cancel(true);
+            throw new DeadlineExceededException("限流排队");
+        } catch (InterruptedException e) {
+            permit.cancel(true);
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+    }
 
-            // 记录请求和响应日志
-            log.info("\n\n请求腾讯云开发者社区发布文章\n req:{} \nres:{}", JSON.toJSONString(addArticleRequest), JSON.toJSONString(response));
+    /**
+     * 按HTTP响应归还账号；429时按Retry-After暂停该账号的限流放行
+     */
+    private void release(AccountPool.Lease lease, Response<?> response) {
+        lease.release(outcome(response));
+        if (response.code() == 429 && rateLimiter != null) {
+            log.warn("腾讯云接口限流，暂停账号发布: {}", lease.name());
+            rateLimiter.throttle(lease.name(), retryAfter(response));
+        }
+    }
 
-            if (response.isSuccessful()) {
-                log.info("腾讯云开发者社区发布文章成功: {}", JSON.toJSONString(response.body()));
+    /**
+     * 解析以秒为单位的Retry-After响应头，没有或无法解析时返回0
+     */
+    private static Duration retryAfter(Response<?> response) {
+        String value = response.headers().get("Retry-After");
+        if (value == null) {
+            return Duration.ZERO;
+        }
+        try {
+            return Duration.ofSeconds(Long.parseLong(value.trim()));
+        } catch (NumberFormatException e) {
+            return Duration.ZERO;
+        }
+    }
 
-                // 处理成功响应
-                AddArticleResponse articleResponseDTO = response.body();
-                if (null == articleResponseDTO) return null;
+    /**
+     * 根据HTTP响应判断账号的请求结果，401/403视为Cookie失效
+     */
+    private static AccountPool.Outcome outcome(Response<?> response) {
+        if (response.code() == 401 || response.code() == 403) {
+            return AccountPool.Outcome.AUTH_FAILURE;
+        }
+        return response.isSuccessful() ? AccountPool.Outcome.SUCCESS : AccountPool.Outcome.FAILURE;
+    }
 
-                articleFunctionResponse.setStatus(articleResponseDTO.getStatus());
-                articleFunctionResponse.setArticleId(articleResponseDTO.getArticleId());
-                articleFunctionResponse.setUrl("https://cloud.tencent.com/developer/article/" + articleResponseDTO.getArticleId());
+    /**
+     * 处理发布文章的响应
+     *
+     * @param addArticleRequest       发布请求
+     * @param response                HTTP响应
+     * @param articleFunctionResponse 预先填充失败状态的返回对象
+     * @return 文章发布响应，响应体为空时返回null
+     */
+    private ArticleFunctionResponse handleResponse(AddArticleRequest addArticleRequest, Response<AddArticleResponse> response,
+                                                   ArticleFunctionResponse articleFunctionResponse) {
+        // 记录请求和响应日志
+        log.info("\n\n请求腾讯云开发者社区发布文章\n req:{} \nres:{}", JSON.toJSONString(addArticleRequest), JSON.toJSONString(response));
 
-                return articleFunctionResponse;
+        if (response.isSuccessful()) {
+            log.info("腾讯云开发者社区发布文章成功: {}", JSON.toJSONString(response.body()));
+
+            // 处理成功响应
+            AddArticleResponse articleResponseDTO = response.body();
+            if (null == articleResponseDTO) return null;
+
+            articleFunctionResponse.setStatus(articleResponseDTO.getStatus());
+            articleFunctionResponse.setArticleId(articleResponseDTO.getArticleId());
+            articleFunctionResponse.setUrl("https://cloud.tencent.com/developer/article/" + articleResponseDTO.getArticleId());
+
+            // 新文章发布后文章列表需要重新确认
+            if (articleListCache != null) {
+                articleListCache.invalidate();
             }
-            log.error("腾讯云开发者社区发布文章失败: {}", JSON.toJSONString(response));
+
             return articleFunctionResponse;
-        } catch (Exception e) {
-            log.error("腾讯云开发者社区发帖失败 ", e);
         }
+        log.error("腾讯云开发者社区发布文章失败: {}", JSON.toJSONString(response));
         return articleFunctionResponse;
     }
 
@@ -102,19 +516,27 @@ public class TencentArticleToolService implements ToolServiceMarker {
      * 该方法将文章发布请求转换为实际需要的格式。
      * 主要功能：
      * 1. 创建AddArticleRequest对象，并设置请求参数
-     * 2. 将Markdown内容转换为ProseMirror格式
+     * 2. 将Markdown内容转换为ProseMirror格式（超过流式阈值的正文只预先完成解析与图片处理，发送请求时流式写出）
      * <p>
      * 待优化点:
      *         TODO: 后续部分参数需要动态获取
      *
-     * @param request 文章发布请求，包含文章标题、内容等信息
+     * @param request        文章发布请求，包含文章标题、内容等信息
+     * @param convertOptions Markdown转换选项
      * @return AddArticleRequest对象，包含实际需要的参数
      */
-    private static @NotNull AddArticleRequest getAddArticleRequest(ArticleFunctionRequest request) {
+    static @NotNull AddArticleRequest getAddArticleRequest(ArticleFunctionRequest request, ConvertOptions convertOptions) {
         AddArticleRequest addArticleRequest = new AddArticleRequest();
         addArticleRequest.setTitle(request.getTitle());
         addArticleRequest.setPlain(request.getMarkdowncontent());
-        addArticleRequest.setContent(addArticleRequest.getContent());
+        // 超长正文不生成完整的content，发送时由StreamingArticleRequestBody直接写入请求体；
+        // 图片处理在当前线程完成，不会在限流器线程或OkHttp线程上执行
+        if (addArticleRequest.getPlain() == null
+                || addArticleRequest.getPlain().length() < convertOptions.getStreamingThreshold()) {
+            addArticleRequest.renderContent(convertOptions);
+        } else {
+            addArticleRequest.prepareContent(convertOptions);
+        }
         addArticleRequest.setUserSummary(request.getUserSummary());
         // 只允许修改下面的参数
         addArticleRequest.setSourceType(1);  // 设置为原创
@@ -131,8 +553,116 @@ public class TencentArticleToolService implements ToolServiceMarker {
     }
 
 
+    /**
+     * 获取当前账号最新的文章列表
+     * <p>
+     * 结果由{@link ArticleListCache}按页缓存，重复查询大多直接返回缓存或只需一次304条件请求；
+     * 超过一页时并发请求各页并按顺序合并。数量超过tencent.api.article-list.max-list-size时按上限返回。
+     *
+     * @param listSize 列表数量
+     * @return 文章列表的JSON，失败时返回失败原因
+     */
     @Override
     public String getArticleList(int listSize) {
-        return "功能暂未实现!";
+        return getArticleListAsync(listSize).join();
+    }
+
+    @Override
+    public CompletableFuture<String> getArticleListAsync(int listSize) {
+        if (articleListCache == null) {
+            return CompletableFuture.completedFuture("文章列表未启用，请配置tencent.api.article-list.enabled=true");
+        }
+        if (listSize <= 0) {
+            return CompletableFuture.completedFuture("列表数量必须大于0");
+        }
+        int size = Math.min(listSize, tencentApiProperties.getArticleList().getMaxListSize());
+        return articleListCache.list(size)
+                .thenApply(articles -> JSON.toJSONString(articles))
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    log.error("获取腾讯云开发者社区文章列表失败 ", cause);
+                    return "获取文章列表失败: " + cause.getMessage();
+                });
+    }
+
+    /**
+     * 一次批量发布的状态
+     * <p>
+     * 每个并发槽位完成一篇后调用{@link #next()}领取下一篇，全部完成后完成{@link #done}。
+     * {@link #done}被取消时取消{@link #running}中所有进行中的发布。
+     */
+    private final class BatchPublish {
+
+        private final List<ArticleFunctionRequest> requests;
+        private final ProgressReporter progress;
+        private final Deadline deadline;
+        private final ArticleFunctionResponse[] results;
+        private final AtomicInteger nextIndex = new AtomicInteger();
+        private final AtomicInteger completed = new AtomicInteger();
+        private final Set<CompletableFuture<ArticleFunctionResponse>> running = ConcurrentHashMap.newKeySet();
+        private final CompletableFuture<List<ArticleFunctionResponse>> done = new CompletableFuture<>();
+
+        private BatchPublish(List<ArticleFunctionRequest> requests, ProgressReporter progress, Deadline deadline) {
+            this.requests = requests;
+            this.progress = progress;
+            this.deadline = deadline;
+            this.results = new ArticleFunctionResponse[requests.size()];
+            done.whenComplete((responses, e) -> {
+                if (done.isCancelled()) {
+                    running.forEach(item -> item.cancel(true));
+                }
+            });
+        }
+
+        private void next() {
+            int index = nextIndex.getAndIncrement();
+            if (index >= requests.size() || done.isDone()) {
+                return;
+            }
+            ArticleFunctionRequest request = requests.get(index);
+            CompletableFuture<ArticleFunctionResponse> item = new CompletableFuture<>();
+            running.add(item);
+            // 正文转换在公共线程池中执行，多篇文章并行转换
+            CompletableFuture.runAsync(() -> {
+                if (item.isDone()) {
+                    return;
+                }
+                try {
+                    CompletableFuture<ArticleFunctionResponse> publishing = saveArticleAsync(request, deadline);
+                    item.whenComplete((response, e) -> {
+                        if (item.isCancelled()) {
+                            publishing.cancel(true);
+                        }
+                    });
+                    publishing.whenComplete((response, e) -> {
+                        if (e != null) {
+                            item.completeExceptionally(e);
+                        } else {
+                            item.complete(response);
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    item.completeExceptionally(e);
+                }
+            });
+            item.whenComplete((response, e) -> {
+                running.remove(item);
+                if (done.isDone()) {
+                    return;
+                }
+                if (e != null) {
+                    log.error("腾讯云开发者社区批量发帖失败: 第 {} 篇", index + 1, e);
+                }
+                results[index] = response != null ? response : failedResponse();
+                int count = completed.incrementAndGet();
+                String title = request == null ? null : request.getTitle();
+                progress.report(count, results.length, (isSuccess(results[index]) ? "发布成功: " : "发布失败: ") + title);
+                if (count == results.length) {
+                    done.complete(Arrays.asList(results));
+                } else {
+                    next();
+                }
+            });
+        }
     }
 }
@@ -2,6 +2,11 @@ package com.yby6.mcp.server.tencent.mcpService.tools.server;
 
 import com.yby6.mcp.server.tencent.mcpService.funcModel.ArticleFunctionRequest;
 import com.yby6.mcp.server.tencent.mcpService.funcModel.ArticleFunctionResponse;
+import com.yby6.mcp.server.tencent.mcpService.tools.Deadline;
+import com.yby6.mcp.server.tencent.mcpService.tools.ProgressReporter;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Tool 需实现的标记接口
@@ -23,9 +28,45 @@ public interface ToolServiceMarker {
      */
     public ArticleFunctionResponse saveArticle(ArticleFunctionRequest request);
 
+    /**
+     * 批量保存文章，返回结果与请求一一对应
+     */
+    default List<ArticleFunctionResponse> saveArticles(List<ArticleFunctionRequest> requests) {
+        return saveArticlesAsync(requests, ProgressReporter.NONE).join();
+    }
+
     /**
      * 获取文章列表
      */
     String getArticleList(int listSize);
 
+    /**
+     * 异步保存文章，等待腾讯云响应期间不占用调用方线程
+     */
+    CompletableFuture<ArticleFunctionResponse> saveArticleAsync(ArticleFunctionRequest request);
+
+    /**
+     * 在截止时间内异步保存文章，取消返回的Future时取消进行中的请求
+     */
+    CompletableFuture<ArticleFunctionResponse> saveArticleAsync(ArticleFunctionRequest request, Deadline deadline);
+
+    /**
+     * 异步批量保存文章，每完成一篇报告一次进度
+     */
+    CompletableFuture<List<ArticleFunctionResponse>> saveArticlesAsync(List<ArticleFunctionRequest> requests,
+                                                                       ProgressReporter progress);
+
+    /**
+     * 在截止时间内异步批量保存文章，取消返回的Future时取消进行中的请求
+     */
+    CompletableFuture<List<ArticleFunctionResponse>> saveArticlesAsync(List<ArticleFunctionRequest> requests,
+                                                                       ProgressReporter progress, Deadline deadline);
+
+    /**
+     * 异步获取文章列表，等待腾讯云响应期间不占用调用方线程
+     */
+    default CompletableFuture<String> getArticleListAsync(int listSize) {
+        return CompletableFuture.completedFuture(getArticleList(listSize));
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,159 @@
+package com.yby6.mcp.server.tencent.mcpService.utils;
+
+import org.commonmark.node.*;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.function.Function;
+
+/**
+ * AST结构摘要
+ * <p>
+ * 对节点及其全部子节点计算64位FNV-1a摘要，覆盖节点类型以及影响输出的字段
+ * （文本、代码、链接地址、图片地址与标题、标题级别等）。
+ * 内容相同的块得到相同的摘要，用于推导确定性ID。
+ * <p>
+ * {@link #digest}以相同的编码计算SHA-256，片段缓存命中时用它确认块的内容确实相同，
+ * 64位摘要冲突时不会返回其他块的输出。
+ *
+ * @author yby6
+ * @since 2025/05/25
+ */
+final class BlockHasher {
+
+    private static final long OFFSET = 0xcbf29ce484222325L;
+    private static final long PRIME = 0x100000001b3L;
+
+    private BlockHasher() {
+        // 私有构造函数，防止实例化
+    }
+
+    /**
+     * 计算节点摘要
+     *
+     * @param node AST节点
+     * @return 64位摘要
+     */
+    static long hash(Node node) {
+        Fnv sink = new Fnv();
+        write(sink, node, url -> null);
+        return sink.h;
+    }
+
+    /**
+     * 计算节点内容的SHA-256
+     *
+     * @param node       AST节点
+     * @param imageSizes 图片地址 -> 尺寸，尺寸影响输出时一并计入，未知时返回null
+     * @return 32字节摘要
+     */
+    static byte[] digest(Node node, Function<String, ImageSize> imageSizes) {
+        Sha256 sink = new Sha256();
+        write(sink, node, imageSizes);
+        return sink.finish();
+    }
+
+    private static void write(Sink sink, Node node, Function<String, ImageSize> imageSizes) {
+        sink.update(node.getClass().getName());
+        if (node instanceof Text) {
+            sink.update(((Text) node).getLiteral());
+        } else if (node instanceof Code) {
+            sink.update(((Code) node).getLiteral());
+        } else if (node instanceof FencedCodeBlock) {
+            sink.update(((FencedCodeBlock) node).getInfo());
+            sink.update(((FencedCodeBlock) node).getLiteral());
+        } else if (node instanceof IndentedCodeBlock) {
+            sink.update(((IndentedCodeBlock) node).getLiteral());
+        } else if (node instanceof HtmlBlock) {
+            sink.update(((HtmlBlock) node).getLiteral());
+        } else if (node instanceof HtmlInline) {
+            sink.update(((HtmlInline) node).getLiteral());
+        } else if (node instanceof Link) {
+            sink.update(((Link) node).getDestination());
+            sink.update(((Link) node).getTitle());
+        } else if (node instanceof Image) {
+            sink.update(((Image) node).getDestination());
+            sink.update(((Image) node).getTitle());
+            ImageSize size = imageSizes.apply(((Image) node).getDestination());
+            if (size != null) {
+                sink.update(size.width());
+                sink.update(size.height());
+            }
+        } else if (node instanceof Heading) {
+            sink.update(((Heading) node).getLevel());
+        } else if (node instanceof OrderedList) {
+            sink.update(((OrderedList) node).getStartNumber());
+        }
+
+        // 子节点以进入/退出标记包裹，区分嵌套结构
+        sink.update('{');
+        for (Node child = node.getFirstChild(); child != null; child = child.getNext()) {
+            write(sink, child, imageSizes);
+        }
+        sink.update('}');
+    }
+
+    /**
+     * 摘要的输入，字符串与整数按长度前缀与UTF-16字符编码
+     */
+    private abstract static class Sink {
+
+        abstract void update(char c);
+
+        void update(String value) {
+            if (value == null) {
+                update(-1);
+                return;
+            }
+            update(value.length());
+            for (int i = 0; i < value.length(); i++) {
+                update(value.charAt(i));
+            }
+        }
+
+        void update(int value) {
+            update((char) (value >>> 16));
+            update((char) value);
+        }
+    }
+
+    private static final class Fnv extends Sink {
+
+        private long h = OFFSET;
+
+        @Override
+        void update(char c) {
+            h = (h ^ c) * PRIME;
+        }
+    }
+
+    private static final class Sha256 extends Sink {
+
+        private final MessageDigest digest;
+        private final byte[] buffer = new byte[4096];
+        private int length;
+
+        private Sha256() {
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 不可用", e);
+            }
+        }
+
+        @Override
+        void update(char c) {
+            if (length == buffer.length) {
+                digest.update(buffer, 0, length);
+                length = 0;
+            }
+            buffer[length++] = (byte) (c >>> 8);
+            buffer[length++] = (byte) c;
+        }
+
+        private byte[] finish() {
+            digest.update(buffer, 0, length);
+            return digest.digest();
+        }
+    }
+}
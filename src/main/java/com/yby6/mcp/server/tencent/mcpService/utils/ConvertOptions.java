@@ -0,0 +1,118 @@
+package com.yby6.mcp.server.tencent.mcpService.utils;
+
+import com.yby6.mcp.server.tencent.mcpService.utils.MarkdownToProseMirrorConverter.ConvertMode;
+import lombok.Data;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/**
+ * Markdown转换选项
+ * <p>
+ * 未设置的选项均使用默认值，与{@link MarkdownToProseMirrorConverter#convert(String)}的行为一致。
+ *
+ * @author yby6
+ * @since 2025/05/25
+ */
+@Data
+public class ConvertOptions {
+
+    /**
+     * 默认并行阈值：256K字符
+     */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 256 * 1024;
+
+    /**
+     * 默认流式请求体阈值：512K字符
+     */
+    public static final int DEFAULT_STREAMING_THRESHOLD = 512 * 1024;
+
+    /**
+     * 转换模式，默认流式写出
+     */
+    private ConvertMode mode = ConvertMode.STREAMING;
+
+    /**
+     * Markdown解析引擎，默认使用{@link ParserEngine#COMMONMARK}
+     */
+    private MarkdownParserEngine parserEngine = ParserEngine.COMMONMARK;
+
+    /**
+     * 节点ID生成策略，每次转换调用一次获取新的生成器
+     * 默认使用{@link NodeIdStrategy#FAST}
+     */
+    private Supplier<? extends NodeIdGenerator> idStrategy = NodeIdStrategy.FAST;
+
+    /**
+     * 是否启用增量转换
+     * 启用后按顶层块缓存转换结果，未改动的块直接复用，见{@link ProseMirrorFragmentCache}
+     */
+    private boolean incremental;
+
+    /**
+     * 增量转换使用的片段缓存，为null时使用{@link ProseMirrorFragmentCache#shared()}
+     */
+    private ProseMirrorFragmentCache fragmentCache;
+
+    /**
+     * 是否启用并行转换
+     * 启用后超过{@link #parallelThreshold}的文档按顶层块切分，在ForkJoinPool中并行转换
+     */
+    private boolean parallel;
+
+    /**
+     * 并行转换的阈值，按格式化后的Markdown字符数计算
+     */
+    private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+
+    /**
+     * 并行转换使用的线程池，为null时使用{@link ForkJoinPool#commonPool()}
+     */
+    private ForkJoinPool forkJoinPool;
+
+    /**
+     * 发布文章时流式写出请求体的阈值，按原始Markdown字符数计算
+     * <p>
+     * 低于阈值的正文在构建请求时转换并按摘要缓存结果；
+     * 达到阈值的正文不预先转换，发送请求时直接写入HTTP请求体，内存中不保留完整的JSON。
+     */
+    private int streamingThreshold = DEFAULT_STREAMING_THRESHOLD;
+
+    /**
+     * 图片尺寸探测器，为null时图片按默认宽度与宽高比输出
+     */
+    private ImageSizeProber imageProber;
+
+    /**
+     * 图片转存器，为null时图片保留原地址
+     */
+    private ImageRehoster imageRehoster;
+
+    /**
+     * 影响输出内容的选项摘要
+     * <p>
+     * 用于区分不同选项下的缓存结果，转换模式、是否增量等不改变输出的选项不参与计算。
+     * 启用图片尺寸探测或转存时追加标记，各块的实际尺寸由片段缓存按块区分。
+     *
+     * @return 选项摘要
+     */
+    public String outputKey() {
+        String key = idStrategy instanceof Enum<?> ? ((Enum<?>) idStrategy).name() : idStrategy.getClass().getName();
+        if (parserEngine != ParserEngine.COMMONMARK) {
+            key += "+" + (parserEngine instanceof Enum<?> ? ((Enum<?>) parserEngine).name() : parserEngine.getClass().getName());
+        }
+        if (imageRehoster != null) {
+            key += "+rehost";
+        }
+        return imageProber != null ? key + "+image" : key;
+    }
+
+    /**
+     * 获取实际使用的片段缓存
+     *
+     * @return 片段缓存
+     */
+    public ProseMirrorFragmentCache fragmentCacheOrShared() {
+        return fragmentCache != null ? fragmentCache : ProseMirrorFragmentCache.shared();
+    }
+}
@@ -0,0 +1,287 @@
+package com.yby6.mcp.server.tencent.mcpService.utils;
+
+import com.vladsch.flexmark.ast.AutoLink;
+import com.vladsch.flexmark.ast.BlockQuote;
+import com.vladsch.flexmark.ast.BulletList;
+import com.vladsch.flexmark.ast.Code;
+import com.vladsch.flexmark.ast.Emphasis;
+import com.vladsch.flexmark.ast.FencedCodeBlock;
+import com.vladsch.flexmark.ast.HardLineBreak;
+import com.vladsch.flexmark.ast.Heading;
+import com.vladsch.flexmark.ast.HtmlBlockBase;
+import com.vladsch.flexmark.ast.HtmlEntity;
+import com.vladsch.flexmark.ast.HtmlInlineBase;
+import com.vladsch.flexmark.ast.Image;
+import com.vladsch.flexmark.ast.ImageRef;
+import com.vladsch.flexmark.ast.IndentedCodeBlock;
+import com.vladsch.flexmark.ast.Link;
+import com.vladsch.flexmark.ast.LinkRef;
+import com.vladsch.flexmark.ast.ListItem;
+import com.vladsch.flexmark.ast.MailLink;
+import com.vladsch.flexmark.ast.OrderedList;
+import com.vladsch.flexmark.ast.Paragraph;
+import com.vladsch.flexmark.ast.RefNode;
+import com.vladsch.flexmark.ast.Reference;
+import com.vladsch.flexmark.ast.SoftLineBreak;
+import com.vladsch.flexmark.ast.StrongEmphasis;
+import com.vladsch.flexmark.ast.Text;
+import com.vladsch.flexmark.ast.ThematicBreak;
+import com.vladsch.flexmark.ext.gfm.tasklist.TaskListExtension;
+import com.vladsch.flexmark.ext.gfm.tasklist.TaskListItem;
+import com.vladsch.flexmark.ext.tables.TableCell;
+import com.vladsch.flexmark.ext.tables.TableRow;
+import com.vladsch.flexmark.ext.tables.TableSeparator;
+import com.vladsch.flexmark.ext.tables.TablesExtension;
+import com.vladsch.flexmark.parser.Parser;
+import com.vladsch.flexmark.util.ast.BlankLine;
+import com.vladsch.flexmark.util.ast.Document;
+import com.vladsch.flexmark.util.ast.Node;
+import com.vladsch.flexmark.util.data.MutableDataSet;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.List;
+
+/**
+ * flexmark AST适配
+ * <p>
+ * 使用flexmark（启用GFM表格与任务列表扩展）解析Markdown，再将其AST转换为commonmark的节点，
+ * 使转换器与各写出实现无需感知解析引擎。文本按commonmark的规则去除转义并合并相邻文本节点，
+ * 对CommonMark语法两种引擎得到的AST结构一致。
+ * <p>
+ * 扩展语法的映射：
+ * - 表格：每一行转换为一个段落，单元格内容之间插入" | "，分隔行忽略
+ * - 任务列表项：在列表项的首个段落前插入"☐ "或"☑ "
+ *
+ * @author yby6
+ * @since 2025/05/25
+ */
+final class FlexmarkAstAdapter {
+
+    /**
+     * 表格单元格之间的分隔文本
+     */
+    private static final String CELL_SEPARATOR = " | ";
+
+    private static final Parser PARSER = Parser.builder(new MutableDataSet()
+            .set(Parser.EXTENSIONS, List.of(TablesExtension.create(), TaskListExtension.create()))
+            .toImmutable()).build();
+
+    private FlexmarkAstAdapter() {
+        // 私有构造函数，防止实例化
+    }
+
+    /**
+     * 解析Markdown文本
+     *
+     * @param markdown Markdown文本
+     * @return commonmark文档
+     */
+    static org.commonmark.node.Node parse(String markdown) {
+        return adaptDocument(PARSER.parse(markdown));
+    }
+
+    /**
+     * 从Reader解析Markdown
+     *
+     * @param reader Markdown输入
+     * @return commonmark文档
+     * @throws IOException 读取失败时抛出
+     */
+    static org.commonmark.node.Node parse(Reader reader) throws IOException {
+        return adaptDocument(PARSER.parseReader(reader));
+    }
+
+    private static org.commonmark.node.Node adaptDocument(Document document) {
+        org.commonmark.node.Document target = new org.commonmark.node.Document();
+        adaptChildren(document, target, document);
+        return target;
+    }
+
+    private static void adaptChildren(Node source, org.commonmark.node.Node target, Document document) {
+        for (Node child = source.getFirstChild(); child != null; child = child.getNext()) {
+            adapt(child, target, document);
+        }
+    }
+
+    /**
+     * 转换单个节点并追加到target，没有对应节点的容器直接展开其子节点
+     */
+    private static void adapt(Node node, org.commonmark.node.Node target, Document document) {
+        if (node instanceof Text || node instanceof HtmlEntity) {
+            appendText(target, node.getChars().unescape());
+        } else if (node instanceof SoftLineBreak) {
+            target.appendChild(new org.commonmark.node.SoftLineBreak());
+        } else if (node instanceof Paragraph) {
+            adaptContainer(node, new org.commonmark.node.Paragraph(), target, document);
+        } else if (node instanceof Heading) {
+            org.commonmark.node.Heading heading = new org.commonmark.node.Heading();
+            heading.setLevel(((Heading) node).getLevel());
+            adaptContainer(node, heading, target, document);
+        } else if (node instanceof Emphasis) {
+            adaptContainer(node, new org.commonmark.node.Emphasis(), target, document);
+        } else if (node instanceof StrongEmphasis) {
+            adaptContainer(node, new org.commonmark.node.StrongEmphasis(), target, document);
+        } else if (node instanceof Code) {
+            org.commonmark.node.Code code = new org.commonmark.node.Code();
+            code.setLiteral(codeSpanLiteral(((Code) node).getText().toString()));
+            target.appendChild(code);
+        } else if (node instanceof Image) {
+            Image image = (Image) node;
+            org.commonmark.node.Image adapted = new org.commonmark.node.Image(
+                    image.getUrl().unescape(), title(image.getTitle().unescape()));
+            adaptContainer(node, adapted, target, document);
+        } else if (node instanceof Link) {
+            Link link = (Link) node;
+            org.commonmark.node.Link adapted = new org.commonmark.node.Link(
+                    link.getUrl().unescape(), title(link.getTitle().unescape()));
+            adaptContainer(node, adapted, target, document);
+        } else if (node instanceof RefNode) {
+            adaptReference((RefNode) node, target, document);
+        } else if (node instanceof AutoLink || node instanceof MailLink) {
+            String text = node instanceof AutoLink
+                    ? ((AutoLink) node).getText().toString()
+                    : ((MailLink) node).getText().toString();
+            String destination = node instanceof MailLink ? "mailto:" + text : text;
+            org.commonmark.node.Link link = new org.commonmark.node.Link(destination, null);
+            link.appendChild(new org.commonmark.node.Text(text));
+            target.appendChild(link);
+        } else if (node instanceof HardLineBreak) {
+            target.appendChild(new org.commonmark.node.HardLineBreak());
+        } else if (node instanceof FencedCodeBlock) {
+            FencedCodeBlock fenced = (FencedCodeBlock) node;
+            org.commonmark.node.FencedCodeBlock codeBlock = new org.commonmark.node.FencedCodeBlock();
+            codeBlock.setFenceChar(fenced.getOpeningMarker().charAt(0));
+            codeBlock.setFenceLength(fenced.getFenceLength());
+            codeBlock.setInfo(fenced.getInfo().unescape());
+            codeBlock.setLiteral(fenced.getContentChars().normalizeEOL());
+            target.appendChild(codeBlock);
+        } else if (node instanceof IndentedCodeBlock) {
+            org.commonmark.node.IndentedCodeBlock codeBlock = new org.commonmark.node.IndentedCodeBlock();
+            codeBlock.setLiteral(((IndentedCodeBlock) node).getContentChars().trimTailBlankLines().normalizeEndWithEOL());
+            target.appendChild(codeBlock);
+        } else if (node instanceof BlockQuote) {
+            adaptContainer(node, new org.commonmark.node.BlockQuote(), target, document);
+        } else if (node instanceof BulletList) {
+            org.commonmark.node.BulletList list = new org.commonmark.node.BulletList();
+            list.setBulletMarker(node.getChars().charAt(0));
+            adaptContainer(node, list, target, document);
+        } else if (node instanceof OrderedList) {
+            org.commonmark.node.OrderedList list = new org.commonmark.node.OrderedList();
+            list.setStartNumber(((OrderedList) node).getStartNumber());
+            adaptContainer(node, list, target, document);
+        } else if (node instanceof ListItem) {
+            org.commonmark.node.ListItem item = new org.commonmark.node.ListItem();
+            adaptContainer(node, item, target, document);
+            if (node instanceof TaskListItem) {
+                markTask(item, ((TaskListItem) node).isItemDoneMarker());
+            }
+        } else if (node instanceof TableRow) {
+            adaptTableRow(node, target, document);
+        } else if (node instanceof TableSeparator) {
+            // 表头分隔行不输出
+        } else if (node instanceof ThematicBreak) {
+            target.appendChild(new org.commonmark.node.ThematicBreak());
+        } else if (node instanceof HtmlBlockBase) {
+            org.commonmark.node.HtmlBlock html = new org.commonmark.node.HtmlBlock();
+            html.setLiteral(node.getChars().trimEOL().toString());
+            target.appendChild(html);
+        } else if (node instanceof HtmlInlineBase) {
+            org.commonmark.node.HtmlInline html = new org.commonmark.node.HtmlInline();
+            html.setLiteral(node.getChars().toString());
+            target.appendChild(html);
+        } else if (node instanceof Reference) {
+            Reference reference = (Reference) node;
+            target.appendChild(new org.commonmark.node.LinkReferenceDefinition(reference.getReference().toString(),
+                    reference.getUrl().unescape(), title(reference.getTitle().unescape())));
+        } else if (!(node instanceof BlankLine)) {
+            // 表格、表头、表体以及其他扩展节点：展开子节点
+            adaptChildren(node, target, document);
+        }
+    }
+
+    private static void adaptContainer(Node source, org.commonmark.node.Node adapted,
+                                       org.commonmark.node.Node target, Document document) {
+        adaptChildren(source, adapted, document);
+        target.appendChild(adapted);
+    }
+
+    /**
+     * 引用式链接与图片：已定义的按定义转换为链接/图片，未定义的按原文输出
+     */
+    private static void adaptReference(RefNode ref, org.commonmark.node.Node target, Document document) {
+        Reference reference = ref.isDefined() ? ref.getReferenceNode(document) : null;
+        if (reference == null) {
+            appendText(target, ref.getChars().unescape());
+            return;
+        }
+        org.commonmark.node.Node adapted = ref instanceof ImageRef
+                ? new org.commonmark.node.Image(reference.getUrl().unescape(), title(reference.getTitle().unescape()))
+                : new org.commonmark.node.Link(reference.getUrl().unescape(), title(reference.getTitle().unescape()));
+        adaptContainer(ref, adapted, target, document);
+    }
+
+    private static void adaptTableRow(Node row, org.commonmark.node.Node target, Document document) {
+        org.commonmark.node.Paragraph paragraph = new org.commonmark.node.Paragraph();
+        boolean first = true;
+        for (Node cell = row.getFirstChild(); cell != null; cell = cell.getNext()) {
+            if (!(cell instanceof TableCell)) {
+                continue;
+            }
+            if (!first) {
+                appendText(paragraph, CELL_SEPARATOR);
+            }
+            first = false;
+            adaptChildren(cell, paragraph, document);
+        }
+        target.appendChild(paragraph);
+    }
+
+    private static void markTask(org.commonmark.node.ListItem item, boolean done) {
+        String marker = done ? "☑ " : "☐ ";
+        org.commonmark.node.Node first = item.getFirstChild();
+        if (!(first instanceof org.commonmark.node.Paragraph)) {
+            first = new org.commonmark.node.Paragraph();
+            item.prependChild(first);
+        }
+        org.commonmark.node.Node firstInline = first.getFirstChild();
+        if (firstInline instanceof org.commonmark.node.Text) {
+            org.commonmark.node.Text text = (org.commonmark.node.Text) firstInline;
+            text.setLiteral(marker + text.getLiteral());
+        } else {
+            first.prependChild(new org.commonmark.node.Text(marker));
+        }
+    }
+
+    /**
+     * 追加文本，与前一个文本节点相邻时合并，与commonmark的行内解析结果保持一致
+     */
+    private static void appendText(org.commonmark.node.Node target, String literal) {
+        if (literal.isEmpty()) {
+            return;
+        }
+        org.commonmark.node.Node last = target.getLastChild();
+        if (last instanceof org.commonmark.node.Text) {
+            org.commonmark.node.Text text = (org.commonmark.node.Text) last;
+            text.setLiteral(text.getLiteral() + literal);
+        } else {
+            target.appendChild(new org.commonmark.node.Text(literal));
+        }
+    }
+
+    /**
+     * 行内代码按CommonMark规范处理：换行替换为空格，首尾各有一个空格且不全为空格时各去掉一个
+     */
+    private static String codeSpanLiteral(String raw) {
+        String literal = raw.replace("\r\n", " ").replace('\r', ' ').replace('\n', ' ');
+        if (literal.length() >= 2 && literal.charAt(0) == ' ' && literal.charAt(literal.length() - 1) == ' '
+                && !literal.isBlank()) {
+            return literal.substring(1, literal.length() - 1);
+        }
+        return literal;
+    }
+
+    private static String title(String title) {
+        return title.isEmpty() ? null : title;
+    }
+}
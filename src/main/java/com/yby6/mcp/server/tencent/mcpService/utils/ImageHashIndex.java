@@ -0,0 +1,189 @@
+package com.yby6.mcp.server.tencent.mcpService.utils;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * 图片内容摘要索引
+ * <p>
+ * 记录图片内容的SHA-256摘要与转存后地址的对应关系，内容相同的图片只上传一次。
+ * 指定索引文件时以"摘要 地址"的行格式追加写入，启动时加载，服务重启后仍可跳过已上传的图片。
+ * 原图地址到转存地址的对应关系只保存在内存中，为按访问顺序淘汰的有界LRU：
+ * 有效期内同一地址不会重复下载，过期后重新下载，地址不变但内容已更换的图片可以再次转存。
+ *
+ * @author yby6
+ * @since 2025/05/25
+ */
+@Slf4j
+public class ImageHashIndex {
+
+    /**
+     * 默认最多记录的原图地址数
+     */
+    public static final int DEFAULT_MAX_SOURCES = 1024;
+
+    /**
+     * 默认原图地址记录的有效期
+     */
+    public static final Duration DEFAULT_SOURCE_TTL = Duration.ofMinutes(10);
+
+    private final Path file;
+    private final Map<String, String> hostedByHash = new ConcurrentHashMap<>();
+    private final Set<String> hostedUrls = ConcurrentHashMap.newKeySet();
+    private final int maxSources;
+    private final long sourceTtlNanos;
+    private final LongSupplier clock;
+
+    /**
+     * 原图地址 -> 转存结果，在自身的锁内访问
+     */
+    private final Map<String, Source> hostedBySource;
+
+    /**
+     * 创建索引，原图地址记录使用默认的容量与有效期
+     *
+     * @param file 索引文件，null表示只保存在内存中
+     */
+    public ImageHashIndex(Path file) {
+        this(file, DEFAULT_MAX_SOURCES, DEFAULT_SOURCE_TTL);
+    }
+
+    /**
+     * 创建索引
+     *
+     * @param file       索引文件，null表示只保存在内存中
+     * @param maxSources 最多记录的原图地址数
+     * @param sourceTtl  原图地址记录的有效期，过期后重新下载
+     */
+    public ImageHashIndex(Path file, int maxSources, Duration sourceTtl) {
+        this(file, maxSources, sourceTtl, System::nanoTime);
+    }
+
+    ImageHashIndex(Path file, int maxSources, Duration sourceTtl, LongSupplier clock) {
+        this.file = file;
+        this.maxSources = Math.max(0, maxSources);
+        this.sourceTtlNanos = sourceTtl.toNanos();
+        this.clock = clock;
+        this.hostedBySource = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Source> eldest) {
+                return size() > ImageHashIndex.this.maxSources;
+            }
+        };
+        load();
+    }
+
+    /**
+     * 按内容摘要获取转存地址
+     *
+     * @param hash 图片内容的SHA-256摘要
+     * @return 转存地址，未上传过时返回null
+     */
+    public String get(String hash) {
+        return hostedByHash.get(hash);
+    }
+
+    /**
+     * 记录上传结果，配置了索引文件时同时追加到文件
+     *
+     * @param hash      图片内容的SHA-256摘要
+     * @param hostedUrl 转存地址
+     */
+    public synchronized void put(String hash, String hostedUrl) {
+        hostedUrls.add(hostedUrl);
+        if (hostedUrl.equals(hostedByHash.put(hash, hostedUrl)) || file == null) {
+            return;
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            writer.write(hash + " " + hostedUrl);
+            writer.newLine();
+        } catch (IOException e) {
+            log.warn("写入图片转存索引失败: {}", file, e);
+        }
+    }
+
+    /**
+     * 按原图地址获取转存地址
+     *
+     * @param sourceUrl 原图地址
+     * @return 转存地址，本进程内未转存过或记录已过期时返回null
+     */
+    public String getBySource(String sourceUrl) {
+        synchronized (hostedBySource) {
+            Source source = hostedBySource.get(sourceUrl);
+            if (source == null) {
+                return null;
+            }
+            if (clock.getAsLong() - source.hostedAt >= sourceTtlNanos) {
+                hostedBySource.remove(sourceUrl);
+                return null;
+            }
+            return source.hostedUrl;
+        }
+    }
+
+    /**
+     * 记录原图地址的转存结果
+     *
+     * @param sourceUrl 原图地址
+     * @param hostedUrl 转存地址
+     */
+    public void putSource(String sourceUrl, String hostedUrl) {
+        synchronized (hostedBySource) {
+            hostedBySource.put(sourceUrl, new Source(hostedUrl, clock.getAsLong()));
+        }
+    }
+
+    /**
+     * 是否为已转存的地址
+     *
+     * @param url 图片地址
+     * @return 地址由本索引记录的上传产生时返回true
+     */
+    public boolean isHosted(String url) {
+        return hostedUrls.contains(url);
+    }
+
+    /**
+     * 已记录的内容摘要数
+     */
+    public int size() {
+        return hostedByHash.size();
+    }
+
+    private void load() {
+        if (file == null || !Files.isRegularFile(file)) {
+            return;
+        }
+        try {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                int space = line.indexOf(' ');
+                if (space <= 0 || space == line.length() - 1) {
+                    continue;
+                }
+                String hostedUrl = line.substring(space + 1);
+                hostedByHash.put(line.substring(0, space), hostedUrl);
+                hostedUrls.add(hostedUrl);
+            }
+            log.info("加载图片转存索引 {} 条: {}", hostedByHash.size(), file);
+        } catch (IOException e) {
+            log.warn("读取图片转存索引失败: {}", file, e);
+        }
+    }
+
+    private record Source(String hostedUrl, long hostedAt) {
+    }
+}
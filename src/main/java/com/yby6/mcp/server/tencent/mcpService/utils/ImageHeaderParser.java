@@ -0,0 +1,239 @@
+package com.yby6.mcp.server.tencent.mcpService.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 图片头解析
+ * <p>
+ * 只读取文件头中记录尺寸的字节，支持PNG、GIF、WebP（VP8/VP8L/VP8X）与JPEG。
+ * JPEG的尺寸位于SOF段，之前的EXIF等段按长度跳过，读取字节数超过上限时放弃。
+ *
+ * @author yby6
+ * @since 2025/05/25
+ */
+final class ImageHeaderParser {
+
+    /**
+     * 判断格式所需的字节数
+     */
+    private static final int SNIFF_BYTES = 12;
+
+    private ImageHeaderParser() {
+        // 私有构造函数，防止实例化
+    }
+
+    /**
+     * 从输入中解析图片尺寸
+     *
+     * @param in       图片数据，由调用方负责关闭
+     * @param maxBytes 最多读取的字节数
+     * @return 图片尺寸，格式不支持、数据不完整或超过读取上限时返回null
+     * @throws IOException 读取失败时抛出
+     */
+    static ImageSize parse(InputStream in, int maxBytes) throws IOException {
+        Cursor cursor = new Cursor(in, maxBytes);
+        try {
+            byte[] head = cursor.read(SNIFF_BYTES);
+            if (isPng(head)) {
+                // 签名(8) + IHDR长度(4)，随后是"IHDR"与宽高
+                byte[] ihdr = cursor.read(12);
+                if (ihdr[0] != 'I' || ihdr[1] != 'H' || ihdr[2] != 'D' || ihdr[3] != 'R') {
+                    return null;
+                }
+                return size(be32(ihdr, 4), be32(ihdr, 8));
+            }
+            if (head[0] == 'G' && head[1] == 'I' && head[2] == 'F' && head[3] == '8') {
+                return size(le16(head, 6), le16(head, 8));
+            }
+            if (isWebp(head)) {
+                return parseWebp(cursor);
+            }
+            if ((head[0] & 0xFF) == 0xFF && (head[1] & 0xFF) == 0xD8) {
+                InputStream rest = new SequenceInputStream(
+                        new ByteArrayInputStream(head, 2, SNIFF_BYTES - 2), cursor.in);
+                return parseJpeg(new Cursor(rest, maxBytes - 2));
+            }
+            return null;
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 根据文件头判断图片的MIME类型
+     *
+     * @param content 图片数据
+     * @return image/png、image/gif、image/webp或image/jpeg，不是这几种格式时返回null
+     */
+    static String mimeType(byte[] content) {
+        if (content.length < SNIFF_BYTES) {
+            return null;
+        }
+        if (isPng(content)) {
+            return "image/png";
+        }
+        if (content[0] == 'G' && content[1] == 'I' && content[2] == 'F' && content[3] == '8') {
+            return "image/gif";
+        }
+        if (isWebp(content)) {
+            return "image/webp";
+        }
+        if ((content[0] & 0xFF) == 0xFF && (content[1] & 0xFF) == 0xD8) {
+            return "image/jpeg";
+        }
+        return null;
+    }
+
+    private static boolean isPng(byte[] head) {
+        return (head[0] & 0xFF) == 0x89 && head[1] == 'P' && head[2] == 'N' && head[3] == 'G'
+                && head[4] == '\r' && head[5] == '\n' && head[6] == 0x1A && head[7] == '\n';
+    }
+
+    private static boolean isWebp(byte[] head) {
+        return head[0] == 'R' && head[1] == 'I' && head[2] == 'F' && head[3] == 'F'
+                && head[8] == 'W' && head[9] == 'E' && head[10] == 'B' && head[11] == 'P';
+    }
+
+    private static ImageSize parseWebp(Cursor cursor) throws IOException {
+        byte[] chunk = cursor.read(8);
+        String fourcc = new String(chunk, 0, 4, StandardCharsets.US_ASCII);
+        switch (fourcc) {
+            case "VP8 ": {
+                // 帧头：3字节帧标记 + 起始码9D 01 2A + 14位宽高
+                byte[] frame = cursor.read(10);
+                if ((frame[3] & 0xFF) != 0x9D || (frame[4] & 0xFF) != 0x01 || (frame[5] & 0xFF) != 0x2A) {
+                    return null;
+                }
+                return size(le16(frame, 6) & 0x3FFF, le16(frame, 8) & 0x3FFF);
+            }
+            case "VP8L": {
+                // 签名0x2F + 各14位的宽-1、高-1
+                byte[] header = cursor.read(5);
+                if ((header[0] & 0xFF) != 0x2F) {
+                    return null;
+                }
+                int bits = le16(header, 1) | le16(header, 3) << 16;
+                return size((bits & 0x3FFF) + 1, ((bits >>> 14) & 0x3FFF) + 1);
+            }
+            case "VP8X": {
+                // 4字节标志位 + 各24位的画布宽-1、高-1
+                byte[] header = cursor.read(10);
+                return size(le24(header, 4) + 1, le24(header, 7) + 1);
+            }
+            default:
+                return null;
+        }
+    }
+
+    private static ImageSize parseJpeg(Cursor cursor) throws IOException {
+        while (true) {
+            if (cursor.u8() != 0xFF) {
+                return null;
+            }
+            int marker = cursor.u8();
+            while (marker == 0xFF) {
+                marker = cursor.u8();
+            }
+            // 无长度的独立标记
+            if (marker == 0x01 || marker == 0xD8 || (marker >= 0xD0 && marker <= 0xD7)) {
+                continue;
+            }
+            // 在SOF之前遇到图像数据或结束标记
+            if (marker == 0xD9 || marker == 0xDA) {
+                return null;
+            }
+            int length = cursor.u16();
+            if (length < 2) {
+                return null;
+            }
+            if (isStartOfFrame(marker)) {
+                byte[] frame = cursor.read(5);
+                return size(be16(frame, 3), be16(frame, 1));
+            }
+            cursor.skip(length - 2);
+        }
+    }
+
+    /**
+     * SOF0~SOF15，排除DHT(C4)、JPG(C8)、DAC(CC)
+     */
+    private static boolean isStartOfFrame(int marker) {
+        return marker >= 0xC0 && marker <= 0xCF && marker != 0xC4 && marker != 0xC8 && marker != 0xCC;
+    }
+
+    private static ImageSize size(long width, long height) {
+        if (width <= 0 || height <= 0 || width > Integer.MAX_VALUE || height > Integer.MAX_VALUE) {
+            return null;
+        }
+        return new ImageSize((int) width, (int) height);
+    }
+
+    private static int be16(byte[] b, int i) {
+        return (b[i] & 0xFF) << 8 | (b[i + 1] & 0xFF);
+    }
+
+    private static long be32(byte[] b, int i) {
+        return (long) be16(b, i) << 16 | be16(b, i + 2);
+    }
+
+    private static int le16(byte[] b, int i) {
+        return (b[i] & 0xFF) | (b[i + 1] & 0xFF) << 8;
+    }
+
+    private static int le24(byte[] b, int i) {
+        return le16(b, i) | (b[i + 2] & 0xFF) << 16;
+    }
+
+    /**
+     * 带读取上限的顺序读取
+     */
+    private static final class Cursor {
+
+        private final InputStream in;
+        private int remaining;
+
+        Cursor(InputStream in, int maxBytes) {
+            this.in = in;
+            this.remaining = maxBytes;
+        }
+
+        int u8() throws IOException {
+            consume(1);
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException();
+            }
+            return b;
+        }
+
+        int u16() throws IOException {
+            return u8() << 8 | u8();
+        }
+
+        byte[] read(int n) throws IOException {
+            consume(n);
+            byte[] bytes = in.readNBytes(n);
+            if (bytes.length < n) {
+                throw new EOFException();
+            }
+            return bytes;
+        }
+
+        void skip(int n) throws IOException {
+            consume(n);
+            in.skipNBytes(n);
+        }
+
+        private void consume(int n) throws EOFException {
+            if (n > remaining) {
+                throw new EOFException("超过图片头读取上限");
+            }
+            remaining -= n;
+        }
+    }
+}
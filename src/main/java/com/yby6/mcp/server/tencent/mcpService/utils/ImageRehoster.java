@@ -0,0 +1,321 @@
+package com.yby6.mcp.server.tencent.mcpService.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.commonmark.node.AbstractVisitor;
+import org.commonmark.node.Image;
+import org.commonmark.node.Node;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 图片转存
+ * <p>
+ * 在构建图片节点之前，下载正文引用的外部图片，按内容的SHA-256摘要去重后上传到文章所在平台，
+ * 并把图片节点的地址改写为转存后的地址，避免第三方图床失效或防盗链导致文章中的图片无法显示。
+ * <p>
+ * 下载与上传在有界线程池中并发执行；同一内容在并发请求之间只上传一次，
+ * 已上传过的内容由{@link ImageHashIndex}直接给出地址。下载或上传失败的图片保留原地址。
+ * <p>
+ * 正文中的地址可能指向内网服务，只有文件头能被识别为PNG、JPEG、GIF或WebP的内容才会上传，
+ * 文件类型与扩展名取自文件头而不是响应头或原地址，避免把任意页面内容转存到公开图床。
+ * 整批转存的等待时间不超过deadline，超时的图片保留原地址。
+ *
+ * @author yby6
+ * @since 2025/05/25
+ */
+@Slf4j
+public class ImageRehoster implements AutoCloseable {
+
+    /**
+     * 默认单张图片的大小上限：10MB
+     */
+    public static final int DEFAULT_MAX_IMAGE_BYTES = 10 * 1024 * 1024;
+
+    private final OkHttpClient client;
+    private final ImageUploader uploader;
+    private final ImageHashIndex index;
+    private final ImageSizeCache sizeCache;
+    private final int maxImageBytes;
+    private final Duration deadline;
+    private final ExecutorService executor;
+
+    /**
+     * 摘要 -> 进行中的上传
+     */
+    private final Map<String, CompletableFuture<String>> uploading = new ConcurrentHashMap<>();
+
+    /**
+     * 创建转存器
+     *
+     * @param client        下载图片使用的HTTP客户端
+     * @param uploader      图片上传
+     * @param index         内容摘要索引
+     * @param sizeCache     图片尺寸缓存，非null时写入转存后地址的尺寸，省去再次探测
+     * @param concurrency   最大并发数
+     * @param maxImageBytes 单张图片的大小上限
+     * @param deadline      整批图片转存的最长等待时间
+     */
+    public ImageRehoster(OkHttpClient client, ImageUploader uploader, ImageHashIndex index, ImageSizeCache sizeCache,
+                         int concurrency, int maxImageBytes, Duration deadline) {
+        this.client = client;
+        this.uploader = uploader;
+        this.index = index;
+        this.sizeCache = sizeCache;
+        this.maxImageBytes = maxImageBytes;
+        this.deadline = deadline;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, concurrency), task -> {
+            Thread thread = new Thread(task, "image-rehost-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 按配置创建转存器
+     *
+     * @param uploader      图片上传
+     * @param index         内容摘要索引
+     * @param sizeCache     图片尺寸缓存，可以为null
+     * @param concurrency   最大并发数
+     * @param timeout       单张图片的下载超时时间
+     * @param maxImageBytes 单张图片的大小上限
+     * @param deadline      整批图片转存的最长等待时间
+     * @return 转存器
+     */
+    public static ImageRehoster create(ImageUploader uploader, ImageHashIndex index, ImageSizeCache sizeCache,
+                                       int concurrency, Duration timeout, int maxImageBytes, Duration deadline) {
+        return create(new OkHttpClient(), uploader, index, sizeCache, concurrency, timeout, maxImageBytes, deadline);
+    }
+
+    /**
+     * 基于已有的HTTP客户端创建转存器
+     * <p>
+     * 与base共用连接池与DNS缓存，只覆盖超时设置。
+     *
+     * @param base          共享的HTTP客户端
+     * @param uploader      图片上传
+     * @param index         内容摘要索引
+     * @param sizeCache     图片尺寸缓存，可以为null
+     * @param concurrency   最大并发数
+     * @param timeout       单张图片的下载超时时间
+     * @param maxImageBytes 单张图片的大小上限
+     * @param deadline      整批图片转存的最长等待时间
+     * @return 转存器
+     */
+    public static ImageRehoster create(OkHttpClient base, ImageUploader uploader, ImageHashIndex index,
+                                       ImageSizeCache sizeCache, int concurrency, Duration timeout,
+                                       int maxImageBytes, Duration deadline) {
+        OkHttpClient client = base.newBuilder()
+                .connectTimeout(timeout)
+                .readTimeout(timeout)
+                .callTimeout(timeout)
+                .build();
+        return new ImageRehoster(client, uploader, index, sizeCache, concurrency, maxImageBytes, deadline);
+    }
+
+    /**
+     * 转存文档中的全部外部图片，并改写图片节点的地址
+     *
+     * @param document 解析后的Markdown文档
+     * @return 全部外部图片都已转存时返回true，有图片转存失败或超时保留原地址时返回false
+     */
+    boolean rewrite(Node document) {
+        List<Image> images = new ArrayList<>();
+        document.accept(new AbstractVisitor() {
+            @Override
+            public void visit(Image image) {
+                images.add(image);
+                visitChildren(image);
+            }
+        });
+        if (images.isEmpty()) {
+            return true;
+        }
+        Set<String> urls = new LinkedHashSet<>();
+        for (Image image : images) {
+            urls.add(image.getDestination());
+        }
+        Map<String, String> hosted = rehostAll(urls);
+        boolean complete = true;
+        for (Image image : images) {
+            String url = hosted.get(image.getDestination());
+            if (url != null) {
+                image.setDestination(url);
+            } else if (ImageSizeProber.isHttp(image.getDestination()) && !index.isHosted(image.getDestination())) {
+                complete = false;
+            }
+        }
+        return complete;
+    }
+
+    /**
+     * 批量转存图片
+     *
+     * @param urls 图片地址，非http(s)地址与已转存的地址会被忽略
+     * @return 原图地址 -> 转存地址，只包含在deadline内转存成功的图片
+     */
+    public Map<String, String> rehostAll(Collection<String> urls) {
+        Map<String, Future<String>> pending = new LinkedHashMap<>();
+        for (String url : urls) {
+            if (!pending.containsKey(url) && ImageSizeProber.isHttp(url) && !index.isHosted(url)) {
+                pending.put(url, executor.submit(() -> rehost(url)));
+            }
+        }
+        Map<String, String> result = new HashMap<>();
+        long deadlineNanos = System.nanoTime() + deadline.toNanos();
+        for (Map.Entry<String, Future<String>> entry : pending.entrySet()) {
+            try {
+                long remaining = Math.max(0, deadlineNanos - System.nanoTime());
+                result.put(entry.getKey(), entry.getValue().get(remaining, TimeUnit.NANOSECONDS));
+            } catch (ExecutionException e) {
+                log.warn("图片转存失败，保留原地址: {}", entry.getKey(), e.getCause());
+            } catch (TimeoutException e) {
+                entry.getValue().cancel(true);
+                log.warn("图片转存超时，保留原地址: {}", entry.getKey());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                pending.values().forEach(future -> future.cancel(true));
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 转存单张图片
+     *
+     * @param url 原图地址
+     * @return 转存地址
+     * @throws IOException 下载或上传失败，或内容不是可识别的图片时抛出
+     */
+    String rehost(String url) throws IOException {
+        String known = index.getBySource(url);
+        if (known != null) {
+            return known;
+        }
+        byte[] content = download(url);
+        String contentType = ImageHeaderParser.mimeType(content);
+        ImageSize size = contentType == null ? null
+                : ImageHeaderParser.parse(new ByteArrayInputStream(content), content.length);
+        if (size == null) {
+            throw new IOException("内容不是可识别的PNG、JPEG、GIF或WebP图片，拒绝转存");
+        }
+        String hash = sha256(content);
+        String hosted = index.get(hash);
+        if (hosted == null) {
+            String fileName = hash.substring(0, 16) + extension(contentType);
+            hosted = uploadOnce(hash, fileName, contentType, content);
+        }
+        index.putSource(url, hosted);
+        if (sizeCache != null && sizeCache.get(hosted) == null) {
+            sizeCache.put(hosted, size);
+        }
+        return hosted;
+    }
+
+    /**
+     * 上传图片，同一摘要的并发上传只执行一次
+     */
+    private String uploadOnce(String hash, String fileName, String contentType, byte[] content) throws IOException {
+        CompletableFuture<String> mine = new CompletableFuture<>();
+        CompletableFuture<String> running = uploading.putIfAbsent(hash, mine);
+        if (running != null) {
+            try {
+                return running.get();
+            } catch (ExecutionException e) {
+                throw new IOException("图片上传失败", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("图片上传被中断", e);
+            }
+        }
+        try {
+            String hosted = index.get(hash);
+            if (hosted == null) {
+                hosted = uploader.upload(fileName, contentType, content);
+                index.put(hash, hosted);
+                log.info("图片已转存: {} -> {}", fileName, hosted);
+            }
+            mine.complete(hosted);
+            return hosted;
+        } catch (IOException | RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            uploading.remove(hash, mine);
+        }
+    }
+
+    private byte[] download(String url) throws IOException {
+        Request request = new Request.Builder()
+                .url(url)
+                .header("Accept", "image/*")
+                .build();
+        try (Response response = client.newCall(request).execute()) {
+            ResponseBody body = response.body();
+            if (!response.isSuccessful() || body == null) {
+                throw new IOException("下载图片失败，HTTP " + response.code());
+            }
+            if (body.contentLength() > maxImageBytes) {
+                throw new IOException("图片超过大小上限: " + body.contentLength());
+            }
+            byte[] content;
+            try (InputStream in = body.byteStream()) {
+                content = in.readNBytes(maxImageBytes + 1);
+            }
+            if (content.length > maxImageBytes) {
+                throw new IOException("图片超过大小上限: " + maxImageBytes);
+            }
+            return content;
+        }
+    }
+
+    /**
+     * 根据文件头得出的MIME类型确定扩展名
+     */
+    private static String extension(String contentType) {
+        String subtype = contentType.substring("image/".length());
+        return "." + ("jpeg".equals(subtype) ? "jpg" : subtype);
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
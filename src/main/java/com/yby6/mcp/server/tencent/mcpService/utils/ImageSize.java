@@ -0,0 +1,49 @@
+package com.yby6.mcp.server.tencent.mcpService.utils;
+
+import java.util.Locale;
+
+/**
+ * 图片像素尺寸
+ *
+ * @param width  宽度（像素）
+ * @param height 高度（像素）
+ * @author yby6
+ * @since 2025/05/25
+ */
+public record ImageSize(int width, int height) {
+
+    /**
+     * 编辑器中图片的最大显示宽度
+     */
+    public static final int MAX_DISPLAY_WIDTH = 504;
+
+    /**
+     * 获取尺寸失败时使用的显示宽度
+     */
+    public static final int DEFAULT_WIDTH = MAX_DISPLAY_WIDTH;
+
+    /**
+     * 获取尺寸失败时使用的宽高比
+     */
+    public static final String DEFAULT_ASPECT_RATIO = "1.300676";
+
+    public ImageSize {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("图片尺寸无效: " + width + "x" + height);
+        }
+    }
+
+    /**
+     * 显示宽度：实际宽度，超过编辑器最大宽度时按最大宽度显示
+     */
+    public int displayWidth() {
+        return Math.min(width, MAX_DISPLAY_WIDTH);
+    }
+
+    /**
+     * 宽高比，保留6位小数
+     */
+    public String aspectRatio() {
+        return String.format(Locale.ROOT, "%.6f", (double) width / height);
+    }
+}
@@ -0,0 +1,140 @@
+package com.yby6.mcp.server.tencent.mcpService.utils;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 图片尺寸缓存
+ * <p>
+ * 以图片URL为键的有界LRU。指定缓存文件时，新探测到的尺寸以"宽 高 URL"的行格式追加写入，
+ * 启动时按顺序加载，同一URL以后写入的为准，服务重启后无需重新探测。
+ * 文件行数超过最大条目数的两倍时，只保留内存中的条目重写文件，避免文件无限增长。
+ *
+ * @author yby6
+ * @since 2025/05/25
+ */
+@Slf4j
+public class ImageSizeCache {
+
+    private final int maxEntries;
+    private final Path file;
+    private final Map<String, ImageSize> sizes;
+    private int fileLines;
+
+    /**
+     * 创建缓存
+     *
+     * @param maxEntries 内存中的最大条目数
+     * @param file       缓存文件，null表示只缓存在内存中
+     */
+    public ImageSizeCache(int maxEntries, Path file) {
+        this.maxEntries = maxEntries;
+        this.file = file;
+        this.sizes = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ImageSize> eldest) {
+                return size() > ImageSizeCache.this.maxEntries;
+            }
+        };
+        load();
+    }
+
+    /**
+     * 获取图片尺寸
+     *
+     * @param url 图片URL
+     * @return 缓存的尺寸，未缓存时返回null
+     */
+    public synchronized ImageSize get(String url) {
+        return sizes.get(url);
+    }
+
+    /**
+     * 写入图片尺寸，配置了缓存文件时同时追加到文件
+     *
+     * @param url  图片URL
+     * @param size 图片尺寸
+     */
+    public synchronized void put(String url, ImageSize size) {
+        if (size.equals(sizes.put(url, size)) || file == null) {
+            return;
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            writer.write(size.width() + " " + size.height() + " " + url);
+            writer.newLine();
+        } catch (IOException e) {
+            log.warn("写入图片尺寸缓存失败: {}", file, e);
+            return;
+        }
+        if (++fileLines > maxEntries * 2) {
+            compact();
+        }
+    }
+
+    /**
+     * 当前缓存的条目数
+     */
+    public synchronized int size() {
+        return sizes.size();
+    }
+
+    private void load() {
+        if (file == null || !Files.isRegularFile(file)) {
+            return;
+        }
+        try {
+            List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+            fileLines = lines.size();
+            for (String line : lines) {
+                String[] parts = line.split(" ", 3);
+                if (parts.length != 3) {
+                    continue;
+                }
+                try {
+                    sizes.put(parts[2], new ImageSize(Integer.parseInt(parts[0]), Integer.parseInt(parts[1])));
+                } catch (IllegalArgumentException e) {
+                    log.debug("跳过无效的图片尺寸缓存行: {}", line);
+                }
+            }
+            log.info("加载图片尺寸缓存 {} 条: {}", sizes.size(), file);
+        } catch (IOException e) {
+            log.warn("读取图片尺寸缓存失败: {}", file, e);
+            return;
+        }
+        if (fileLines > maxEntries * 2) {
+            compact();
+        }
+    }
+
+    /**
+     * 只保留内存中的条目重写文件，按最近使用顺序写出，重新加载后淘汰顺序不变
+     */
+    private void compact() {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                for (Map.Entry<String, ImageSize> entry : sizes.entrySet()) {
+                    writer.write(entry.getValue().width() + " " + entry.getValue().height() + " " + entry.getKey());
+                    writer.newLine();
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            fileLines = sizes.size();
+        } catch (IOException e) {
+            // 文件保持原样，下一次写入时再尝试
+            log.warn("压缩图片尺寸缓存失败: {}", file, e);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.yby6.mcp.server.tencent.mcpService.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 图片尺寸探测
+ * <p>
+ * 通过Range请求只下载图片头部，解析出实际宽高。一篇文章中的图片在有界线程池中并发探测，
+ * 整批共用一个截止时间：到期仍未返回的图片按默认尺寸输出，探测任务继续在后台完成并写入缓存，
+ * 发布延迟最多增加一个截止时间，已缓存的图片不产生任何网络请求。
+ *
+ * @author yby6
+ * @since 2025/05/25
+ */
+@Slf4j
+public class ImageSizeProber implements AutoCloseable {
+
+    /**
+     * 默认最多读取的图片头字节数，足以越过常见的JPEG EXIF段
+     */
+    public static final int DEFAULT_MAX_HEADER_BYTES = 64 * 1024;
+
+    private final OkHttpClient client;
+    private final ExecutorService executor;
+    private final Duration deadline;
+    private final int maxHeaderBytes;
+    private final ImageSizeCache cache;
+
+    /**
+     * 创建探测器
+     *
+     * @param client         HTTP客户端，单张图片的超时由其callTimeout控制
+     * @param concurrency    最大并发探测数
+     * @param deadline       整批探测的截止时间
+     * @param maxHeaderBytes 每张图片最多读取的字节数
+     * @param cache          尺寸缓存
+     */
+    public ImageSizeProber(OkHttpClient client, int concurrency, Duration deadline, int maxHeaderBytes,
+                           ImageSizeCache cache) {
+        this.client = client;
+        this.executor = Executors.newFixedThreadPool(Math.max(1, concurrency), new ProbeThreadFactory());
+        this.deadline = deadline;
+        this.maxHeaderBytes = maxHeaderBytes;
+        this.cache = cache;
+    }
+
+    /**
+     * 按配置创建探测器
+     *
+     * @param concurrency    最大并发探测数
+     * @param timeout        单张图片的超时时间
+     * @param deadline       整批探测的截止时间
+     * @param maxHeaderBytes 每张图片最多读取的字节数
+     * @param cache          尺寸缓存
+     * @return 探测器
+     */
+    public static ImageSizeProber create(int concurrency, Duration timeout, Duration deadline, int maxHeaderBytes,
+                                         ImageSizeCache cache) {
+        return create(new OkHttpClient(), concurrency, timeout, deadline, maxHeaderBytes, cache);
+    }
+
+    /**
+     * 基于已有的HTTP客户端创建探测器
+     * <p>
+     * 与base共用连接池与DNS缓存，只覆盖超时设置。
+     *
+     * @param base           共享的HTTP客户端
+     * @param concurrency    最大并发探测数
+     * @param timeout        单张图片的超时时间
+     * @param deadline       整批探测的截止时间
+     * @param maxHeaderBytes 每张图片最多读取的字节数
+     * @param cache          尺寸缓存
+     * @return 探测器
+     */
+    public static ImageSizeProber create(OkHttpClient base, int concurrency, Duration timeout, Duration deadline,
+                                         int maxHeaderBytes, ImageSizeCache cache) {
+        OkHttpClient client = base.newBuilder()
+                .connectTimeout(timeout)
+                .readTimeout(timeout)
+                .callTimeout(timeout)
+                .build();
+        return new ImageSizeProber(client, concurrency, deadline, maxHeaderBytes, cache);
+    }
+
+    /**
+     * 批量获取图片尺寸
+     *
+     * @param urls 图片URL，非http(s)地址会被忽略
+     * @return URL -> 尺寸，只包含成功获取的图片
+     */
+    public Map<String, ImageSize> probeAll(Collection<String> urls) {
+        Map<String, ImageSize> result = new HashMap<>();
+        Map<String, Future<ImageSize>> pending = new LinkedHashMap<>();
+        for (String url : urls) {
+            if (result.containsKey(url) || pending.containsKey(url) || !isHttp(url)) {
+                continue;
+            }
+            ImageSize cached = cache.get(url);
+            if (cached != null) {
+                result.put(url, cached);
+            } else {
+                pending.put(url, executor.submit(() -> probe(url)));
+            }
+        }
+        if (pending.isEmpty()) {
+            return result;
+        }
+
+        long deadlineNanos = System.nanoTime() + deadline.toNanos();
+        for (Map.Entry<String, Future<ImageSize>> entry : pending.entrySet()) {
+            try {
+                long remaining = Math.max(0, deadlineNanos - System.nanoTime());
+                ImageSize size = entry.getValue().get(remaining, TimeUnit.NANOSECONDS);
+                if (size != null) {
+                    result.put(entry.getKey(), size);
+                }
+            } catch (TimeoutException e) {
+                log.debug("图片尺寸探测超时，使用默认尺寸: {}", entry.getKey());
+            } catch (ExecutionException e) {
+                log.debug("图片尺寸探测失败: {}", entry.getKey(), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 探测单张图片，成功时写入缓存
+     *
+     * @param url 图片URL
+     * @return 图片尺寸，无法识别时返回null
+     * @throws IOException 请求失败时抛出
+     */
+    ImageSize probe(String url) throws IOException {
+        ImageSize cached = cache.get(url);
+        if (cached != null) {
+            return cached;
+        }
+        Request request = new Request.Builder()
+                .url(url)
+                .header("Range", "bytes=0-" + (maxHeaderBytes - 1))
+                .header("Accept", "image/*")
+                .build();
+        try (Response response = client.newCall(request).execute()) {
+            ResponseBody body = response.body();
+            if (!response.isSuccessful() || body == null) {
+                log.debug("图片尺寸探测返回 {}: {}", response.code(), url);
+                return null;
+            }
+            ImageSize size = ImageHeaderParser.parse(body.byteStream(), maxHeaderBytes);
+            if (size != null) {
+                cache.put(url, size);
+            }
+            return size;
+        }
+    }
+
+    /**
+     * 是否为http(s)地址
+     */
+    static boolean isHttp(String url) {
+        return url != null && (url.regionMatches(true, 0, "http://", 0, 7)
+                || url.regionMatches(true, 0, "https://", 0, 8));
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private static final class ProbeThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable task) {
+            Thread thread = new Thread(task, "image-probe-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
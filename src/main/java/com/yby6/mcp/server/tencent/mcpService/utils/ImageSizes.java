@@ -0,0 +1,134 @@
+package com.yby6.mcp.server.tencent.mcpService.utils;
+
+import org.commonmark.node.AbstractVisitor;
+import org.commonmark.node.Image;
+import org.commonmark.node.Node;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 单次转换使用的图片尺寸
+ * <p>
+ * 解析完成后一次性收集文档中的全部图片地址并批量探测，流式与树形两种写出方式共用同一份结果。
+ * 未获取到尺寸的图片使用{@link ImageSize#DEFAULT_WIDTH}与{@link ImageSize#DEFAULT_ASPECT_RATIO}。
+ * 启用探测但有图片探测超时或失败、或有图片转存失败时结果标记为降级，降级的输出不应长期缓存。
+ *
+ * @author yby6
+ * @since 2025/05/25
+ */
+final class ImageSizes {
+
+    /**
+     * 未启用探测时使用，全部图片按默认尺寸输出
+     */
+    static final ImageSizes NONE = new ImageSizes(Map.of(), false);
+
+    private final Map<String, ImageSize> sizes;
+    private final boolean degraded;
+
+    private ImageSizes(Map<String, ImageSize> sizes, boolean degraded) {
+        this.sizes = sizes;
+        this.degraded = degraded;
+    }
+
+    /**
+     * 探测文档中全部图片的尺寸
+     *
+     * @param document 解析后的Markdown文档
+     * @param prober   尺寸探测器，为null时返回{@link #NONE}
+     * @return 图片尺寸
+     */
+    static ImageSizes resolve(Node document, ImageSizeProber prober) {
+        if (prober == null) {
+            return NONE;
+        }
+        Set<String> urls = new LinkedHashSet<>();
+        document.accept(new AbstractVisitor() {
+            @Override
+            public void visit(Image image) {
+                urls.add(image.getDestination());
+                visitChildren(image);
+            }
+        });
+        if (urls.isEmpty()) {
+            return NONE;
+        }
+        Map<String, ImageSize> sizes = prober.probeAll(urls);
+        boolean degraded = urls.stream().anyMatch(url -> ImageSizeProber.isHttp(url) && !sizes.containsKey(url));
+        return new ImageSizes(sizes, degraded);
+    }
+
+    /**
+     * 标记为降级，用于图片转存失败的情况
+     *
+     * @return 尺寸相同的降级结果
+     */
+    ImageSizes degrade() {
+        return degraded ? this : new ImageSizes(sizes, true);
+    }
+
+    /**
+     * 是否有图片探测超时、探测失败或转存失败
+     * <p>
+     * 降级时部分图片使用默认尺寸或原地址，稍后重新转换可能得到不同的输出。
+     */
+    boolean isDegraded() {
+        return degraded;
+    }
+
+    /**
+     * 图片的显示宽度
+     */
+    int width(String url) {
+        ImageSize size = sizes.get(url);
+        return size != null ? size.displayWidth() : ImageSize.DEFAULT_WIDTH;
+    }
+
+    /**
+     * 图片的宽高比
+     */
+    String aspectRatio(String url) {
+        ImageSize size = sizes.get(url);
+        return size != null ? size.aspectRatio() : ImageSize.DEFAULT_ASPECT_RATIO;
+    }
+
+    /**
+     * 将块中图片的尺寸混入片段缓存的键
+     * <p>
+     * 同一块在图片尺寸探测成功前后的输出不同，缓存键需要区分；
+     * 节点ID仍按块的结构摘要推导，不受尺寸影响。
+     *
+     * @param blockHash 块的结构摘要
+     * @param block     顶层块
+     * @return 片段缓存使用的摘要，不含图片或未启用探测时与blockHash相同
+     */
+    long cacheHash(long blockHash, Node block) {
+        if (sizes.isEmpty()) {
+            return blockHash;
+        }
+        long[] hash = {blockHash};
+        block.accept(new AbstractVisitor() {
+            @Override
+            public void visit(Image image) {
+                ImageSize size = sizes.get(image.getDestination());
+                if (size != null) {
+                    hash[0] = (hash[0] * 31 + size.width()) * 31 + size.height();
+                }
+                visitChildren(image);
+            }
+        });
+        return hash[0];
+    }
+
+    /**
+     * 片段缓存用于确认块内容的SHA-256，包含块中图片的尺寸
+     *
+     * @param block 顶层块
+     * @return 32字节摘要
+     */
+    byte[] cacheDigest(Node block) {
+        return BlockHasher.digest(block, sizes::get);
+    }
+}
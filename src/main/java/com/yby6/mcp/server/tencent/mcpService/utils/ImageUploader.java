@@ -0,0 +1,26 @@
+package com.yby6.mcp.server.tencent.mcpService.utils;
+
+import java.io.IOException;
+
+/**
+ * 图片上传
+ * <p>
+ * 由{@link ImageRehoster}调用，将下载到的图片上传到文章所在平台。
+ *
+ * @author yby6
+ * @since 2025/05/25
+ */
+@FunctionalInterface
+public interface ImageUploader {
+
+    /**
+     * 上传图片
+     *
+     * @param fileName    文件名
+     * @param contentType 图片的MIME类型
+     * @param content     图片内容
+     * @return 上传后的图片地址
+     * @throws IOException 上传失败或未返回地址时抛出
+     */
+    String upload(String fileName, String contentType, byte[] content) throws IOException;
+}
@@ -0,0 +1,138 @@
+package com.yby6.mcp.server.tencent.mcpService.utils;
+
+import org.commonmark.node.*;
+
+import java.io.IOException;
+
+/**
+ * 行内内容遍历器
+ * <p>
+ * 遍历段落、标题的行内子节点，沿途维护当前生效的mark：
+ * - 文本按当前mark追加到文本段，行内代码额外带code mark
+ * - 强调、加粗、链接为其子节点增加对应的mark
+ * - 软换行按空格处理，硬换行生成hardBreak节点
+ * - 图片结束当前文本段并生成独立节点
+ * <p>
+ * mark相同的相邻文本合并为一个文本段，段结束时才交给子类写出，每段只写出一次marks。
+ * 流式写出与树形参考实现共用该类，两种模式的合并结果与mark顺序一致。
+ *
+ * @author yby6
+ * @since 2025/05/25
+ */
+abstract class InlineContentWalker {
+
+    /**
+     * 当前文本段
+     */
+    private final StringBuilder run = new StringBuilder();
+
+    /**
+     * 当前文本段的mark
+     */
+    private InlineMarks runMarks = InlineMarks.NONE;
+
+    /**
+     * 处理容器节点的全部行内子节点
+     *
+     * @param container 段落、标题等容器节点
+     * @throws IOException 写出失败时抛出
+     */
+    final void walkChildren(Node container) throws IOException {
+        visitChildren(container, InlineMarks.NONE);
+        flush();
+    }
+
+    /**
+     * 处理单个行内节点
+     *
+     * @param node 行内节点
+     * @throws IOException 写出失败时抛出
+     */
+    final void walk(Node node) throws IOException {
+        visit(node, InlineMarks.NONE);
+        flush();
+    }
+
+    private void visit(Node node, InlineMarks marks) throws IOException {
+        switch (NodeKind.of(node)) {
+            case TEXT:
+                append(((Text) node).getLiteral(), marks);
+                break;
+            case CODE:
+                append(((Code) node).getLiteral(), marks.withCode());
+                break;
+            case EMPHASIS:
+                visitChildren(node, marks.withItalic());
+                break;
+            case STRONG_EMPHASIS:
+                visitChildren(node, marks.withBold());
+                break;
+            case LINK:
+                visitChildren(node, marks.withLink(((Link) node).getDestination()));
+                break;
+            case SOFT_LINE_BREAK:
+                append(" ", marks);
+                break;
+            case HARD_LINE_BREAK:
+                flush();
+                hardBreak();
+                break;
+            case IMAGE:
+                flush();
+                image((Image) node);
+                break;
+            default:
+                visitChildren(node, marks);
+        }
+    }
+
+    private void visitChildren(Node node, InlineMarks marks) throws IOException {
+        for (Node child = node.getFirstChild(); child != null; child = child.getNext()) {
+            visit(child, marks);
+        }
+    }
+
+    private void append(String text, InlineMarks marks) throws IOException {
+        if (text.isEmpty()) {
+            // ProseMirror不允许空文本节点
+            return;
+        }
+        if (run.length() > 0 && !marks.equals(runMarks)) {
+            flush();
+        }
+        run.append(text);
+        runMarks = marks;
+    }
+
+    private void flush() throws IOException {
+        if (run.length() == 0) {
+            return;
+        }
+        text(run.toString(), runMarks);
+        run.setLength(0);
+    }
+
+    /**
+     * 写出一个文本节点
+     *
+     * @param text  合并后的文本，不为空
+     * @param marks 文本上的mark
+     * @throws IOException 写出失败时抛出
+     */
+    protected abstract void text(String text, InlineMarks marks) throws IOException;
+
+    /**
+     * 写出硬换行节点
+     *
+     * @throws IOException 写出失败时抛出
+     */
+    protected abstract void hardBreak() throws IOException;
+
+    /**
+     * 写出图片节点
+     *
+     * @param image 图片
+     * @throws IOException 写出失败时抛出
+     */
+    protected abstract void image(Image image) throws IOException;
+}
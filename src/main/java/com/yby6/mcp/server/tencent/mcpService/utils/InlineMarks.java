@@ -0,0 +1,53 @@
+package com.yby6.mcp.server.tencent.mcpService.utils;
+
+/**
+ * 文本上生效的mark集合
+ * <p>
+ * 不可变，进入加粗、斜体、链接等行内节点时派生新的集合，相当于沿递归路径维护的mark栈。
+ * 同类mark只保留一个，写出顺序固定为bold、italic、code、link，内容相同即视为同一组mark。
+ *
+ * @param bold   加粗
+ * @param italic 斜体
+ * @param code   行内代码
+ * @param href   链接地址，没有链接时为null
+ * @author yby6
+ * @since 2025/05/25
+ */
+record InlineMarks(boolean bold, boolean italic, boolean code, String href) {
+
+    static final int BOLD = 1;
+    static final int ITALIC = 1 << 1;
+    static final int CODE = 1 << 2;
+
+    /**
+     * 没有任何mark
+     */
+    static final InlineMarks NONE = new InlineMarks(false, false, false, null);
+
+    InlineMarks withBold() {
+        return bold ? this : new InlineMarks(true, italic, code, href);
+    }
+
+    InlineMarks withItalic() {
+        return italic ? this : new InlineMarks(bold, true, code, href);
+    }
+
+    InlineMarks withCode() {
+        return code ? this : new InlineMarks(bold, italic, true, href);
+    }
+
+    InlineMarks withLink(String destination) {
+        return new InlineMarks(bold, italic, code, destination);
+    }
+
+    /**
+     * 链接以外的mark位图
+     */
+    int flags() {
+        return (bold ? BOLD : 0) | (italic ? ITALIC : 0) | (code ? CODE : 0);
+    }
+
+    boolean isEmpty() {
+        return href == null && flags() == 0;
+    }
+}
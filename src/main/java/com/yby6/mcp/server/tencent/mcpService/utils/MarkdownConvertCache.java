@@ -0,0 +1,94 @@
+package com.yby6.mcp.server.tencent.mcpService.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Markdown转换结果缓存
+ * <p>
+ * 以Markdown内容的SHA-256摘要及影响输出的转换选项为键，缓存{@link MarkdownToProseMirrorConverter}的转换结果。
+ * 使用按访问顺序淘汰的有界LRU，LLM工具重试等相同正文的重复发布可以直接复用上一次的结果。
+ * 图片探测或转存降级的结果不写入缓存，下一次发布重新处理图片。
+ *
+ * @author yby6
+ * @since 2025/05/25
+ */
+public final class MarkdownConvertCache {
+
+    /**
+     * 最大缓存条目数
+     */
+    private static final int MAX_ENTRIES = 32;
+
+    /**
+     * 摘要|选项 -> ProseMirror JSON
+     */
+    private static final Map<String, String> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    private MarkdownConvertCache() {
+        // 私有构造函数，防止实例化
+    }
+
+    /**
+     * 计算Markdown内容的摘要
+     *
+     * @param markdown Markdown文本，null按空串处理
+     * @return 十六进制的SHA-256摘要
+     */
+    public static String hash(String markdown) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] bytes = (markdown == null ? "" : markdown).getBytes(StandardCharsets.UTF_8);
+            return HexFormat.of().formatHex(digest.digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 不可用", e);
+        }
+    }
+
+    /**
+     * 获取转换结果，未命中时执行转换并写入缓存
+     * <p>
+     * 转换在锁外执行，并发的相同请求最多各自转换一次，不会互相阻塞。
+     * 有图片探测超时、探测失败或转存失败时，结果只返回给本次调用，不写入缓存。
+     *
+     * @param hash     Markdown内容摘要，由{@link #hash(String)}计算
+     * @param markdown 实际参与转换的Markdown文本
+     * @param options  转换选项
+     * @return ProseMirror格式的JSON字符串
+     */
+    public static String convert(String hash, String markdown, ConvertOptions options) {
+        String key = hash + '|' + options.outputKey();
+        synchronized (cache) {
+            String cached = cache.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        MarkdownToProseMirrorConverter.ConvertResult result =
+                MarkdownToProseMirrorConverter.convertWithStatus(markdown, options);
+        if (!result.degraded()) {
+            synchronized (cache) {
+                cache.put(key, result.content());
+            }
+        }
+        return result.content();
+    }
+
+    /**
+     * 清空缓存
+     */
+    public static void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+}
@@ -0,0 +1,505 @@
+package com.yby6.mcp.server.tencent.mcpService.utils;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+
+/**
+ * Markdown预处理器
+ * <p>
+ * 单次扫描输入字符，完成转换前的全部规范化处理，结果写入一个预分配容量的StringBuilder：
+ * 1. 统一换行符为\n
+ * 2. 连续空行最多保留两个换行
+ * 3. 标题、列表项、代码块围栏前后补空行
+ * 4. 移除开头的换行，结尾的连续换行合并为一个
+ * <p>
+ * 处理结果与{@link #normalizeByRegex(String)}中原有的正则链逐字节一致，
+ * 包括正则的行终止符语义（\u0085、\u2028、\u2029同样视为行尾）以及
+ * 标题/列表标记后紧跟换行时匹配范围延伸到下一行的行为。
+ * <p>
+ * 实现方式：扫描器按行切分并完成第1、2步，逐行交给标题、列表、围栏三个补空行阶段，
+ * 最后由输出阶段完成第4步。每个阶段只保存一个布尔状态，不缓存整行内容。
+ * 扫描器可以分块接收输入，{@link #reader(Reader)}基于此提供流式处理。
+ *
+ * @author yby6
+ * @since 2025/05/25
+ */
+final class MarkdownNormalizer {
+
+    /**
+     * 最后一行没有行终止符
+     */
+    private static final char NONE = 0;
+
+    private MarkdownNormalizer() {
+        // 私有构造函数，防止实例化
+    }
+
+    /**
+     * 规范化Markdown文本
+     *
+     * @param markdown 原始Markdown文本
+     * @return 规范化后的Markdown文本，空白输入返回空串
+     */
+    static String normalize(String markdown) {
+        if (markdown == null) {
+            return "";
+        }
+        int length = markdown.length();
+        StringBuilder out = new StringBuilder(length + (length >> 3) + 16);
+        Scanner scanner = new Scanner(out);
+        scanner.scan(markdown, 0, length);
+        scanner.finish();
+
+        // 与 trim().isEmpty() 的判断保持一致
+        return scanner.visible ? out.toString() : "";
+    }
+
+    /**
+     * 以流的方式规范化Markdown文本
+     * <p>
+     * 按块读取输入并逐行处理，内存占用与单行长度相关，与文档总长度无关。
+     * 输出与{@link #normalize(String)}逐字节一致。
+     *
+     * @param in 原始Markdown输入，由返回的Reader负责关闭
+     * @return 规范化后的Markdown输入
+     */
+    static NormalizingReader reader(Reader in) {
+        return new NormalizingReader(in);
+    }
+
+    /**
+     * 原有的正则实现，作为参考用于差异测试
+     *
+     * @param markdown 原始Markdown文本
+     * @return 格式化后的Markdown文本
+     */
+    static String normalizeByRegex(String markdown) {
+        if (markdown == null || markdown.trim().isEmpty()) {
+            return "";
+        }
+
+        // 1. 统一换行符为\n
+        String formatted = markdown.replace("\r\n", "\n").replace("\r", "\n");
+
+        // 2. 处理连续的空行，最多保留两个
+        formatted = formatted.replaceAll("\n{3,}", "\n\n");
+
+        // 3. 确保标题前后有空行
+        formatted = formatted.replaceAll("(?m)^(#{1,6}\\s.*?)$", "\n$1\n");
+
+        // 4. 确保列表项前后有空行
+        formatted = formatted.replaceAll("(?m)^([*+-]\\s.*?)$", "\n$1\n");
+
+        // 5. 确保代码块前后有空行
+        formatted = formatted.replaceAll("(?m)^(```.*?)$", "\n$1\n");
+
+        // 6. 移除开头的空行
+        formatted = formatted.replaceAll("^\n+", "");
+
+        // 7. 移除结尾的空行
+        formatted = formatted.replaceAll("\n+$", "\n");
+
+        return formatted;
+    }
+
+    /**
+     * 扫描器
+     * <p>
+     * 按行切分输入并完成换行符统一与连续空行合并，逐行交给补空行阶段。
+     * 输入可以分多次传入，跨越分块边界的行暂存后再整体交给下一阶段。
+     */
+    private static final class Scanner {
+
+        private final OutputSink output;
+        private final LineSink pipeline;
+
+        /**
+         * 尚未遇到行终止符的行内容，仅在分块输入时使用
+         */
+        private final StringBuilder partial = new StringBuilder();
+
+        /**
+         * 是否出现过可见字符
+         */
+        private boolean visible;
+
+        /**
+         * 连续换行的个数
+         */
+        private int newlines;
+
+        /**
+         * 上一个字符是\r，紧随其后的\n属于同一个换行
+         */
+        private boolean skipLineFeed;
+
+        Scanner(StringBuilder out) {
+            this.output = new OutputSink(out);
+            this.pipeline = new PaddingStage(Marker.HEADING,
+                    new PaddingStage(Marker.LIST_ITEM,
+                            new PaddingStage(Marker.FENCE, output)));
+        }
+
+        /**
+         * 扫描一段输入
+         *
+         * @param src  字符来源
+         * @param from 起始位置（含）
+         * @param to   结束位置（不含）
+         */
+        void scan(CharSequence src, int from, int to) {
+            int lineStart = from;
+            for (int i = from; i < to; i++) {
+                char c = src.charAt(i);
+                if (skipLineFeed) {
+                    skipLineFeed = false;
+                    if (c == '\n') {
+                        lineStart = i + 1;
+                        continue;
+                    }
+                }
+                if (c == '\n' || c == '\r') {
+                    skipLineFeed = c == '\r';
+                    // 连续三个及以上的换行只保留两个
+                    if (++newlines <= 2) {
+                        line(src, lineStart, i, '\n');
+                    }
+                    lineStart = i + 1;
+                } else if (c == '\u0085' || c == '\u2028' || c == '\u2029') {
+                    newlines = 0;
+                    visible = true;
+                    line(src, lineStart, i, c);
+                    lineStart = i + 1;
+                } else {
+                    newlines = 0;
+                    if (c > ' ') {
+                        visible = true;
+                    }
+                }
+            }
+            if (lineStart < to) {
+                partial.append(src, lineStart, to);
+            }
+        }
+
+        /**
+         * 输入结束，写出最后一行
+         */
+        void finish() {
+            pipeline.line(partial, 0, partial.length(), NONE);
+            partial.setLength(0);
+            output.finish();
+        }
+
+        private void line(CharSequence src, int start, int end, char terminator) {
+            if (partial.length() == 0) {
+                pipeline.line(src, start, end, terminator);
+                return;
+            }
+            partial.append(src, start, end);
+            pipeline.line(partial, 0, partial.length(), terminator);
+            partial.setLength(0);
+        }
+    }
+
+    /**
+     * 规范化输入流
+     * <p>
+     * 每次从底层输入读取一块字符交给扫描器，输出缓冲区读空后再读取下一块。
+     * 出现可见字符之前的输出只可能是空白，先保留在缓冲区中：
+     * 输入全为空白时整体丢弃，与{@link #normalize(String)}返回空串一致。
+     */
+    static final class NormalizingReader extends Reader {
+
+        private final Reader in;
+        private final char[] chunk = new char[8192];
+        private final StringBuilder out = new StringBuilder(8192);
+        private final Scanner scanner = new Scanner(out);
+
+        /**
+         * out中已被读取的位置
+         */
+        private int position;
+
+        /**
+         * 已输出的字符总数
+         */
+        private long length;
+
+        private boolean eof;
+
+        private NormalizingReader(Reader in) {
+            this.in = in;
+        }
+
+        /**
+         * 已输出的字符总数，读取到末尾后即为规范化结果的长度
+         */
+        long length() {
+            return length;
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            while (available() == 0) {
+                if (eof) {
+                    return -1;
+                }
+                fill();
+            }
+            int n = Math.min(len, available());
+            out.getChars(position, position + n, cbuf, off);
+            position += n;
+            length += n;
+            if (position == out.length()) {
+                out.setLength(0);
+                position = 0;
+            }
+            return n;
+        }
+
+        private int available() {
+            return scanner.visible || eof ? out.length() - position : 0;
+        }
+
+        private void fill() throws IOException {
+            int n = in.read(chunk);
+            if (n < 0) {
+                scanner.finish();
+                eof = true;
+                if (!scanner.visible) {
+                    out.setLength(0);
+                }
+                return;
+            }
+            scanner.scan(CharBuffer.wrap(chunk, 0, n), 0, n);
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /**
+     * 行接收器
+     */
+    private interface LineSink {
+
+        /**
+         * 接收一行内容
+         *
+         * @param src        字符来源
+         * @param start      行起始位置（含）
+         * @param end        行结束位置（不含），不包含行终止符
+         * @param terminator 行终止符，最后一行为{@link #NONE}
+         */
+        void line(CharSequence src, int start, int end, char terminator);
+    }
+
+    /**
+     * 需要补空行的行首标记
+     */
+    private enum Marker {
+        /**
+         * 对应 ^(#{1,6}\s.*?)$
+         */
+        HEADING,
+        /**
+         * 对应 ^([*+-]\s.*?)$
+         */
+        LIST_ITEM,
+        /**
+         * 对应 ^(```.*?)$
+         */
+        FENCE
+    }
+
+    /**
+     * 行匹配结果
+     */
+    private enum Match {
+        /**
+         * 不匹配
+         */
+        NONE,
+        /**
+         * 匹配当前行
+         */
+        LINE,
+        /**
+         * 标记后紧跟换行，\s匹配了换行符，匹配范围延伸到下一行行尾
+         */
+        LINE_AND_NEXT
+    }
+
+    /**
+     * 补空行阶段
+     * <p>
+     * 等价于对上一阶段的完整输出执行一次 replaceAll("(?m)^(...)$", "\n$1\n")：
+     * 在匹配范围前插入一个空行，范围结束后再插入一个空行。
+     */
+    private static final class PaddingStage implements LineSink {
+
+        private final Marker marker;
+        private final LineSink next;
+
+        /**
+         * 上一行的匹配延伸到了当前行
+         */
+        private boolean spanOpen;
+
+        PaddingStage(Marker marker, LineSink next) {
+            this.marker = marker;
+            this.next = next;
+        }
+
+        @Override
+        public void line(CharSequence src, int start, int end, char terminator) {
+            if (spanOpen) {
+                spanOpen = false;
+                closeSpan(src, start, end, terminator);
+                return;
+            }
+            switch (match(src, start, end, terminator)) {
+                case LINE:
+                    next.line(src, start, start, '\n');
+                    closeSpan(src, start, end, terminator);
+                    break;
+                case LINE_AND_NEXT:
+                    next.line(src, start, start, '\n');
+                    next.line(src, start, end, '\n');
+                    spanOpen = true;
+                    break;
+                default:
+                    next.line(src, start, end, terminator);
+            }
+        }
+
+        /**
+         * 写出匹配范围的最后一行，并在其后插入空行
+         */
+        private void closeSpan(CharSequence src, int start, int end, char terminator) {
+            next.line(src, start, end, '\n');
+            next.line(src, end, end, terminator);
+        }
+
+        private Match match(CharSequence src, int start, int end, char terminator) {
+            int markerEnd;
+            switch (marker) {
+                case HEADING:
+                    markerEnd = start;
+                    while (markerEnd < end && markerEnd - start < 7 && src.charAt(markerEnd) == '#') {
+                        markerEnd++;
+                    }
+                    if (markerEnd == start || markerEnd - start > 6) {
+                        return Match.NONE;
+                    }
+                    break;
+                case LIST_ITEM:
+                    if (start == end) {
+                        return Match.NONE;
+                    }
+                    char c = src.charAt(start);
+                    if (c != '*' && c != '+' && c != '-') {
+                        return Match.NONE;
+                    }
+                    markerEnd = start + 1;
+                    break;
+                default:
+                    return end - start >= 3
+                            && src.charAt(start) == '`'
+                            && src.charAt(start + 1) == '`'
+                            && src.charAt(start + 2) == '`' ? Match.LINE : Match.NONE;
+            }
+            if (markerEnd == end) {
+                return terminator == '\n' ? Match.LINE_AND_NEXT : Match.NONE;
+            }
+            return isWhitespace(src.charAt(markerEnd)) ? Match.LINE : Match.NONE;
+        }
+
+        /**
+         * 行内可能出现的正则\s字符
+         */
+        private static boolean isWhitespace(char c) {
+            return c == ' ' || c == '\t' || c == '\u000B' || c == '\f';
+        }
+    }
+
+    /**
+     * 输出阶段
+     * <p>
+     * 拼接各行并处理首尾：开头的\n全部丢弃；结尾（或最后一个行终止符之前）的连续\n合并为一个，
+     * 等价于 replaceAll("^\n+", "") 与 replaceAll("\n+$", "\n")。
+     */
+    private static final class OutputSink implements LineSink {
+
+        private final StringBuilder out;
+
+        /**
+         * 是否已经写出过非\n字符
+         */
+        private boolean started;
+
+        /**
+         * 尚未写出的连续\n个数
+         */
+        private int pendingNewlines;
+
+        /**
+         * 尚未写出的Unicode行终止符，位于pendingNewlines之后
+         */
+        private char heldTerminator = NONE;
+
+        OutputSink(StringBuilder out) {
+            this.out = out;
+        }
+
+        @Override
+        public void line(CharSequence src, int start, int end, char terminator) {
+            if (start < end) {
+                started = true;
+                flush();
+                out.append(src, start, end);
+            }
+            if (terminator == '\n') {
+                if (!started) {
+                    return;
+                }
+                if (heldTerminator != NONE) {
+                    flush();
+                }
+                pendingNewlines++;
+            } else if (terminator != NONE) {
+                started = true;
+                if (heldTerminator != NONE) {
+                    flush();
+                }
+                heldTerminator = terminator;
+            }
+        }
+
+        void finish() {
+            if (pendingNewlines > 0) {
+                out.append('\n');
+            }
+            if (heldTerminator != NONE) {
+                out.append(heldTerminator);
+            }
+        }
+
+        private void flush() {
+            for (; pendingNewlines > 0; pendingNewlines--) {
+                out.append('\n');
+            }
+            if (heldTerminator != NONE) {
+                out.append(heldTerminator);
+                heldTerminator = NONE;
+            }
+        }
+    }
+}
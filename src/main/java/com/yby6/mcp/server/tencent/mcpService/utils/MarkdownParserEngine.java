@@ -0,0 +1,35 @@
+package com.yby6.mcp.server.tencent.mcpService.utils;
+
+import org.commonmark.node.Node;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Markdown解析引擎
+ * <p>
+ * 将预处理后的Markdown解析为commonmark的AST，转换器、结构摘要与各写出实现只依赖该AST，
+ * 不同引擎之间只在解析阶段有差异。内置实现见{@link ParserEngine}。
+ *
+ * @author yby6
+ * @since 2025/05/25
+ */
+public interface MarkdownParserEngine {
+
+    /**
+     * 解析Markdown文本
+     *
+     * @param markdown 预处理后的Markdown文本
+     * @return 文档根节点
+     */
+    Node parse(String markdown);
+
+    /**
+     * 从Reader解析Markdown
+     *
+     * @param reader 预处理后的Markdown输入，由调用方负责关闭
+     * @return 文档根节点
+     * @throws IOException 读取失败时抛出
+     */
+    Node parse(Reader reader) throws IOException;
+}
@@ -1,13 +1,21 @@
 package com.yby6.mcp.server.tencent.mcpService.utils;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.commonmark.node.*;
-import org.commonmark.parser.Parser;
 import org.commonmark.renderer.text.TextContentRenderer;
 
-import java.util.UUID;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Markdown到ProseMirror格式转换器
@@ -18,12 +26,17 @@ import java.util.UUID;
  * 主要功能：
  * 1. 解析Markdown文本为AST（抽象语法树）
  * 2. 将AST转换为ProseMirror格式的JSON
- * 3. 支持段落、文本、标题等基本元素的转换
+ * 3. 支持段落、文本、标题等基本元素的转换，行内支持加粗、斜体、行内代码、链接与换行
  * <p>
  * 技术特点：
- * - 使用commonmark-java库解析Markdown
+ * - 解析引擎可配置，默认使用commonmark-java，见{@link ParserEngine}
  * - 使用Jackson处理JSON
- * - 采用递归方式处理文档树结构
+ * - 默认单次遍历AST，直接流式写出JSON，不构建中间树
+ * - 保留基于ObjectNode树的实现作为参考模式，便于比对输出
+ * - 节点ID生成策略可配置，见{@link NodeIdStrategy}
+ * - 支持按顶层块增量转换，见{@link ProseMirrorFragmentCache}
+ * - 超大文档可按顶层块并行转换，见{@link ParallelBlockConverter}
+ * - 支持从Reader读取、写入Writer/OutputStream，全程不生成完整的Markdown或JSON字符串
  * <p>
  * 使用示例：
  * ```java
@@ -46,13 +59,6 @@ public class MarkdownToProseMirrorConverter {
      */
     private static final ObjectMapper objectMapper = new ObjectMapper();
 
-    /**
-     * Markdown解析器
-     * 用于将Markdown文本解析为AST（抽象语法树）
-     * 使用commonmark-java库的Parser实现
-     */
-    private static final Parser parser = Parser.builder().build();
-
     /**
      * 文本渲染器
      * 用于将AST节点渲染为纯文本
@@ -70,19 +76,76 @@ public class MarkdownToProseMirrorConverter {
         // 私有构造函数，防止实例化
     }
 
+    /**
+     * 转换模式
+     */
+    public enum ConvertMode {
+        /**
+         * 流式模式：单次遍历AST，直接写出JSON（默认）
+         */
+        STREAMING,
+        /**
+         * 树模式：先构建ObjectNode树再序列化，作为参考实现用于比对输出
+         */
+        TREE
+    }
+
+    /**
+     * 带降级标记的转换结果
+     *
+     * @param content  ProseMirror格式的JSON字符串
+     * @param degraded 是否有图片探测超时、探测失败或转存失败，降级的结果不应缓存
+     */
+    public record ConvertResult(String content, boolean degraded) {
+    }
+
+    /**
+     * 已完成解析与图片处理、等待写出的文档
+     * <p>
+     * 由{@link #prepare(Reader, ConvertOptions)}创建。图片转存与尺寸探测等网络操作在创建时完成，
+     * {@link #writeTo(Writer)}只遍历AST写出JSON，可以重复调用，每次输出的结构相同。
+     */
+    public static final class PreparedDocument {
+
+        private final Node document;
+        private final long formattedLength;
+        private final ConvertOptions options;
+        private final ImageSizes images;
+
+        private PreparedDocument(Node document, long formattedLength, ConvertOptions options, ImageSizes images) {
+            this.document = document;
+            this.formattedLength = formattedLength;
+            this.options = options;
+            this.images = images;
+        }
+
+        /**
+         * 将文档以ProseMirror格式写入Writer，Writer由调用方负责关闭
+         *
+         * @param writer 输出目标
+         * @throws IOException 写出失败时抛出
+         */
+        public void writeTo(Writer writer) throws IOException {
+            try (JsonGenerator gen = objectMapper.getFactory().createGenerator(writer)) {
+                writeDocument(document, formattedLength, gen, options, images);
+            }
+        }
+
+        /**
+         * 是否有图片探测超时、探测失败或转存失败
+         */
+        public boolean isDegraded() {
+            return images.isDegraded();
+        }
+    }
+
     /**
      * 将Markdown文本转换为ProseMirror格式
      * <p>
      * 该方法执行以下步骤：
      * 1. 解析Markdown文本为AST
-     * 2. 创建ProseMirror文档结构
-     * 3. 递归处理AST节点
-     * 4. 返回JSON字符串
-     * <p>
-     * 转换过程：
-     * - 首先创建文档根节点
-     * - 然后递归处理所有子节点
-     * - 最后将结果序列化为JSON字符串
+     * 2. 单次遍历AST，直接写出ProseMirror文档结构
+     * 3. 返回JSON字符串
      * <p>
      * 错误处理：
      * - 捕获所有可能的异常
@@ -94,12 +157,289 @@ public class MarkdownToProseMirrorConverter {
      * @throws RuntimeException 当转换过程中发生错误时抛出
      */
     public static String convert(String markdown) {
+        return convert(markdown, new ConvertOptions());
+    }
+
+    /**
+     * 按指定模式将Markdown文本转换为ProseMirror格式
+     * <p>
+     * 两种模式输出的节点结构与字段顺序一致，{@link ConvertMode#TREE}仅用于比对与回归验证。
+     *
+     * @param markdown 要转换的Markdown文本，不能为null
+     * @param mode     转换模式
+     * @return ProseMirror格式的JSON字符串
+     * @throws RuntimeException 当转换过程中发生错误时抛出
+     */
+    public static String convert(String markdown, ConvertMode mode) {
+        ConvertOptions options = new ConvertOptions();
+        options.setMode(mode);
+        return convert(markdown, options);
+    }
+
+    /**
+     * 按指定选项将Markdown文本转换为ProseMirror格式
+     *
+     * @param markdown 要转换的Markdown文本，不能为null
+     * @param options  转换选项
+     * @return ProseMirror格式的JSON字符串
+     * @throws RuntimeException 当转换过程中发生错误时抛出
+     */
+    public static String convert(String markdown, ConvertOptions options) {
+        return convertWithStatus(markdown, options).content();
+    }
+
+    /**
+     * 按指定选项转换，并报告输出是否降级
+     * <p>
+     * 启用图片尺寸探测或转存时，超时或失败的图片按默认尺寸或原地址输出，
+     * 结果标记为降级，调用方可据此跳过缓存。
+     *
+     * @param markdown 要转换的Markdown文本，不能为null
+     * @param options  转换选项
+     * @return 转换结果
+     * @throws RuntimeException 当转换过程中发生错误时抛出
+     */
+    public static ConvertResult convertWithStatus(String markdown, ConvertOptions options) {
+        if (options.getMode() == ConvertMode.TREE) {
+            return convertTree(markdown, options);
+        }
+        StringWriter writer = new StringWriter(markdown == null ? 256 : Math.max(256, markdown.length() * 2));
+        boolean degraded = write(markdown, writer, options);
+        return new ConvertResult(writer.toString(), degraded);
+    }
+
+    /**
+     * 将Markdown文本转换为ProseMirror格式并直接写入Writer
+     * <p>
+     * 该方法不会构建中间JSON树，也不会生成完整的JSON字符串，
+     * 适合调用方已经持有输出流的场景。Writer由调用方负责关闭。
+     *
+     * @param markdown 要转换的Markdown文本，不能为null
+     * @param writer   输出目标
+     * @throws RuntimeException 当转换过程中发生错误时抛出
+     */
+    public static void convert(String markdown, Writer writer) {
+        convert(markdown, writer, new ConvertOptions());
+    }
+
+    /**
+     * 按指定选项将Markdown文本转换为ProseMirror格式并直接写入Writer
+     * <p>
+     * 该方法始终使用流式写出，忽略{@link ConvertOptions#getMode()}。
+     *
+     * @param markdown 要转换的Markdown文本，不能为null
+     * @param writer   输出目标
+     * @param options  转换选项
+     * @throws RuntimeException 当转换过程中发生错误时抛出
+     */
+    public static void convert(String markdown, Writer writer, ConvertOptions options) {
+        write(markdown, writer, options);
+    }
+
+    /**
+     * 流式转换并写入Writer
+     *
+     * @return 输出是否降级
+     */
+    private static boolean write(String markdown, Writer writer, ConvertOptions options) {
+        try {
+            // 格式化并解析 Markdown
+            String formatted = formatMarkdown(markdown);
+            Node document = options.getParserEngine().parse(formatted);
+
+            try (JsonGenerator gen = objectMapper.getFactory().createGenerator(writer)) {
+                return writeDocument(document, formatted.length(), gen, options);
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("转换失败", e);
+        }
+    }
+
+    /**
+     * 从Reader读取Markdown并将ProseMirror格式写入Writer
+     * <p>
+     * 预处理按块进行，解析器逐行读取预处理结果，转换过程中只保留AST，
+     * 不会生成完整的Markdown或JSON字符串。Reader与Writer均由调用方负责关闭。
+     * 该方法始终使用流式写出，忽略{@link ConvertOptions#getMode()}。
+     *
+     * @param reader  Markdown输入
+     * @param writer  输出目标
+     * @param options 转换选项
+     * @throws RuntimeException 当读取或转换过程中发生错误时抛出
+     */
+    public static void convert(Reader reader, Writer writer, ConvertOptions options) {
+        try {
+            MarkdownNormalizer.NormalizingReader formatted = MarkdownNormalizer.reader(reader);
+            Node document = options.getParserEngine().parse(formatted);
+
+            try (JsonGenerator gen = objectMapper.getFactory().createGenerator(writer)) {
+                writeDocument(document, formatted.length(), gen, options);
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("转换失败", e);
+        }
+    }
+
+    /**
+     * 从Reader读取Markdown，完成解析、图片转存与尺寸探测，返回等待写出的文档
+     * <p>
+     * 发送请求前调用，使网络操作不发生在写出请求体的过程中，连接失败重试时也不会重复执行。
+     * Reader由调用方负责关闭。
+     *
+     * @param reader  Markdown输入
+     * @param options 转换选项
+     * @return 等待写出的文档
+     * @throws RuntimeException 当读取或解析过程中发生错误时抛出
+     */
+    public static PreparedDocument prepare(Reader reader, ConvertOptions options) {
+        try {
+            MarkdownNormalizer.NormalizingReader formatted = MarkdownNormalizer.reader(reader);
+            Node document = options.getParserEngine().parse(formatted);
+            return new PreparedDocument(document, formatted.length(), options, prepareImages(document, options));
+        } catch (Exception e) {
+            throw new RuntimeException("转换失败", e);
+        }
+    }
+
+    /**
+     * 从Reader读取Markdown并将ProseMirror格式以UTF-8编码写入OutputStream
+     * <p>
+     * 与{@link #convert(Reader, Writer, ConvertOptions)}相同，JSON直接编码为字节写出。
+     * Reader与OutputStream均由调用方负责关闭。
+     *
+     * @param reader  Markdown输入
+     * @param out     输出目标
+     * @param options 转换选项
+     * @throws RuntimeException 当读取或转换过程中发生错误时抛出
+     */
+    public static void convert(Reader reader, OutputStream out, ConvertOptions options) {
+        try {
+            MarkdownNormalizer.NormalizingReader formatted = MarkdownNormalizer.reader(reader);
+            Node document = options.getParserEngine().parse(formatted);
+
+            try (JsonGenerator gen = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+                writeDocument(document, formatted.length(), gen, options);
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("转换失败", e);
+        }
+    }
+
+    /**
+     * 按转换选项写出文档
+     *
+     * @param document        解析后的Markdown文档
+     * @param formattedLength 格式化后的Markdown字符数，用于判断是否并行转换
+     * @param gen             JSON生成器，不会关闭底层输出
+     * @param options         转换选项
+     * @return 输出是否降级
+     * @throws IOException 写出失败时抛出
+     */
+    private static boolean writeDocument(Node document, long formattedLength, JsonGenerator gen,
+                                         ConvertOptions options) throws IOException {
+        ImageSizes images = prepareImages(document, options);
+        writeDocument(document, formattedLength, gen, options, images);
+        return images.isDegraded();
+    }
+
+    /**
+     * 按转换选项写出图片已处理的文档，不发起网络请求
+     *
+     * @param document        解析后的Markdown文档
+     * @param formattedLength 格式化后的Markdown字符数，用于判断是否并行转换
+     * @param gen             JSON生成器，不会关闭底层输出
+     * @param options         转换选项
+     * @param images          图片尺寸
+     * @throws IOException 写出失败时抛出
+     */
+    private static void writeDocument(Node document, long formattedLength, JsonGenerator gen,
+                                      ConvertOptions options, ImageSizes images) throws IOException {
+        gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        if (options.isParallel() && formattedLength >= options.getParallelThreshold()) {
+            ParallelBlockConverter.write(document, gen, options, images);
+        } else if (options.isIncremental()) {
+            writeIncremental(document, gen, options, images);
+        } else {
+            new ProseMirrorStreamWriter(gen, options.getIdStrategy().get(), images).writeDocument(document);
+        }
+    }
+
+    /**
+     * 处理文档中的图片
+     * <p>
+     * 启用转存时先改写图片地址，再探测（转存后地址的）图片尺寸。
+     *
+     * @param document 解析后的Markdown文档
+     * @param options  转换选项
+     * @return 图片尺寸，有图片转存失败时标记为降级
+     */
+    private static ImageSizes prepareImages(Node document, ConvertOptions options) {
+        boolean rehosted = options.getImageRehoster() == null || options.getImageRehoster().rewrite(document);
+        ImageSizes images = ImageSizes.resolve(document, options.getImageProber());
+        return rehosted ? images : images.degrade();
+    }
+
+    /**
+     * 增量写出文档
+     * <p>
+     * 逐个计算顶层块的结构摘要，命中片段缓存的块直接拼接缓存结果，
+     * 未命中的块按与{@link #processNode}相同的语义转换后写入缓存。
+     * 使用确定性ID时输出与全量转换逐字节一致。
+     *
+     * @param document 解析后的Markdown文档
+     * @param gen      JSON生成器
+     * @param options  转换选项
+     * @param images   图片尺寸
+     * @throws IOException 写出失败时抛出
+     */
+    private static void writeIncremental(Node document, JsonGenerator gen, ConvertOptions options,
+                                         ImageSizes images) throws IOException {
+        NodeIdGenerator ids = options.getIdStrategy().get();
+        ProseMirrorFragmentCache cache = options.fragmentCacheOrShared();
+        String outputKey = options.outputKey();
+
+        gen.writeStartObject();
+        gen.writeStringField("type", "doc");
+        gen.writeArrayFieldStart("content");
+        Map<Long, Integer> occurrences = new HashMap<>();
+        for (Node block = document.getFirstChild(); block != null; block = block.getNext()) {
+            long hash = BlockHasher.hash(block);
+            int occurrence = occurrences.merge(hash, 1, Integer::sum) - 1;
+            Node current = block;
+            byte[] digest = images.cacheDigest(block);
+            String fragment = cache.get(outputKey, images.cacheHash(hash, block), occurrence, digest, () -> {
+                ids.beginBlock(hash, occurrence);
+                return ProseMirrorStreamWriter.renderFragment(current, ids, images);
+            });
+            if (!fragment.isEmpty()) {
+                gen.writeRawValue(fragment);
+            }
+        }
+        gen.writeEndArray();
+        gen.writeEndObject();
+    }
+
+    /**
+     * 基于ObjectNode树的参考实现
+     * <p>
+     * 转换过程：
+     * - 首先创建文档根节点
+     * - 然后递归处理所有子节点
+     * - 最后将结果序列化为JSON字符串
+     *
+     * @param markdown 要转换的Markdown文本，不能为null
+     * @param options  转换选项
+     * @return 转换结果
+     */
+    private static ConvertResult convertTree(String markdown, ConvertOptions options) {
         try {
             // 格式化Markdown
             markdown = formatMarkdown(markdown);
 
             // 解析 Markdown
-            Node document = parser.parse(markdown);
+            Node document = options.getParserEngine().parse(markdown);
+            NodeIdGenerator ids = options.getIdStrategy().get();
+            ImageSizes images = prepareImages(document, options);
 
             // 创建 ProseMirror 文档结构
             ObjectNode doc = objectMapper.createObjectNode();
@@ -108,49 +448,56 @@ public class MarkdownToProseMirrorConverter {
             ArrayNode content = objectMapper.createArrayNode();
             doc.set("content", content);
 
-            // 处理文档节点
-            processNode(document, content);
+            // 逐个处理顶层块
+            Map<Long, Integer> occurrences = new HashMap<>();
+            for (Node block = document.getFirstChild(); block != null; block = block.getNext()) {
+                beginBlock(ids, block, occurrences);
+                processNode(block, content, ids, images);
+            }
 
-            return objectMapper.writeValueAsString(doc);
+            return new ConvertResult(objectMapper.writeValueAsString(doc), images.isDegraded());
         } catch (Exception e) {
             throw new RuntimeException("转换失败", e);
         }
     }
 
+    /**
+     * 获取共享的JSON工厂
+     *
+     * @return JSON工厂
+     */
+    static JsonFactory jsonFactory() {
+        return objectMapper.getFactory();
+    }
+
+    /**
+     * 通知ID生成器开始处理一个顶层块
+     * <p>
+     * 仅当生成器需要内容摘要时才计算摘要，并统计相同摘要在文档中出现的次数。
+     *
+     * @param ids         节点ID生成器
+     * @param block       顶层块
+     * @param occurrences 摘要 -> 已出现次数
+     */
+    static void beginBlock(NodeIdGenerator ids, Node block, Map<Long, Integer> occurrences) {
+        if (ids.usesBlockHash()) {
+            long hash = BlockHasher.hash(block);
+            Integer seen = occurrences.merge(hash, 1, Integer::sum);
+            ids.beginBlock(hash, seen - 1);
+        }
+    }
+
     /**
      * 格式化Markdown文本
      * 处理换行符和特殊字符，确保Markdown格式正确
+     * <p>
+     * 具体规则见{@link MarkdownNormalizer}，单次扫描完成，不再逐条执行正则替换。
      *
      * @param markdown 原始Markdown文本
      * @return 格式化后的Markdown文本
      */
     private static String formatMarkdown(String markdown) {
-        if (markdown == null || markdown.trim().isEmpty()) {
-            return "";
-        }
-
-        // 1. 统一换行符为\n
-        String formatted = markdown.replace("\r\n", "\n").replace("\r", "\n");
-
-        // 2. 处理连续的空行，最多保留两个
-        formatted = formatted.replaceAll("\n{3,}", "\n\n");
-
-        // 3. 确保标题前后有空行
-        formatted = formatted.replaceAll("(?m)^(#{1,6}\\s.*?)$", "\n$1\n");
-
-        // 4. 确保列表项前后有空行
-        formatted = formatted.replaceAll("(?m)^([*+-]\\s.*?)$", "\n$1\n");
-
-        // 5. 确保代码块前后有空行
-        formatted = formatted.replaceAll("(?m)^(```.*?)$", "\n$1\n");
-
-        // 6. 移除开头的空行
-        formatted = formatted.replaceAll("^\n+", "");
-
-        // 7. 移除结尾的空行
-        formatted = formatted.replaceAll("\n+$", "\n");
-
-        return formatted;
+        return MarkdownNormalizer.normalize(markdown);
     }
 
     /**
@@ -158,8 +505,8 @@ public class MarkdownToProseMirrorConverter {
      * <p>
      * 该方法递归处理不同类型的节点：
      * - 段落节点：创建段落结构
-     * - 文本节点：创建文本内容
      * - 标题节点：创建标题结构
+     * - 行内节点：按mark合并为文本节点，见{@link InlineContentWalker}
      * - 其他节点：递归处理子节点
      * <p>
      * 节点处理流程：
@@ -170,59 +517,30 @@ public class MarkdownToProseMirrorConverter {
      *
      * @param node    要处理的AST节点，不能为null
      * @param content 用于存储转换结果的JSON数组节点，不能为null
+     * @param ids     节点ID生成器
+     * @param images  图片尺寸
+     * @throws IOException 写出失败时抛出
      */
-    private static void processNode(Node node, ArrayNode content) {
+    private static void processNode(Node node, ArrayNode content, NodeIdGenerator ids,
+                                    ImageSizes images) throws IOException {
         if (node instanceof Paragraph) {
             // 处理段落
-            ObjectNode paragraph = createParagraphNode();
+            ObjectNode paragraph = createParagraphNode(ids);
             ArrayNode paragraphContent = objectMapper.createArrayNode();
             paragraph.set("content", paragraphContent);
 
-            // 处理段落内的子节点
-            Node child = node.getFirstChild();
-            while (child != null) {
-                processNode(child, paragraphContent);
-                child = child.getNext();
-            }
+            // 处理段落内的行内节点
+            new TreeInlineWalker(paragraphContent, ids, images).walkChildren(node);
 
             content.add(paragraph);
-        } else if (node instanceof Text) {
-            // 处理文本节点
-            ObjectNode text = objectMapper.createObjectNode();
-            text.put("type", "text");
-            text.put("text", ((Text) node).getLiteral());
-            
-            // 检查父节点是否为链接
-            Node parent = node.getParent();
-            if (parent instanceof Link) {
-                ArrayNode marks = objectMapper.createArrayNode();
-                ObjectNode linkMark = objectMapper.createObjectNode();
-                linkMark.put("type", "link");
-                
-                ObjectNode linkAttrs = objectMapper.createObjectNode();
-                linkAttrs.put("href", ((Link) parent).getDestination());
-                linkAttrs.put("target", "_blank");
-                linkAttrs.put("rel", "noopener noreferrer nofollow");
-                linkAttrs.put("class", (String) null);
-                
-                linkMark.set("attrs", linkAttrs);
-                marks.add(linkMark);
-                text.set("marks", marks);
-            }
-            
-            content.add(text);
         } else if (node instanceof Heading) {
             // 处理标题
-            ObjectNode heading = createHeadingNode((Heading) node);
+            ObjectNode heading = createHeadingNode((Heading) node, ids);
             ArrayNode headingContent = objectMapper.createArrayNode();
             heading.set("content", headingContent);
 
-            // 处理标题内的子节点
-            Node child = node.getFirstChild();
-            while (child != null) {
-                processNode(child, headingContent);
-                child = child.getNext();
-            }
+            // 处理标题内的行内节点
+            new TreeInlineWalker(headingContent, ids, images).walkChildren(node);
 
             content.add(heading);
         } else if (node instanceof FencedCodeBlock) {
@@ -232,7 +550,7 @@ public class MarkdownToProseMirrorConverter {
             
             if ("高亮".equals(info)) {
                 // 处理高亮块
-                ObjectNode highlightBlock = createHighlightBlockNode();
+                ObjectNode highlightBlock = createHighlightBlockNode(ids);
                 ArrayNode highlightContent = objectMapper.createArrayNode();
                 highlightBlock.set("content", highlightContent);
 
@@ -244,7 +562,7 @@ public class MarkdownToProseMirrorConverter {
                 content.add(highlightBlock);
             } else {
                 // 处理普通代码块
-                ObjectNode codeBlockNode = createCodeBlockNode(codeBlock);
+                ObjectNode codeBlockNode = createCodeBlockNode(codeBlock, ids);
                 ArrayNode codeContent = objectMapper.createArrayNode();
                 codeBlockNode.set("content", codeContent);
 
@@ -257,33 +575,29 @@ public class MarkdownToProseMirrorConverter {
             }
         } else if (node instanceof BlockQuote) {
             // 处理引用块
-            ObjectNode blockQuote = createBlockQuoteNode();
+            ObjectNode blockQuote = createBlockQuoteNode(ids);
             ArrayNode quoteContent = objectMapper.createArrayNode();
             blockQuote.set("content", quoteContent);
 
             Node child = node.getFirstChild();
             while (child != null) {
-                processNode(child, quoteContent);
+                processNode(child, quoteContent, ids, images);
                 child = child.getNext();
             }
 
             content.add(blockQuote);
         } else if (node instanceof Image) {
             // 处理图片
-            ObjectNode image = createImageNode((Image) node);
+            ObjectNode image = createImageNode((Image) node, ids, images);
             content.add(image);
-        } else if (node instanceof Link) {
-            // 处理链接 - 现在链接作为文本节点的mark处理
-            Node child = node.getFirstChild();
-            while (child != null) {
-                processNode(child, content);
-                child = child.getNext();
-            }
+        } else if (NodeKind.of(node).isInline()) {
+            // 处理段落、标题之外的行内节点
+            new TreeInlineWalker(content, ids, images).walk(node);
         } else {
             // 处理其他类型的节点
             Node child = node.getFirstChild();
             while (child != null) {
-                processNode(child, content);
+                processNode(child, content, ids, images);
                 child = child.getNext();
             }
         }
@@ -293,7 +607,7 @@ public class MarkdownToProseMirrorConverter {
      * 创建段落节点
      * <p>
      * 创建具有以下属性的段落节点：
-     * - 唯一ID：使用UUID生成
+     * - 唯一ID：由节点ID生成器生成
      * - 文本对齐方式：默认为inherit
      * - 缩进级别：默认为0
      * - 文本颜色：默认为null
@@ -315,14 +629,15 @@ public class MarkdownToProseMirrorConverter {
      * }
      * ```
      *
+     * @param ids 节点ID生成器
      * @return 配置好的段落节点
      */
-    private static ObjectNode createParagraphNode() {
+    private static ObjectNode createParagraphNode(NodeIdGenerator ids) {
         ObjectNode paragraph = objectMapper.createObjectNode();
         paragraph.put("type", "paragraph");
 
         ObjectNode attrs = objectMapper.createObjectNode();
-        attrs.put("id", UUID.randomUUID().toString());
+        attrs.put("id", ids.nextId());
         attrs.put("textAlign", "inherit");
         attrs.put("indent", 0);
         attrs.put("color", (String) null);
@@ -333,12 +648,12 @@ public class MarkdownToProseMirrorConverter {
         return paragraph;
     }
 
-    private static ObjectNode createHeadingNode(Heading heading) {
+    private static ObjectNode createHeadingNode(Heading heading, NodeIdGenerator ids) {
         ObjectNode headingNode = objectMapper.createObjectNode();
         headingNode.put("type", "heading");
 
         ObjectNode attrs = objectMapper.createObjectNode();
-        attrs.put("id", UUID.randomUUID().toString());
+        attrs.put("id", ids.nextId());
         attrs.put("textAlign", "inherit");
         attrs.put("indent", 0);
         attrs.put("level", heading.getLevel());
@@ -348,29 +663,29 @@ public class MarkdownToProseMirrorConverter {
         return headingNode;
     }
 
-    private static ObjectNode createCodeBlockNode(FencedCodeBlock codeBlock) {
+    private static ObjectNode createCodeBlockNode(FencedCodeBlock codeBlock, NodeIdGenerator ids) {
         ObjectNode codeBlockNode = objectMapper.createObjectNode();
         codeBlockNode.put("type", "codeBlock");
 
         ObjectNode attrs = objectMapper.createObjectNode();
-        attrs.put("id", UUID.randomUUID().toString());
+        attrs.put("id", ids.nextId());
         attrs.put("language", codeBlock.getInfo());
         attrs.put("theme", "atom-one-dark");
         attrs.put("runtimes", 0);
         attrs.put("isHoverDragHandle", false);
-        attrs.put("key", UUID.randomUUID().toString().substring(0, 5));
+        attrs.put("key", ids.nextKey());
         attrs.put("languageByAi", codeBlock.getInfo());
 
         codeBlockNode.set("attrs", attrs);
         return codeBlockNode;
     }
 
-    private static ObjectNode createBlockQuoteNode() {
+    private static ObjectNode createBlockQuoteNode(NodeIdGenerator ids) {
         ObjectNode blockQuote = objectMapper.createObjectNode();
         blockQuote.put("type", "blockquote");
 
         ObjectNode attrs = objectMapper.createObjectNode();
-        attrs.put("id", UUID.randomUUID().toString());
+        attrs.put("id", ids.nextId());
         attrs.put("textAlign", "inherit");
         attrs.put("isHoverDragHandle", false);
 
@@ -382,7 +697,7 @@ public class MarkdownToProseMirrorConverter {
      * 创建高亮块节点
      * <p>
      * 创建具有以下属性的高亮块节点：
-     * - 唯一ID：使用UUID生成
+     * - 唯一ID：由节点ID生成器生成
      * - 颜色：默认为空
      * - 背景色：默认为rgba(194, 239, 214, 1)
      * - 边框颜色：默认为rgba(41, 199, 112, 1)
@@ -401,14 +716,15 @@ public class MarkdownToProseMirrorConverter {
      * }
      * ```
      *
+     * @param ids 节点ID生成器
      * @return 配置好的高亮块节点
      */
-    private static ObjectNode createHighlightBlockNode() {
+    private static ObjectNode createHighlightBlockNode(NodeIdGenerator ids) {
         ObjectNode highlightBlock = objectMapper.createObjectNode();
         highlightBlock.put("type", "highlightBlock");
 
         ObjectNode attrs = objectMapper.createObjectNode();
-        attrs.put("id", UUID.randomUUID().toString());
+        attrs.put("id", ids.nextId());
         attrs.put("color", "");
         attrs.put("background", "rgba(194, 239, 214, 1)");
         attrs.put("border", "rgba(41, 199, 112, 1)");
@@ -422,10 +738,11 @@ public class MarkdownToProseMirrorConverter {
      * 创建图片节点
      * <p>
      * 创建具有以下属性的图片节点：
-     * - 唯一ID：使用UUID生成
+     * - 唯一ID：由节点ID生成器生成
      * - 图片URL：从Image节点获取
      * - 文件扩展名：从URL中提取
      * - 对齐方式：默认为center
+     * - 宽度与宽高比：按图片实际尺寸计算，宽度不超过504，未获取到尺寸时使用默认值
      * - 其他属性：按照平台要求设置
      * <p>
      * 节点结构：
@@ -453,14 +770,16 @@ public class MarkdownToProseMirrorConverter {
      * ```
      *
      * @param image 要处理的图片节点
+     * @param ids    节点ID生成器
+     * @param images 图片尺寸
      * @return 配置好的图片节点
      */
-    private static ObjectNode createImageNode(Image image) {
+    private static ObjectNode createImageNode(Image image, NodeIdGenerator ids, ImageSizes images) {
         ObjectNode imageNode = objectMapper.createObjectNode();
         imageNode.put("type", "image");
 
         ObjectNode attrs = objectMapper.createObjectNode();
-        attrs.put("id", UUID.randomUUID().toString());
+        attrs.put("id", ids.nextId());
         
         // 处理图片URL
         String imageUrl = image.getDestination();
@@ -476,8 +795,8 @@ public class MarkdownToProseMirrorConverter {
         attrs.put("showAlt", false);
         attrs.put("href", "");
         attrs.put("boxShadow", "");
-        attrs.put("width", 504);
-        attrs.put("aspectRatio", "1.300676");
+        attrs.put("width", images.width(imageUrl));
+        attrs.put("aspectRatio", images.aspectRatio(imageUrl));
         attrs.put("status", "success");
         attrs.put("showText", true);
         attrs.put("isPercentage", false);
@@ -499,7 +818,7 @@ public class MarkdownToProseMirrorConverter {
      * @param url 文件URL
      * @return 文件扩展名
      */
-    private static String getFileExtension(String url) {
+    static String getFileExtension(String url) {
         if (url == null || url.isEmpty()) {
             return "";
         }
@@ -514,4 +833,76 @@ public class MarkdownToProseMirrorConverter {
         }
         return "";
     }
+
+    /**
+     * 创建文本节点
+     * <p>
+     * marks按bold、italic、code、link的顺序生成，没有mark时不包含marks字段。
+     *
+     * @param text  文本内容
+     * @param marks 文本上的mark
+     * @return 文本节点
+     */
+    private static ObjectNode createTextNode(String text, InlineMarks marks) {
+        ObjectNode textNode = objectMapper.createObjectNode();
+        textNode.put("type", "text");
+        textNode.put("text", text);
+        if (marks.isEmpty()) {
+            return textNode;
+        }
+
+        ArrayNode markArray = textNode.putArray("marks");
+        if (marks.bold()) {
+            markArray.addObject().put("type", "bold");
+        }
+        if (marks.italic()) {
+            markArray.addObject().put("type", "italic");
+        }
+        if (marks.code()) {
+            markArray.addObject().put("type", "code");
+        }
+        if (marks.href() != null) {
+            ObjectNode linkMark = markArray.addObject();
+            linkMark.put("type", "link");
+
+            ObjectNode linkAttrs = objectMapper.createObjectNode();
+            linkAttrs.put("href", marks.href());
+            linkAttrs.put("target", "_blank");
+            linkAttrs.put("rel", "noopener noreferrer nofollow");
+            linkAttrs.put("class", (String) null);
+            linkMark.set("attrs", linkAttrs);
+        }
+        return textNode;
+    }
+
+    /**
+     * 将行内内容转换为节点并加入content数组
+     */
+    private static final class TreeInlineWalker extends InlineContentWalker {
+
+        private final ArrayNode content;
+        private final NodeIdGenerator ids;
+        private final ImageSizes images;
+
+        TreeInlineWalker(ArrayNode content, NodeIdGenerator ids, ImageSizes images) {
+            this.content = content;
+            this.ids = ids;
+            this.images = images;
+        }
+
+        @Override
+        protected void text(String text, InlineMarks marks) {
+            content.add(createTextNode(text, marks));
+        }
+
+        @Override
+        protected void hardBreak() {
+            content.addObject().put("type", "hardBreak");
+        }
+
+        @Override
+        protected void image(Image image) {
+            content.add(createImageNode(image, ids, images));
+        }
+    }
 }
@@ -0,0 +1,50 @@
+package com.yby6.mcp.server.tencent.mcpService.utils;
+
+/**
+ * ProseMirror节点ID生成器
+ * <p>
+ * 每次转换创建一个实例，为段落、标题、代码块、引用块、高亮块和图片节点生成attrs.id，
+ * 并为代码块生成5位的attrs.key。内置策略见{@link NodeIdStrategy}。
+ * <p>
+ * 转换器在处理每个顶层块之前调用{@link #beginBlock(long, int)}，
+ * 需要确定性输出的实现可以据此从块内容和位置推导ID。
+ *
+ * @author yby6
+ * @since 2025/05/25
+ */
+public interface NodeIdGenerator {
+
+    /**
+     * 是否需要顶层块的内容摘要
+     * <p>
+     * 返回false时转换器不会计算摘要，{@link #beginBlock(long, int)}的参数无意义。
+     *
+     * @return 是否需要内容摘要
+     */
+    default boolean usesBlockHash() {
+        return false;
+    }
+
+    /**
+     * 开始处理一个顶层块
+     *
+     * @param blockHash  块的结构摘要，见{@link BlockHasher}
+     * @param occurrence 相同摘要的块在文档中已出现的次数，从0开始
+     */
+    default void beginBlock(long blockHash, int occurrence) {
+    }
+
+    /**
+     * 生成节点ID
+     *
+     * @return UUID格式的ID
+     */
+    String nextId();
+
+    /**
+     * 生成代码块key
+     *
+     * @return 5位十六进制字符串
+     */
+    String nextKey();
+}
@@ -0,0 +1,144 @@
+package com.yby6.mcp.server.tencent.mcpService.utils;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * 内置的节点ID生成策略
+ *
+ * @author yby6
+ * @since 2025/05/25
+ */
+public enum NodeIdStrategy implements Supplier<NodeIdGenerator> {
+
+    /**
+     * UUID.randomUUID()，与早期版本行为一致
+     * <p>
+     * 每次调用都会访问共享的SecureRandom，并发转换时存在竞争。
+     */
+    RANDOM {
+        @Override
+        public NodeIdGenerator get() {
+            return new NodeIdGenerator() {
+                @Override
+                public String nextId() {
+                    return UUID.randomUUID().toString();
+                }
+
+                @Override
+                public String nextKey() {
+                    return UUID.randomUUID().toString().substring(0, 5);
+                }
+            };
+        }
+    },
+
+    /**
+     * 基于ThreadLocalRandom的随机ID（默认）
+     * <p>
+     * 输出格式与UUID v4一致，无锁、无系统熵读取。
+     */
+    FAST {
+        @Override
+        public NodeIdGenerator get() {
+            return FastGenerator.INSTANCE;
+        }
+    },
+
+    /**
+     * 确定性ID
+     * <p>
+     * 由顶层块的结构摘要、该摘要的出现次数以及节点在块内的序号推导，
+     * 同一文档多次转换得到逐字节一致的JSON，便于缓存与比对。
+     * 只与块自身的内容相关，在其前面插入或删除其他块不会改变它的ID。
+     */
+    DETERMINISTIC {
+        @Override
+        public NodeIdGenerator get() {
+            return new DeterministicGenerator();
+        }
+    };
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /**
+     * 以UUID v4的格式输出128位值
+     */
+    private static String toUuid(long msb, long lsb) {
+        msb = (msb & 0xffffffffffff0fffL) | 0x0000000000004000L;
+        lsb = (lsb & 0x3fffffffffffffffL) | 0x8000000000000000L;
+        return new UUID(msb, lsb).toString();
+    }
+
+    /**
+     * 取低20位输出为5位十六进制
+     */
+    private static String toKey(long bits) {
+        char[] key = new char[5];
+        for (int i = 4; i >= 0; i--) {
+            key[i] = HEX[(int) (bits & 0xf)];
+            bits >>>= 4;
+        }
+        return new String(key);
+    }
+
+    /**
+     * SplitMix64的混淆函数
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * 无状态，可在线程间共享
+     */
+    private static final class FastGenerator implements NodeIdGenerator {
+
+        private static final FastGenerator INSTANCE = new FastGenerator();
+
+        @Override
+        public String nextId() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            return toUuid(random.nextLong(), random.nextLong());
+        }
+
+        @Override
+        public String nextKey() {
+            return toKey(ThreadLocalRandom.current().nextInt());
+        }
+    }
+
+    /**
+     * 每次转换一个实例，非线程安全
+     */
+    private static final class DeterministicGenerator implements NodeIdGenerator {
+
+        private long seed;
+        private int ordinal;
+
+        @Override
+        public boolean usesBlockHash() {
+            return true;
+        }
+
+        @Override
+        public void beginBlock(long blockHash, int occurrence) {
+            this.seed = mix(blockHash + 0x9e3779b97f4a7c15L * (occurrence + 1));
+            this.ordinal = 0;
+        }
+
+        @Override
+        public String nextId() {
+            long base = seed + 0x9e3779b97f4a7c15L * (++ordinal);
+            return toUuid(mix(base), mix(base ^ 0x632be59bd9b4e019L));
+        }
+
+        @Override
+        public String nextKey() {
+            return toKey(mix(seed + 0x9e3779b97f4a7c15L * (++ordinal) ^ 0x5851f42d4c957f2dL));
+        }
+    }
+}
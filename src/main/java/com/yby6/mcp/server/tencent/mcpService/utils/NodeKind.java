@@ -0,0 +1,89 @@
+package com.yby6.mcp.server.tencent.mcpService.utils;
+
+import org.commonmark.node.*;
+
+/**
+ * AST节点的处理方式
+ * <p>
+ * 每个节点类只在首次出现时按instanceof顺序计算一次，之后查表获取，
+ * 转换时对枚举switch分发，不再逐个判断节点类型。子类与父类的处理方式一致。
+ *
+ * @author yby6
+ * @since 2025/05/25
+ */
+enum NodeKind {
+    PARAGRAPH,
+    HEADING,
+    FENCED_CODE_BLOCK,
+    BLOCK_QUOTE,
+    IMAGE,
+    TEXT,
+    CODE,
+    EMPHASIS,
+    STRONG_EMPHASIS,
+    LINK,
+    SOFT_LINE_BREAK,
+    HARD_LINE_BREAK,
+    /**
+     * 不生成节点，只处理子节点
+     */
+    CHILDREN;
+
+    /**
+     * 节点类 -> 处理方式
+     */
+    private static final ClassValue<NodeKind> KINDS = new ClassValue<>() {
+        @Override
+        protected NodeKind computeValue(Class<?> type) {
+            return compute(type);
+        }
+    };
+
+    /**
+     * 获取节点的处理方式
+     *
+     * @param node AST节点
+     * @return 处理方式
+     */
+    static NodeKind of(Node node) {
+        return KINDS.get(node.getClass());
+    }
+
+    /**
+     * 是否为行内节点，行内节点由{@link InlineContentWalker}处理
+     * <p>
+     * 图片既可以出现在行内也会生成独立节点，不计入行内节点。
+     */
+    boolean isInline() {
+        return this.ordinal() >= TEXT.ordinal() && this != CHILDREN;
+    }
+
+    private static NodeKind compute(Class<?> type) {
+        if (Paragraph.class.isAssignableFrom(type)) {
+            return PARAGRAPH;
+        } else if (Text.class.isAssignableFrom(type)) {
+            return TEXT;
+        } else if (Heading.class.isAssignableFrom(type)) {
+            return HEADING;
+        } else if (FencedCodeBlock.class.isAssignableFrom(type)) {
+            return FENCED_CODE_BLOCK;
+        } else if (BlockQuote.class.isAssignableFrom(type)) {
+            return BLOCK_QUOTE;
+        } else if (Image.class.isAssignableFrom(type)) {
+            return IMAGE;
+        } else if (Code.class.isAssignableFrom(type)) {
+            return CODE;
+        } else if (Emphasis.class.isAssignableFrom(type)) {
+            return EMPHASIS;
+        } else if (StrongEmphasis.class.isAssignableFrom(type)) {
+            return STRONG_EMPHASIS;
+        } else if (Link.class.isAssignableFrom(type)) {
+            return LINK;
+        } else if (SoftLineBreak.class.isAssignableFrom(type)) {
+            return SOFT_LINE_BREAK;
+        } else if (HardLineBreak.class.isAssignableFrom(type)) {
+            return HARD_LINE_BREAK;
+        }
+        return CHILDREN;
+    }
+}
@@ -0,0 +1,169 @@
+package com.yby6.mcp.server.tencent.mcpService.utils;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.commonmark.node.Node;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * 并行块转换
+ * <p>
+ * 在顶层块边界切分已解析的文档，使用{@link ForkJoinPool}并行转换各段，
+ * 再按原顺序把各段片段拼回同一个doc。
+ * <p>
+ * 块摘要与出现次数在切分前顺序计算，每段使用独立的ID生成器，
+ * 因此确定性ID与增量缓存在并行模式下的输出与顺序转换一致。
+ *
+ * @author yby6
+ * @since 2025/05/25
+ */
+final class ParallelBlockConverter {
+
+    /**
+     * 每个并行任务至少处理的块数
+     */
+    private static final int MIN_BLOCKS_PER_TASK = 8;
+
+    private final Node[] blocks;
+    private final long[] hashes;
+    private final int[] occurrences;
+    private final ConvertOptions options;
+    private final ImageSizes images;
+
+    private ParallelBlockConverter(Node document, ConvertOptions options, ImageSizes images, boolean withHashes) {
+        List<Node> list = new ArrayList<>();
+        for (Node block = document.getFirstChild(); block != null; block = block.getNext()) {
+            list.add(block);
+        }
+        this.blocks = list.toArray(new Node[0]);
+        this.options = options;
+        this.images = images;
+        if (withHashes) {
+            hashes = new long[blocks.length];
+            occurrences = new int[blocks.length];
+            Map<Long, Integer> seen = new HashMap<>();
+            for (int i = 0; i < blocks.length; i++) {
+                hashes[i] = BlockHasher.hash(blocks[i]);
+                occurrences[i] = seen.merge(hashes[i], 1, Integer::sum) - 1;
+            }
+        } else {
+            hashes = null;
+            occurrences = null;
+        }
+    }
+
+    /**
+     * 并行转换文档并写出
+     *
+     * @param document 解析后的Markdown文档
+     * @param gen      JSON生成器
+     * @param options  转换选项
+     * @param images   图片尺寸
+     * @throws IOException 写出失败时抛出
+     */
+    static void write(Node document, JsonGenerator gen, ConvertOptions options, ImageSizes images) throws IOException {
+        boolean withHashes = options.isIncremental() || options.getIdStrategy().get().usesBlockHash();
+        ParallelBlockConverter converter = new ParallelBlockConverter(document, options, images, withHashes);
+
+        ForkJoinPool pool = options.getForkJoinPool() != null ? options.getForkJoinPool() : ForkJoinPool.commonPool();
+        int chunk = Math.max(MIN_BLOCKS_PER_TASK, converter.blocks.length / (pool.getParallelism() * 4) + 1);
+        List<String> fragments = pool.invoke(converter.new ChunkTask(0, converter.blocks.length, chunk));
+
+        gen.writeStartObject();
+        gen.writeStringField("type", "doc");
+        gen.writeArrayFieldStart("content");
+        for (String fragment : fragments) {
+            if (!fragment.isEmpty()) {
+                gen.writeRawValue(fragment);
+            }
+        }
+        gen.writeEndArray();
+        gen.writeEndObject();
+    }
+
+    /**
+     * 顺序转换[from, to)范围内的块
+     *
+     * @return 逗号分隔的JSON片段
+     */
+    private String render(int from, int to) {
+        NodeIdGenerator ids = options.getIdStrategy().get();
+        if (options.isIncremental()) {
+            ProseMirrorFragmentCache cache = options.fragmentCacheOrShared();
+            String outputKey = options.outputKey();
+            StringBuilder joined = new StringBuilder();
+            for (int i = from; i < to; i++) {
+                int index = i;
+                long cacheHash = images.cacheHash(hashes[i], blocks[i]);
+                byte[] digest = images.cacheDigest(blocks[i]);
+                String fragment = cache.get(outputKey, cacheHash, occurrences[i], digest, () -> {
+                    ids.beginBlock(hashes[index], occurrences[index]);
+                    return ProseMirrorStreamWriter.renderFragment(blocks[index], ids, images);
+                });
+                if (!fragment.isEmpty()) {
+                    if (joined.length() > 0) {
+                        joined.append(',');
+                    }
+                    joined.append(fragment);
+                }
+            }
+            return joined.toString();
+        }
+
+        StringWriter writer = new StringWriter(256);
+        try (JsonGenerator chunkGen = MarkdownToProseMirrorConverter.jsonFactory().createGenerator(writer)) {
+            ProseMirrorStreamWriter streamWriter = new ProseMirrorStreamWriter(chunkGen, ids, images);
+            chunkGen.writeStartArray();
+            for (int i = from; i < to; i++) {
+                if (hashes != null) {
+                    ids.beginBlock(hashes[i], occurrences[i]);
+                }
+                streamWriter.writeNode(blocks[i]);
+            }
+            chunkGen.writeEndArray();
+        } catch (IOException e) {
+            throw new IllegalStateException("块转换失败", e);
+        }
+        StringBuffer array = writer.getBuffer();
+        return array.substring(1, array.length() - 1);
+    }
+
+    /**
+     * 二分切分块范围，叶子任务返回单个片段，合并时保持原顺序
+     */
+    private final class ChunkTask extends RecursiveTask<List<String>> {
+
+        private final int from;
+        private final int to;
+        private final int chunk;
+
+        ChunkTask(int from, int to, int chunk) {
+            this.from = from;
+            this.to = to;
+            this.chunk = chunk;
+        }
+
+        @Override
+        protected List<String> compute() {
+            if (to - from <= chunk) {
+                List<String> single = new ArrayList<>(1);
+                single.add(render(from, to));
+                return single;
+            }
+            int middle = (from + to) >>> 1;
+            ChunkTask left = new ChunkTask(from, middle, chunk);
+            left.fork();
+            List<String> right = new ChunkTask(middle, to, chunk).compute();
+            List<String> result = left.join();
+            result.addAll(right);
+            return result;
+        }
+    }
+}
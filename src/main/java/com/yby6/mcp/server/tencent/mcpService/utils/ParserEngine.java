@@ -0,0 +1,56 @@
+package com.yby6.mcp.server.tencent.mcpService.utils;
+
+import org.commonmark.node.Node;
+import org.commonmark.parser.Parser;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * 内置的Markdown解析引擎
+ *
+ * @author yby6
+ * @since 2025/05/25
+ */
+public enum ParserEngine implements MarkdownParserEngine {
+
+    /**
+     * commonmark-java（默认），只支持CommonMark规范的语法
+     */
+    COMMONMARK {
+        @Override
+        public Node parse(String markdown) {
+            return CommonmarkHolder.PARSER.parse(markdown);
+        }
+
+        @Override
+        public Node parse(Reader reader) throws IOException {
+            return CommonmarkHolder.PARSER.parseReader(reader);
+        }
+    },
+
+    /**
+     * flexmark-java，额外支持GFM表格与任务列表
+     * <p>
+     * 解析结果由{@link FlexmarkAstAdapter}转换为commonmark的AST：
+     * 表格的每一行输出为一个段落，单元格之间以" | "分隔；任务列表项以☐/☑开头。
+     */
+    FLEXMARK {
+        @Override
+        public Node parse(String markdown) {
+            return FlexmarkAstAdapter.parse(markdown);
+        }
+
+        @Override
+        public Node parse(Reader reader) throws IOException {
+            return FlexmarkAstAdapter.parse(reader);
+        }
+    };
+
+    /**
+     * 延迟创建commonmark解析器，只使用flexmark时不加载
+     */
+    private static final class CommonmarkHolder {
+        private static final Parser PARSER = Parser.builder().build();
+    }
+}
@@ -0,0 +1,146 @@
+package com.yby6.mcp.server.tencent.mcpService.utils;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * ProseMirror片段缓存
+ * <p>
+ * 增量转换时以顶层块为单位缓存转换结果。键由块的结构摘要、相同摘要在文档中的出现次数
+ * 以及影响输出的转换选项组成，值为该块生成的ProseMirror节点（逗号分隔的JSON片段）。
+ * 缓存是进程内共享的，64位的结构摘要可能冲突，因此条目同时保存块内容的SHA-256，
+ * 命中时摘要不一致视为未命中并重新转换，不会返回其他块的输出。
+ * 文章修改后重新发布时，未改动的块直接复用缓存，只有改动过的块重新转换。
+ * <p>
+ * 按片段总字符数限制容量，超出后按LRU顺序淘汰。线程安全。
+ *
+ * @author yby6
+ * @since 2025/05/25
+ */
+public class ProseMirrorFragmentCache {
+
+    /**
+     * 默认容量：约800万字符
+     */
+    public static final long DEFAULT_MAX_CHARS = 8_000_000L;
+
+    /**
+     * 未在选项中指定缓存时使用的共享实例
+     */
+    private static final ProseMirrorFragmentCache SHARED = new ProseMirrorFragmentCache(DEFAULT_MAX_CHARS);
+
+    private final long maxChars;
+    private final Map<Key, Fragment> fragments = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalChars;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * 创建缓存
+     *
+     * @param maxChars 缓存片段的总字符数上限
+     */
+    public ProseMirrorFragmentCache(long maxChars) {
+        this.maxChars = maxChars;
+    }
+
+    /**
+     * 获取共享实例
+     *
+     * @return 默认容量的共享缓存
+     */
+    public static ProseMirrorFragmentCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * 获取块的片段，未命中时调用renderer生成并写入缓存
+     *
+     * @param outputKey  影响输出的转换选项，见{@link ConvertOptions#outputKey()}
+     * @param blockHash  块的结构摘要
+     * @param occurrence 相同摘要的块在文档中已出现的次数
+     * @param digest     块内容的SHA-256，命中时与缓存条目比较
+     * @param renderer   片段生成函数
+     * @return 逗号分隔的ProseMirror节点JSON，块没有输出时为空串
+     */
+    public String get(String outputKey, long blockHash, int occurrence, byte[] digest, Supplier<String> renderer) {
+        Key key = new Key(outputKey, blockHash, occurrence);
+        synchronized (this) {
+            Fragment cached = fragments.get(key);
+            if (cached != null && Arrays.equals(cached.digest(), digest)) {
+                hits.increment();
+                return cached.json();
+            }
+        }
+        misses.increment();
+        String json = renderer.get();
+        put(key, new Fragment(digest, json));
+        return json;
+    }
+
+    private synchronized void put(Key key, Fragment fragment) {
+        if (fragment.json().length() > maxChars) {
+            return;
+        }
+        Fragment previous = fragments.put(key, fragment);
+        if (previous != null) {
+            totalChars -= previous.json().length();
+        }
+        totalChars += fragment.json().length();
+
+        Iterator<Fragment> eldest = fragments.values().iterator();
+        while (totalChars > maxChars && eldest.hasNext()) {
+            totalChars -= eldest.next().json().length();
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    /**
+     * 命中次数
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * 未命中次数
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * 淘汰次数
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * 当前缓存的片段数
+     */
+    public synchronized int size() {
+        return fragments.size();
+    }
+
+    /**
+     * 清空缓存，计数器不清零
+     */
+    public synchronized void clear() {
+        fragments.clear();
+        totalChars = 0;
+    }
+
+    private record Key(String outputKey, long blockHash, int occurrence) {
+    }
+
+    private record Fragment(byte[] digest, String json) {
+    }
+}
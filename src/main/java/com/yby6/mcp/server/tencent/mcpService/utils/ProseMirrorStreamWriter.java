@@ -0,0 +1,398 @@
+package com.yby6.mcp.server.tencent.mcpService.utils;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import org.commonmark.node.*;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * ProseMirror流式写出器
+ * <p>
+ * 单次遍历commonmark AST，直接将ProseMirror JSON写入{@link JsonGenerator}，
+ * 不再构建中间的ObjectNode/ArrayNode树。
+ * <p>
+ * 输出的节点结构、字段顺序与{@link MarkdownToProseMirrorConverter}中基于树的参考实现完全一致，
+ * 两种模式可以直接比对输出。
+ * <p>
+ * 性能相关：
+ * - 节点按类型查表分发，每个节点类只在首次出现时计算一次对应的{@link NodeKind}，
+ *   热循环中是对枚举的switch，不依赖instanceof链或多态调用
+ * - 段落与标题的行内内容由{@link InlineContentWalker}处理，相邻同mark文本合并，marks数组按组合预先拼好
+ * - 字段名与常量字符串预先序列化为{@link SerializedString}，写出时不再重复转义
+ * - 每类节点attrs中连续的常量字段预先拼成JSON片段，以原始内容写出，只有id、level等动态字段逐个写出
+ *
+ * @author yby6
+ * @since 2025/05/25
+ */
+final class ProseMirrorStreamWriter {
+
+    private static final SerializedString TYPE = new SerializedString("type");
+    private static final SerializedString ATTRS = new SerializedString("attrs");
+    private static final SerializedString CONTENT = new SerializedString("content");
+    private static final SerializedString TEXT = new SerializedString("text");
+    private static final SerializedString MARKS = new SerializedString("marks");
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString LEVEL = new SerializedString("level");
+    private static final SerializedString LANGUAGE = new SerializedString("language");
+    private static final SerializedString KEY = new SerializedString("key");
+    private static final SerializedString LANGUAGE_BY_AI = new SerializedString("languageByAi");
+    private static final SerializedString SRC = new SerializedString("src");
+    private static final SerializedString EXTENSION = new SerializedString("extension");
+    private static final SerializedString WIDTH = new SerializedString("width");
+    private static final SerializedString ASPECT_RATIO = new SerializedString("aspectRatio");
+    private static final SerializedString ALT = new SerializedString("alt");
+    private static final SerializedString HREF = new SerializedString("href");
+
+    private static final SerializedString DOC_TYPE = new SerializedString("doc");
+    private static final SerializedString PARAGRAPH_TYPE = new SerializedString("paragraph");
+    private static final SerializedString TEXT_TYPE = new SerializedString("text");
+    private static final SerializedString HEADING_TYPE = new SerializedString("heading");
+    private static final SerializedString BLOCKQUOTE_TYPE = new SerializedString("blockquote");
+    private static final SerializedString CODE_BLOCK_TYPE = new SerializedString("codeBlock");
+    private static final SerializedString HIGHLIGHT_BLOCK_TYPE = new SerializedString("highlightBlock");
+    private static final SerializedString IMAGE_TYPE = new SerializedString("image");
+    private static final SerializedString LINK_TYPE = new SerializedString("link");
+
+    /*
+     * attrs中紧跟在动态字段之后的常量字段，以逗号开头、不含结尾的右括号
+     * 生成器只记录了动态字段，之后写出的字段仍会正确补上逗号
+     */
+    private static final SerializedString PARAGRAPH_ATTRS = new SerializedString(
+            ",\"textAlign\":\"inherit\",\"indent\":0,\"color\":null,\"background\":null,\"isHoverDragHandle\":false");
+    private static final SerializedString HEADING_ATTRS = new SerializedString(
+            ",\"textAlign\":\"inherit\",\"indent\":0");
+    private static final SerializedString HOVER_DRAG_HANDLE_ATTRS = new SerializedString(
+            ",\"isHoverDragHandle\":false");
+    private static final SerializedString BLOCKQUOTE_ATTRS = new SerializedString(
+            ",\"textAlign\":\"inherit\",\"isHoverDragHandle\":false");
+    private static final SerializedString CODE_BLOCK_ATTRS = new SerializedString(
+            ",\"theme\":\"atom-one-dark\",\"runtimes\":0,\"isHoverDragHandle\":false");
+    private static final SerializedString HIGHLIGHT_BLOCK_ATTRS = new SerializedString(
+            ",\"color\":\"\",\"background\":\"rgba(194, 239, 214, 1)\",\"border\":\"rgba(41, 199, 112, 1)\""
+                    + ",\"isHoverDragHandle\":false");
+    private static final SerializedString IMAGE_ALIGN_ATTRS = new SerializedString(
+            ",\"align\":\"center\"");
+    private static final SerializedString IMAGE_ATTRS = new SerializedString(
+            ",\"showAlt\":false,\"href\":\"\",\"boxShadow\":\"\"");
+    private static final SerializedString IMAGE_STATUS_ATTRS = new SerializedString(
+            ",\"status\":\"success\",\"showText\":true,\"isPercentage\":false,\"percentage\":0"
+                    + ",\"isHoverDragHandle\":false");
+    private static final SerializedString LINK_ATTRS = new SerializedString(
+            ",\"target\":\"_blank\",\"rel\":\"noopener noreferrer nofollow\",\"class\":null");
+    private static final SerializedString HARD_BREAK = new SerializedString("{\"type\":\"hardBreak\"}");
+
+    /*
+     * 按{@link InlineMarks#flags()}预先拼好的marks：
+     * MARK_ARRAYS为不含链接时的完整数组，MARK_PREFIXES为链接mark之前的部分（以逗号结尾）
+     */
+    private static final SerializedString[] MARK_ARRAYS = new SerializedString[8];
+    private static final SerializedString[] MARK_PREFIXES = new SerializedString[8];
+
+    static {
+        for (int flags = 0; flags < MARK_ARRAYS.length; flags++) {
+            StringBuilder prefix = new StringBuilder();
+            if ((flags & InlineMarks.BOLD) != 0) {
+                prefix.append("{\"type\":\"bold\"},");
+            }
+            if ((flags & InlineMarks.ITALIC) != 0) {
+                prefix.append("{\"type\":\"italic\"},");
+            }
+            if ((flags & InlineMarks.CODE) != 0) {
+                prefix.append("{\"type\":\"code\"},");
+            }
+            MARK_PREFIXES[flags] = new SerializedString(prefix.toString());
+            MARK_ARRAYS[flags] = new SerializedString(
+                    "[" + prefix.substring(0, Math.max(0, prefix.length() - 1)) + "]");
+        }
+    }
+
+    /**
+     * JSON生成器，由调用方负责创建与关闭
+     */
+    private final JsonGenerator gen;
+
+    /**
+     * 节点ID生成器
+     */
+    private final NodeIdGenerator ids;
+
+    /**
+     * 图片尺寸
+     */
+    private final ImageSizes images;
+
+    /**
+     * 行内内容写出器
+     */
+    private final InlineWriter inline = new InlineWriter();
+
+    ProseMirrorStreamWriter(JsonGenerator gen, NodeIdGenerator ids, ImageSizes images) {
+        this.gen = gen;
+        this.ids = ids;
+        this.images = images;
+    }
+
+    /**
+     * 写出完整的ProseMirror文档
+     *
+     * @param document 解析后的Markdown文档
+     * @throws IOException 写出失败时抛出
+     */
+    void writeDocument(Node document) throws IOException {
+        gen.writeStartObject();
+        gen.writeFieldName(TYPE);
+        gen.writeString(DOC_TYPE);
+        gen.writeFieldName(CONTENT);
+        gen.writeStartArray();
+        Map<Long, Integer> occurrences = new HashMap<>();
+        for (Node block = document.getFirstChild(); block != null; block = block.getNext()) {
+            MarkdownToProseMirrorConverter.beginBlock(ids, block, occurrences);
+            writeNode(block);
+        }
+        gen.writeEndArray();
+        gen.writeEndObject();
+    }
+
+    /**
+     * 将单个顶层块渲染为JSON片段
+     * <p>
+     * 片段为该块生成的ProseMirror节点，以逗号分隔、不含外层方括号，
+     * 可以通过{@link JsonGenerator#writeRawValue(String)}直接拼入文档的content数组。
+     *
+     * @param block  顶层块
+     * @param ids    节点ID生成器，调用方负责在此之前调用beginBlock
+     * @param images 图片尺寸
+     * @return JSON片段，块没有输出时为空串
+     */
+    static String renderFragment(Node block, NodeIdGenerator ids, ImageSizes images) {
+        StringWriter writer = new StringWriter(256);
+        try (JsonGenerator fragmentGen = MarkdownToProseMirrorConverter.jsonFactory().createGenerator(writer)) {
+            fragmentGen.writeStartArray();
+            new ProseMirrorStreamWriter(fragmentGen, ids, images).writeNode(block);
+            fragmentGen.writeEndArray();
+        } catch (IOException e) {
+            throw new IllegalStateException("块转换失败", e);
+        }
+        StringBuffer array = writer.getBuffer();
+        return array.substring(1, array.length() - 1);
+    }
+
+    /**
+     * 写出单个AST节点
+     * <p>
+     * 与{@code MarkdownToProseMirrorConverter#processNode}保持相同的处理语义：
+     * 段落、标题、引用块生成容器节点，代码块和图片生成叶子节点，行内节点按mark合并为文本节点，
+     * 其余节点递归处理子节点。
+     *
+     * @param node 要写出的AST节点
+     * @throws IOException 写出失败时抛出
+     */
+    void writeNode(Node node) throws IOException {
+        NodeKind kind = NodeKind.of(node);
+        switch (kind) {
+            case PARAGRAPH:
+                writeParagraph(node);
+                break;
+            case HEADING:
+                writeHeading((Heading) node);
+                break;
+            case FENCED_CODE_BLOCK:
+                FencedCodeBlock codeBlock = (FencedCodeBlock) node;
+                if ("高亮".equals(codeBlock.getInfo())) {
+                    writeHighlightBlock(codeBlock);
+                } else {
+                    writeCodeBlock(codeBlock);
+                }
+                break;
+            case BLOCK_QUOTE:
+                writeBlockQuote(node);
+                break;
+            case IMAGE:
+                writeImage((Image) node);
+                break;
+            default:
+                if (kind.isInline()) {
+                    inline.walk(node);
+                } else {
+                    // 列表等其他节点：直接处理子节点
+                    writeChildren(node);
+                }
+        }
+    }
+
+    /**
+     * 写出节点开头：{"type":...,"attrs":{"id":...
+     */
+    private void startNode(SerializedString type) throws IOException {
+        gen.writeStartObject();
+        gen.writeFieldName(TYPE);
+        gen.writeString(type);
+        gen.writeFieldName(ATTRS);
+        gen.writeStartObject();
+        gen.writeFieldName(ID);
+        gen.writeString(ids.nextId());
+    }
+
+    private void writeParagraph(Node node) throws IOException {
+        startNode(PARAGRAPH_TYPE);
+        gen.writeRaw(PARAGRAPH_ATTRS);
+        gen.writeEndObject();
+        writeInlineContent(node);
+        gen.writeEndObject();
+    }
+
+    private void writeHeading(Heading heading) throws IOException {
+        startNode(HEADING_TYPE);
+        gen.writeRaw(HEADING_ATTRS);
+        gen.writeFieldName(LEVEL);
+        gen.writeNumber(heading.getLevel());
+        gen.writeRaw(HOVER_DRAG_HANDLE_ATTRS);
+        gen.writeEndObject();
+        writeInlineContent(heading);
+        gen.writeEndObject();
+    }
+
+    private void writeBlockQuote(Node node) throws IOException {
+        startNode(BLOCKQUOTE_TYPE);
+        gen.writeRaw(BLOCKQUOTE_ATTRS);
+        gen.writeEndObject();
+        writeContent(node);
+        gen.writeEndObject();
+    }
+
+    /**
+     * 写出"content"数组及其中的子节点
+     */
+    private void writeContent(Node node) throws IOException {
+        gen.writeFieldName(CONTENT);
+        gen.writeStartArray();
+        writeChildren(node);
+        gen.writeEndArray();
+    }
+
+    /**
+     * 写出"content"数组及其中合并后的行内内容
+     */
+    private void writeInlineContent(Node node) throws IOException {
+        gen.writeFieldName(CONTENT);
+        gen.writeStartArray();
+        inline.walkChildren(node);
+        gen.writeEndArray();
+    }
+
+    private void writeChildren(Node node) throws IOException {
+        Node child = node.getFirstChild();
+        while (child != null) {
+            writeNode(child);
+            child = child.getNext();
+        }
+    }
+
+    private void writeHighlightBlock(FencedCodeBlock codeBlock) throws IOException {
+        startNode(HIGHLIGHT_BLOCK_TYPE);
+        gen.writeRaw(HIGHLIGHT_BLOCK_ATTRS);
+        gen.writeEndObject();
+        gen.writeFieldName(CONTENT);
+        gen.writeStartArray();
+        writePlainText(codeBlock.getLiteral().trim());
+        gen.writeEndArray();
+        gen.writeEndObject();
+    }
+
+    private void writeCodeBlock(FencedCodeBlock codeBlock) throws IOException {
+        startNode(CODE_BLOCK_TYPE);
+        gen.writeFieldName(LANGUAGE);
+        gen.writeString(codeBlock.getInfo());
+        gen.writeRaw(CODE_BLOCK_ATTRS);
+        gen.writeFieldName(KEY);
+        gen.writeString(ids.nextKey());
+        gen.writeFieldName(LANGUAGE_BY_AI);
+        gen.writeString(codeBlock.getInfo());
+        gen.writeEndObject();
+        gen.writeFieldName(CONTENT);
+        gen.writeStartArray();
+        writePlainText(codeBlock.getLiteral());
+        gen.writeEndArray();
+        gen.writeEndObject();
+    }
+
+    private void writeImage(Image image) throws IOException {
+        String imageUrl = image.getDestination();
+
+        startNode(IMAGE_TYPE);
+        gen.writeFieldName(SRC);
+        gen.writeString(imageUrl);
+        gen.writeFieldName(EXTENSION);
+        gen.writeString(MarkdownToProseMirrorConverter.getFileExtension(imageUrl));
+        gen.writeRaw(IMAGE_ALIGN_ATTRS);
+        gen.writeFieldName(ALT);
+        gen.writeString(image.getTitle() != null ? image.getTitle() : "");
+        gen.writeRaw(IMAGE_ATTRS);
+        gen.writeFieldName(WIDTH);
+        gen.writeNumber(images.width(imageUrl));
+        gen.writeFieldName(ASPECT_RATIO);
+        gen.writeString(images.aspectRatio(imageUrl));
+        gen.writeRaw(IMAGE_STATUS_ATTRS);
+        gen.writeEndObject();
+        gen.writeEndObject();
+    }
+
+    private void writePlainText(String text) throws IOException {
+        gen.writeStartObject();
+        gen.writeFieldName(TYPE);
+        gen.writeString(TEXT_TYPE);
+        gen.writeFieldName(TEXT);
+        gen.writeString(text);
+        gen.writeEndObject();
+    }
+
+    /**
+     * 流式写出行内内容
+     */
+    private final class InlineWriter extends InlineContentWalker {
+
+        @Override
+        protected void text(String text, InlineMarks marks) throws IOException {
+            gen.writeStartObject();
+            gen.writeFieldName(TYPE);
+            gen.writeString(TEXT_TYPE);
+            gen.writeFieldName(TEXT);
+            gen.writeString(text);
+            if (!marks.isEmpty()) {
+                gen.writeFieldName(MARKS);
+                if (marks.href() == null) {
+                    gen.writeRawValue(MARK_ARRAYS[marks.flags()]);
+                } else {
+                    gen.writeStartArray();
+                    gen.writeRaw(MARK_PREFIXES[marks.flags()]);
+                    gen.writeStartObject();
+                    gen.writeFieldName(TYPE);
+                    gen.writeString(LINK_TYPE);
+                    gen.writeFieldName(ATTRS);
+                    gen.writeStartObject();
+                    gen.writeFieldName(HREF);
+                    gen.writeString(marks.href());
+                    gen.writeRaw(LINK_ATTRS);
+                    gen.writeEndObject();
+                    gen.writeEndObject();
+                    gen.writeEndArray();
+                }
+            }
+            gen.writeEndObject();
+        }
+
+        @Override
+        protected void hardBreak() throws IOException {
+            gen.writeRawValue(HARD_BREAK);
+        }
+
+        @Override
+        protected void image(Image image) throws IOException {
+            writeImage(image);
+        }
+    }
+}
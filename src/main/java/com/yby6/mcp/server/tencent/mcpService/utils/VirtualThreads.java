@@ -0,0 +1,91 @@
+package com.yby6.mcp.server.tencent.mcpService.utils;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 虚拟线程工具类
+ * <p>
+ * 项目以Java 17为编译基线，虚拟线程API（Java 21）通过反射访问：
+ * 在Java 21及以上运行时可用，低版本运行时{@link #isSupported()}返回false。
+ *
+ * @author yby6
+ * @since 2025/05/25
+ */
+public final class VirtualThreads {
+
+    /**
+     * Executors.newThreadPerTaskExecutor(ThreadFactory)，运行时不支持时为null
+     */
+    private static final Method NEW_THREAD_PER_TASK_EXECUTOR;
+
+    /**
+     * Thread.ofVirtual()
+     */
+    private static final Method OF_VIRTUAL;
+
+    /**
+     * Thread.Builder#name(String, long)
+     */
+    private static final Method BUILDER_NAME;
+
+    /**
+     * Thread.Builder#factory()
+     */
+    private static final Method BUILDER_FACTORY;
+
+    static {
+        Method newExecutor = null;
+        Method ofVirtual = null;
+        Method name = null;
+        Method factory = null;
+        try {
+            Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            newExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            name = builder.getMethod("name", String.class, long.class);
+            factory = builder.getMethod("factory");
+        } catch (ReflectiveOperationException e) {
+            newExecutor = null;
+        }
+        NEW_THREAD_PER_TASK_EXECUTOR = newExecutor;
+        OF_VIRTUAL = ofVirtual;
+        BUILDER_NAME = name;
+        BUILDER_FACTORY = factory;
+    }
+
+    private VirtualThreads() {
+        // 私有构造函数，防止实例化
+    }
+
+    /**
+     * 当前运行时是否支持虚拟线程
+     *
+     * @return Java 21及以上返回true
+     */
+    public static boolean isSupported() {
+        return NEW_THREAD_PER_TASK_EXECUTOR != null;
+    }
+
+    /**
+     * 创建每个任务一个虚拟线程的执行器
+     *
+     * @param namePrefix 线程名前缀，线程名为前缀加递增序号
+     * @return 虚拟线程执行器
+     * @throws IllegalStateException 当前运行时不支持虚拟线程
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String namePrefix) {
+        if (!isSupported()) {
+            throw new IllegalStateException("虚拟线程需要 Java 21 及以上版本，当前版本: " + Runtime.version());
+        }
+        try {
+            Object builder = BUILDER_NAME.invoke(OF_VIRTUAL.invoke(null), namePrefix, 0L);
+            ThreadFactory factory = (ThreadFactory) BUILDER_FACTORY.invoke(builder);
+            return (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(null, factory);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("创建虚拟线程执行器失败", e);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.yby6.mcp.server.tencent.api;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 多账号池测试
+ *
+ * @author yangbuyiya
+ * Create By 2025/05/25
+ */
+public class AccountPoolTest {
+
+    private final AtomicLong now = new AtomicLong(1L);
+
+    @Test
+    public void leastInFlightPrefersIdleAccounts() {
+        AccountPool pool = pool(AccountPool.Selection.LEAST_IN_FLIGHT,
+                new AccountPool.AccountSpec("a", "ca", null, 1),
+                new AccountPool.AccountSpec("b", "cb", null, 2));
+        AccountPool.Lease first = pool.acquire();
+        AccountPool.Lease second = pool.acquire();
+        AccountPool.Lease third = pool.acquire();
+        // b权重为2，进行中请求按权重折算后a=1、b=1，下一次两者相同
+        List<String> names = List.of(first.name(), second.name(), third.name());
+        assertEquals(1, names.stream().filter("a"::equals).count(), names.toString());
+        assertEquals(2, names.stream().filter("b"::equals).count(), names.toString());
+
+        first.release(AccountPool.Outcome.SUCCESS);
+        second.release(AccountPool.Outcome.SUCCESS);
+        third.release(AccountPool.Outcome.SUCCESS);
+        // 空闲账号优先
+        AccountPool.Lease busy = pool.acquire();
+        assertFalse(pool.acquire().name().equals(busy.name()));
+    }
+
+    @Test
+    public void roundRobinFollowsWeights() {
+        AccountPool pool = pool(AccountPool.Selection.ROUND_ROBIN,
+                new AccountPool.AccountSpec("a", "ca", null, 2),
+                new AccountPool.AccountSpec("b", "cb", null, 1));
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            AccountPool.Lease lease = pool.acquire();
+            names.add(lease.name());
+            lease.release(AccountPool.Outcome.SUCCESS);
+        }
+        assertEquals(List.of("a", "b", "a", "a", "b", "a"), names);
+    }
+
+    @Test
+    public void authFailureSkipsAccountUntilCooldownOrRotation() {
+        AccountPool pool = pool(AccountPool.Selection.ROUND_ROBIN,
+                new AccountPool.AccountSpec("a", "ca", null, 1),
+                new AccountPool.AccountSpec("b", "cb", null, 1));
+        AccountPool.Lease lease = pool.acquire();
+        assertEquals("a", lease.name());
+        lease.release(AccountPool.Outcome.AUTH_FAILURE);
+        assertFalse(pool.isHealthy("a"));
+        for (int i = 0; i < 3; i++) {
+            AccountPool.Lease next = pool.acquire();
+            assertEquals("b", next.name());
+            next.release(AccountPool.Outcome.SUCCESS);
+        }
+        pool.acquire().release(AccountPool.Outcome.AUTH_FAILURE);
+        assertThrows(IllegalStateException.class, pool::acquire);
+
+        // 冷却结束后重新尝试
+        now.addAndGet(TimeUnit.MINUTES.toNanos(10));
+        assertTrue(pool.isHealthy("a"));
+
+        // 替换Cookie后立即可用，使用旧Cookie的请求失败不再标记失效
+        AccountPool.Lease stale = pool.acquire();
+        pool.rotate(stale.name(), "new");
+        stale.release(AccountPool.Outcome.AUTH_FAILURE);
+        assertTrue(pool.isHealthy(stale.name()));
+        assertThrows(IllegalArgumentException.class, () -> pool.rotate("missing", "c"));
+    }
+
+    @Test
+    public void reloadsCookieFile(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("cookie");
+        Files.writeString(file, "uin=1\n");
+        AccountPool pool = pool(AccountPool.Selection.LEAST_IN_FLIGHT,
+                new AccountPool.AccountSpec("a", null, file, 1));
+        AccountPool.Lease lease = pool.acquire();
+        assertEquals("uin=1", lease.cookie());
+        lease.release(AccountPool.Outcome.AUTH_FAILURE);
+        assertThrows(IllegalStateException.class, pool::acquire);
+
+        Files.writeString(file, "uin=2");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 1000));
+        now.addAndGet(TimeUnit.SECONDS.toNanos(5));
+        assertEquals("uin=2", pool.primaryCookie());
+        assertEquals("uin=2", pool.acquire().cookie());
+    }
+
+    private AccountPool pool(AccountPool.Selection selection, AccountPool.AccountSpec... specs) {
+        return new AccountPool(List.of(specs), selection, Duration.ofMinutes(10), new SimpleMeterRegistry(), now::get);
+    }
+}
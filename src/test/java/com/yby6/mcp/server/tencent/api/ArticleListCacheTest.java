@@ -0,0 +1,230 @@
+package com.yby6.mcp.server.tencent.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import com.yby6.mcp.server.tencent.api.dto.ArticleListResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import retrofit2.Retrofit;
+import retrofit2.converter.jackson.JacksonConverterFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 文章列表缓存测试
+ * <p>
+ * 使用本地HTTP服务模拟分页的文章列表接口：文章ID从total递减，每页的ETag包含内容版本，
+ * If-None-Match与当前ETag一致时返回304。
+ *
+ * @author yangbuyiya
+ * Create By 2025/05/25
+ */
+public class ArticleListCacheTest {
+
+    private static final String URL = "https://cloud.tencent.com/developer/api/creator/articleList";
+
+    private final AtomicLong now = new AtomicLong(1L);
+    private final AtomicInteger total = new AtomicInteger(50);
+    private final AtomicInteger version = new AtomicInteger(1);
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger notModified = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final AtomicBoolean failing = new AtomicBoolean();
+    private volatile CountDownLatch concurrentPages = new CountDownLatch(0);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ExecutorService serverExecutor;
+    private HttpServer server;
+    private ArticleListCache cache;
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/developer/api/creator/articleList", exchange -> {
+            requests.incrementAndGet();
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                concurrentPages.countDown();
+                concurrentPages.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            if (failing.get()) {
+                exchange.sendResponseHeaders(500, -1);
+                exchange.close();
+                return;
+            }
+            Map<String, Integer> query = new HashMap<>();
+            for (String pair : exchange.getRequestURI().getQuery().split("&")) {
+                String[] parts = pair.split("=");
+                query.put(parts[0], Integer.parseInt(parts[1]));
+            }
+            int pageNumber = query.get("pageNumber");
+            int pageSize = query.get("pageSize");
+            String etag = "\"v" + version.get() + "-" + total.get() + "-" + pageNumber + "\"";
+            if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                notModified.incrementAndGet();
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+            List<Map<String, Object>> list = new ArrayList<>();
+            for (int i = (pageNumber - 1) * pageSize; i < Math.min(pageNumber * pageSize, total.get()); i++) {
+                list.add(Map.of("articleId", total.get() - i, "title", "文章" + (total.get() - i) + "-v" + version.get(),
+                        "status", 2, "createTime", 1748188287L - i));
+            }
+            byte[] body = objectMapper.writeValueAsBytes(Map.of("total", total.get(), "list", list));
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.getResponseHeaders().add("ETag", etag);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.start();
+        int port = server.getAddress().getPort();
+
+        OkHttpClient client = new OkHttpClient.Builder()
+                .addInterceptor(chain -> {
+                    HttpUrl url = chain.request().url().newBuilder()
+                            .scheme("http").host("127.0.0.1").port(port).build();
+                    return chain.proceed(chain.request().newBuilder().url(url).build());
+                })
+                .build();
+        ITencentService tencentService = new Retrofit.Builder()
+                .baseUrl("http://127.0.0.1:" + port + "/")
+                .client(client)
+                .addConverterFactory(JacksonConverterFactory.create(objectMapper))
+                .build()
+                .create(ITencentService.class);
+        AccountPool accountPool = new AccountPool(List.of(new AccountPool.AccountSpec("default", "uin=test", null, 1)),
+                AccountPool.Selection.LEAST_IN_FLIGHT, Duration.ofMinutes(10), new SimpleMeterRegistry());
+        cache = new ArticleListCache(tencentService, URL, accountPool, 20, Duration.ofMinutes(5),
+                Duration.ofMinutes(1), 100, meterRegistry, now::get);
+    }
+
+    @AfterEach
+    public void stopServer() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    public void fetchesPagesConcurrentlyAndMergesInOrder() {
+        concurrentPages = new CountDownLatch(3);
+        List<ArticleListResponse.Article> articles = cache.list(45).join();
+
+        assertEquals(45, articles.size());
+        for (int i = 0; i < articles.size(); i++) {
+            assertEquals(50L - i, articles.get(i).getArticleId());
+        }
+        assertEquals(3, requests.get());
+        assertEquals(3, maxInFlight.get());
+
+        // 已知总数后不请求超出总数的页，不满一页即结束
+        assertEquals(50, cache.list(100).join().size());
+        assertEquals(3, requests.get());
+    }
+
+    @Test
+    public void repeatedCallsAreServedFromCacheAndRevalidated() throws Exception {
+        cache.list(20).join();
+        for (int i = 0; i < 10; i++) {
+            assertEquals(20, cache.list(20).join().size());
+        }
+        assertEquals(1, requests.get());
+        assertEquals(10, count("tencent.api.article_list.cache", "hit"));
+
+        // 进入刷新窗口后直接返回缓存，后台条件请求得到304
+        now.addAndGet(Duration.ofMinutes(4).plusSeconds(1).toNanos());
+        assertEquals(20, cache.list(20).join().size());
+        awaitFetches("not_modified", 1);
+        assertEquals(2, requests.get());
+
+        // 304刷新了有效期
+        now.addAndGet(Duration.ofMinutes(2).toNanos());
+        cache.list(20).join();
+        assertEquals(2, requests.get());
+
+        // 过期后等待条件请求，内容变化时返回新内容
+        version.incrementAndGet();
+        now.addAndGet(Duration.ofMinutes(10).toNanos());
+        assertEquals("文章50-v2", cache.list(20).join().get(0).getTitle());
+        assertEquals(3, requests.get());
+        assertEquals(1, notModified.get());
+    }
+
+    @Test
+    public void invalidateRevalidatesWithConditionalRequest() {
+        cache.list(20).join();
+        cache.invalidate();
+        assertEquals(20, cache.list(20).join().size());
+        assertEquals(2, requests.get());
+        assertEquals(1, notModified.get());
+
+        // 发布新文章后列表变化
+        total.incrementAndGet();
+        cache.invalidate();
+        assertEquals(51L, cache.list(20).join().get(0).getArticleId());
+        assertEquals(3, requests.get());
+    }
+
+    @Test
+    public void servesStalePageWhenRevalidationFails() {
+        cache.list(20).join();
+        failing.set(true);
+
+        // 失效后重新验证失败，返回已缓存的内容
+        cache.invalidate();
+        assertEquals(50L, cache.list(20).join().get(0).getArticleId());
+        assertEquals(1, count("tencent.api.article_list.cache", "stale"));
+
+        // 超过ttl后同样如此
+        now.addAndGet(Duration.ofMinutes(10).toNanos());
+        assertEquals(20, cache.list(20).join().size());
+        assertEquals(2, count("tencent.api.article_list.cache", "stale"));
+        assertEquals(3, requests.get());
+
+        // 恢复后重新获取
+        failing.set(false);
+        total.incrementAndGet();
+        assertEquals(51L, cache.list(20).join().get(0).getArticleId());
+    }
+
+    private double count(String name, String result) {
+        return meterRegistry.counter(name, "result", result).count();
+    }
+
+    private void awaitFetches(String result, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (count("tencent.api.article_list.fetch", result) < expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, count("tencent.api.article_list.fetch", result));
+    }
+}
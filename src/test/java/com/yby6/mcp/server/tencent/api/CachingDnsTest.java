@@ -0,0 +1,74 @@
+package com.yby6.mcp.server.tencent.api;
+
+import okhttp3.Dns;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * DNS缓存测试
+ *
+ * @author yangbuyiya
+ * Create By 2025/05/25
+ */
+public class CachingDnsTest {
+
+    private final AtomicInteger lookups = new AtomicInteger();
+    private final AtomicBoolean failing = new AtomicBoolean();
+    private final AtomicLong now = new AtomicLong();
+
+    private final Dns delegate = hostname -> {
+        lookups.incrementAndGet();
+        if (failing.get()) {
+            throw new UnknownHostException(hostname);
+        }
+        return List.of(InetAddress.getByAddress(hostname, new byte[]{10, 0, 0, (byte) lookups.get()}));
+    };
+
+    @Test
+    public void cachesUntilTtlThenServesStaleOnFailure() throws UnknownHostException {
+        CachingDns dns = new CachingDns(delegate, Duration.ofSeconds(60), 16, now::get);
+
+        List<InetAddress> first = dns.lookup("cloud.tencent.com");
+        now.addAndGet(Duration.ofSeconds(59).toNanos());
+        assertEquals(first, dns.lookup("cloud.tencent.com"));
+        assertEquals(1, lookups.get());
+
+        // 过期后重新解析
+        now.addAndGet(Duration.ofSeconds(2).toNanos());
+        List<InetAddress> second = dns.lookup("cloud.tencent.com");
+        assertEquals(2, lookups.get());
+        assertEquals(2, second.get(0).getAddress()[3]);
+
+        // 过期后解析失败时使用过期结果，没有缓存的主机照常抛出异常
+        now.addAndGet(Duration.ofSeconds(61).toNanos());
+        failing.set(true);
+        assertEquals(second, dns.lookup("cloud.tencent.com"));
+        assertThrows(UnknownHostException.class, () -> dns.lookup("example.com"));
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedHosts() throws UnknownHostException {
+        CachingDns dns = new CachingDns(delegate, Duration.ofSeconds(60), 2, now::get);
+        dns.lookup("a");
+        dns.lookup("b");
+        dns.lookup("a");
+        dns.lookup("c");
+        assertEquals(2, dns.size());
+        assertEquals(3, lookups.get());
+
+        dns.lookup("a");
+        assertEquals(3, lookups.get());
+        dns.lookup("b");
+        assertEquals(4, lookups.get());
+    }
+}
@@ -0,0 +1,39 @@
+package com.yby6.mcp.server.tencent.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 公网地址DNS测试
+ *
+ * @author yangbuyiya
+ * Create By 2025/05/25
+ */
+public class PublicAddressDnsTest {
+
+    @Test
+    public void rejectsInternalAddresses() {
+        for (String internal : List.of("127.0.0.1", "0.0.0.0", "169.254.169.254", "10.0.0.1", "172.16.0.1",
+                "192.168.1.1", "::1", "fe80::1", "fd00::1", "224.0.0.1")) {
+            PublicAddressDns dns = new PublicAddressDns(hostname -> List.of(InetAddress.getByName(internal)));
+            assertThrows(UnknownHostException.class, () -> dns.lookup("images.example.com"), internal);
+        }
+    }
+
+    @Test
+    public void keepsOnlyPublicAddresses() throws UnknownHostException {
+        List<InetAddress> resolved = new ArrayList<>();
+        resolved.add(InetAddress.getByName("10.0.0.1"));
+        resolved.add(InetAddress.getByName("93.184.216.34"));
+        PublicAddressDns dns = new PublicAddressDns(hostname -> resolved);
+
+        assertEquals(List.of(InetAddress.getByName("93.184.216.34")), dns.lookup("images.example.com"));
+    }
+}
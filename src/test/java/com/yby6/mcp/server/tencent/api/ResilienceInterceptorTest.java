@@ -0,0 +1,215 @@
+package com.yby6.mcp.server.tencent.api;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 重试与熔断测试
+ *
+ * @author yangbuyiya
+ * Create By 2025/05/25
+ */
+public class ResilienceInterceptorTest {
+
+    /**
+     * 依次返回的状态码，用完后返回200
+     */
+    private final ConcurrentLinkedQueue<Integer> statuses = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger hits = new AtomicInteger();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private HttpServer server;
+    private String baseUrl;
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            hits.incrementAndGet();
+            exchange.getRequestBody().readAllBytes();
+            Integer status = statuses.poll();
+            exchange.sendResponseHeaders(status == null ? 200 : status, -1);
+            exchange.close();
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    public void retriesPostOnlyWhenUnprocessed() throws IOException {
+        OkHttpClient client = client(new ResilienceInterceptor(3, Duration.ofMillis(1), Duration.ofMillis(5), 2.0,
+                10, Duration.ofMinutes(1), meterRegistry));
+
+        // 503表示请求未被处理，可以重试
+        statuses.addAll(List.of(503, 503));
+        try (Response response = client.newCall(post(baseUrl + "/publish")).execute()) {
+            assertEquals(200, response.code());
+        }
+        assertEquals(3, hits.get());
+        assertEquals(2.0, meterRegistry.counter("tencent.api.retries", "reason", "503").count());
+
+        // 429交给调用方按账号限流，POST不在拦截器内重试
+        hits.set(0);
+        statuses.add(429);
+        try (Response response = client.newCall(post(baseUrl + "/publish")).execute()) {
+            assertEquals(429, response.code());
+        }
+        assertEquals(1, hits.get());
+
+        // 500可能已被处理，POST不重试
+        hits.set(0);
+        statuses.add(500);
+        try (Response response = client.newCall(post(baseUrl + "/publish")).execute()) {
+            assertEquals(500, response.code());
+        }
+        assertEquals(1, hits.get());
+
+        // GET请求遇到500会重试
+        hits.set(0);
+        statuses.add(500);
+        try (Response response = client.newCall(new Request.Builder().url(baseUrl + "/list").build()).execute()) {
+            assertEquals(200, response.code());
+        }
+        assertEquals(2, hits.get());
+    }
+
+    @Test
+    public void retriesConnectFailuresUpToMaxAttempts() throws IOException {
+        int closedPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            closedPort = socket.getLocalPort();
+        }
+        OkHttpClient client = client(new ResilienceInterceptor(3, Duration.ofMillis(1), Duration.ofMillis(5), 2.0,
+                10, Duration.ofMinutes(1), meterRegistry));
+        assertThrows(ConnectException.class,
+                () -> client.newCall(post("http://127.0.0.1:" + closedPort + "/publish")).execute());
+        assertEquals(2.0, meterRegistry.counter("tencent.api.retries", "reason", "ConnectException").count());
+        assertEquals(3.0, meterRegistry.counter("tencent.api.calls", "outcome", "io_error").count());
+    }
+
+    @Test
+    public void opensCircuitAndFailsFast() throws IOException {
+        ResilienceInterceptor interceptor = new ResilienceInterceptor(1, Duration.ofMillis(1), Duration.ofMillis(5),
+                2.0, 2, Duration.ofMinutes(1), meterRegistry);
+        OkHttpClient client = client(interceptor);
+
+        statuses.addAll(List.of(500, 500));
+        for (int i = 0; i < 2; i++) {
+            try (Response response = client.newCall(post(baseUrl + "/publish")).execute()) {
+                assertEquals(500, response.code());
+            }
+        }
+        assertEquals(CircuitBreaker.State.OPEN, interceptor.getCircuitBreaker().getState());
+        assertEquals(1.0, meterRegistry.get("tencent.api.circuit.state").gauge().value());
+        assertEquals(1.0, meterRegistry.counter("tencent.api.circuit.transitions", "from", "CLOSED", "to", "OPEN").count());
+
+        long start = System.nanoTime();
+        assertThrows(CircuitBreakerOpenException.class, () -> client.newCall(post(baseUrl + "/publish")).execute());
+        assertTrue(System.nanoTime() - start < Duration.ofSeconds(1).toNanos());
+        assertEquals(2, hits.get());
+        assertEquals(1.0, meterRegistry.counter("tencent.api.calls", "outcome", "rejected").count());
+    }
+
+    @Test
+    public void runtimeExceptionReleasesHalfOpenTrial() throws Exception {
+        ResilienceInterceptor interceptor = new ResilienceInterceptor(1, Duration.ofMillis(1), Duration.ofMillis(5),
+                2.0, 1, Duration.ofMillis(50), meterRegistry);
+        AtomicBoolean broken = new AtomicBoolean();
+        OkHttpClient client = new OkHttpClient.Builder()
+                .retryOnConnectionFailure(false)
+                .addInterceptor(interceptor)
+                .addInterceptor(chain -> {
+                    if (broken.get()) {
+                        throw new IllegalStateException("broken");
+                    }
+                    return chain.proceed(chain.request());
+                })
+                .build();
+
+        statuses.add(500);
+        try (Response response = client.newCall(post(baseUrl + "/publish")).execute()) {
+            assertEquals(500, response.code());
+        }
+        Thread.sleep(100);
+
+        // 半开状态的试探请求抛出运行时异常，不能一直占用试探名额
+        broken.set(true);
+        assertThrows(IllegalStateException.class, () -> client.newCall(post(baseUrl + "/publish")).execute());
+        broken.set(false);
+        try (Response response = client.newCall(post(baseUrl + "/publish")).execute()) {
+            assertEquals(200, response.code());
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, interceptor.getCircuitBreaker().getState());
+    }
+
+    @Test
+    public void halfOpenAllowsSingleTrial() {
+        AtomicLong now = new AtomicLong();
+        List<String> transitions = new ArrayList<>();
+        CircuitBreaker breaker = new CircuitBreaker(1, Duration.ofSeconds(10),
+                (from, to) -> transitions.add(from + "->" + to), now::get);
+
+        assertTrue(breaker.tryAcquire());
+        breaker.onFailure();
+        assertFalse(breaker.tryAcquire());
+
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire());
+        breaker.onFailure();
+        assertFalse(breaker.tryAcquire());
+
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+        assertTrue(breaker.tryAcquire());
+        breaker.onSuccess();
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire());
+
+        assertEquals(List.of("CLOSED->OPEN", "OPEN->HALF_OPEN", "HALF_OPEN->OPEN", "OPEN->HALF_OPEN",
+                "HALF_OPEN->CLOSED"), transitions);
+    }
+
+    private static OkHttpClient client(ResilienceInterceptor interceptor) {
+        return new OkHttpClient.Builder()
+                .retryOnConnectionFailure(false)
+                .addInterceptor(interceptor)
+                .build();
+    }
+
+    private static Request post(String url) {
+        return new Request.Builder()
+                .url(url)
+                .post(RequestBody.create(MediaType.get("application/json"), "{}"))
+                .build();
+    }
+}
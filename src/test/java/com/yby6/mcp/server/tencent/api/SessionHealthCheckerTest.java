@@ -0,0 +1,134 @@
+package com.yby6.mcp.server.tencent.api;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import retrofit2.Retrofit;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 登录会话健康检查测试
+ * <p>
+ * 使用本地HTTP服务模拟登录后才能访问的页面：有效Cookie返回200，失效Cookie重定向到登录页。
+ *
+ * @author yangbuyiya
+ * Create By 2025/05/25
+ */
+public class SessionHealthCheckerTest {
+
+    private final AtomicLong now = new AtomicLong(1L);
+    private HttpServer server;
+    private ITencentService tencentService;
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/developer/article/write-new", exchange -> {
+            String cookie = exchange.getRequestHeaders().getFirst("Cookie");
+            if ("uin=ok".equals(cookie)) {
+                exchange.sendResponseHeaders(200, -1);
+            } else if ("uin=forbidden".equals(cookie)) {
+                exchange.sendResponseHeaders(403, -1);
+            } else if ("uin=flaky".equals(cookie)) {
+                exchange.sendResponseHeaders(502, -1);
+            } else {
+                exchange.getResponseHeaders().add("Location", "/login?s_url=write-new");
+                exchange.sendResponseHeaders(302, -1);
+            }
+            exchange.close();
+        });
+        server.createContext("/login", exchange -> {
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.start();
+        int port = server.getAddress().getPort();
+
+        OkHttpClient client = new OkHttpClient.Builder()
+                .addInterceptor(chain -> {
+                    HttpUrl url = chain.request().url().newBuilder()
+                            .scheme("http").host("127.0.0.1").port(port).build();
+                    return chain.proceed(chain.request().newBuilder().url(url).build());
+                })
+                .build();
+        tencentService = new Retrofit.Builder()
+                .baseUrl("http://127.0.0.1:" + port + "/")
+                .client(client)
+                .build()
+                .create(ITencentService.class);
+    }
+
+    @AfterEach
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    public void marksExpiredSessionsUnhealthy() {
+        AccountPool pool = pool(
+                new AccountPool.AccountSpec("ok", "uin=ok", null, 1),
+                new AccountPool.AccountSpec("expired", "uin=expired", null, 1),
+                new AccountPool.AccountSpec("forbidden", "uin=forbidden", null, 1),
+                new AccountPool.AccountSpec("flaky", "uin=flaky", null, 1),
+                new AccountPool.AccountSpec("invalid", "中文Cookie", null, 1));
+        try (SessionHealthChecker checker = checker(pool)) {
+            checker.checkAll();
+
+            assertEquals(SessionHealthChecker.State.VALID, checker.status("ok").state());
+            assertEquals(SessionHealthChecker.State.INVALID, checker.status("expired").state());
+            assertEquals(SessionHealthChecker.State.INVALID, checker.status("forbidden").state());
+            assertEquals(SessionHealthChecker.State.UNKNOWN, checker.status("flaky").state());
+            assertEquals(SessionHealthChecker.State.INVALID, checker.status("invalid").state());
+            assertTrue(pool.isHealthy("ok"));
+            assertFalse(pool.isHealthy("expired"));
+            assertFalse(pool.isHealthy("forbidden"));
+            assertTrue(pool.isHealthy("flaky"));
+            assertFalse(pool.isHealthy("invalid"));
+        }
+    }
+
+    @Test
+    public void staleResultExpiresAndRotationRecovers() {
+        AccountPool pool = pool(new AccountPool.AccountSpec("a", "uin=expired", null, 1));
+        try (SessionHealthChecker checker = checker(pool)) {
+            checker.check("a");
+            assertFalse(pool.isHealthy("a"));
+
+            // 超过有效期未重新确认时恢复可用
+            now.addAndGet(TimeUnit.MINUTES.toNanos(15));
+            assertTrue(pool.isHealthy("a"));
+
+            checker.check("a");
+            assertFalse(pool.isHealthy("a"));
+            pool.rotate("a", "uin=ok");
+            assertTrue(pool.isHealthy("a"));
+            checker.check("a");
+            assertTrue(pool.isHealthy("a"));
+            assertEquals(SessionHealthChecker.State.VALID, checker.status("a").state());
+        }
+    }
+
+    private AccountPool pool(AccountPool.AccountSpec... specs) {
+        return new AccountPool(List.of(specs), AccountPool.Selection.LEAST_IN_FLIGHT, Duration.ofMinutes(10),
+                new SimpleMeterRegistry(), now::get);
+    }
+
+    private SessionHealthChecker checker(AccountPool pool) {
+        return new SessionHealthChecker(tencentService, "https://cloud.tencent.com/developer/article/write-new", pool,
+                Duration.ofMinutes(15), new SimpleMeterRegistry());
+    }
+}
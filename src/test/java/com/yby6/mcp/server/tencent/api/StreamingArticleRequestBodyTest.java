@@ -0,0 +1,95 @@
+package com.yby6.mcp.server.tencent.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yby6.mcp.server.tencent.api.dto.AddArticleRequest;
+import com.yby6.mcp.server.tencent.mcpService.utils.ConvertOptions;
+import com.yby6.mcp.server.tencent.mcpService.utils.ImageSize;
+import com.yby6.mcp.server.tencent.mcpService.utils.ImageSizeCache;
+import com.yby6.mcp.server.tencent.mcpService.utils.ImageSizeProber;
+import com.yby6.mcp.server.tencent.mcpService.utils.NodeIdStrategy;
+import okhttp3.OkHttpClient;
+import okio.Buffer;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 流式请求体测试
+ *
+ * @author yangbuyiya
+ * Create By 2025/05/25
+ */
+public class StreamingArticleRequestBodyTest {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void streamedBodyMatchesJacksonSerialization() throws Exception {
+        ConvertOptions options = new ConvertOptions();
+        options.setIdStrategy(NodeIdStrategy.DETERMINISTIC);
+
+        StringBuilder markdown = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            markdown.append("# 标题 \"").append(i).append("\" \\ 😀\n\n")
+                    .append("正文\t控制字符\u0001 [链接](https://example.com/?a=\"b\")\n\n")
+                    .append("```vue\nconst s = \"\\n\";\n```\n\n");
+        }
+
+        AddArticleRequest request = new AddArticleRequest();
+        request.setTitle("标题 \"引号\"");
+        request.setPlain(markdown.toString());
+        request.setTagIds(List.of(17375));
+        request.setSourceDetail(new HashMap<>());
+
+        Buffer streamed = new Buffer();
+        new StreamingArticleRequestBody(request, objectMapper, options).writeTo(streamed);
+        assertNull(request.getContent());
+
+        // 先转换再序列化的结果作为参考，与JacksonConverterFactory一样按字节序列化
+        request.renderContent(options);
+        assertArrayEquals(objectMapper.writeValueAsBytes(request), streamed.readByteArray());
+    }
+
+    @Test
+    public void imagesAreResolvedOnceBeforeWriting() throws Exception {
+        AtomicInteger probes = new AtomicInteger();
+        String url = "https://example.com/a.png";
+        ImageSizeProber prober = new ImageSizeProber(new OkHttpClient(), 1, Duration.ofSeconds(1),
+                ImageSizeProber.DEFAULT_MAX_HEADER_BYTES, new ImageSizeCache(16, null)) {
+            @Override
+            public Map<String, ImageSize> probeAll(Collection<String> urls) {
+                probes.incrementAndGet();
+                return Map.of(url, new ImageSize(300, 200));
+            }
+        };
+        ConvertOptions options = new ConvertOptions();
+        options.setIdStrategy(NodeIdStrategy.DETERMINISTIC);
+        options.setImageProber(prober);
+        AddArticleRequest request = new AddArticleRequest();
+        request.setPlain("![](" + url + ")");
+
+        StreamingArticleRequestBody body = new StreamingArticleRequestBody(request, objectMapper, options);
+        assertEquals(1, probes.get());
+
+        // 连接失败重试时只重新写出，不再探测图片
+        Buffer first = new Buffer();
+        body.writeTo(first);
+        Buffer retry = new Buffer();
+        body.writeTo(retry);
+        assertEquals(1, probes.get());
+        String json = first.readUtf8();
+        assertEquals(json, retry.readUtf8());
+        assertTrue(json.contains("\\\"width\\\":300"), json);
+        prober.close();
+    }
+}
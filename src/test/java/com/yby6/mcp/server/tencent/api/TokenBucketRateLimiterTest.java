@@ -0,0 +1,112 @@
+package com.yby6.mcp.server.tencent.api;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 按账号限流测试
+ *
+ * @author yangbuyiya
+ * Create By 2025/05/25
+ */
+public class TokenBucketRateLimiterTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    public void burstThenQueuesInOrder() throws Exception {
+        // 每100ms一个令牌
+        try (TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(600, 2, 10, Duration.ofSeconds(10), meterRegistry)) {
+            assertTrue(limiter.acquire("a").isDone());
+            assertTrue(limiter.acquire("a").isDone());
+
+            List<Integer> order = new CopyOnWriteArrayList<>();
+            List<CompletableFuture<Void>> waiting = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                int n = i;
+                waiting.add(limiter.acquire("a").thenRun(() -> order.add(n)));
+            }
+            assertFalse(waiting.get(0).isDone());
+            assertEquals(3, limiter.getQueued());
+            assertEquals(3.0, meterRegistry.get("tencent.api.ratelimit.queue.depth").gauge().value());
+
+            // 其他账号不受影响
+            assertTrue(limiter.acquire("b").isDone());
+
+            long start = System.nanoTime();
+            CompletableFuture.allOf(waiting.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            assertTrue(elapsed >= 200, "elapsed " + elapsed);
+            assertEquals(List.of(0, 1, 2), order);
+            assertEquals(0, limiter.getQueued());
+            assertEquals(6, meterRegistry.get("tencent.api.ratelimit.wait").timer().count());
+        }
+    }
+
+    @Test
+    public void rejectsWhenQueueFullAndTimesOut() throws Exception {
+        try (TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 1, 1, Duration.ofMillis(100), meterRegistry)) {
+            assertTrue(limiter.acquire("a").isDone());
+            CompletableFuture<Void> queued = limiter.acquire("a");
+
+            ExecutionException full = assertThrows(ExecutionException.class, () -> limiter.acquire("a").get());
+            assertInstanceOf(RejectedExecutionException.class, full.getCause());
+
+            ExecutionException timeout = assertThrows(ExecutionException.class, () -> queued.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(TimeoutException.class, timeout.getCause());
+            assertEquals(0, limiter.getQueued());
+            assertEquals(1.0, meterRegistry.counter("tencent.api.ratelimit.rejected", "reason", "queue_full").count());
+            assertEquals(1.0, meterRegistry.counter("tencent.api.ratelimit.rejected", "reason", "timeout").count());
+        }
+    }
+
+    @Test
+    public void cancelledWaiterLeavesQueue() {
+        try (TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 1, 1, Duration.ofSeconds(10), meterRegistry)) {
+            limiter.acquire("a");
+            CompletableFuture<Void> queued = limiter.acquire("a");
+            assertEquals(1, limiter.getQueued());
+
+            queued.cancel(false);
+            assertEquals(0, limiter.getQueued());
+            // 取消后腾出的队列位置可以再次使用
+            assertFalse(limiter.acquire("a").isCompletedExceptionally());
+        }
+    }
+
+    @Test
+    public void throttlePausesAccount() throws Exception {
+        // 每100ms一个令牌
+        try (TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(600, 5, 10, Duration.ofSeconds(10), meterRegistry)) {
+            assertTrue(limiter.acquire("a").isDone());
+
+            // 上游返回429后清空积累的令牌并暂停300ms
+            limiter.throttle("a", Duration.ofMillis(300));
+            long start = System.nanoTime();
+            CompletableFuture<Void> queued = limiter.acquire("a");
+            assertFalse(queued.isDone());
+            assertTrue(limiter.acquire("b").isDone());
+
+            queued.get(5, TimeUnit.SECONDS);
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            assertTrue(elapsed >= 350, "elapsed " + elapsed);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.yby6.mcp.server.tencent.api.dto;
+
+import com.alibaba.fastjson.JSON;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 发布文章请求测试
+ *
+ * @author yangbuyiya
+ * Create By 2025/05/25
+ */
+public class AddArticleRequestTest {
+
+    @Test
+    public void contentIsRenderedOnceAndSharedByHash() throws Exception {
+        AddArticleRequest first = new AddArticleRequest();
+        first.setPlain("# 标题\n\n```vue\nlet a = 1\n```\n");
+        assertNull(first.getContent());
+
+        String content = first.renderContent().getContent();
+        assertTrue(content.contains("\"language\":\"javascript\""));
+        // plain未变化时不会重新转换
+        assertSame(content, first.renderContent().getContent());
+
+        // 相同正文的另一个请求直接复用缓存结果
+        AddArticleRequest retry = new AddArticleRequest();
+        retry.setPlain(first.getPlain());
+        assertSame(content, retry.renderContent().getContent());
+
+        // plain变化后重新转换
+        first.setPlain("新的正文");
+        assertNotSame(content, first.renderContent().getContent());
+
+        // 摘要不参与请求序列化
+        assertFalse(new ObjectMapper().writeValueAsString(first).contains("contentHash"));
+        assertFalse(JSON.toJSONString(first).contains("contentHash"));
+    }
+}
@@ -0,0 +1,160 @@
+package com.yby6.mcp.server.tencent.mcpService.idempotency;
+
+import com.yby6.mcp.server.tencent.mcpService.funcModel.ArticleFunctionRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 发布幂等存储测试
+ *
+ * @author yangbuyiya
+ * Create By 2025/05/25
+ */
+public class IdempotencyStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+
+    @Test
+    public void keyCoversAllFields() {
+        String key = IdempotencyStore.key(request("标题", "摘要", "正文"));
+        assertEquals(key, IdempotencyStore.key(request("标题", "摘要", "正文")));
+        assertNotEquals(key, IdempotencyStore.key(request("标题", "摘要", "正文2")));
+        assertNotEquals(key, IdempotencyStore.key(request("标题", "摘要正", "文")));
+        assertNotEquals(IdempotencyStore.key(request(null, "", "")), IdempotencyStore.key(request("", "", "")));
+    }
+
+    @Test
+    public void recordsSurviveRestartUntilExpired() throws IOException {
+        try (IdempotencyStore store = open(100)) {
+            store.record("a", 1L, "https://cloud.tencent.com/developer/article/1");
+            assertEquals(1L, store.find("a").articleId);
+            assertNull(store.find("b"));
+        }
+        // 模拟进程退出时写了一半的记录
+        Files.writeString(directory.resolve("idempotency.log"), "{\"key\":\"b\",\"art", StandardCharsets.UTF_8,
+                StandardOpenOption.APPEND);
+
+        try (IdempotencyStore store = open(100)) {
+            IdempotencyStore.Published published = store.find("a");
+            assertEquals(1L, published.articleId);
+            assertEquals("https://cloud.tencent.com/developer/article/1", published.url);
+
+            now.addAndGet(Duration.ofHours(2).toMillis());
+            assertNull(store.find("a"));
+        }
+        try (IdempotencyStore store = open(100)) {
+            assertEquals(0, store.size());
+        }
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedAndCompactsFile() throws IOException {
+        try (IdempotencyStore store = open(3)) {
+            for (int i = 0; i < 20; i++) {
+                store.record("k" + i, i, "u" + i);
+            }
+            assertEquals(3, store.size());
+            assertNull(store.find("k0"));
+            assertEquals(19L, store.find("k19").articleId);
+            assertTrue(Files.readAllLines(directory.resolve("idempotency.log")).size() <= 7);
+        }
+        try (IdempotencyStore store = open(3)) {
+            assertEquals(3, store.size());
+            assertEquals(17L, store.find("k17").articleId);
+        }
+    }
+
+    @Test
+    public void keepsRecordingWhenCompactionFails() throws IOException {
+        try (IdempotencyStore store = open(3)) {
+            // 临时文件路径被目录占用，压缩时无法写入
+            Files.createDirectories(directory.resolve("idempotency.log.tmp").resolve("busy"));
+            for (int i = 0; i < 20; i++) {
+                store.record("k" + i, i, "u" + i);
+            }
+            assertEquals(19L, store.find("k19").articleId);
+        }
+        try (IdempotencyStore store = open(3)) {
+            assertEquals(3, store.size());
+            assertEquals(19L, store.find("k19").articleId);
+        }
+    }
+
+    @Test
+    public void singleFlightCollapsesConcurrentCalls() throws IOException {
+        try (IdempotencyStore store = open(100)) {
+            AtomicInteger calls = new AtomicInteger();
+            CompletableFuture<String> upstream = new CompletableFuture<>();
+            CompletableFuture<String> first = store.singleFlight("a", () -> {
+                calls.incrementAndGet();
+                return upstream;
+            });
+            CompletableFuture<String> second = store.singleFlight("a", () -> {
+                calls.incrementAndGet();
+                return CompletableFuture.completedFuture("second");
+            });
+            assertNotSame(first, second);
+            upstream.complete("first");
+            assertEquals("first", first.join());
+            assertEquals("first", second.join());
+            assertEquals(1, calls.get());
+
+            // 完成后不再合并
+            assertEquals("third", store.singleFlight("a", () -> CompletableFuture.completedFuture("third")).join());
+        }
+    }
+
+    @Test
+    public void singleFlightCancelsOnlyWhenAllCallersCancel() throws IOException {
+        try (IdempotencyStore store = open(100)) {
+            CompletableFuture<String> upstream = new CompletableFuture<>();
+            CompletableFuture<String> first = store.singleFlight("a", () -> upstream);
+            CompletableFuture<String> second = store.singleFlight("a", () -> CompletableFuture.completedFuture("second"));
+
+            // 一个调用方取消不影响其他调用方
+            first.cancel(true);
+            assertFalse(upstream.isCancelled());
+            assertFalse(second.isDone());
+
+            second.cancel(true);
+            assertTrue(upstream.isCancelled());
+
+            // 放弃的请求不再被合并
+            assertEquals("third", store.singleFlight("a", () -> CompletableFuture.completedFuture("third")).join());
+        }
+    }
+
+    private IdempotencyStore open(int maxEntries) throws IOException {
+        return new IdempotencyStore(directory.resolve("idempotency.log"), maxEntries, Duration.ofHours(1),
+                new SimpleMeterRegistry(), now::get);
+    }
+
+    private static ArticleFunctionRequest request(String title, String summary, String markdown) {
+        ArticleFunctionRequest request = new ArticleFunctionRequest();
+        request.setTitle(title);
+        request.setUserSummary(summary);
+        request.setMarkdowncontent(markdown);
+        return request;
+    }
+}
@@ -0,0 +1,222 @@
+package com.yby6.mcp.server.tencent.mcpService.outbox;
+
+import com.yby6.mcp.server.tencent.mcpService.funcModel.ArticleFunctionRequest;
+import com.yby6.mcp.server.tencent.mcpService.funcModel.ArticleFunctionResponse;
+import com.yby6.mcp.server.tencent.mcpService.funcModel.PublishTicketResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 持久化发布发件箱测试
+ *
+ * @author yangbuyiya
+ * Create By 2025/05/25
+ */
+public class PublishOutboxTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void publishesSubmittedArticle() throws Exception {
+        List<String> published = new CopyOnWriteArrayList<>();
+        String ticket;
+        try (PublishOutbox outbox = open(1024 * 1024, 3, request -> {
+            published.add(request.getTitle());
+            return success(2520L);
+        })) {
+            ticket = outbox.submit(request("标题"));
+            PublishTicketResponse status = await(outbox, ticket);
+            assertEquals("PUBLISHED", status.getState());
+            assertEquals(1, status.getAttempts());
+            assertEquals(2520L, status.getResult().getArticleId());
+        }
+        assertEquals(List.of("标题"), published);
+
+        // 重启后结果仍可查询，已发布的文章不会再次发布
+        try (PublishOutbox outbox = open(1024 * 1024, 3, request -> {
+            published.add(request.getTitle());
+            return success(1L);
+        })) {
+            assertEquals("PUBLISHED", outbox.status(ticket).getState());
+            assertEquals(0, outbox.pendingCount());
+        }
+        assertEquals(1, published.size());
+    }
+
+    @Test
+    public void retriesUntilMaxAttempts() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        try (PublishOutbox outbox = open(1024 * 1024, 3, request -> {
+            if (calls.incrementAndGet() == 2) {
+                throw new IllegalStateException("网络错误");
+            }
+            return failure();
+        })) {
+            PublishTicketResponse status = await(outbox, outbox.submit(request("标题")));
+            assertEquals("FAILED", status.getState());
+            assertEquals(3, status.getAttempts());
+            assertEquals(3, calls.get());
+            assertEquals("UNKNOWN", outbox.status("不存在").getState());
+        }
+    }
+
+    @Test
+    public void replaysPendingArticlesAfterRestart() throws Exception {
+        List<String> tickets = new ArrayList<>();
+        // 首次运行时腾讯云一直不可用，退避时间足够长，关闭时文章仍未发布
+        try (PublishOutbox outbox = new PublishOutbox(directory, 1024 * 1024, true, 1, 5, Duration.ofMinutes(10),
+                100, request -> failure())) {
+            for (int i = 0; i < 3; i++) {
+                tickets.add(outbox.submit(request("标题" + i)));
+            }
+            for (String ticket : tickets) {
+                while (outbox.status(ticket).getAttempts() < 1) {
+                    Thread.sleep(10);
+                }
+            }
+        }
+
+        // 模拟进程退出时写了一半的记录
+        Path segment = segments().get(0);
+        Files.writeString(segment, "{\"op\":\"ENQ", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        List<String> published = new CopyOnWriteArrayList<>();
+        try (PublishOutbox outbox = open(1024 * 1024, 5, request -> {
+            published.add(request.getTitle());
+            return success(published.size());
+        })) {
+            for (String ticket : tickets) {
+                assertEquals("PUBLISHED", await(outbox, ticket).getState());
+            }
+        }
+        assertEquals(3, published.size());
+        assertTrue(published.containsAll(List.of("标题0", "标题1", "标题2")), published.toString());
+    }
+
+    @Test
+    public void attemptsSurviveRestart() throws Exception {
+        String ticket;
+        try (PublishOutbox outbox = new PublishOutbox(directory, 1024 * 1024, true, 1, 2, Duration.ofMinutes(10),
+                100, request -> failure())) {
+            ticket = outbox.submit(request("标题"));
+            while (outbox.status(ticket).getAttempts() < 1) {
+                Thread.sleep(10);
+            }
+        }
+
+        // 重启后继续计数，第二次失败即达到最大尝试次数
+        AtomicInteger calls = new AtomicInteger();
+        try (PublishOutbox outbox = open(1024 * 1024, 2, request -> {
+            calls.incrementAndGet();
+            return failure();
+        })) {
+            PublishTicketResponse status = await(outbox, ticket);
+            assertEquals("FAILED", status.getState());
+            assertEquals(2, status.getAttempts());
+        }
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void compactsFinishedSegments() throws Exception {
+        try (PublishOutbox outbox = open(512, 1, request -> success(1L))) {
+            List<String> tickets = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                tickets.add(outbox.submit(request("标题" + i)));
+            }
+            for (String ticket : tickets) {
+                await(outbox, ticket);
+            }
+            // 再写入一条记录触发最后一次分段切换
+            await(outbox, outbox.submit(request("标题")));
+            assertTrue(segments().size() <= 2, segments().toString());
+        }
+    }
+
+    @Test
+    public void keepsAcksOfTicketsEnqueuedInOlderLiveSegments() throws Exception {
+        // U一直未发布，使第一个分段保持存活；T的ENQUEUE与U同在第一个分段，ACK在第二个分段
+        Function<ArticleFunctionRequest, ArticleFunctionResponse> publisher =
+                request -> "U".equals(request.getTitle()) ? failure() : success(1L);
+        String pending;
+        try (PublishOutbox outbox = new PublishOutbox(directory, 300, true, 1, 5, Duration.ofMinutes(10), 100,
+                publisher)) {
+            pending = outbox.submit(request("U"));
+            await(outbox, outbox.submit(request("T")));
+            // V的ENQUEUE在第二个分段，V结束后第二个分段中已没有未结束的工单
+            await(outbox, outbox.submit(request("V")));
+            assertTrue(segments().size() >= 3, segments().toString());
+        }
+
+        List<String> published = new CopyOnWriteArrayList<>();
+        try (PublishOutbox outbox = open(300, 5, request -> {
+            published.add(request.getTitle());
+            return success(2L);
+        })) {
+            assertEquals("PUBLISHED", await(outbox, pending).getState());
+        }
+        assertEquals(List.of("U"), published);
+    }
+
+    private PublishOutbox open(long segmentMaxBytes, int maxAttempts,
+                               Function<ArticleFunctionRequest, ArticleFunctionResponse> publisher) throws IOException {
+        return new PublishOutbox(directory, segmentMaxBytes, true, 2, maxAttempts, Duration.ofMillis(10), 100,
+                publisher);
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private static PublishTicketResponse await(PublishOutbox outbox, String ticket) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            PublishTicketResponse status = outbox.status(ticket);
+            if (PublishState.valueOf(status.getState()).isTerminal()) {
+                return status;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("工单未完成: " + ticket);
+    }
+
+    private static ArticleFunctionRequest request(String title) {
+        ArticleFunctionRequest request = new ArticleFunctionRequest();
+        request.setTitle(title);
+        request.setMarkdowncontent("# " + title);
+        request.setUserSummary("摘要");
+        return request;
+    }
+
+    private static ArticleFunctionResponse success(long articleId) {
+        ArticleFunctionResponse response = new ArticleFunctionResponse();
+        response.setStatus(0);
+        response.setArticleId(articleId);
+        return response;
+    }
+
+    private static ArticleFunctionResponse failure() {
+        ArticleFunctionResponse response = new ArticleFunctionResponse();
+        response.setStatus(-1);
+        return response;
+    }
+}
@@ -0,0 +1,47 @@
+package com.yby6.mcp.server.tencent.mcpService.tools;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 截止时间测试
+ *
+ * @author yangbuyiya
+ * Create By 2025/05/25
+ */
+public class DeadlineTest {
+
+    @Test
+    public void completedFuturesReleaseTheirExpiryTimer() {
+        int before = Deadline.pendingExpiries();
+        AtomicBoolean expired = new AtomicBoolean();
+        for (int i = 0; i < 100; i++) {
+            CompletableFuture<String> result = new CompletableFuture<>();
+            Deadline.after(Duration.ofMinutes(2)).onExpiry(result, () -> expired.set(true));
+            result.complete("ok");
+        }
+
+        // 已完成的结果不再被计时任务引用
+        assertEquals(before, Deadline.pendingExpiries());
+        assertFalse(expired.get());
+    }
+
+    @Test
+    public void expiryRunsActionWhenStillPending() throws InterruptedException {
+        CountDownLatch expired = new CountDownLatch(1);
+        CompletableFuture<String> result = new CompletableFuture<>();
+        Deadline.after(Duration.ofMillis(50)).onExpiry(result, expired::countDown);
+
+        assertTrue(expired.await(5, TimeUnit.SECONDS));
+        assertFalse(result.isDone());
+    }
+}
@@ -0,0 +1,184 @@
+package com.yby6.mcp.server.tencent.mcpService.tools.server;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import com.yby6.mcp.server.tencent.api.AccountPool;
+import com.yby6.mcp.server.tencent.api.ArticleRequestBodyConverterFactory;
+import com.yby6.mcp.server.tencent.api.ITencentService;
+import com.yby6.mcp.server.tencent.mcpService.config.properties.TencentApiProperties;
+import com.yby6.mcp.server.tencent.mcpService.funcModel.ArticleFunctionRequest;
+import com.yby6.mcp.server.tencent.mcpService.funcModel.ArticleFunctionResponse;
+import com.yby6.mcp.server.tencent.mcpService.utils.ConvertOptions;
+import com.yby6.mcp.server.tencent.mcpService.utils.VirtualThreads;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.ConnectionPool;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import retrofit2.Retrofit;
+import retrofit2.converter.jackson.JacksonConverterFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 并发发布压测
+ * <p>
+ * 对本地模拟接口（固定延迟）分别以平台线程与虚拟线程执行阻塞式发布，
+ * 比较10、100、1000并发下的吞吐量与峰值线程数。虚拟线程模式需要Java 21运行时，低版本下跳过。
+ * <p>
+ * 默认不执行，运行方式：mvn test -Dtest=PublishLoadTest -Dload.test=true
+ *
+ * @author yangbuyiya
+ * Create By 2025/05/25
+ */
+@EnabledIfSystemProperty(named = "load.test", matches = "true")
+public class PublishLoadTest {
+
+    /**
+     * 模拟接口的响应延迟
+     */
+    private static final long LATENCY_MILLIS = 50;
+
+    private ExecutorService serverExecutor;
+    private HttpServer server;
+    private int port;
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 4096);
+        server.createContext("/developer/api/article/addArticle", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            try {
+                Thread.sleep(LATENCY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "{\"status\":0,\"articleId\":2520}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        serverExecutor = VirtualThreads.isSupported()
+                ? VirtualThreads.newThreadPerTaskExecutor("stub-")
+                : Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.start();
+        port = server.getAddress().getPort();
+    }
+
+    @AfterEach
+    public void stopServer() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @ParameterizedTest(name = "{0} x {1}")
+    @CsvSource({
+            "platform, 10", "platform, 100", "platform, 1000",
+            "virtual, 10", "virtual, 100", "virtual, 1000"
+    })
+    public void publish(String mode, int concurrency) throws Exception {
+        boolean virtual = mode.equals("virtual");
+        if (virtual) {
+            Assumptions.assumeTrue(VirtualThreads.isSupported(), "虚拟线程需要 Java 21 运行时");
+        }
+        TencentArticleToolService service = service(concurrency);
+        int total = Math.max(concurrency * 4, 200);
+
+        // 预热连接池与转换缓存
+        service.saveArticle(request());
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+        ExecutorService executor = virtual
+                ? VirtualThreads.newThreadPerTaskExecutor("publish-")
+                : Executors.newFixedThreadPool(concurrency);
+        long start = System.nanoTime();
+        List<Future<ArticleFunctionResponse>> futures = new ArrayList<>(total);
+        try {
+            // 平台线程由固定大小的线程池限制在途数，虚拟线程每个任务一个线程，由信号量限制在途数
+            Semaphore inFlight = new Semaphore(concurrency);
+            for (int i = 0; i < total; i++) {
+                inFlight.acquire();
+                futures.add(executor.submit(() -> {
+                    try {
+                        return service.saveArticle(request());
+                    } finally {
+                        inFlight.release();
+                    }
+                }));
+            }
+            int succeeded = 0;
+            for (Future<ArticleFunctionResponse> future : futures) {
+                ArticleFunctionResponse response = future.get(60, TimeUnit.SECONDS);
+                if (response != null && Integer.valueOf(0).equals(response.getStatus())) {
+                    succeeded++;
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            System.out.printf(Locale.ROOT, "%-8s concurrency=%4d publishes=%5d elapsed=%6dms throughput=%8.1f/s peakThreads=%d%n",
+                    mode, concurrency, total, TimeUnit.NANOSECONDS.toMillis(elapsed),
+                    total * 1e9 / elapsed, threads.getPeakThreadCount());
+            assertEquals(total, succeeded);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private TencentArticleToolService service(int concurrency) {
+        OkHttpClient client = new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(concurrency, 1, TimeUnit.MINUTES))
+                .addInterceptor(chain -> {
+                    HttpUrl url = chain.request().url().newBuilder()
+                            .scheme("http").host("127.0.0.1").port(port).build();
+                    return chain.proceed(chain.request().newBuilder().url(url).build());
+                })
+                .build();
+        ConvertOptions convertOptions = new ConvertOptions();
+        ObjectMapper objectMapper = new ObjectMapper();
+        ITencentService tencentService = new Retrofit.Builder()
+                .baseUrl("http://127.0.0.1:" + port + "/")
+                .client(client)
+                .addConverterFactory(new ArticleRequestBodyConverterFactory(objectMapper, convertOptions))
+                .addConverterFactory(JacksonConverterFactory.create(objectMapper))
+                .build()
+                .create(ITencentService.class);
+        TencentApiProperties properties = new TencentApiProperties();
+        properties.setCookie("uin=test");
+        AccountPool accountPool = new AccountPool(List.of(new AccountPool.AccountSpec("default", "uin=test", null, 1)),
+                AccountPool.Selection.LEAST_IN_FLIGHT, Duration.ofMinutes(10), new SimpleMeterRegistry());
+        return new TencentArticleToolService(tencentService, properties, convertOptions, accountPool, null, null, null,
+                new SimpleMeterRegistry());
+    }
+
+    private static ArticleFunctionRequest request() {
+        ArticleFunctionRequest request = new ArticleFunctionRequest();
+        request.setTitle("标题");
+        request.setMarkdowncontent("# 正文\n\n内容");
+        request.setUserSummary("摘要");
+        return request;
+    }
+}
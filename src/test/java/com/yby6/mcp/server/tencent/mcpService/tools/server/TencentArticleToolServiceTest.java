@@ -0,0 +1,414 @@
+package com.yby6.mcp.server.tencent.mcpService.tools.server;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import com.yby6.mcp.server.tencent.api.AccountPool;
+import com.yby6.mcp.server.tencent.api.ArticleRequestBodyConverterFactory;
+import com.yby6.mcp.server.tencent.api.ITencentService;
+import com.yby6.mcp.server.tencent.api.TokenBucketRateLimiter;
+import com.yby6.mcp.server.tencent.mcpService.config.ToolConfiguration;
+import com.yby6.mcp.server.tencent.mcpService.config.properties.TencentApiProperties;
+import com.yby6.mcp.server.tencent.mcpService.funcModel.ArticleFunctionRequest;
+import com.yby6.mcp.server.tencent.mcpService.funcModel.ArticleFunctionResponse;
+import com.yby6.mcp.server.tencent.mcpService.funcModel.PublishTicketResponse;
+import com.yby6.mcp.server.tencent.mcpService.idempotency.IdempotencyStore;
+import com.yby6.mcp.server.tencent.mcpService.outbox.PublishOutbox;
+import com.yby6.mcp.server.tencent.mcpService.tools.Deadline;
+import com.yby6.mcp.server.tencent.mcpService.tools.McpToolServer;
+import com.yby6.mcp.server.tencent.mcpService.utils.ConvertOptions;
+import com.yby6.mcp.server.tencent.mcpService.utils.ImageSize;
+import com.yby6.mcp.server.tencent.mcpService.utils.ImageSizeCache;
+import com.yby6.mcp.server.tencent.mcpService.utils.ImageSizeProber;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.modelcontextprotocol.server.McpServerFeatures;
+import io.modelcontextprotocol.spec.McpSchema;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import retrofit2.Retrofit;
+import retrofit2.converter.jackson.JacksonConverterFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 文章发布服务测试
+ * <p>
+ * 使用本地HTTP服务替代腾讯云接口，验证异步发布路径不阻塞调用方线程、重复请求只发布一次、取消与超时会取消HTTP请求，
+ * 以及异步MCP工具的注册与调用。
+ *
+ * @author yangbuyiya
+ * Create By 2025/05/25
+ */
+public class TencentArticleToolServiceTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final AtomicInteger calls = new AtomicInteger();
+    @TempDir
+    Path directory;
+    private TencentApiProperties properties;
+    private ExecutorService serverExecutor;
+    private HttpServer server;
+    private TencentArticleToolService service;
+    private IdempotencyStore idempotencyStore;
+    private ITencentService tencentService;
+    private ConvertOptions convertOptions;
+    private OkHttpClient client;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/developer/api/article/addArticle", exchange -> {
+            String request = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            calls.incrementAndGet();
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                release.await(10, TimeUnit.SECONDS);
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            if ("uin=expired".equals(exchange.getRequestHeaders().getFirst("Cookie"))) {
+                exchange.sendResponseHeaders(401, -1);
+                exchange.close();
+                return;
+            }
+            if (request.contains("\"title\":\"失败\"")) {
+                exchange.sendResponseHeaders(500, -1);
+                exchange.close();
+                return;
+            }
+            byte[] body = "{\"status\":0,\"articleId\":2520}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.start();
+        int port = server.getAddress().getPort();
+
+        // 接口地址为绝对地址，在OkHttp层改写到本地服务
+        client = new OkHttpClient.Builder()
+                .addInterceptor(chain -> {
+                    HttpUrl url = chain.request().url().newBuilder()
+                            .scheme("http").host("127.0.0.1").port(port).build();
+                    return chain.proceed(chain.request().newBuilder().url(url).build());
+                })
+                .build();
+        ConvertOptions convertOptions = new ConvertOptions();
+        ObjectMapper objectMapper = new ObjectMapper();
+        ITencentService tencentService = new Retrofit.Builder()
+                .baseUrl("http://127.0.0.1:" + port + "/")
+                .client(client)
+                .addConverterFactory(new ArticleRequestBodyConverterFactory(objectMapper, convertOptions))
+                .addConverterFactory(JacksonConverterFactory.create(objectMapper))
+                .build()
+                .create(ITencentService.class);
+
+        properties = new TencentApiProperties();
+        properties.setCookie("uin=test");
+        idempotencyStore = new IdempotencyStore(directory.resolve("idempotency.log"), 100, Duration.ofHours(1),
+                new SimpleMeterRegistry());
+        this.tencentService = tencentService;
+        this.convertOptions = convertOptions;
+        service = new TencentArticleToolService(tencentService, properties, convertOptions, accountPool("uin=test"),
+                null, idempotencyStore, null, meterRegistry);
+    }
+
+    @AfterEach
+    public void stopServer() throws IOException {
+        release.countDown();
+        idempotencyStore.close();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    public void saveArticleAsyncDoesNotBlockCaller() throws Exception {
+        CompletableFuture<ArticleFunctionResponse> future = service.saveArticleAsync(request());
+
+        // 服务端尚未响应时调用已经返回
+        assertFalse(future.isDone());
+        release.countDown();
+
+        ArticleFunctionResponse response = future.get(10, TimeUnit.SECONDS);
+        assertEquals(0, response.getStatus());
+        assertEquals(2520L, response.getArticleId());
+        assertEquals("https://cloud.tencent.com/developer/article/2520", response.getUrl());
+    }
+
+    @Test
+    public void asyncToolSpecificationsCallAsyncMethods() {
+        release.countDown();
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        List<McpServerFeatures.AsyncToolSpecification> specifications =
+                new ToolConfiguration().asyncToolSpecifications(
+                        new McpToolServer(service, beanFactory.getBeanProvider(PublishOutbox.class)),
+                        properties, meterRegistry, beanFactory.getBeanProvider(ExecutorService.class));
+        assertEquals(5, specifications.size());
+
+        McpServerFeatures.AsyncToolSpecification saveArticle = specifications.stream()
+                .filter(specification -> specification.tool().name().equals("saveArticle"))
+                .findFirst().orElseThrow();
+        assertTrue(saveArticle.tool().inputSchema().properties().containsKey("request"));
+
+        McpSchema.CallToolResult result = saveArticle.call()
+                .apply(null, Map.of("request", Map.of("title", "标题", "markdowncontent", "# 正文", "userSummary", "摘要")))
+                .block();
+        assertFalse(result.isError());
+        String text = ((McpSchema.TextContent) result.content().get(0)).text();
+        assertTrue(text.contains("\"articleId\":2520"), text);
+    }
+
+    @Test
+    public void asyncToolsRunOffTheCallerThreadWithoutVirtualThreads() {
+        List<String> threads = new CopyOnWriteArrayList<>();
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        McpToolServer toolServer = new ThreadRecordingToolServer(service, beanFactory, threads);
+        McpServerFeatures.AsyncToolSpecification getPublishStatus = new ToolConfiguration()
+                .asyncToolSpecifications(toolServer, properties, meterRegistry,
+                        beanFactory.getBeanProvider(ExecutorService.class))
+                .stream()
+                .filter(specification -> specification.tool().name().equals("getPublishStatus"))
+                .findFirst().orElseThrow();
+
+        assertFalse(getPublishStatus.call().apply(null, Map.of("ticketId", "t-1")).block().isError());
+        assertEquals(1, threads.size());
+        assertTrue(threads.get(0).startsWith("boundedElastic"), threads.get(0));
+    }
+
+    @Test
+    public void saveArticlesReportsPerItemResultsWithBoundedConcurrency() throws Exception {
+        release.countDown();
+        properties.getBatch().setConcurrency(2);
+        List<ArticleFunctionRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            requests.add(request(i == 3 ? "失败" : "标题" + i));
+        }
+        List<String> progress = new CopyOnWriteArrayList<>();
+
+        List<ArticleFunctionResponse> responses = service
+                .saveArticlesAsync(requests, (completed, total, message) -> progress.add(completed + "/" + total))
+                .get(10, TimeUnit.SECONDS);
+
+        assertEquals(6, responses.size());
+        for (int i = 0; i < 6; i++) {
+            assertEquals(i == 3 ? -1 : 0, responses.get(i).getStatus(), "第" + i + "篇");
+        }
+        assertTrue(maxInFlight.get() <= 2, "maxInFlight " + maxInFlight.get());
+        assertEquals(6, progress.size());
+        assertEquals("6/6", progress.get(5));
+    }
+
+    @Test
+    public void duplicateRequestsPublishOnce() throws Exception {
+        List<CompletableFuture<ArticleFunctionResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            futures.add(service.saveArticleAsync(request()));
+        }
+        release.countDown();
+        for (CompletableFuture<ArticleFunctionResponse> future : futures) {
+            assertEquals(2520L, future.get(10, TimeUnit.SECONDS).getArticleId());
+        }
+        assertEquals(1, calls.get());
+
+        // 发布完成后的重复请求直接返回已发布的文章
+        ArticleFunctionResponse again = service.saveArticle(request());
+        assertEquals(0, again.getStatus());
+        assertEquals(2520L, again.getArticleId());
+        assertEquals("https://cloud.tencent.com/developer/article/2520", again.getUrl());
+        assertEquals(1, calls.get());
+
+        // 内容不同的文章正常发布，失败的发布不记录
+        service.saveArticle(request("另一篇"));
+        service.saveArticle(request("失败"));
+        service.saveArticle(request("失败"));
+        assertEquals(4, calls.get());
+    }
+
+    @Test
+    public void skipsAccountAfterAuthFailure() {
+        release.countDown();
+        AccountPool pool = new AccountPool(List.of(
+                new AccountPool.AccountSpec("expired", "uin=expired", null, 1),
+                new AccountPool.AccountSpec("valid", "uin=test", null, 1)),
+                AccountPool.Selection.ROUND_ROBIN, Duration.ofMinutes(10), new SimpleMeterRegistry());
+        TencentArticleToolService pooled = new TencentArticleToolService(tencentService, properties, convertOptions,
+                pool, null, null, null, meterRegistry);
+
+        assertEquals(-1, pooled.saveArticle(request("标题1")).getStatus());
+        assertFalse(pool.isHealthy("expired"));
+        for (int i = 2; i < 5; i++) {
+            assertEquals(0, pooled.saveArticle(request("标题" + i)).getStatus());
+        }
+
+        // 更新Cookie后账号恢复可用
+        pool.rotate("expired", "uin=test");
+        assertTrue(pool.isHealthy("expired"));
+        assertEquals(0, pooled.saveArticle(request("标题5")).getStatus());
+        assertEquals(0, pooled.saveArticle(request("标题6")).getStatus());
+    }
+
+    @Test
+    public void rejectsWithoutRequestWhenNoAccountIsUsable() {
+        release.countDown();
+        TencentArticleToolService expired = new TencentArticleToolService(tencentService, properties, convertOptions,
+                accountPool("uin=expired"), null, null, null, meterRegistry);
+        assertEquals(-1, expired.saveArticle(request()).getStatus());
+        assertEquals(1, calls.get());
+
+        ArticleFunctionResponse rejected = expired.saveArticle(request());
+        assertEquals(-1, rejected.getStatus());
+        assertTrue(rejected.getMessage().contains("Cookie"), rejected.getMessage());
+        assertTrue(expired.saveArticleAsync(request()).join().getMessage().contains("Cookie"));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void cancellingSaveArticleAsyncCancelsHttpCall() throws Exception {
+        CompletableFuture<ArticleFunctionResponse> future = service.saveArticleAsync(request(), Deadline.NONE);
+        awaitRunningCalls(1);
+
+        future.cancel(true);
+        awaitRunningCalls(0);
+        assertEquals(1, calls.get());
+
+        // 取消的发布不记录，相同内容可以再次发布
+        release.countDown();
+        assertEquals(0, service.saveArticle(request()).getStatus());
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void deadlineCancelsHttpCall() throws Exception {
+        ArticleFunctionResponse async = service.saveArticleAsync(request(), Deadline.after(Duration.ofMillis(200)))
+                .get(10, TimeUnit.SECONDS);
+        assertEquals(-1, async.getStatus());
+        assertTrue(async.getMessage().contains("HTTP请求"), async.getMessage());
+        awaitRunningCalls(0);
+
+        properties.getExecution().setToolTimeout(Duration.ofMillis(200));
+        ArticleFunctionResponse sync = service.saveArticle(request("另一篇"));
+        assertEquals(-1, sync.getStatus());
+        assertTrue(sync.getMessage().contains("HTTP请求"), sync.getMessage());
+        assertEquals(2, meterRegistry.counter(Deadline.CANCELLATIONS, "reason", "deadline").count());
+    }
+
+    private void awaitRunningCalls(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (client.dispatcher().runningCallsCount() != expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, client.dispatcher().runningCallsCount());
+        if (expected > 0) {
+            // 请求已到达服务端
+            while (calls.get() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+        }
+    }
+
+    @Test
+    public void largeDocumentQueuedBehindLimiterIsPreparedOnCallerThread() throws Exception {
+        release.countDown();
+        List<String> probeThreads = new CopyOnWriteArrayList<>();
+        ImageSizeProber prober = new ImageSizeProber(client, 1, Duration.ofSeconds(1),
+                ImageSizeProber.DEFAULT_MAX_HEADER_BYTES, new ImageSizeCache(16, null)) {
+            @Override
+            public Map<String, ImageSize> probeAll(Collection<String> urls) {
+                probeThreads.add(Thread.currentThread().getName());
+                return Map.of();
+            }
+        };
+        convertOptions.setImageProber(prober);
+        convertOptions.setStreamingThreshold(1024);
+        // 每秒一个令牌，第二篇必须排队
+        TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter(60, 1, 10, Duration.ofSeconds(5),
+                new SimpleMeterRegistry());
+        TencentArticleToolService limited = new TencentArticleToolService(tencentService, properties, convertOptions,
+                accountPool("uin=test"), rateLimiter, null, null, meterRegistry);
+        try {
+            ArticleFunctionRequest large = request("长文");
+            large.setMarkdowncontent("![](https://example.com/a.png)\n\n" + "正文段落\n\n".repeat(1000));
+
+            CompletableFuture<ArticleFunctionResponse> first = limited.saveArticleAsync(request(), Deadline.NONE);
+            CompletableFuture<ArticleFunctionResponse> queued = limited.saveArticleAsync(large, Deadline.NONE);
+
+            assertEquals(0, first.get(10, TimeUnit.SECONDS).getStatus());
+            assertEquals(0, queued.get(10, TimeUnit.SECONDS).getStatus());
+            // 图片在调用方线程处理，不占用限流器的调度线程
+            assertEquals(List.of(Thread.currentThread().getName()), probeThreads);
+        } finally {
+            rateLimiter.close();
+            prober.close();
+        }
+    }
+
+    private static AccountPool accountPool(String cookie) {
+        return new AccountPool(List.of(new AccountPool.AccountSpec("default", cookie, null, 1)),
+                AccountPool.Selection.LEAST_IN_FLIGHT, Duration.ofMinutes(10), new SimpleMeterRegistry());
+    }
+
+    private static ArticleFunctionRequest request() {
+        return request("标题");
+    }
+
+    private static ArticleFunctionRequest request(String title) {
+        ArticleFunctionRequest request = new ArticleFunctionRequest();
+        request.setTitle(title);
+        request.setMarkdowncontent("# 正文\n\n内容");
+        request.setUserSummary("摘要");
+        return request;
+    }
+
+    /**
+     * 记录异步工具方法的调用线程
+     */
+    public static class ThreadRecordingToolServer extends McpToolServer {
+
+        private final List<String> threads;
+
+        ThreadRecordingToolServer(TencentArticleToolService service, DefaultListableBeanFactory beanFactory,
+                                  List<String> threads) {
+            super(service, beanFactory.getBeanProvider(PublishOutbox.class));
+            this.threads = threads;
+        }
+
+        @Override
+        public CompletableFuture<PublishTicketResponse> getPublishStatusAsync(String ticketId) {
+            threads.add(Thread.currentThread().getName());
+            return super.getPublishStatusAsync(ticketId);
+        }
+    }
+}
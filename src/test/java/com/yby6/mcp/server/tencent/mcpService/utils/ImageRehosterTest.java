@@ -0,0 +1,262 @@
+package com.yby6.mcp.server.tencent.mcpService.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import com.yby6.mcp.server.tencent.api.ITencentService;
+import com.yby6.mcp.server.tencent.api.TencentImageUploader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import retrofit2.Retrofit;
+import retrofit2.converter.jackson.JacksonConverterFactory;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 图片转存测试
+ * <p>
+ * 使用本地HTTP服务同时充当外部图床与上传接口，验证地址改写、按内容去重与持久化索引。
+ *
+ * @author yangbuyiya
+ * Create By 2025/05/25
+ */
+public class ImageRehosterTest {
+
+    private static final String COOKIE = "uin=test";
+
+    private final Map<String, byte[]> images = new HashMap<>();
+    private final AtomicInteger uploads = new AtomicInteger();
+    private final Set<String> uploadHeaders = ConcurrentHashMap.newKeySet();
+    private ExecutorService serverExecutor;
+    private HttpServer server;
+    private String baseUrl;
+    private ITencentService tencentService;
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        byte[] red = encode(300, 200);
+        images.put("/src/a.png", red);
+        images.put("/src/a-copy.png", red);
+        images.put("/src/b.png", encode(64, 64));
+        for (int i = 0; i < 8; i++) {
+            images.put("/src/dup-" + i + ".png", red);
+        }
+        // 内网页面冒充图片
+        images.put("/src/admin.png", "<html><body>internal</body></html>".getBytes(StandardCharsets.UTF_8));
+        images.put("/src/page.html", "<html><body>internal</body></html>".getBytes(StandardCharsets.UTF_8));
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/src/", exchange -> {
+            if (exchange.getRequestURI().getPath().equals("/src/slow.png")) {
+                try {
+                    Thread.sleep(3000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            byte[] body = images.get(exchange.getRequestURI().getPath());
+            if (body == null) {
+                exchange.sendResponseHeaders(404, -1);
+                exchange.close();
+                return;
+            }
+            exchange.getResponseHeaders().add("Content-Type", "image/png");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.createContext("/upload", exchange -> {
+            int n = uploads.incrementAndGet();
+            uploadHeaders.add(exchange.getRequestHeaders().getFirst("Cookie"));
+            uploadHeaders.add(exchange.getRequestHeaders().getFirst("Content-Type").split(";")[0]);
+            exchange.getRequestBody().readAllBytes();
+            try {
+                // 放大并发上传的时间窗口
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = ("{\"status\":0,\"url\":\"" + baseUrl + "/hosted/" + n + ".png\"}")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+
+        tencentService = new Retrofit.Builder()
+                .baseUrl(baseUrl + "/")
+                .addConverterFactory(JacksonConverterFactory.create())
+                .build()
+                .create(ITencentService.class);
+    }
+
+    @AfterEach
+    public void stopServer() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    public void rewritesSourcesAndUploadsEachContentOnce() throws IOException {
+        StringBuilder markdown = new StringBuilder()
+                .append("![](").append(baseUrl).append("/src/a.png)\n\n")
+                .append("![](").append(baseUrl).append("/src/a-copy.png)\n\n")
+                .append("![](").append(baseUrl).append("/src/b.png) ![](").append(baseUrl).append("/src/a.png)\n\n")
+                .append("![](").append(baseUrl).append("/src/missing.png)\n\n")
+                .append("![](data:image/png;base64,AAAA)\n\n");
+        for (int i = 0; i < 8; i++) {
+            markdown.append("![](").append(baseUrl).append("/src/dup-").append(i).append(".png)\n\n");
+        }
+
+        ImageSizeCache sizeCache = new ImageSizeCache(64, null);
+        try (ImageRehoster rehoster = rehoster(new ImageHashIndex(null), sizeCache)) {
+            ConvertOptions options = new ConvertOptions();
+            options.setImageRehoster(rehoster);
+            List<String> sources = imageSources(MarkdownToProseMirrorConverter.convert(markdown.toString(), options));
+
+            assertEquals(2, uploads.get());
+            String red = sources.get(0);
+            String blue = sources.get(2);
+            assertTrue(red.startsWith(baseUrl + "/hosted/"), red);
+            assertTrue(blue.startsWith(baseUrl + "/hosted/"), blue);
+            assertEquals(red, sources.get(1));
+            assertEquals(red, sources.get(3));
+            assertEquals(baseUrl + "/src/missing.png", sources.get(4));
+            assertEquals("data:image/png;base64,AAAA", sources.get(5));
+            for (int i = 6; i < sources.size(); i++) {
+                assertEquals(red, sources.get(i));
+            }
+            assertEquals(Set.of(COOKIE, "multipart/form-data"), uploadHeaders);
+            assertEquals(new ImageSize(300, 200), sizeCache.get(red));
+
+            // 已转存的地址不再处理
+            assertTrue(rehoster.rehostAll(List.of(red)).isEmpty());
+        }
+    }
+
+    @Test
+    public void persistentIndexSkipsPreviousUploads(@TempDir Path dir) {
+        Path file = dir.resolve("image-index.txt");
+        List<String> urls = List.of(baseUrl + "/src/a.png", baseUrl + "/src/b.png");
+        Map<String, String> first;
+        try (ImageRehoster rehoster = rehoster(new ImageHashIndex(file), null)) {
+            first = rehoster.rehostAll(urls);
+        }
+        assertEquals(2, uploads.get());
+
+        try (ImageRehoster rehoster = rehoster(new ImageHashIndex(file), null)) {
+            assertEquals(first, rehoster.rehostAll(urls));
+        }
+        assertEquals(2, uploads.get());
+    }
+
+    @Test
+    public void changedImageAtSameSourceIsRehostedAfterTtl() throws IOException {
+        AtomicLong now = new AtomicLong();
+        ImageHashIndex index = new ImageHashIndex(null, 16, Duration.ofMinutes(10), now::get);
+        String url = baseUrl + "/src/a.png";
+        try (ImageRehoster rehoster = rehoster(index, null)) {
+            String first = rehoster.rehost(url);
+
+            // 有效期内不重新下载
+            images.put("/src/a.png", encode(120, 80));
+            assertEquals(first, rehoster.rehost(url));
+            assertEquals(1, uploads.get());
+
+            now.addAndGet(Duration.ofMinutes(10).toNanos());
+            assertNotEquals(first, rehoster.rehost(url));
+            assertEquals(2, uploads.get());
+        }
+    }
+
+    @Test
+    public void sourceRecordsAreBounded() {
+        ImageHashIndex index = new ImageHashIndex(null, 2, Duration.ofMinutes(10));
+        for (int i = 0; i < 5; i++) {
+            index.putSource("https://example.com/" + i + ".png", "hosted-" + i);
+        }
+        assertNull(index.getBySource("https://example.com/0.png"));
+        assertEquals("hosted-4", index.getBySource("https://example.com/4.png"));
+    }
+
+    @Test
+    public void nonImageContentIsNotUploaded() {
+        List<String> urls = List.of(baseUrl + "/src/admin.png", baseUrl + "/src/page.html", baseUrl + "/src/b.png");
+        try (ImageRehoster rehoster = rehoster(new ImageHashIndex(null), null)) {
+            Map<String, String> hosted = rehoster.rehostAll(urls);
+
+            assertEquals(Set.of(baseUrl + "/src/b.png"), hosted.keySet());
+        }
+        assertEquals(1, uploads.get());
+    }
+
+    @Test
+    public void slowImagesKeepOriginalSourcesAfterDeadline() {
+        images.put("/src/slow.png", images.get("/src/a.png"));
+        List<String> urls = List.of(baseUrl + "/src/slow.png", baseUrl + "/src/b.png");
+        try (ImageRehoster rehoster = rehoster(new ImageHashIndex(null), null, Duration.ofMillis(500))) {
+            long start = System.nanoTime();
+            Map<String, String> hosted = rehoster.rehostAll(urls);
+
+            assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(2)) < 0);
+            assertEquals(Set.of(baseUrl + "/src/b.png"), hosted.keySet());
+        }
+    }
+
+    private ImageRehoster rehoster(ImageHashIndex index, ImageSizeCache sizeCache) {
+        return rehoster(index, sizeCache, Duration.ofSeconds(10));
+    }
+
+    private ImageRehoster rehoster(ImageHashIndex index, ImageSizeCache sizeCache, Duration deadline) {
+        TencentImageUploader uploader = new TencentImageUploader(() -> tencentService, baseUrl + "/upload", () -> COOKIE);
+        return ImageRehoster.create(uploader, index, sizeCache, 4, Duration.ofSeconds(5),
+                ImageRehoster.DEFAULT_MAX_IMAGE_BYTES, deadline);
+    }
+
+    private static List<String> imageSources(String json) throws IOException {
+        List<String> sources = new ArrayList<>();
+        for (JsonNode attrs : new ObjectMapper().readTree(json).findParents("src")) {
+            sources.add(attrs.get("src").asText());
+        }
+        return sources;
+    }
+
+    private static byte[] encode(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
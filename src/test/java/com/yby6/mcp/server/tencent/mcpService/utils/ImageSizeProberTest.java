@@ -0,0 +1,272 @@
+package com.yby6.mcp.server.tencent.mcpService.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import com.yby6.mcp.server.tencent.mcpService.utils.MarkdownToProseMirrorConverter.ConvertMode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 图片尺寸探测测试
+ * <p>
+ * 使用本地HTTP服务提供各格式的图片，验证头部解析、缓存、截止时间以及转换结果中的宽度与宽高比。
+ *
+ * @author yangbuyiya
+ * Create By 2025/05/25
+ */
+public class ImageSizeProberTest {
+
+    private final Map<String, byte[]> images = new HashMap<>();
+    private final Map<String, String> ranges = new ConcurrentHashMap<>();
+    private final AtomicInteger requests = new AtomicInteger();
+    private ExecutorService serverExecutor;
+    private HttpServer server;
+    private String baseUrl;
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        images.put("/a.png", encode(300, 200, "png"));
+        images.put("/b.jpg", encode(800, 600, "jpg"));
+        images.put("/c.gif", encode(40, 30, "gif"));
+        images.put("/d.webp", webpExtended(1024, 512));
+        images.put("/e.webp", webpLossless(123, 45));
+        images.put("/f.webp", webpLossy(640, 480));
+        images.put("/g.txt", "not an image".getBytes());
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            requests.incrementAndGet();
+            String path = exchange.getRequestURI().getPath();
+            String range = exchange.getRequestHeaders().getFirst("Range");
+            if (range != null) {
+                ranges.put(path, range);
+            }
+            if (path.equals("/slow.png")) {
+                try {
+                    Thread.sleep(1500);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            byte[] body = path.equals("/slow.png") ? images.get("/a.png") : images.get(path);
+            if (body == null) {
+                exchange.sendResponseHeaders(404, -1);
+                exchange.close();
+                return;
+            }
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    public void stopServer() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    public void probesHeadersOfAllFormats() {
+        try (ImageSizeProber prober = prober(Duration.ofSeconds(5), null)) {
+            Map<String, ImageSize> sizes = prober.probeAll(List.of(
+                    url("/a.png"), url("/b.jpg"), url("/c.gif"), url("/d.webp"), url("/e.webp"), url("/f.webp"),
+                    url("/g.txt"), url("/missing.png"), "data:image/png;base64,AAAA", "relative/h.png"));
+
+            assertEquals(new ImageSize(300, 200), sizes.get(url("/a.png")));
+            assertEquals(new ImageSize(800, 600), sizes.get(url("/b.jpg")));
+            assertEquals(new ImageSize(40, 30), sizes.get(url("/c.gif")));
+            assertEquals(new ImageSize(1024, 512), sizes.get(url("/d.webp")));
+            assertEquals(new ImageSize(123, 45), sizes.get(url("/e.webp")));
+            assertEquals(new ImageSize(640, 480), sizes.get(url("/f.webp")));
+            assertEquals(6, sizes.size());
+            assertEquals("bytes=0-65535", ranges.get("/a.png"));
+        }
+    }
+
+    @Test
+    public void cachedSizesSkipNetworkAndSurviveRestart(@TempDir Path dir) {
+        Path file = dir.resolve("image-sizes.txt");
+        try (ImageSizeProber prober = prober(Duration.ofSeconds(5), file)) {
+            prober.probeAll(List.of(url("/a.png"), url("/b.jpg")));
+            int before = requests.get();
+            Map<String, ImageSize> sizes = prober.probeAll(List.of(url("/a.png"), url("/b.jpg")));
+            assertEquals(before, requests.get());
+            assertEquals(2, sizes.size());
+        }
+
+        ImageSizeCache reloaded = new ImageSizeCache(16, file);
+        assertEquals(new ImageSize(300, 200), reloaded.get(url("/a.png")));
+        assertEquals(new ImageSize(800, 600), reloaded.get(url("/b.jpg")));
+    }
+
+    @Test
+    public void cacheFileIsCompactedBeyondTwiceMaxEntries(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("image-sizes.txt");
+        ImageSizeCache cache = new ImageSizeCache(4, file);
+        for (int i = 1; i <= 20; i++) {
+            cache.put(url("/" + i + ".png"), new ImageSize(i, i));
+        }
+        assertTrue(Files.readAllLines(file).size() <= 8, Files.readAllLines(file).toString());
+
+        ImageSizeCache reloaded = new ImageSizeCache(4, file);
+        assertEquals(4, reloaded.size());
+        for (int i = 17; i <= 20; i++) {
+            assertEquals(new ImageSize(i, i), reloaded.get(url("/" + i + ".png")));
+        }
+    }
+
+    @Test
+    public void deadlineFallsBackWithoutWaitingForSlowImages() {
+        try (ImageSizeProber prober = prober(Duration.ofMillis(500), null)) {
+            // 预热连接与类加载，避免首次请求的开销计入截止时间
+            prober.probeAll(List.of(url("/e.webp")));
+
+            long start = System.nanoTime();
+            Map<String, ImageSize> sizes = prober.probeAll(List.of(url("/slow.png"), url("/c.gif")));
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+            assertTrue(elapsedMillis < 1000, "耗时 " + elapsedMillis + "ms");
+            assertFalse(sizes.containsKey(url("/slow.png")));
+            assertEquals(new ImageSize(40, 30), sizes.get(url("/c.gif")));
+        }
+    }
+
+    @Test
+    public void convertedImagesUseProbedSize() throws IOException {
+        String markdown = "![](" + url("/a.png") + ")\n\n![](" + url("/b.jpg") + ")\n\n![](" + url("/missing.png") + ")";
+        try (ImageSizeProber prober = prober(Duration.ofSeconds(5), null)) {
+            ConvertOptions options = new ConvertOptions();
+            options.setIdStrategy(NodeIdStrategy.DETERMINISTIC);
+            options.setImageProber(prober);
+            String streaming = MarkdownToProseMirrorConverter.convert(markdown, options);
+
+            options.setIncremental(true);
+            options.setFragmentCache(new ProseMirrorFragmentCache(ProseMirrorFragmentCache.DEFAULT_MAX_CHARS));
+            assertEquals(streaming, MarkdownToProseMirrorConverter.convert(markdown, options));
+            options.setIncremental(false);
+            options.setMode(ConvertMode.TREE);
+            assertEquals(streaming, MarkdownToProseMirrorConverter.convert(markdown, options));
+
+            List<JsonNode> attrs = imageAttrs(streaming);
+            assertEquals(300, attrs.get(0).get("width").asInt());
+            assertEquals("1.500000", attrs.get(0).get("aspectRatio").asText());
+            assertEquals(504, attrs.get(1).get("width").asInt());
+            assertEquals("1.333333", attrs.get(1).get("aspectRatio").asText());
+            assertEquals(ImageSize.DEFAULT_WIDTH, attrs.get(2).get("width").asInt());
+            assertEquals(ImageSize.DEFAULT_ASPECT_RATIO, attrs.get(2).get("aspectRatio").asText());
+        }
+    }
+
+    @Test
+    public void degradedConversionIsNotCached() {
+        String complete = "![](" + url("/a.png") + ")\n\n![](data:image/png;base64,AAAA)";
+        String degraded = "![](" + url("/a.png") + ")\n\n![](" + url("/missing.png") + ")";
+        MarkdownConvertCache.clear();
+        try (ImageSizeProber prober = prober(Duration.ofSeconds(5), null)) {
+            ConvertOptions options = new ConvertOptions();
+            options.setImageProber(prober);
+
+            assertFalse(MarkdownToProseMirrorConverter.convertWithStatus(complete, options).degraded());
+            assertTrue(MarkdownToProseMirrorConverter.convertWithStatus(degraded, options).degraded());
+
+            String hash = MarkdownConvertCache.hash(complete);
+            String content = MarkdownConvertCache.convert(hash, complete, options);
+            assertSame(content, MarkdownConvertCache.convert(hash, complete, options));
+
+            // 探测失败的图片使用默认尺寸，结果不缓存，下一次重新探测
+            hash = MarkdownConvertCache.hash(degraded);
+            int before = requests.get();
+            assertNotSame(MarkdownConvertCache.convert(hash, degraded, options),
+                    MarkdownConvertCache.convert(hash, degraded, options));
+            assertEquals(before + 2, requests.get());
+        } finally {
+            MarkdownConvertCache.clear();
+        }
+    }
+
+    private ImageSizeProber prober(Duration deadline, Path cacheFile) {
+        return ImageSizeProber.create(4, Duration.ofSeconds(5), deadline, ImageSizeProber.DEFAULT_MAX_HEADER_BYTES,
+                new ImageSizeCache(64, cacheFile));
+    }
+
+    private String url(String path) {
+        return baseUrl + path;
+    }
+
+    private static List<JsonNode> imageAttrs(String json) throws IOException {
+        return new ObjectMapper().readTree(json).findParents("src").stream().toList();
+    }
+
+    private static byte[] encode(int width, int height, String format) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, format, out);
+        return out.toByteArray();
+    }
+
+    private static byte[] webpExtended(int width, int height) {
+        byte[] chunk = new byte[10];
+        putLe24(chunk, 4, width - 1);
+        putLe24(chunk, 7, height - 1);
+        return riff("VP8X", chunk);
+    }
+
+    private static byte[] webpLossless(int width, int height) {
+        int bits = (width - 1) | (height - 1) << 14;
+        return riff("VP8L", new byte[]{0x2F, (byte) bits, (byte) (bits >> 8), (byte) (bits >> 16), (byte) (bits >> 24)});
+    }
+
+    private static byte[] webpLossy(int width, int height) {
+        return riff("VP8 ", new byte[]{0, 0, 0, (byte) 0x9D, 0x01, 0x2A,
+                (byte) width, (byte) (width >> 8), (byte) height, (byte) (height >> 8)});
+    }
+
+    private static byte[] riff(String fourcc, byte[] chunk) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes("RIFF".getBytes());
+        out.writeBytes(new byte[4]);
+        out.writeBytes("WEBP".getBytes());
+        out.writeBytes(fourcc.getBytes());
+        out.writeBytes(new byte[]{(byte) chunk.length, 0, 0, 0});
+        out.writeBytes(chunk);
+        return out.toByteArray();
+    }
+
+    private static void putLe24(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) value;
+        bytes[offset + 1] = (byte) (value >> 8);
+        bytes[offset + 2] = (byte) (value >> 16);
+    }
+}
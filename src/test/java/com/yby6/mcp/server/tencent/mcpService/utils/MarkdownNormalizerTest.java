@@ -0,0 +1,127 @@
+package com.yby6.mcp.server.tencent.mcpService.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Markdown预处理差异测试
+ * <p>
+ * 单次扫描实现与原有正则链的输出必须逐字节一致。
+ *
+ * @author yangbuyiya
+ * Create By 2025/05/25
+ */
+public class MarkdownNormalizerTest {
+
+    /**
+     * 测试语料
+     */
+    static final List<String> CORPUS = List.of("article-basic.md", "code-heavy.md", "image-heavy.md", "link-heavy.md");
+
+    /**
+     * 随机拼接用的片段，覆盖各类行首标记、空白与行终止符
+     */
+    private static final String[] FRAGMENTS = {
+            "#", "##", "######", "#######", " ", "\t", "\u000B", "\f", "-", "*", "+", "```", "```java", "``",
+            "text", "中文", "> ", "1. ", "\n", "\n", "\n", "\r\n", "\r", "\u0085", "\u2028", "\u2029", "  "
+    };
+
+    @Test
+    public void corpusMatchesRegex() throws IOException {
+        for (String name : CORPUS) {
+            String markdown = readCorpus(name);
+            assertSame(markdown);
+            assertSame(markdown.replace("\n", "\r\n"));
+            assertSame(markdown.replace("\n", "\r"));
+            assertSame("\n\n\n" + markdown + "\n\n\n\n");
+        }
+    }
+
+    @Test
+    public void edgeCasesMatchRegex() {
+        for (String markdown : new String[]{
+                null, "", " ", "\n\n", "\t\r\n ", "\u2028", "\n\u2028", "a\n\n\u2028", "a\n\u2028\n",
+                "#", "#\n", "##\n", "#\n#", "#\n# b", "-\n# H", "#\n- x", "- \n-\n", "```", "```\n```",
+                "a\u2029# b\u2029", "# a\u0085", "x\n\n\n\n# y\n\n\n- z\n\n\n", "*\t*\t*"
+        }) {
+            assertSame(markdown);
+        }
+    }
+
+    @Test
+    public void randomDocumentsMatchRegex() {
+        Random random = new Random(20250525L);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            sb.setLength(0);
+            int fragments = random.nextInt(40);
+            for (int j = 0; j < fragments; j++) {
+                sb.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+            }
+            assertSame(sb.toString());
+        }
+    }
+
+    @Test
+    public void readerMatchesNormalize() throws IOException {
+        Random random = new Random(20250525L);
+        for (String name : CORPUS) {
+            String markdown = readCorpus(name).replace("\n", "\r\n");
+            assertEquals(MarkdownNormalizer.normalize(markdown), readAll(markdown, random));
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            sb.setLength(0);
+            int fragments = random.nextInt(40);
+            for (int j = 0; j < fragments; j++) {
+                sb.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+            }
+            String markdown = sb.toString();
+            assertEquals(MarkdownNormalizer.normalize(markdown), readAll(markdown, random),
+                    () -> "输入: " + markdown.replace("\n", "\\n").replace("\r", "\\r"));
+        }
+    }
+
+    /**
+     * 以随机的小分块读取输入，覆盖行、\r\n与代理对跨越分块边界的情况
+     */
+    private static String readAll(String markdown, Random random) throws IOException {
+        Reader chunked = new StringReader(markdown) {
+            @Override
+            public int read(char[] cbuf, int off, int len) throws IOException {
+                return super.read(cbuf, off, Math.min(len, 1 + random.nextInt(5)));
+            }
+        };
+        StringBuilder out = new StringBuilder();
+        char[] buf = new char[1 + random.nextInt(7)];
+        try (Reader reader = MarkdownNormalizer.reader(chunked)) {
+            for (int n; (n = reader.read(buf)) != -1; ) {
+                out.append(buf, 0, n);
+            }
+        }
+        return out.toString();
+    }
+
+    private static void assertSame(String markdown) {
+        assertEquals(MarkdownNormalizer.normalizeByRegex(markdown), MarkdownNormalizer.normalize(markdown),
+                () -> "输入: " + (markdown == null ? null : markdown.replace("\n", "\\n").replace("\r", "\\r")));
+    }
+
+    static String readCorpus(String name) throws IOException {
+        try (InputStream in = MarkdownNormalizerTest.class.getResourceAsStream("/corpus/" + name)) {
+            if (in == null) {
+                throw new IOException("语料不存在: " + name);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package com.yby6.mcp.server.tencent.mcpService.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.yby6.mcp.server.tencent.mcpService.utils.MarkdownToProseMirrorConverter.ConvertMode;
+import org.commonmark.node.Node;
+import org.commonmark.parser.Parser;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Markdown转换器测试
+ *
+ * @author yangbuyiya
+ * Create By 2025/05/25
+ */
+public class MarkdownToProseMirrorConverterTest {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static final List<String> SAMPLES = List.of(
+            """
+                    # 主标题
+
+                    这是一段介绍文本。
+
+                    ## 二级标题
+
+                    > 这是一段引用
+                    > 包含多行内容
+
+                    ### 三级标题
+                    这里是一些代码示例
+
+                    ```java
+                    public class Example {
+                        public void method() {
+                            // 代码示例 "quoted" \\ backslash
+                        }
+                    }
+                    ```
+
+                    ![示例图片](https://developer.qcloudimg.com/http-save/1774592/a2641eb818b346b569c752dfffcbe505.png "标题")
+
+                    [访问链接](https://copilot.tencent.com/chat/?from_column=20421&from=20421)
+
+                    ```高亮
+                    这里是高亮代码 哈哈哈
+                    ```
+                    """,
+            """
+                    - 列表项 **加粗** *斜体* `code`
+                    - 第二项 [链接](https://example.com/a?b=1)
+
+                    1. 有序
+                    2. 列表
+
+                    ---
+
+                    <div>html</div>
+
+                        indented code
+                    """,
+            "",
+            "单行文本\t\u0001控制字符"
+    );
+
+    @Test
+    public void streamingOutputMatchesTreeReference() {
+        for (String markdown : SAMPLES) {
+            // 确定性ID下两种模式逐字节一致，同时校验字段顺序
+            assertEquals(convert(markdown, ConvertMode.TREE), convert(markdown, ConvertMode.STREAMING), markdown);
+        }
+    }
+
+    @Test
+    public void deterministicIdsAreStableAndPositionIndependent() throws Exception {
+        String markdown = SAMPLES.get(0);
+        assertEquals(convert(markdown, ConvertMode.STREAMING), convert(markdown, ConvertMode.STREAMING));
+
+        // 在文档前插入新块，原有块的ID不变；重复出现的相同块ID不冲突
+        List<String> original = ids(convert(markdown, ConvertMode.STREAMING));
+        List<String> edited = ids(convert("新增的第一段\n\n" + markdown + "\n\n新增的第一段", ConvertMode.STREAMING));
+        assertEquals(original, edited.subList(1, edited.size() - 1));
+        assertNotEquals(edited.get(0), edited.get(edited.size() - 1));
+    }
+
+    @Test
+    public void fastIdsAreUniqueUuids() throws Exception {
+        List<String> ids = ids(MarkdownToProseMirrorConverter.convert(SAMPLES.get(0)));
+        assertEquals(ids.size(), new HashSet<>(ids).size());
+        for (String id : ids) {
+            assertTrue(id.matches("[0-9a-f]{8}-[0-9a-f]{4}-4[0-9a-f]{3}-[89ab][0-9a-f]{3}-[0-9a-f]{12}|[0-9a-f]{5}"), id);
+        }
+    }
+
+    @Test
+    public void incrementalReusesUnchangedBlocks() {
+        ProseMirrorFragmentCache cache = new ProseMirrorFragmentCache(ProseMirrorFragmentCache.DEFAULT_MAX_CHARS);
+        ConvertOptions options = new ConvertOptions();
+        options.setIdStrategy(NodeIdStrategy.DETERMINISTIC);
+        options.setIncremental(true);
+        options.setFragmentCache(cache);
+
+        String markdown = SAMPLES.get(0);
+        for (String sample : SAMPLES) {
+            // 增量输出与全量输出逐字节一致
+            assertEquals(convert(sample, ConvertMode.STREAMING), MarkdownToProseMirrorConverter.convert(sample, options));
+        }
+        cache.clear();
+
+        long misses = cache.getMisses();
+        long hits = cache.getHits();
+        MarkdownToProseMirrorConverter.convert(markdown, options);
+        long blocks = cache.getMisses() - misses;
+        assertEquals(hits, cache.getHits());
+
+        // 只修改一个段落，其余块全部命中
+        String edited = markdown.replace("这是一段介绍文本。", "这是修改后的介绍文本。");
+        assertEquals(convert(edited, ConvertMode.STREAMING), MarkdownToProseMirrorConverter.convert(edited, options));
+        assertEquals(hits + blocks - 1, cache.getHits());
+        assertEquals(misses + blocks + 1, cache.getMisses());
+    }
+
+    @Test
+    public void fragmentCacheRejectsHashCollisions() {
+        ProseMirrorFragmentCache cache = new ProseMirrorFragmentCache(ProseMirrorFragmentCache.DEFAULT_MAX_CHARS);
+        Node first = Parser.builder().build().parse("第一段");
+        Node second = Parser.builder().build().parse("第二段");
+        byte[] firstDigest = BlockHasher.digest(first.getFirstChild(), url -> null);
+        byte[] secondDigest = BlockHasher.digest(second.getFirstChild(), url -> null);
+
+        // 模拟两个不同的块得到相同的64位摘要
+        assertEquals("first", cache.get("key", 42L, 0, firstDigest, () -> "first"));
+        assertEquals("second", cache.get("key", 42L, 0, secondDigest, () -> "second"));
+        assertEquals(0, cache.getHits());
+        assertEquals("second", cache.get("key", 42L, 0, secondDigest, () -> "rendered"));
+        assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    public void parallelOutputMatchesSequential() {
+        StringBuilder large = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            large.append(SAMPLES.get(i % 2)).append("\n\n第").append(i).append("节\n\n");
+        }
+        String markdown = large.toString();
+
+        ConvertOptions options = new ConvertOptions();
+        options.setIdStrategy(NodeIdStrategy.DETERMINISTIC);
+        options.setParallel(true);
+        options.setParallelThreshold(0);
+        options.setForkJoinPool(new ForkJoinPool(4));
+        try {
+            String expected = convert(markdown, ConvertMode.STREAMING);
+            assertEquals(expected, MarkdownToProseMirrorConverter.convert(markdown, options));
+
+            options.setIncremental(true);
+            options.setFragmentCache(new ProseMirrorFragmentCache(ProseMirrorFragmentCache.DEFAULT_MAX_CHARS));
+            assertEquals(expected, MarkdownToProseMirrorConverter.convert(markdown, options));
+            assertEquals(expected, MarkdownToProseMirrorConverter.convert(markdown, options));
+        } finally {
+            options.getForkJoinPool().shutdown();
+        }
+    }
+
+    @Test
+    public void inlineMarksAreMergedPerRun() throws Exception {
+        String markdown = "普通_文本 **粗体 *粗斜体*** `代码` [链接 **加粗链接**](https://e.com)\n软换行  \n硬换行";
+        String json = convert(markdown, ConvertMode.STREAMING);
+        assertEquals(convert(markdown, ConvertMode.TREE), json);
+
+        JsonNode content = objectMapper.readTree(json).get("content").get(0).get("content");
+        List<String> actual = new ArrayList<>();
+        for (JsonNode node : content) {
+            StringBuilder sb = new StringBuilder(node.get("type").asText());
+            if (node.has("text")) {
+                sb.append(':').append(node.get("text").asText());
+            }
+            for (JsonNode mark : node.path("marks")) {
+                sb.append('|').append(mark.get("type").asText());
+                if (mark.has("attrs")) {
+                    sb.append('=').append(mark.get("attrs").get("href").asText());
+                }
+            }
+            actual.add(sb.toString());
+        }
+        assertEquals(List.of(
+                "text:普通_文本 ",
+                "text:粗体 |bold",
+                "text:粗斜体|bold|italic",
+                "text: ",
+                "text:代码|code",
+                "text: ",
+                "text:链接 |link=https://e.com",
+                "text:加粗链接|bold|link=https://e.com",
+                "text: 软换行",
+                "hardBreak",
+                "text:硬换行"), actual);
+    }
+
+    @Test
+    public void readerOutputMatchesString() throws Exception {
+        ConvertOptions options = new ConvertOptions();
+        options.setIdStrategy(NodeIdStrategy.DETERMINISTIC);
+        List<String> documents = new ArrayList<>(SAMPLES);
+        for (String name : MarkdownNormalizerTest.CORPUS) {
+            documents.add(MarkdownNormalizerTest.readCorpus(name).replace("\n", "\r\n"));
+        }
+        for (String markdown : documents) {
+            String expected = MarkdownToProseMirrorConverter.convert(markdown, options);
+
+            StringWriter writer = new StringWriter();
+            MarkdownToProseMirrorConverter.convert(new StringReader(markdown), writer, options);
+            assertEquals(expected, writer.toString(), markdown);
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            MarkdownToProseMirrorConverter.convert(new StringReader(markdown), out, options);
+            assertEquals(expected, out.toString(StandardCharsets.UTF_8), markdown);
+        }
+    }
+
+    @Test
+    public void flexmarkMatchesCommonmarkOnCommonSyntax() throws Exception {
+        ConvertOptions commonmark = new ConvertOptions();
+        commonmark.setIdStrategy(NodeIdStrategy.DETERMINISTIC);
+        ConvertOptions flexmark = new ConvertOptions();
+        flexmark.setIdStrategy(NodeIdStrategy.DETERMINISTIC);
+        flexmark.setParserEngine(ParserEngine.FLEXMARK);
+
+        List<String> documents = new ArrayList<>(SAMPLES);
+        documents.add("转义 \\*星号\\* &amp; &copy; `` a`b `` <https://e.com> [引用][r] [未定义][x]\n\n"
+                + "[r]: https://e.com/r \"标题\"\n\n***强调*** __粗体__ _斜体_");
+        for (String name : MarkdownNormalizerTest.CORPUS) {
+            documents.add(MarkdownNormalizerTest.readCorpus(name));
+        }
+        for (String markdown : documents) {
+            assertEquals(MarkdownToProseMirrorConverter.convert(markdown, commonmark),
+                    MarkdownToProseMirrorConverter.convert(markdown, flexmark), markdown);
+        }
+    }
+
+    @Test
+    public void flexmarkRendersTablesAndTaskLists() throws Exception {
+        ConvertOptions options = new ConvertOptions();
+        options.setParserEngine(ParserEngine.FLEXMARK);
+        String markdown = """
+                | 名称 | 说明 |
+                |------|------|
+                | **a** | `b` |
+
+                - [ ] 待办
+                - [x] 已完成
+                """;
+        List<String> paragraphs = new ArrayList<>();
+        for (JsonNode block : objectMapper.readTree(MarkdownToProseMirrorConverter.convert(markdown, options)).get("content")) {
+            StringBuilder text = new StringBuilder();
+            block.get("content").forEach(inline -> text.append(inline.get("text").asText()));
+            paragraphs.add(text.toString());
+        }
+        assertEquals(List.of("名称 | 说明", "a | b", "☐ 待办", "☑ 已完成"), paragraphs);
+    }
+
+    private static String convert(String markdown, ConvertMode mode) {
+        ConvertOptions options = new ConvertOptions();
+        options.setMode(mode);
+        options.setIdStrategy(NodeIdStrategy.DETERMINISTIC);
+        return MarkdownToProseMirrorConverter.convert(markdown, options);
+    }
+
+    /**
+     * 按文档顺序收集所有id与key
+     */
+    private static List<String> ids(String json) throws Exception {
+        List<String> ids = new ArrayList<>();
+        collectIds(objectMapper.readTree(json), ids);
+        return ids;
+    }
+
+    private static void collectIds(JsonNode node, List<String> ids) {
+        JsonNode attrs = node.get("attrs");
+        if (attrs != null) {
+            for (String field : new String[]{"id", "key"}) {
+                if (attrs.hasNonNull(field)) {
+                    ids.add(attrs.get(field).asText());
+                }
+            }
+        }
+        node.forEach(child -> collectIds(child, ids));
+    }
+}